@@ -0,0 +1,59 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.lucene.index;
+
+import java.io.IOException;
+
+/**
+ * @author kimchy (Shay Banon)
+ */
+// LUCENE TRACK
+public final class OneMerges {
+
+    private OneMerges() {
+
+    }
+
+    /**
+     * The number of docs (including deleted ones) in the segments the merge works on.
+     */
+    public static long totalNumDocs(MergePolicy.OneMerge merge) {
+        long numDocs = 0;
+        for (int i = 0; i < merge.segments.size(); i++) {
+            numDocs += merge.segments.info(i).docCount;
+        }
+        return numDocs;
+    }
+
+    /**
+     * The size of the segments the merge works on.
+     */
+    public static long totalSizeInBytes(MergePolicy.OneMerge merge) {
+        long sizeInBytes = 0;
+        for (int i = 0; i < merge.segments.size(); i++) {
+            try {
+                sizeInBytes += merge.segments.info(i).sizeInBytes();
+            } catch (IOException e) {
+                // ignore, the segment files might be gone already
+            }
+        }
+        return sizeInBytes;
+    }
+}
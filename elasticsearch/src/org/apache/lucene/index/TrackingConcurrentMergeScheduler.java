@@ -0,0 +1,94 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.lucene.index;
+
+import org.apache.lucene.util.ThreadInterruptedException;
+
+import java.io.IOException;
+
+/**
+ * Same as {@link ConcurrentMergeScheduler}, with a callback reporting how long the indexing thread
+ * was stalled waiting for a merge thread to become available.
+ *
+ * @author kimchy (Shay Banon)
+ */
+// LUCENE TRACK
+public class TrackingConcurrentMergeScheduler extends ConcurrentMergeScheduler {
+
+    @Override public void merge(IndexWriter writer) throws CorruptIndexException, IOException {
+        this.writer = writer;
+        this.dir = writer.getDirectory();
+        // initializes the merge thread priority
+        getMergeThreadPriority();
+
+        while (true) {
+            MergePolicy.OneMerge merge = writer.getNextMerge();
+            if (merge == null) {
+                return;
+            }
+            writer.mergeInit(merge);
+
+            boolean success = false;
+            try {
+                synchronized (this) {
+                    long stalledStart = 0;
+                    while (aliveMergeThreads() >= getMaxThreadCount()) {
+                        if (stalledStart == 0) {
+                            stalledStart = System.currentTimeMillis();
+                        }
+                        try {
+                            wait();
+                        } catch (InterruptedException e) {
+                            throw new ThreadInterruptedException(e);
+                        }
+                    }
+                    if (stalledStart != 0) {
+                        afterStall(System.currentTimeMillis() - stalledStart);
+                    }
+
+                    MergeThread merger = getMergeThread(writer, merge);
+                    mergeThreads.add(merger);
+                    merger.start();
+                    success = true;
+                }
+            } finally {
+                if (!success) {
+                    writer.mergeFinish(merge);
+                }
+            }
+        }
+    }
+
+    /**
+     * Called after the indexing thread was stalled because <tt>maxThreadCount</tt> merge threads were running.
+     */
+    protected void afterStall(long tookInMillis) {
+    }
+
+    private synchronized int aliveMergeThreads() {
+        int count = 0;
+        for (MergeThread mergeThread : mergeThreads) {
+            if (mergeThread.isAlive()) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.lucene.index;
+
+import java.io.IOException;
+
+/**
+ * Same as {@link SerialMergeScheduler}, with callbacks before and after each merge.
+ *
+ * @author kimchy (Shay Banon)
+ */
+// LUCENE TRACK
+public class TrackingSerialMergeScheduler extends MergeScheduler {
+
+    @Override public synchronized void merge(IndexWriter writer) throws CorruptIndexException, IOException {
+        while (true) {
+            MergePolicy.OneMerge merge = writer.getNextMerge();
+            if (merge == null) {
+                break;
+            }
+            long start = System.currentTimeMillis();
+            beforeMerge(merge);
+            try {
+                writer.merge(merge);
+            } finally {
+                afterMerge(merge, System.currentTimeMillis() - start);
+            }
+        }
+    }
+
+    protected void beforeMerge(MergePolicy.OneMerge merge) {
+    }
+
+    protected void afterMerge(MergePolicy.OneMerge merge, long tookInMillis) {
+    }
+
+    @Override public void close() {
+    }
+}
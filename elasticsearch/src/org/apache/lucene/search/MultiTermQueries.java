@@ -0,0 +1,58 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.lucene.search;
+
+import org.apache.lucene.index.IndexReader;
+
+import java.io.IOException;
+
+/**
+ * @author kimchy (Shay Banon)
+ */
+// LUCENE TRACK
+public final class MultiTermQueries {
+
+    private MultiTermQueries() {
+
+    }
+
+    /**
+     * Sums the doc freq of all the terms the query enumerates on the given reader, stopping once
+     * the sum crosses <tt>maxDocFreq</tt>. Only the term dictionary is consulted, no postings are read.
+     */
+    public static int docFreqSum(MultiTermQuery query, IndexReader reader, int maxDocFreq) throws IOException {
+        FilteredTermEnum termEnum = query.getEnum(reader);
+        try {
+            int docFreqSum = 0;
+            do {
+                if (termEnum.term() == null) {
+                    break;
+                }
+                docFreqSum += termEnum.docFreq();
+                if (docFreqSum > maxDocFreq) {
+                    break;
+                }
+            } while (termEnum.next());
+            return docFreqSum;
+        } finally {
+            termEnum.close();
+        }
+    }
+}
@@ -97,13 +97,16 @@ public class TransportActionModule extends AbstractModule {
         bind(TransportCountAction.class).asEagerSingleton();
 
         bind(TransportSearchCache.class).asEagerSingleton();
+        bind(AggregatedDfsCache.class).asEagerSingleton();
         bind(TransportSearchDfsQueryThenFetchAction.class).asEagerSingleton();
         bind(TransportSearchQueryThenFetchAction.class).asEagerSingleton();
         bind(TransportSearchDfsQueryAndFetchAction.class).asEagerSingleton();
         bind(TransportSearchQueryAndFetchAction.class).asEagerSingleton();
+        bind(TransportSearchScanAction.class).asEagerSingleton();
         bind(TransportSearchAction.class).asEagerSingleton();
 
         bind(TransportSearchScrollQueryThenFetchAction.class).asEagerSingleton();
+        bind(TransportSearchScrollScanAction.class).asEagerSingleton();
         bind(TransportSearchScrollAction.class).asEagerSingleton();
     }
 }
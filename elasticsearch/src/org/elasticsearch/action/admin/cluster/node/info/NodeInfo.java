@@ -21,8 +21,10 @@ package org.elasticsearch.action.admin.cluster.node.info;
 
 import org.elasticsearch.action.support.nodes.NodeOperationResponse;
 import org.elasticsearch.cluster.node.Node;
+import org.elasticsearch.index.indexing.IndexingStats;
 
 import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 
 /**
@@ -30,11 +32,21 @@ import java.io.IOException;
  */
 public class NodeInfo extends NodeOperationResponse {
 
+    private IndexingStats indexingStats;
+
     protected NodeInfo() {
     }
 
-    public NodeInfo(Node node) {
+    public NodeInfo(Node node, IndexingStats indexingStats) {
         super(node);
+        this.indexingStats = indexingStats;
+    }
+
+    /**
+     * The indexing statistics summed over all the shards allocated on the node.
+     */
+    public IndexingStats indexingStats() {
+        return indexingStats;
     }
 
     public static NodeInfo readNodeInfo(DataInput in) throws ClassNotFoundException, IOException {
@@ -42,4 +54,14 @@ public class NodeInfo extends NodeOperationResponse {
         nodeInfo.readFrom(in);
         return nodeInfo;
     }
+
+    @Override public void readFrom(DataInput in) throws IOException, ClassNotFoundException {
+        super.readFrom(in);
+        indexingStats = IndexingStats.readIndexingStats(in);
+    }
+
+    @Override public void writeTo(DataOutput out) throws IOException {
+        super.writeTo(out);
+        indexingStats.writeTo(out);
+    }
 }
@@ -20,12 +20,18 @@
 package org.elasticsearch.action.admin.cluster.node.info;
 
 import com.google.inject.Inject;
+import com.google.inject.Injector;
 import org.elasticsearch.ElasticSearchException;
 import org.elasticsearch.action.TransportActions;
 import org.elasticsearch.action.support.nodes.NodeOperationRequest;
 import org.elasticsearch.action.support.nodes.TransportNodesOperationAction;
 import org.elasticsearch.cluster.ClusterName;
 import org.elasticsearch.cluster.ClusterService;
+import org.elasticsearch.index.IndexService;
+import org.elasticsearch.index.indexing.IndexingStats;
+import org.elasticsearch.index.indexing.ShardIndexingStats;
+import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.indices.IndicesService;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.TransportService;
 import org.elasticsearch.util.settings.Settings;
@@ -39,9 +45,12 @@ import java.util.concurrent.atomic.AtomicReferenceArray;
  */
 public class TransportNodesInfo extends TransportNodesOperationAction<NodesInfoRequest, NodesInfoResponse, TransportNodesInfo.NodeInfoRequest, NodeInfo> {
 
+    private final IndicesService indicesService;
+
     @Inject public TransportNodesInfo(Settings settings, ClusterName clusterName, ThreadPool threadPool,
-                                      ClusterService clusterService, TransportService transportService) {
+                                      ClusterService clusterService, TransportService transportService, IndicesService indicesService) {
         super(settings, clusterName, threadPool, clusterService, transportService);
+        this.indicesService = indicesService;
     }
 
     @Override protected String transportAction() {
@@ -80,7 +89,17 @@ public class TransportNodesInfo extends TransportNodesOperationAction<NodesInfoR
     }
 
     @Override protected NodeInfo nodeOperation(NodeInfoRequest nodeInfoRequest) throws ElasticSearchException {
-        return new NodeInfo(clusterService.state().nodes().localNode());
+        IndexingStats indexingStats = new IndexingStats();
+        for (IndexService indexService : indicesService) {
+            for (IndexShard indexShard : indexService) {
+                Injector shardInjector = indexService.shardInjector(indexShard.shardId().id());
+                if (shardInjector != null) {
+                    // the shard might have been removed since we started iterating
+                    indexingStats.add(shardInjector.getInstance(ShardIndexingStats.class).stats());
+                }
+            }
+        }
+        return new NodeInfo(clusterService.state().nodes().localNode(), indexingStats);
     }
 
     @Override protected boolean accumulateExceptions() {
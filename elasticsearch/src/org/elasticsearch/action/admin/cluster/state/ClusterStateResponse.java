@@ -45,10 +45,15 @@ public class ClusterStateResponse implements ActionResponse {
     }
 
     @Override public void readFrom(DataInput in) throws IOException, ClassNotFoundException {
-        clusterState = ClusterState.Builder.readFrom(in, null, null);
+        byte[] clusterStateInBytes = new byte[in.readInt()];
+        in.readFully(clusterStateInBytes);
+        clusterState = ClusterState.Builder.fromBytes(clusterStateInBytes, null, null);
     }
 
     @Override public void writeTo(DataOutput out) throws IOException {
-        ClusterState.Builder.writeTo(clusterState, out);
+        // reuses the serialized form of the state, if it was already serialized
+        byte[] clusterStateInBytes = ClusterState.Builder.toBytes(clusterState);
+        out.writeInt(clusterStateInBytes.length);
+        out.write(clusterStateInBytes);
     }
 }
@@ -20,6 +20,9 @@
 package org.elasticsearch.action.admin.indices.status;
 
 import com.google.common.collect.Iterators;
+import org.elasticsearch.index.indexing.IndexingStats;
+import org.elasticsearch.index.merge.MergeStats;
+import org.elasticsearch.index.search.stats.SearchStats;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.util.SizeValue;
 
@@ -80,6 +83,58 @@ public class IndexShardStatus implements Iterable<ShardStatus> {
         return new SizeValue(bytes);
     }
 
+    public SizeValue storeMemorySize() {
+        long bytes = -1;
+        for (ShardStatus shard : shards()) {
+            if (shard.storeMemorySize().bytes() != SizeValue.UNKNOWN.bytes()) {
+                if (bytes == -1) {
+                    bytes = 0;
+                }
+                bytes += shard.storeMemorySize().bytes();
+            }
+        }
+        return new SizeValue(bytes);
+    }
+
+    public MergeStats mergeStats() {
+        MergeStats mergeStats = null;
+        for (ShardStatus shard : shards()) {
+            if (shard.mergeStats() != null) {
+                if (mergeStats == null) {
+                    mergeStats = new MergeStats();
+                }
+                mergeStats.add(shard.mergeStats());
+            }
+        }
+        return mergeStats;
+    }
+
+    public SearchStats searchStats() {
+        SearchStats searchStats = null;
+        for (ShardStatus shard : shards()) {
+            if (shard.searchStats() != null) {
+                if (searchStats == null) {
+                    searchStats = new SearchStats();
+                }
+                searchStats.add(shard.searchStats());
+            }
+        }
+        return searchStats;
+    }
+
+    public IndexingStats indexingStats() {
+        IndexingStats indexingStats = null;
+        for (ShardStatus shard : shards()) {
+            if (shard.indexingStats() != null) {
+                if (indexingStats == null) {
+                    indexingStats = new IndexingStats();
+                }
+                indexingStats.add(shard.indexingStats());
+            }
+        }
+        return indexingStats;
+    }
+
     public SizeValue estimatedFlushableMemorySize() {
         long bytes = -1;
         for (ShardStatus shard : shards()) {
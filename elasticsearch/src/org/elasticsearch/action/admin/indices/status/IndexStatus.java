@@ -20,6 +20,9 @@
 package org.elasticsearch.action.admin.indices.status;
 
 import com.google.common.collect.Maps;
+import org.elasticsearch.index.indexing.IndexingStats;
+import org.elasticsearch.index.merge.MergeStats;
+import org.elasticsearch.index.search.stats.SearchStats;
 import org.elasticsearch.util.SizeValue;
 import org.elasticsearch.util.settings.Settings;
 
@@ -104,6 +107,58 @@ public class IndexStatus implements Iterable<IndexShardStatus> {
         return new SizeValue(bytes);
     }
 
+    public SizeValue storeMemorySize() {
+        long bytes = -1;
+        for (IndexShardStatus shard : this) {
+            if (shard.storeMemorySize().bytes() != SizeValue.UNKNOWN.bytes()) {
+                if (bytes == -1) {
+                    bytes = 0;
+                }
+                bytes += shard.storeMemorySize().bytes();
+            }
+        }
+        return new SizeValue(bytes);
+    }
+
+    public MergeStats mergeStats() {
+        MergeStats mergeStats = null;
+        for (IndexShardStatus shard : this) {
+            if (shard.mergeStats() != null) {
+                if (mergeStats == null) {
+                    mergeStats = new MergeStats();
+                }
+                mergeStats.add(shard.mergeStats());
+            }
+        }
+        return mergeStats;
+    }
+
+    public SearchStats searchStats() {
+        SearchStats searchStats = null;
+        for (IndexShardStatus shard : this) {
+            if (shard.searchStats() != null) {
+                if (searchStats == null) {
+                    searchStats = new SearchStats();
+                }
+                searchStats.add(shard.searchStats());
+            }
+        }
+        return searchStats;
+    }
+
+    public IndexingStats indexingStats() {
+        IndexingStats indexingStats = null;
+        for (IndexShardStatus shard : this) {
+            if (shard.indexingStats() != null) {
+                if (indexingStats == null) {
+                    indexingStats = new IndexingStats();
+                }
+                indexingStats.add(shard.indexingStats());
+            }
+        }
+        return indexingStats;
+    }
+
     public SizeValue estimatedFlushableMemorySize() {
         long bytes = -1;
         for (IndexShardStatus shard : this) {
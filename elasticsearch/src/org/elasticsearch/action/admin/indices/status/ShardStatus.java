@@ -21,6 +21,9 @@ package org.elasticsearch.action.admin.indices.status;
 
 import org.elasticsearch.action.support.shards.ShardOperationResponse;
 import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.index.indexing.IndexingStats;
+import org.elasticsearch.index.merge.MergeStats;
+import org.elasticsearch.index.search.stats.SearchStats;
 import org.elasticsearch.index.shard.IndexShardState;
 import org.elasticsearch.util.SizeValue;
 
@@ -59,6 +62,8 @@ public class ShardStatus extends ShardOperationResponse {
 
     SizeValue storeSize = SizeValue.UNKNOWN;
 
+    SizeValue storeMemorySize = SizeValue.UNKNOWN;
+
     SizeValue estimatedFlushableMemorySize = SizeValue.UNKNOWN;
 
     long translogId = -1;
@@ -67,6 +72,12 @@ public class ShardStatus extends ShardOperationResponse {
 
     Docs docs = Docs.UNKNOWN;
 
+    MergeStats mergeStats;
+
+    SearchStats searchStats;
+
+    IndexingStats indexingStats;
+
     ShardStatus() {
     }
 
@@ -82,6 +93,13 @@ public class ShardStatus extends ShardOperationResponse {
         return storeSize;
     }
 
+    /**
+     * The memory allocated by memory based stores, {@link SizeValue#UNKNOWN} for file system based ones.
+     */
+    public SizeValue storeMemorySize() {
+        return storeMemorySize;
+    }
+
     public SizeValue estimatedFlushableMemorySize() {
         return estimatedFlushableMemorySize;
     }
@@ -98,6 +116,27 @@ public class ShardStatus extends ShardOperationResponse {
         return docs;
     }
 
+    /**
+     * The merge statistics of the shard, <tt>null</tt> if not available.
+     */
+    public MergeStats mergeStats() {
+        return mergeStats;
+    }
+
+    /**
+     * The per phase search statistics of the shard, <tt>null</tt> if not available.
+     */
+    public SearchStats searchStats() {
+        return searchStats;
+    }
+
+    /**
+     * The indexing statistics of the shard, <tt>null</tt> if not available.
+     */
+    public IndexingStats indexingStats() {
+        return indexingStats;
+    }
+
     public static ShardStatus readIndexShardStatus(DataInput in) throws ClassNotFoundException, IOException {
         ShardStatus shardStatus = new ShardStatus();
         shardStatus.readFrom(in);
@@ -108,18 +147,38 @@ public class ShardStatus extends ShardOperationResponse {
         super.writeTo(out);
         out.writeByte(state.id());
         storeSize.writeTo(out);
+        storeMemorySize.writeTo(out);
         estimatedFlushableMemorySize.writeTo(out);
         out.writeLong(translogId);
         out.writeLong(translogOperations);
         out.writeInt(docs.numDocs());
         out.writeInt(docs.maxDoc());
         out.writeInt(docs.deletedDocs());
+        if (mergeStats == null) {
+            out.writeBoolean(false);
+        } else {
+            out.writeBoolean(true);
+            mergeStats.writeTo(out);
+        }
+        if (searchStats == null) {
+            out.writeBoolean(false);
+        } else {
+            out.writeBoolean(true);
+            searchStats.writeTo(out);
+        }
+        if (indexingStats == null) {
+            out.writeBoolean(false);
+        } else {
+            out.writeBoolean(true);
+            indexingStats.writeTo(out);
+        }
     }
 
     @Override public void readFrom(DataInput in) throws IOException, ClassNotFoundException {
         super.readFrom(in);
         state = IndexShardState.fromId(in.readByte());
         storeSize = readSizeValue(in);
+        storeMemorySize = readSizeValue(in);
         estimatedFlushableMemorySize = readSizeValue(in);
         translogId = in.readLong();
         translogOperations = in.readLong();
@@ -127,5 +186,14 @@ public class ShardStatus extends ShardOperationResponse {
         docs.numDocs = in.readInt();
         docs.maxDoc = in.readInt();
         docs.deletedDocs = in.readInt();
+        if (in.readBoolean()) {
+            mergeStats = MergeStats.readMergeStats(in);
+        }
+        if (in.readBoolean()) {
+            searchStats = SearchStats.readSearchStats(in);
+        }
+        if (in.readBoolean()) {
+            indexingStats = IndexingStats.readIndexingStats(in);
+        }
     }
 }
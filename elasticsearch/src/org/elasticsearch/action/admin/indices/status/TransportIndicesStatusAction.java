@@ -27,7 +27,11 @@ import org.elasticsearch.action.support.shards.TransportShardsOperationActions;
 import org.elasticsearch.cluster.ClusterService;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.index.IndexService;
 import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.indexing.ShardIndexingStats;
+import org.elasticsearch.index.merge.scheduler.MergeSchedulerProvider;
+import org.elasticsearch.index.search.stats.ShardSearchStats;
 import org.elasticsearch.index.shard.InternalIndexShard;
 import org.elasticsearch.indices.IndicesService;
 import org.elasticsearch.threadpool.ThreadPool;
@@ -89,7 +93,8 @@ public class TransportIndicesStatusAction extends TransportShardsOperationAction
     }
 
     @Override protected ShardStatus shardOperation(IndexShardStatusRequest request) throws ElasticSearchException {
-        InternalIndexShard indexShard = (InternalIndexShard) indicesService.indexServiceSafe(request.index()).shard(request.shardId());
+        IndexService indexService = indicesService.indexServiceSafe(request.index());
+        InternalIndexShard indexShard = (InternalIndexShard) indexService.shard(request.shardId());
         ShardStatus shardStatus = new ShardStatus(indexShard.routingEntry());
         shardStatus.state = indexShard.state();
         try {
@@ -97,7 +102,11 @@ public class TransportIndicesStatusAction extends TransportShardsOperationAction
         } catch (IOException e) {
             // failure to get the store size...
         }
+        shardStatus.storeMemorySize = indexShard.store().estimateMemorySize();
         shardStatus.estimatedFlushableMemorySize = indexShard.estimateFlushableMemorySize();
+        shardStatus.mergeStats = indexService.shardInjectorSafe(request.shardId()).getInstance(MergeSchedulerProvider.class).stats();
+        shardStatus.searchStats = indexService.shardInjectorSafe(request.shardId()).getInstance(ShardSearchStats.class).stats();
+        shardStatus.indexingStats = indexService.shardInjectorSafe(request.shardId()).getInstance(ShardIndexingStats.class).stats();
         shardStatus.translogId = indexShard.translog().currentId();
         shardStatus.translogOperations = indexShard.translog().size();
         Engine.Searcher searcher = indexShard.searcher();
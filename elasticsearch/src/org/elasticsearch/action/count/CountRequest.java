@@ -37,7 +37,10 @@ public class CountRequest extends BroadcastOperationRequest {
 
     public static final float DEFAULT_MIN_SCORE = -1f;
 
+    public static final int DEFAULT_TERMINATE_AFTER = -1;
+
     private float minScore = DEFAULT_MIN_SCORE;
+    private int terminateAfter = DEFAULT_TERMINATE_AFTER;
     @Required private String querySource;
     private String[] types = Strings.EMPTY_ARRAY;
     @Nullable private String queryParserName;
@@ -73,6 +76,19 @@ public class CountRequest extends BroadcastOperationRequest {
         return this;
     }
 
+    int terminateAfter() {
+        return terminateAfter;
+    }
+
+    /**
+     * Each shard stops counting once it counted <tt>terminateAfter</tt> docs, making the count a lower bound
+     * (useful for existence checks). Defaults to <tt>-1</tt>, counting all the docs.
+     */
+    public CountRequest terminateAfter(int terminateAfter) {
+        this.terminateAfter = terminateAfter;
+        return this;
+    }
+
     String querySource() {
         return querySource;
     }
@@ -107,6 +123,7 @@ public class CountRequest extends BroadcastOperationRequest {
     @Override public void readFrom(DataInput in) throws IOException, ClassNotFoundException {
         super.readFrom(in);
         minScore = in.readFloat();
+        terminateAfter = in.readInt();
         querySource = in.readUTF();
         if (in.readBoolean()) {
             queryParserName = in.readUTF();
@@ -123,6 +140,7 @@ public class CountRequest extends BroadcastOperationRequest {
     @Override public void writeTo(DataOutput out) throws IOException {
         super.writeTo(out);
         out.writeFloat(minScore);
+        out.writeInt(terminateAfter);
         out.writeUTF(querySource);
         if (queryParserName == null) {
             out.writeBoolean(false);
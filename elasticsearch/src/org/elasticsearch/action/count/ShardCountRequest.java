@@ -33,6 +33,7 @@ import java.io.IOException;
 public class ShardCountRequest extends BroadcastShardOperationRequest {
 
     private float minScore;
+    private int terminateAfter;
     private String querySource;
     private String[] types = Strings.EMPTY_ARRAY;
     @Nullable private String queryParserName;
@@ -41,10 +42,11 @@ public class ShardCountRequest extends BroadcastShardOperationRequest {
 
     }
 
-    public ShardCountRequest(String index, int shardId, String querySource, float minScore,
+    public ShardCountRequest(String index, int shardId, String querySource, float minScore, int terminateAfter,
                              @Nullable String queryParserName, String... types) {
         super(index, shardId);
         this.minScore = minScore;
+        this.terminateAfter = terminateAfter;
         this.querySource = querySource;
         this.queryParserName = queryParserName;
         this.types = types;
@@ -54,6 +56,10 @@ public class ShardCountRequest extends BroadcastShardOperationRequest {
         return minScore;
     }
 
+    public int terminateAfter() {
+        return terminateAfter;
+    }
+
     public String querySource() {
         return querySource;
     }
@@ -69,6 +75,7 @@ public class ShardCountRequest extends BroadcastShardOperationRequest {
     @Override public void readFrom(DataInput in) throws IOException, ClassNotFoundException {
         super.readFrom(in);
         minScore = in.readFloat();
+        terminateAfter = in.readInt();
         querySource = in.readUTF();
         if (in.readBoolean()) {
             queryParserName = in.readUTF();
@@ -85,6 +92,7 @@ public class ShardCountRequest extends BroadcastShardOperationRequest {
     @Override public void writeTo(DataOutput out) throws IOException {
         super.writeTo(out);
         out.writeFloat(minScore);
+        out.writeInt(terminateAfter);
         out.writeUTF(querySource);
         if (queryParserName == null) {
             out.writeBoolean(false);
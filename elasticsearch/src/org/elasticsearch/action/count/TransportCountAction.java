@@ -59,7 +59,7 @@ public class TransportCountAction extends TransportBroadcastOperationAction<Coun
     }
 
     @Override protected ShardCountRequest newShardRequest(ShardRouting shard, CountRequest request) {
-        return new ShardCountRequest(shard.index(), shard.id(), request.querySource(), request.minScore(), request.queryParserName(), request.types());
+        return new ShardCountRequest(shard.index(), shard.id(), request.querySource(), request.minScore(), request.terminateAfter(), request.queryParserName(), request.types());
     }
 
     @Override protected ShardCountResponse newShardResponse() {
@@ -88,7 +88,7 @@ public class TransportCountAction extends TransportBroadcastOperationAction<Coun
 
     @Override protected ShardCountResponse shardOperation(ShardCountRequest request) throws ElasticSearchException {
         IndexShard indexShard = indicesService.indexServiceSafe(request.index()).shardSafe(request.shardId());
-        long count = indexShard.count(request.minScore(), request.querySource(), request.queryParserName(), request.types());
+        long count = indexShard.count(request.minScore(), request.terminateAfter(), request.querySource(), request.queryParserName(), request.types());
         return new ShardCountResponse(request.index(), request.shardId(), count);
     }
 }
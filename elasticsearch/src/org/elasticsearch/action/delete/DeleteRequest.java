@@ -20,6 +20,7 @@
 package org.elasticsearch.action.delete;
 
 import org.elasticsearch.action.ActionRequestValidationException;
+import org.elasticsearch.action.support.replication.ReplicationType;
 import org.elasticsearch.action.support.replication.ShardReplicationOperationRequest;
 import org.elasticsearch.util.Required;
 import org.elasticsearch.util.TimeValue;
@@ -72,7 +73,7 @@ public class DeleteRequest extends ShardReplicationOperationRequest {
         return this;
     }
 
-    String type() {
+    public String type() {
         return type;
     }
 
@@ -81,7 +82,7 @@ public class DeleteRequest extends ShardReplicationOperationRequest {
         return this;
     }
 
-    String id() {
+    public String id() {
         return id;
     }
 
@@ -95,6 +96,11 @@ public class DeleteRequest extends ShardReplicationOperationRequest {
         return this;
     }
 
+    @Override public DeleteRequest replicationType(ReplicationType replicationType) {
+        super.replicationType(replicationType);
+        return this;
+    }
+
     @Override public void readFrom(DataInput in) throws IOException, ClassNotFoundException {
         super.readFrom(in);
         type = in.readUTF();
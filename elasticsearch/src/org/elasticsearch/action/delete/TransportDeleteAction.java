@@ -26,6 +26,7 @@ import org.elasticsearch.action.TransportActions;
 import org.elasticsearch.action.admin.indices.create.CreateIndexRequest;
 import org.elasticsearch.action.admin.indices.create.CreateIndexResponse;
 import org.elasticsearch.action.admin.indices.create.TransportCreateIndexAction;
+import org.elasticsearch.action.support.replication.ReplicationType;
 import org.elasticsearch.action.support.replication.TransportShardReplicationOperationAction;
 import org.elasticsearch.cluster.ClusterService;
 import org.elasticsearch.cluster.action.shard.ShardStateAction;
@@ -45,11 +46,14 @@ public class TransportDeleteAction extends TransportShardReplicationOperationAct
 
     private final TransportCreateIndexAction createIndexAction;
 
+    private final ReplicationType defaultReplicationType;
+
     @Inject public TransportDeleteAction(Settings settings, TransportService transportService, ClusterService clusterService,
                                          IndicesService indicesService, ThreadPool threadPool, ShardStateAction shardStateAction,
                                          TransportCreateIndexAction createIndexAction) {
         super(settings, transportService, clusterService, indicesService, threadPool, shardStateAction);
         this.createIndexAction = createIndexAction;
+        this.defaultReplicationType = ReplicationType.fromString(settings.get("action.replication.type"), ReplicationType.SYNC);
         this.autoCreateIndex = componentSettings.getAsBoolean("autoCreateIndex", true);
     }
 
@@ -84,6 +88,10 @@ public class TransportDeleteAction extends TransportShardReplicationOperationAct
         return new DeleteResponse();
     }
 
+    @Override protected ReplicationType defaultReplicationType() {
+        return defaultReplicationType;
+    }
+
     @Override protected String transportAction() {
         return TransportActions.DELETE;
     }
@@ -21,6 +21,7 @@ package org.elasticsearch.action.index;
 
 import org.elasticsearch.ElasticSearchIllegalArgumentException;
 import org.elasticsearch.action.ActionRequestValidationException;
+import org.elasticsearch.action.support.replication.ReplicationType;
 import org.elasticsearch.action.support.replication.ShardReplicationOperationRequest;
 import org.elasticsearch.util.Required;
 import org.elasticsearch.util.TimeValue;
@@ -109,7 +110,7 @@ public class IndexRequest extends ShardReplicationOperationRequest {
         return this;
     }
 
-    String type() {
+    public String type() {
         return type;
     }
 
@@ -118,7 +119,7 @@ public class IndexRequest extends ShardReplicationOperationRequest {
         return this;
     }
 
-    String id() {
+    public String id() {
         return id;
     }
 
@@ -141,6 +142,11 @@ public class IndexRequest extends ShardReplicationOperationRequest {
         return this;
     }
 
+    @Override public IndexRequest replicationType(ReplicationType replicationType) {
+        super.replicationType(replicationType);
+        return this;
+    }
+
     public IndexRequest opType(OpType opType) {
         this.opType = opType;
         return this;
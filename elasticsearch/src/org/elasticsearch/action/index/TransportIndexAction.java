@@ -26,6 +26,7 @@ import org.elasticsearch.action.TransportActions;
 import org.elasticsearch.action.admin.indices.create.CreateIndexRequest;
 import org.elasticsearch.action.admin.indices.create.CreateIndexResponse;
 import org.elasticsearch.action.admin.indices.create.TransportCreateIndexAction;
+import org.elasticsearch.action.support.replication.ReplicationType;
 import org.elasticsearch.action.support.replication.TransportShardReplicationOperationAction;
 import org.elasticsearch.cluster.ClusterService;
 import org.elasticsearch.cluster.action.shard.ShardStateAction;
@@ -48,11 +49,14 @@ public class TransportIndexAction extends TransportShardReplicationOperationActi
 
     private final TransportCreateIndexAction createIndexAction;
 
+    private final ReplicationType defaultReplicationType;
+
     @Inject public TransportIndexAction(Settings settings, TransportService transportService, ClusterService clusterService,
                                         IndicesService indicesService, ThreadPool threadPool, ShardStateAction shardStateAction,
                                         TransportCreateIndexAction createIndexAction) {
         super(settings, transportService, clusterService, indicesService, threadPool, shardStateAction);
         this.createIndexAction = createIndexAction;
+        this.defaultReplicationType = ReplicationType.fromString(settings.get("action.replication.type"), ReplicationType.SYNC);
         this.autoCreateIndex = componentSettings.getAsBoolean("autoCreateIndex", true);
         this.allowIdGeneration = componentSettings.getAsBoolean("allowIdGeneration", true);
     }
@@ -95,6 +99,10 @@ public class TransportIndexAction extends TransportShardReplicationOperationActi
         return new IndexResponse();
     }
 
+    @Override protected ReplicationType defaultReplicationType() {
+        return defaultReplicationType;
+    }
+
     @Override protected String transportAction() {
         return TransportActions.INDEX;
     }
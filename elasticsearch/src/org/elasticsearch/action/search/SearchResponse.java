@@ -63,6 +63,14 @@ public class SearchResponse implements ActionResponse, ToJson {
         return internalResponse.facets();
     }
 
+    /**
+     * Did any of the shards stop collecting early because of <tt>terminateAfter</tt>, in which case the
+     * total hits is a lower bound.
+     */
+    public boolean terminatedEarly() {
+        return internalResponse.terminatedEarly();
+    }
+
     public int totalShards() {
         return totalShards;
     }
@@ -72,8 +72,9 @@ public class SearchScrollRequest implements ActionRequest {
         return scroll;
     }
 
-    public void scroll(Scroll scroll) {
+    public SearchScrollRequest scroll(Scroll scroll) {
         this.scroll = scroll;
+        return this;
     }
 
     @Override public void readFrom(DataInput in) throws IOException, ClassNotFoundException {
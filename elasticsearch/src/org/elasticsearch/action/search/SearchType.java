@@ -28,7 +28,13 @@ public enum SearchType {
     DFS_QUERY_THEN_FETCH((byte) 0),
     QUERY_THEN_FETCH((byte) 1),
     DFS_QUERY_AND_FETCH((byte) 2),
-    QUERY_AND_FETCH((byte) 3);
+    QUERY_AND_FETCH((byte) 3),
+    /**
+     * Scans the matching docs in index order, without scoring or sorting them. Requires a scroll, the
+     * initial search only returns the total hits, and each scroll returns the next <tt>size</tt> docs
+     * from each shard.
+     */
+    SCAN((byte) 4);
 
     private byte id;
 
@@ -49,6 +55,8 @@ public enum SearchType {
             return DFS_QUERY_AND_FETCH;
         } else if (id == 3) {
             return QUERY_AND_FETCH;
+        } else if (id == 4) {
+            return SCAN;
         } else {
             throw new ElasticSearchIllegalArgumentException("No search type for [" + id + "]");
         }
@@ -26,6 +26,7 @@ import org.elasticsearch.action.search.type.TransportSearchDfsQueryAndFetchActio
 import org.elasticsearch.action.search.type.TransportSearchDfsQueryThenFetchAction;
 import org.elasticsearch.action.search.type.TransportSearchQueryAndFetchAction;
 import org.elasticsearch.action.search.type.TransportSearchQueryThenFetchAction;
+import org.elasticsearch.action.search.type.TransportSearchScanAction;
 import org.elasticsearch.action.support.BaseAction;
 import org.elasticsearch.transport.BaseTransportRequestHandler;
 import org.elasticsearch.transport.TransportChannel;
@@ -47,16 +48,20 @@ public class TransportSearchAction extends BaseAction<SearchRequest, SearchRespo
 
     private final TransportSearchQueryAndFetchAction queryAndFetchAction;
 
+    private final TransportSearchScanAction scanAction;
+
     @Inject public TransportSearchAction(Settings settings, TransportService transportService,
                                          TransportSearchDfsQueryThenFetchAction dfsQueryThenFetchAction,
                                          TransportSearchQueryThenFetchAction queryThenFetchAction,
                                          TransportSearchDfsQueryAndFetchAction dfsQueryAndFetchAction,
-                                         TransportSearchQueryAndFetchAction queryAndFetchAction) {
+                                         TransportSearchQueryAndFetchAction queryAndFetchAction,
+                                         TransportSearchScanAction scanAction) {
         super(settings);
         this.dfsQueryThenFetchAction = dfsQueryThenFetchAction;
         this.queryThenFetchAction = queryThenFetchAction;
         this.dfsQueryAndFetchAction = dfsQueryAndFetchAction;
         this.queryAndFetchAction = queryAndFetchAction;
+        this.scanAction = scanAction;
 
         transportService.registerHandler(TransportActions.SEARCH, new TransportHandler());
     }
@@ -70,6 +75,8 @@ public class TransportSearchAction extends BaseAction<SearchRequest, SearchRespo
             dfsQueryAndFetchAction.execute(searchRequest, listener);
         } else if (searchRequest.searchType() == SearchType.QUERY_AND_FETCH) {
             queryAndFetchAction.execute(searchRequest, listener);
+        } else if (searchRequest.searchType() == SearchType.SCAN) {
+            scanAction.execute(searchRequest, listener);
         }
     }
 
@@ -25,6 +25,7 @@ import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.TransportActions;
 import org.elasticsearch.action.search.type.ParsedScrollId;
 import org.elasticsearch.action.search.type.TransportSearchScrollQueryThenFetchAction;
+import org.elasticsearch.action.search.type.TransportSearchScrollScanAction;
 import org.elasticsearch.action.support.BaseAction;
 import org.elasticsearch.transport.BaseTransportRequestHandler;
 import org.elasticsearch.transport.TransportChannel;
@@ -41,10 +42,14 @@ public class TransportSearchScrollAction extends BaseAction<SearchScrollRequest,
 
     private final TransportSearchScrollQueryThenFetchAction queryThenFetchAction;
 
+    private final TransportSearchScrollScanAction scanAction;
+
     @Inject public TransportSearchScrollAction(Settings settings, TransportService transportService,
-                                               TransportSearchScrollQueryThenFetchAction queryThenFetchAction) {
+                                               TransportSearchScrollQueryThenFetchAction queryThenFetchAction,
+                                               TransportSearchScrollScanAction scanAction) {
         super(settings);
         this.queryThenFetchAction = queryThenFetchAction;
+        this.scanAction = scanAction;
 
         transportService.registerHandler(TransportActions.SEARCH_SCROLL, new TransportHandler());
     }
@@ -54,6 +59,8 @@ public class TransportSearchScrollAction extends BaseAction<SearchScrollRequest,
             ParsedScrollId scrollId = parseScrollId(request.scrollId());
             if (scrollId.type().equals(QUERY_THEN_FETCH_TYPE)) {
                 queryThenFetchAction.execute(request, scrollId, listener);
+            } else if (scrollId.type().equals(SCAN_TYPE)) {
+                scanAction.execute(request, scrollId, listener);
             } else {
                 throw new ElasticSearchIllegalArgumentException("Scroll id type [" + scrollId.type() + "] unrecongnized");
             }
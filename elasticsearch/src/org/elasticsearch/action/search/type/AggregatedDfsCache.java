@@ -0,0 +1,214 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search.type;
+
+import com.google.inject.Inject;
+import org.apache.lucene.index.Term;
+import org.elasticsearch.search.SearchShardTarget;
+import org.elasticsearch.search.dfs.AggregatedDfs;
+import org.elasticsearch.search.dfs.DfsSearchResult;
+import org.elasticsearch.util.component.AbstractComponent;
+import org.elasticsearch.util.gnu.trove.TObjectIntIterator;
+import org.elasticsearch.util.settings.Settings;
+import org.elasticsearch.util.trove.ExtTObjectIntHasMap;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caches the term doc freqs of dfs searches per index on the coordinating node, so dfs searches whose terms
+ * are already known can skip the dfs round trip to the shards. Disabled by default, enable it using
+ * <tt>dfsCacheEnabled</tt>.
+ * <p/>
+ * Each index entry holds the doc freqs of all the terms the dfs searches on the index asked for, along with
+ * the version of the reader of each shard they were computed against. A search using the cached doc freqs
+ * sends each shard the reader version to expect, and a shard fails if its reader has changed since, or if
+ * the query needs a term the cached doc freqs do not have. The search then runs again through the dfs phase,
+ * which refreshes the entry, so the cached doc freqs are never stale.
+ * <p/>
+ * The cache holds at most <tt>dfsCacheMaxSize</tt> indices, evicting the least recently used ones, and an
+ * index entry that grows beyond <tt>dfsCacheMaxTerms</tt> terms starts over.
+ *
+ * @author kimchy (Shay Banon)
+ */
+public class AggregatedDfsCache extends AbstractComponent {
+
+    private final boolean enabled;
+
+    private final int maxSize;
+
+    private final int maxTerms;
+
+    private final Map<String, CachedIndexDfs> indices;
+
+    @Inject public AggregatedDfsCache(Settings settings) {
+        super(settings);
+        this.enabled = componentSettings.getAsBoolean("dfsCacheEnabled", false);
+        this.maxSize = componentSettings.getAsInt("dfsCacheMaxSize", 100);
+        this.maxTerms = componentSettings.getAsInt("dfsCacheMaxTerms", 10000);
+        this.indices = new LinkedHashMap<String, CachedIndexDfs>(16, 0.75f, true) {
+            @Override protected boolean removeEldestEntry(Map.Entry<String, CachedIndexDfs> eldest) {
+                return size() > maxSize;
+            }
+        };
+
+        logger.debug("Using enabled [{}], maxSize [{}], maxTerms [{}]", new Object[]{enabled, maxSize, maxTerms});
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the cached doc freqs of the given (concrete) indices, or <tt>null</tt> if one of them is not
+     * cached and the search should execute the dfs phase (and {@link #put(Iterable)} its results).
+     */
+    public CachedDfs get(String[] concreteIndices) {
+        if (!enabled || concreteIndices.length == 0) {
+            return null;
+        }
+        CachedIndexDfs[] entries = new CachedIndexDfs[concreteIndices.length];
+        synchronized (indices) {
+            for (int i = 0; i < concreteIndices.length; i++) {
+                entries[i] = indices.get(concreteIndices[i]);
+                if (entries[i] == null) {
+                    return null;
+                }
+            }
+        }
+        if (entries.length == 1) {
+            return new CachedDfs(entries[0].dfs, entries[0].readerVersions);
+        }
+        // only the terms all the indices have are known for the search, the others are missing from some index
+        ExtTObjectIntHasMap<Term> dfMap = new ExtTObjectIntHasMap<Term>();
+        int numDocs = 0;
+        Map<SearchShardTarget, Long> readerVersions = new HashMap<SearchShardTarget, Long>();
+        for (TObjectIntIterator<Term> it = entries[0].dfs.dfMap().iterator(); it.hasNext();) {
+            it.advance();
+            int df = it.value();
+            for (int i = 1; i < entries.length && df != -1; i++) {
+                int indexDf = entries[i].dfs.dfMap().get(it.key());
+                df = indexDf == -1 ? -1 : df + indexDf;
+            }
+            if (df != -1) {
+                dfMap.put(it.key(), df);
+            }
+        }
+        for (CachedIndexDfs entry : entries) {
+            numDocs += entry.dfs.numDocs();
+            readerVersions.putAll(entry.readerVersions);
+        }
+        return new CachedDfs(new AggregatedDfs(dfMap, numDocs), readerVersions);
+    }
+
+    /**
+     * Caches the results of a dfs phase that succeeded on all the shards. The terms are added to the index
+     * entries computed against the same shard readers, other index entries are replaced.
+     */
+    public void put(Iterable<DfsSearchResult> results) {
+        if (!enabled) {
+            return;
+        }
+        Map<String, CachedIndexDfs> runIndices = new HashMap<String, CachedIndexDfs>();
+        for (DfsSearchResult result : results) {
+            String index = result.shardTarget().index();
+            CachedIndexDfs entry = runIndices.get(index);
+            if (entry == null) {
+                entry = new CachedIndexDfs(new AggregatedDfs(new ExtTObjectIntHasMap<Term>(), 0), new HashMap<SearchShardTarget, Long>());
+                runIndices.put(index, entry);
+            }
+            ExtTObjectIntHasMap<Term> dfMap = entry.dfs.dfMap();
+            for (int i = 0; i < result.terms().length; i++) {
+                int df = dfMap.get(result.terms()[i]);
+                dfMap.put(result.terms()[i], df == -1 ? result.freqs()[i] : df + result.freqs()[i]);
+            }
+            entry.readerVersions.put(result.shardTarget(), result.readerVersion());
+            runIndices.put(index, new CachedIndexDfs(new AggregatedDfs(dfMap, entry.dfs.numDocs() + result.numDocs()), entry.readerVersions));
+        }
+        synchronized (indices) {
+            for (Map.Entry<String, CachedIndexDfs> runEntry : runIndices.entrySet()) {
+                CachedIndexDfs existing = indices.get(runEntry.getKey());
+                CachedIndexDfs entry = runEntry.getValue();
+                if (existing != null && existing.readerVersions.equals(entry.readerVersions)
+                        && existing.dfs.dfMap().size() + entry.dfs.dfMap().size() <= maxTerms) {
+                    // same readers, so the doc freqs of the terms both have are the same as well
+                    ExtTObjectIntHasMap<Term> dfMap = new ExtTObjectIntHasMap<Term>(existing.dfs.dfMap().size() + entry.dfs.dfMap().size());
+                    dfMap.putAll(existing.dfs.dfMap());
+                    dfMap.putAll(entry.dfs.dfMap());
+                    entry = new CachedIndexDfs(new AggregatedDfs(dfMap, existing.dfs.numDocs()), existing.readerVersions);
+                }
+                indices.put(runEntry.getKey(), entry);
+            }
+        }
+    }
+
+    public void invalidate(String index) {
+        synchronized (indices) {
+            indices.remove(index);
+        }
+    }
+
+    public int size() {
+        synchronized (indices) {
+            return indices.size();
+        }
+    }
+
+    /**
+     * The cached doc freqs a search scores with, along with the shard readers they were computed against.
+     */
+    public static class CachedDfs {
+
+        private final AggregatedDfs dfs;
+
+        private final Map<SearchShardTarget, Long> readerVersions;
+
+        CachedDfs(AggregatedDfs dfs, Map<SearchShardTarget, Long> readerVersions) {
+            this.dfs = dfs;
+            this.readerVersions = readerVersions;
+        }
+
+        public AggregatedDfs dfs() {
+            return dfs;
+        }
+
+        /**
+         * The reader version the doc freqs of the shard on the node were computed against, <tt>-1</tt> if
+         * they were computed on another copy of the shard.
+         */
+        public long readerVersion(String nodeId, String index, int shardId) {
+            Long readerVersion = readerVersions.get(new SearchShardTarget(nodeId, index, shardId));
+            return readerVersion == null ? -1 : readerVersion;
+        }
+    }
+
+    private static class CachedIndexDfs {
+
+        final AggregatedDfs dfs;
+
+        final Map<SearchShardTarget, Long> readerVersions;
+
+        CachedIndexDfs(AggregatedDfs dfs, Map<SearchShardTarget, Long> readerVersions) {
+            this.dfs = dfs;
+            this.readerVersions = readerVersions;
+        }
+    }
+}
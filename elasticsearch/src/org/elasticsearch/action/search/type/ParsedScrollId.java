@@ -19,8 +19,11 @@
 
 package org.elasticsearch.action.search.type;
 
+import com.google.common.collect.ImmutableMap;
 import org.elasticsearch.util.Tuple;
 
+import java.util.Map;
+
 /**
  * @author kimchy (Shay Banon)
  */
@@ -30,16 +33,25 @@ public class ParsedScrollId {
 
     public static String QUERY_AND_FETCH_TYPE = "queryAndFetch";
 
+    public static String SCAN_TYPE = "scan";
+
     private final String source;
 
     private final String type;
 
     private final Tuple<String, Long>[] values;
 
+    private final Map<String, String> attributes;
+
     public ParsedScrollId(String source, String type, Tuple<String, Long>[] values) {
+        this(source, type, values, ImmutableMap.<String, String>of());
+    }
+
+    public ParsedScrollId(String source, String type, Tuple<String, Long>[] values, Map<String, String> attributes) {
         this.source = source;
         this.type = type;
         this.values = values;
+        this.attributes = attributes;
     }
 
     public String source() {
@@ -53,4 +65,11 @@ public class ParsedScrollId {
     public Tuple<String, Long>[] values() {
         return values;
     }
+
+    /**
+     * Additional attributes carried by the scroll id, such as the total hits of a scan.
+     */
+    public Map<String, String> attributes() {
+        return attributes;
+    }
 }
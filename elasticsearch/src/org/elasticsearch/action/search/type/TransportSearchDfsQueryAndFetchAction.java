@@ -45,6 +45,7 @@ import java.util.Collection;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.elasticsearch.action.Actions.*;
 import static org.elasticsearch.action.search.type.TransportSearchHelper.*;
 
 /**
@@ -52,12 +53,29 @@ import static org.elasticsearch.action.search.type.TransportSearchHelper.*;
  */
 public class TransportSearchDfsQueryAndFetchAction extends TransportSearchTypeAction {
 
+    private final AggregatedDfsCache dfsCache;
+
+    private final TransportSearchQueryAndFetchAction queryAndFetchAction;
+
     @Inject public TransportSearchDfsQueryAndFetchAction(Settings settings, ThreadPool threadPool, ClusterService clusterService, IndicesService indicesService,
-                                                         TransportSearchCache transportSearchCache, SearchServiceTransportAction searchService, SearchPhaseController searchPhaseController) {
+                                                         TransportSearchCache transportSearchCache, SearchServiceTransportAction searchService, SearchPhaseController searchPhaseController,
+                                                         AggregatedDfsCache dfsCache, TransportSearchQueryAndFetchAction queryAndFetchAction) {
         super(settings, threadPool, clusterService, indicesService, transportSearchCache, searchService, searchPhaseController);
+        this.dfsCache = dfsCache;
+        this.queryAndFetchAction = queryAndFetchAction;
     }
 
-    @Override protected void doExecute(SearchRequest searchRequest, ActionListener<SearchResponse> listener) {
+    @Override protected void doExecute(final SearchRequest searchRequest, final ActionListener<SearchResponse> listener) {
+        AggregatedDfsCache.CachedDfs cachedDfs = dfsCache.get(processIndices(clusterService.state(), searchRequest.indices()));
+        if (cachedDfs != null) {
+            // skip the dfs round trip, shards that can't score with the cached dfs make the search run it after all
+            queryAndFetchAction.execute(searchRequest, listener, cachedDfs, new Runnable() {
+                @Override public void run() {
+                    new AsyncAction(searchRequest, listener).start();
+                }
+            });
+            return;
+        }
         new AsyncAction(searchRequest, listener).start();
     }
 
@@ -82,6 +100,10 @@ public class TransportSearchDfsQueryAndFetchAction extends TransportSearchTypeAc
 
         @Override protected void moveToSecondPhase() {
             final AggregatedDfs dfs = searchPhaseController.aggregateDfs(dfsResults);
+            if (successulOps.get() == expectedSuccessfulOps) {
+                // only cache complete statistics, partial ones would skew the scoring of later searches
+                dfsCache.put(dfsResults);
+            }
             final AtomicInteger counter = new AtomicInteger(dfsResults.size());
 
             int localOperations = 0;
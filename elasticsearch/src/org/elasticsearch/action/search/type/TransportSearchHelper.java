@@ -27,8 +27,13 @@ import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.search.fetch.FetchSearchResultProvider;
 import org.elasticsearch.search.internal.InternalScrollSearchRequest;
 import org.elasticsearch.search.internal.InternalSearchRequest;
+import org.elasticsearch.search.query.QuerySearchResultProvider;
 import org.elasticsearch.util.Tuple;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.regex.Pattern;
 
 /**
@@ -37,6 +42,8 @@ import java.util.regex.Pattern;
 public abstract class TransportSearchHelper {
 
 
+    public static final String SCAN_TOTAL_HITS = "totalHits";
+
     private final static Pattern scrollIdPattern;
 
     static {
@@ -68,6 +75,8 @@ public abstract class TransportSearchHelper {
             return buildScrollId(ParsedScrollId.QUERY_THEN_FETCH_TYPE, fetchResults);
         } else if (searchType == SearchType.QUERY_AND_FETCH || searchType == SearchType.DFS_QUERY_AND_FETCH) {
             return buildScrollId(ParsedScrollId.QUERY_AND_FETCH_TYPE, fetchResults);
+        } else if (searchType == SearchType.SCAN) {
+            return buildScrollId(ParsedScrollId.SCAN_TYPE, fetchResults);
         } else {
             throw new ElasticSearchIllegalStateException();
         }
@@ -81,15 +90,34 @@ public abstract class TransportSearchHelper {
         return sb.toString();
     }
 
+    /**
+     * Builds a scan scroll id from the shards that still have docs to scan, carrying the total hits
+     * of the scan (computed on the initial search) as an attribute.
+     */
+    public static String buildScanScrollId(Iterable<? extends QuerySearchResultProvider> queryResults, long totalHits) {
+        StringBuilder sb = new StringBuilder().append(ParsedScrollId.SCAN_TYPE).append(';');
+        for (QuerySearchResultProvider queryResult : queryResults) {
+            sb.append(queryResult.queryResult().id()).append(':').append(queryResult.queryResult().shardTarget().nodeId()).append(';');
+        }
+        sb.append('@').append(SCAN_TOTAL_HITS).append(':').append(totalHits).append(';');
+        return sb.toString();
+    }
+
     public static ParsedScrollId parseScrollId(String scrollId) {
         String[] elements = scrollIdPattern.split(scrollId);
-        @SuppressWarnings({"unchecked"}) Tuple<String, Long>[] values = new Tuple[elements.length - 1];
+        List<Tuple<String, Long>> values = new ArrayList<Tuple<String, Long>>(elements.length - 1);
+        Map<String, String> attributes = new HashMap<String, String>();
         for (int i = 1; i < elements.length; i++) {
             String element = elements[i];
             int index = element.indexOf(':');
-            values[i - 1] = new Tuple<String, Long>(element.substring(index + 1), Long.parseLong(element.substring(0, index)));
+            if (element.startsWith("@")) {
+                attributes.put(element.substring(1, index), element.substring(index + 1));
+            } else {
+                values.add(new Tuple<String, Long>(element.substring(index + 1), Long.parseLong(element.substring(0, index))));
+            }
         }
-        return new ParsedScrollId(scrollId, elements[0], values);
+        @SuppressWarnings({"unchecked"}) Tuple<String, Long>[] valuesArray = values.toArray(new Tuple[values.size()]);
+        return new ParsedScrollId(scrollId, elements[0], valuesArray, attributes);
     }
 
     private TransportSearchHelper() {
@@ -27,6 +27,7 @@ import org.elasticsearch.cluster.ClusterService;
 import org.elasticsearch.cluster.node.Node;
 import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.indices.IndicesService;
+import org.elasticsearch.search.SearchException;
 import org.elasticsearch.search.SearchShardTarget;
 import org.elasticsearch.search.action.SearchServiceListener;
 import org.elasticsearch.search.action.SearchServiceTransportAction;
@@ -52,7 +53,16 @@ public class TransportSearchQueryAndFetchAction extends TransportSearchTypeActio
     }
 
     @Override protected void doExecute(SearchRequest searchRequest, ActionListener<SearchResponse> listener) {
-        new AsyncAction(searchRequest, listener).start();
+        new AsyncAction(searchRequest, listener, null, null).start();
+    }
+
+    /**
+     * Executes the search scoring with the cached dfs instead of the shard local term statistics. If a shard
+     * can't score with them (its reader changed, or the query needs terms they don't have), the search runs
+     * the provided dfs search instead.
+     */
+    void execute(SearchRequest searchRequest, ActionListener<SearchResponse> listener, AggregatedDfsCache.CachedDfs cachedDfs, Runnable dfsSearch) {
+        new AsyncAction(searchRequest, listener, cachedDfs, dfsSearch).start();
     }
 
     private class AsyncAction extends BaseAsyncAction<QueryFetchSearchResult> {
@@ -60,11 +70,25 @@ public class TransportSearchQueryAndFetchAction extends TransportSearchTypeActio
         private final Map<SearchShardTarget, QueryFetchSearchResult> queryFetchResults = transportSearchCache.obtainQueryFetchResults();
 
 
-        private AsyncAction(SearchRequest request, ActionListener<SearchResponse> listener) {
+        private final AggregatedDfsCache.CachedDfs cachedDfs;
+
+        private final Runnable dfsSearch;
+
+        private AsyncAction(SearchRequest request, ActionListener<SearchResponse> listener, AggregatedDfsCache.CachedDfs cachedDfs, Runnable dfsSearch) {
             super(request, listener);
+            this.cachedDfs = cachedDfs;
+            this.dfsSearch = dfsSearch;
         }
 
         @Override protected void sendExecuteFirstPhase(Node node, InternalSearchRequest request, SearchServiceListener<QueryFetchSearchResult> listener) {
+            if (cachedDfs != null) {
+                long readerVersion = cachedDfs.readerVersion(node.id(), request.index(), request.shardId());
+                if (readerVersion == -1) {
+                    listener.onFailure(new SearchException("No cached dfs for [" + request.index() + "][" + request.shardId() + "] on node [" + node.id() + "]"));
+                    return;
+                }
+                request.dfs(cachedDfs.dfs(), readerVersion);
+            }
             searchService.sendExecuteFetch(node, request, listener);
         }
 
@@ -73,6 +97,12 @@ public class TransportSearchQueryAndFetchAction extends TransportSearchTypeActio
         }
 
         @Override protected void moveToSecondPhase() {
+            if (cachedDfs != null && successulOps.get() < expectedSuccessfulOps) {
+                // some shards could not score with the cached dfs, search again going through the dfs phase
+                transportSearchCache.releaseQueryFetchResults(queryFetchResults);
+                dfsSearch.run();
+                return;
+            }
             sortedShardList = searchPhaseController.sortDocs(queryFetchResults.values());
             final InternalSearchResponse internalResponse = searchPhaseController.merge(sortedShardList, queryFetchResults, queryFetchResults);
             String scrollIdX = null;
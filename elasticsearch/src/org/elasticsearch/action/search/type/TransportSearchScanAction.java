@@ -0,0 +1,103 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search.type;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Inject;
+import org.elasticsearch.ElasticSearchIllegalArgumentException;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.cluster.ClusterService;
+import org.elasticsearch.cluster.node.Node;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.indices.IndicesService;
+import org.elasticsearch.search.SearchShardTarget;
+import org.elasticsearch.search.action.SearchServiceListener;
+import org.elasticsearch.search.action.SearchServiceTransportAction;
+import org.elasticsearch.search.controller.SearchPhaseController;
+import org.elasticsearch.search.controller.ShardDoc;
+import org.elasticsearch.search.fetch.FetchSearchResultProvider;
+import org.elasticsearch.search.internal.InternalSearchRequest;
+import org.elasticsearch.search.internal.InternalSearchResponse;
+import org.elasticsearch.search.query.QuerySearchResult;
+import org.elasticsearch.search.query.QuerySearchResultProvider;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.util.settings.Settings;
+
+import java.util.Map;
+
+import static org.elasticsearch.action.search.type.TransportSearchHelper.*;
+
+/**
+ * Starts a scan on each shard. No hits are returned, only the total hits (and facets) along with
+ * the scroll id used to scan the docs, see {@link TransportSearchScrollScanAction}.
+ *
+ * @author kimchy (Shay Banon)
+ */
+public class TransportSearchScanAction extends TransportSearchTypeAction {
+
+    private static final ShardDoc[] EMPTY_DOCS = new ShardDoc[0];
+
+    @Inject public TransportSearchScanAction(Settings settings, ThreadPool threadPool, ClusterService clusterService, IndicesService indicesService,
+                                             TransportSearchCache transportSearchCache, SearchServiceTransportAction searchService, SearchPhaseController searchPhaseController) {
+        super(settings, threadPool, clusterService, indicesService, transportSearchCache, searchService, searchPhaseController);
+    }
+
+    @Override protected void doExecute(SearchRequest searchRequest, ActionListener<SearchResponse> listener) {
+        if (searchRequest.scroll() == null) {
+            listener.onFailure(new ElasticSearchIllegalArgumentException("Scan search type requires a scroll"));
+            return;
+        }
+        new AsyncAction(searchRequest, listener).start();
+    }
+
+    private class AsyncAction extends BaseAsyncAction<QuerySearchResult> {
+
+        private final Map<SearchShardTarget, QuerySearchResultProvider> queryResults = transportSearchCache.obtainQueryResults();
+
+        private AsyncAction(SearchRequest request, ActionListener<SearchResponse> listener) {
+            super(request, listener);
+        }
+
+        @Override protected void sendExecuteFirstPhase(Node node, InternalSearchRequest request, SearchServiceListener<QuerySearchResult> listener) {
+            searchService.sendExecuteScan(node, request, listener);
+        }
+
+        @Override protected void processFirstPhaseResult(ShardRouting shard, QuerySearchResult result) {
+            queryResults.put(result.shardTarget(), result);
+        }
+
+        @Override protected void moveToSecondPhase() {
+            final InternalSearchResponse internalResponse = searchPhaseController.merge(EMPTY_DOCS, queryResults, ImmutableMap.<SearchShardTarget, FetchSearchResultProvider>of());
+            final String scrollId = buildScanScrollId(queryResults.values(), internalResponse.hits().totalHits());
+            transportSearchCache.releaseQueryResults(queryResults);
+            if (request.listenerThreaded()) {
+                threadPool.execute(new Runnable() {
+                    @Override public void run() {
+                        listener.onResponse(new SearchResponse(internalResponse, scrollId, expectedSuccessfulOps, successulOps.get()));
+                    }
+                });
+            } else {
+                listener.onResponse(new SearchResponse(internalResponse, scrollId, expectedSuccessfulOps, successulOps.get()));
+            }
+        }
+    }
+}
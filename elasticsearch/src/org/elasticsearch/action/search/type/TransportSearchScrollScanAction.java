@@ -0,0 +1,179 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search.type;
+
+import com.google.inject.Inject;
+import org.apache.lucene.search.ScoreDoc;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchScrollRequest;
+import org.elasticsearch.cluster.ClusterService;
+import org.elasticsearch.cluster.node.Node;
+import org.elasticsearch.cluster.node.Nodes;
+import org.elasticsearch.search.SearchShardTarget;
+import org.elasticsearch.search.action.SearchServiceListener;
+import org.elasticsearch.search.action.SearchServiceTransportAction;
+import org.elasticsearch.search.controller.SearchPhaseController;
+import org.elasticsearch.search.controller.ShardDoc;
+import org.elasticsearch.search.controller.ShardScoreDoc;
+import org.elasticsearch.search.fetch.QueryFetchSearchResult;
+import org.elasticsearch.search.internal.InternalSearchHits;
+import org.elasticsearch.search.internal.InternalSearchResponse;
+import org.elasticsearch.util.Tuple;
+import org.elasticsearch.util.component.AbstractComponent;
+import org.elasticsearch.util.settings.Settings;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Returns the next batch of a scan, up to <tt>size</tt> docs from each shard, in shard and then doc id
+ * order. Shards that ran out of docs free their context and are left out of the next scroll id.
+ *
+ * @author kimchy (Shay Banon)
+ */
+public class TransportSearchScrollScanAction extends AbstractComponent {
+
+    private final ClusterService clusterService;
+
+    private final SearchServiceTransportAction searchService;
+
+    private final SearchPhaseController searchPhaseController;
+
+    private final TransportSearchCache transportSearchCache;
+
+    @Inject public TransportSearchScrollScanAction(Settings settings, ClusterService clusterService,
+                                                   TransportSearchCache transportSearchCache,
+                                                   SearchServiceTransportAction searchService, SearchPhaseController searchPhaseController) {
+        super(settings);
+        this.clusterService = clusterService;
+        this.transportSearchCache = transportSearchCache;
+        this.searchService = searchService;
+        this.searchPhaseController = searchPhaseController;
+    }
+
+    public void execute(SearchScrollRequest request, ParsedScrollId scrollId, ActionListener<SearchResponse> listener) {
+        new AsyncAction(request, scrollId, listener).start();
+    }
+
+    private class AsyncAction {
+
+        private final SearchScrollRequest request;
+
+        private final ActionListener<SearchResponse> listener;
+
+        private final ParsedScrollId scrollId;
+
+        private final Nodes nodes;
+
+        private final Map<SearchShardTarget, QueryFetchSearchResult> queryFetchResults = transportSearchCache.obtainQueryFetchResults();
+
+        private final AtomicInteger successfulOps;
+
+        private AsyncAction(SearchScrollRequest request, ParsedScrollId scrollId, ActionListener<SearchResponse> listener) {
+            this.request = request;
+            this.listener = listener;
+            this.scrollId = scrollId;
+            this.nodes = clusterService.state().nodes();
+            this.successfulOps = new AtomicInteger(scrollId.values().length);
+        }
+
+        public void start() {
+            if (scrollId.values().length == 0) {
+                // all the shards have been scanned
+                finishHim();
+                return;
+            }
+            final AtomicInteger counter = new AtomicInteger(scrollId.values().length);
+            for (Tuple<String, Long> target : scrollId.values()) {
+                Node node = nodes.get(target.v1());
+                if (node == null) {
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Node [" + target.v1() + "] not available for scroll request [" + scrollId.source() + "]");
+                    }
+                    successfulOps.decrementAndGet();
+                    if (counter.decrementAndGet() == 0) {
+                        finishHim();
+                    }
+                } else {
+                    searchService.sendExecuteScan(node, TransportSearchHelper.internalScrollSearchRequest(target.v2(), request), new SearchServiceListener<QueryFetchSearchResult>() {
+                        @Override public void onResult(QueryFetchSearchResult result) {
+                            queryFetchResults.put(result.shardTarget(), result);
+                            if (counter.decrementAndGet() == 0) {
+                                finishHim();
+                            }
+                        }
+
+                        @Override public void onFailure(Throwable t) {
+                            if (logger.isDebugEnabled()) {
+                                logger.debug("Failed to execute scan phase", t);
+                            }
+                            successfulOps.decrementAndGet();
+                            if (counter.decrementAndGet() == 0) {
+                                finishHim();
+                            }
+                        }
+                    });
+                }
+            }
+        }
+
+        private void finishHim() {
+            try {
+                innerFinishHim();
+            } catch (Exception e) {
+                listener.onFailure(e);
+            } finally {
+                transportSearchCache.releaseQueryFetchResults(queryFetchResults);
+            }
+        }
+
+        private void innerFinishHim() {
+            // no sorting, the hits are simply returned shard after shard
+            List<ShardDoc> docs = new ArrayList<ShardDoc>();
+            List<QueryFetchSearchResult> activeResults = new ArrayList<QueryFetchSearchResult>();
+            for (QueryFetchSearchResult result : queryFetchResults.values()) {
+                ScoreDoc[] scoreDocs = result.queryResult().topDocs().scoreDocs;
+                for (ScoreDoc scoreDoc : scoreDocs) {
+                    docs.add(new ShardScoreDoc(result.shardTarget(), scoreDoc.doc, scoreDoc.score));
+                }
+                if (scoreDocs.length >= result.queryResult().size()) {
+                    activeResults.add(result);
+                }
+            }
+            InternalSearchResponse mergedResponse = searchPhaseController.merge(docs.toArray(new ShardDoc[docs.size()]), queryFetchResults, queryFetchResults);
+
+            long totalHits = mergedResponse.hits().totalHits();
+            String sTotalHits = scrollId.attributes().get(TransportSearchHelper.SCAN_TOTAL_HITS);
+            if (sTotalHits != null) {
+                totalHits = Long.parseLong(sTotalHits);
+            }
+            InternalSearchResponse internalResponse = new InternalSearchResponse(new InternalSearchHits(mergedResponse.hits().hits(), totalHits), mergedResponse.facets(), mergedResponse.terminatedEarly());
+
+            String scrollId = null;
+            if (request.scroll() != null) {
+                scrollId = TransportSearchHelper.buildScanScrollId(activeResults, totalHits);
+            }
+            listener.onResponse(new SearchResponse(internalResponse, scrollId, this.scrollId.values().length, successfulOps.get()));
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.support.replication;
+
+import org.elasticsearch.ElasticSearchIllegalArgumentException;
+
+/**
+ * Controls when a replicated operation (such as index or delete) is acknowledged.
+ *
+ * @author kimchy (Shay Banon)
+ */
+public enum ReplicationType {
+    /**
+     * The response is sent once the operation has been performed on the primary and on all its backups.
+     */
+    SYNC((byte) 0),
+    /**
+     * The response is sent once the operation has been performed on the primary, the backups are
+     * updated in the background.
+     */
+    ASYNC((byte) 1),
+    /**
+     * Use the default replication type of the action. Index and delete use the replication type configured
+     * on the node (<tt>action.replication.type</tt>), other actions use {@link #SYNC}.
+     */
+    DEFAULT((byte) 2);
+
+    private final byte id;
+
+    ReplicationType(byte id) {
+        this.id = id;
+    }
+
+    public byte id() {
+        return this.id;
+    }
+
+    public static ReplicationType fromId(byte id) {
+        if (id == 0) {
+            return SYNC;
+        }
+        if (id == 1) {
+            return ASYNC;
+        }
+        if (id == 2) {
+            return DEFAULT;
+        }
+        throw new ElasticSearchIllegalArgumentException("No type matching id [" + id + "]");
+    }
+
+    public static ReplicationType fromString(String value, ReplicationType defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        if ("sync".equalsIgnoreCase(value)) {
+            return SYNC;
+        }
+        if ("async".equalsIgnoreCase(value)) {
+            return ASYNC;
+        }
+        if ("default".equalsIgnoreCase(value)) {
+            return DEFAULT;
+        }
+        throw new ElasticSearchIllegalArgumentException("No replication type matching [" + value + "], either [sync], [async] or [default] are allowed");
+    }
+}
@@ -41,6 +41,8 @@ public abstract class ShardReplicationOperationRequest implements ActionRequest
 
     protected String index;
 
+    protected ReplicationType replicationType = ReplicationType.DEFAULT;
+
     private boolean threadedListener = false;
     private boolean threadedOperation = false;
 
@@ -52,6 +54,21 @@ public abstract class ShardReplicationOperationRequest implements ActionRequest
         return this.index;
     }
 
+    /**
+     * When the operation is acknowledged, see {@link ReplicationType}.
+     */
+    public ReplicationType replicationType() {
+        return this.replicationType;
+    }
+
+    /**
+     * Sets when the operation is acknowledged, defaults to {@link ReplicationType#DEFAULT}.
+     */
+    public ShardReplicationOperationRequest replicationType(ReplicationType replicationType) {
+        this.replicationType = replicationType;
+        return this;
+    }
+
     @Override public boolean listenerThreaded() {
         return threadedListener;
     }
@@ -88,11 +105,13 @@ public abstract class ShardReplicationOperationRequest implements ActionRequest
     @Override public void readFrom(DataInput in) throws IOException, ClassNotFoundException {
         timeout = TimeValue.readTimeValue(in);
         index = in.readUTF();
+        replicationType = ReplicationType.fromId(in.readByte());
         // no need to serialize threaded* parameters, since they only matter locally
     }
 
     @Override public void writeTo(DataOutput out) throws IOException {
         timeout.writeTo(out);
         out.writeUTF(index);
+        out.writeByte(replicationType.id());
     }
 }
@@ -22,6 +22,7 @@ package org.elasticsearch.action.support.replication;
 import org.elasticsearch.ElasticSearchException;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.ActionResponse;
+import org.elasticsearch.action.BackupQueueFullActionException;
 import org.elasticsearch.action.PrimaryNotStartedActionException;
 import org.elasticsearch.action.ShardOperationFailedException;
 import org.elasticsearch.action.support.BaseAction;
@@ -43,17 +44,36 @@ import org.elasticsearch.indices.IndicesService;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.*;
 import org.elasticsearch.util.TimeValue;
+import org.elasticsearch.util.io.FastByteArrayInputStream;
+import org.elasticsearch.util.io.FastByteArrayOutputStream;
 import org.elasticsearch.util.io.Streamable;
-import org.elasticsearch.util.io.VoidStreamable;
+import org.elasticsearch.util.io.ThrowableObjectInputStream;
+import org.elasticsearch.util.io.ThrowableObjectOutputStream;
 import org.elasticsearch.util.settings.Settings;
 
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.io.NotSerializableException;
+import java.util.*;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.elasticsearch.util.concurrent.ConcurrentMaps.*;
 
 /**
+ * A replicated operation, performed on the primary shard and then on all its backups.
+ *
+ * <p>Operations sent to the same backup shard are pipelined, with up to <tt>action.replication.maxInFlight</tt>
+ * requests in flight, and operations that queue up behind them are sent together in a single batch of up to
+ * <tt>action.replication.batchSize</tt> operations. Each request carries a sequence number, and the backup applies
+ * the requests of a primary in sequence order, so operations are applied on the backup in the order they were
+ * queued. Once <tt>action.replication.maxPending</tt> operations are queued for a backup shard, new operations
+ * are rejected before they are performed on the primary. The response is sent once all the backups have been
+ * updated, or once the primary has been updated when using {@link ReplicationType#ASYNC} replication.
+ *
  * @author kimchy (Shay Banon)
  */
 public abstract class TransportShardReplicationOperationAction<Request extends ShardReplicationOperationRequest, Response extends ActionResponse> extends BaseAction<Request, Response> {
@@ -68,6 +88,18 @@ public abstract class TransportShardReplicationOperationAction<Request extends S
 
     protected final ShardStateAction shardStateAction;
 
+    private final int backupBatchSize;
+
+    private final int backupMaxInFlight;
+
+    private final int backupMaxPending;
+
+    private final ConcurrentMap<String, BackupTarget> backupTargets = newConcurrentMap();
+
+    private final AtomicLong backupTargetGeneration = new AtomicLong();
+
+    private final ConcurrentMap<String, BackupSequence> backupSequences = newConcurrentMap();
+
     protected TransportShardReplicationOperationAction(Settings settings, TransportService transportService,
                                                        ClusterService clusterService, IndicesService indicesService,
                                                        ThreadPool threadPool, ShardStateAction shardStateAction) {
@@ -78,6 +110,10 @@ public abstract class TransportShardReplicationOperationAction<Request extends S
         this.threadPool = threadPool;
         this.shardStateAction = shardStateAction;
 
+        this.backupBatchSize = Math.max(1, settings.getAsInt("action.replication.batchSize", 100));
+        this.backupMaxInFlight = Math.max(1, settings.getAsInt("action.replication.maxInFlight", 4));
+        this.backupMaxPending = Math.max(backupBatchSize, settings.getAsInt("action.replication.maxPending", 1000));
+
         transportService.registerHandler(transportAction(), new OperationTransportHandler());
         transportService.registerHandler(transportBackupAction(), new BackupOperationTransportHandler());
     }
@@ -106,6 +142,14 @@ public abstract class TransportShardReplicationOperationAction<Request extends S
         return false;
     }
 
+    /**
+     * The replication type used for requests set to {@link ReplicationType#DEFAULT}. Defaults to
+     * {@link ReplicationType#SYNC}.
+     */
+    protected ReplicationType defaultReplicationType() {
+        return ReplicationType.SYNC;
+    }
+
     private String transportBackupAction() {
         return transportAction() + "/backup";
     }
@@ -149,15 +193,131 @@ public abstract class TransportShardReplicationOperationAction<Request extends S
         }
     }
 
-    private class BackupOperationTransportHandler extends BaseTransportRequestHandler<ShardOperationRequest> {
+    /**
+     * Applies the batches sent by a backup target of a primary in sequence order. A batch that arrives before its
+     * turn is kept, along with its channel, and is applied (and responded to) once the batches before it are.
+     */
+    private class BackupOperationTransportHandler extends BaseTransportRequestHandler<BatchShardOperationRequest> {
+
+        @Override public BatchShardOperationRequest newInstance() {
+            return new BatchShardOperationRequest();
+        }
+
+        @Override public void messageReceived(BatchShardOperationRequest request, TransportChannel channel) throws Exception {
+            ShardOperationRequest first = request.requests.get(0);
+            String key = request.source + "/" + first.request.index() + "/" + first.shardId;
+            BackupSequence sequence = backupSequences.get(key);
+            if (sequence == null) {
+                sequence = new BackupSequence();
+                BackupSequence existing = backupSequences.putIfAbsent(key, sequence);
+                if (existing != null) {
+                    sequence = existing;
+                }
+            }
+            sequence.add(request, channel);
+        }
+    }
+
+    /**
+     * The batches received for a backup shard from a single primary node. The primary only moves to a new target
+     * (with a higher generation) once the previous one got all its responses or failed, so batches of an older
+     * generation that are still waiting for their turn will never get it, and are failed.
+     */
+    private class BackupSequence {
+
+        private final Map<Long, WaitingBatch> waiting = new HashMap<Long, WaitingBatch>();
+
+        private long generation = -1;
+
+        private long next;
+
+        private boolean applying;
+
+        void add(BatchShardOperationRequest request, TransportChannel channel) {
+            List<WaitingBatch> superseded = null;
+            boolean stale = false;
+            boolean apply = false;
+            synchronized (this) {
+                if (request.generation > generation) {
+                    if (!waiting.isEmpty()) {
+                        superseded = new ArrayList<WaitingBatch>(waiting.values());
+                        waiting.clear();
+                    }
+                    generation = request.generation;
+                    next = 0;
+                } else if (request.generation < generation) {
+                    stale = true;
+                }
+                if (!stale) {
+                    waiting.put(request.seq, new WaitingBatch(request, channel));
+                    if (!applying) {
+                        applying = true;
+                        apply = true;
+                    }
+                }
+            }
+            if (stale) {
+                fail(channel, request.source);
+            }
+            if (superseded != null) {
+                for (WaitingBatch batch : superseded) {
+                    fail(batch.channel, request.source);
+                }
+            }
+            if (!apply) {
+                return;
+            }
+            while (true) {
+                WaitingBatch batch;
+                synchronized (this) {
+                    batch = waiting.remove(next);
+                    if (batch == null) {
+                        applying = false;
+                        return;
+                    }
+                    next++;
+                }
+                applyBatch(batch.request, batch.channel);
+            }
+        }
+
+        private void fail(TransportChannel channel, String source) {
+            try {
+                channel.sendResponse(new ElasticSearchException("Backup operations from [" + source + "] superseded by a newer target"));
+            } catch (Exception e) {
+                logger.warn("Failed to send response for " + transportBackupAction(), e);
+            }
+        }
+    }
+
+    private class WaitingBatch {
 
-        @Override public ShardOperationRequest newInstance() {
-            return new ShardOperationRequest();
+        final BatchShardOperationRequest request;
+
+        final TransportChannel channel;
+
+        WaitingBatch(BatchShardOperationRequest request, TransportChannel channel) {
+            this.request = request;
+            this.channel = channel;
         }
+    }
 
-        @Override public void messageReceived(ShardOperationRequest request, TransportChannel channel) throws Exception {
-            shardOperationOnBackup(request);
-            channel.sendResponse(VoidStreamable.INSTANCE);
+    private void applyBatch(BatchShardOperationRequest request, TransportChannel channel) {
+        // operations are applied in the order they were sent, a failure does not stop the rest of the batch
+        Throwable[] failures = new Throwable[request.requests.size()];
+        for (int i = 0; i < failures.length; i++) {
+            try {
+                shardOperationOnBackup(request.requests.get(i));
+            } catch (Exception e) {
+                if (!ignoreBackupException(e)) {
+                    failures[i] = e;
+                }
+            }
+        }
+        try {
+            channel.sendResponse(new BatchShardOperationResponse(failures));
+        } catch (Exception e) {
+            logger.warn("Failed to send response for " + transportBackupAction(), e);
         }
     }
 
@@ -187,6 +347,326 @@ public abstract class TransportShardReplicationOperationAction<Request extends S
         }
     }
 
+    private class BatchShardOperationRequest implements Streamable {
+
+        /**
+         * The id of the primary node sending the batch.
+         */
+        String source;
+
+        /**
+         * The generation of the backup target on the primary node, a new target starts its sequence from <tt>0</tt>.
+         */
+        long generation;
+
+        long seq;
+
+        List<ShardOperationRequest> requests;
+
+        BatchShardOperationRequest() {
+        }
+
+        BatchShardOperationRequest(String source, long generation, long seq, List<ShardOperationRequest> requests) {
+            this.source = source;
+            this.generation = generation;
+            this.seq = seq;
+            this.requests = requests;
+        }
+
+        @Override public void readFrom(DataInput in) throws IOException, ClassNotFoundException {
+            source = in.readUTF();
+            generation = in.readLong();
+            seq = in.readLong();
+            int size = in.readInt();
+            requests = new ArrayList<ShardOperationRequest>(size);
+            for (int i = 0; i < size; i++) {
+                ShardOperationRequest request = new ShardOperationRequest();
+                request.readFrom(in);
+                requests.add(request);
+            }
+        }
+
+        @Override public void writeTo(DataOutput out) throws IOException {
+            out.writeUTF(source);
+            out.writeLong(generation);
+            out.writeLong(seq);
+            out.writeInt(requests.size());
+            for (ShardOperationRequest request : requests) {
+                request.writeTo(out);
+            }
+        }
+    }
+
+    private static class BatchShardOperationResponse implements Streamable {
+
+        /**
+         * The failure of each operation in the batch, <tt>null</tt> if it was successful.
+         */
+        Throwable[] failures;
+
+        BatchShardOperationResponse() {
+        }
+
+        BatchShardOperationResponse(Throwable[] failures) {
+            this.failures = failures;
+        }
+
+        @Override public void readFrom(DataInput in) throws IOException, ClassNotFoundException {
+            failures = new Throwable[in.readInt()];
+            for (int i = 0; i < failures.length; i++) {
+                if (in.readBoolean()) {
+                    byte[] bytes = new byte[in.readInt()];
+                    in.readFully(bytes);
+                    failures[i] = (Throwable) new ThrowableObjectInputStream(new FastByteArrayInputStream(bytes)).readObject();
+                }
+            }
+        }
+
+        @Override public void writeTo(DataOutput out) throws IOException {
+            out.writeInt(failures.length);
+            for (Throwable failure : failures) {
+                if (failure == null) {
+                    out.writeBoolean(false);
+                } else {
+                    out.writeBoolean(true);
+                    byte[] bytes = serializeFailure(failure);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+            }
+        }
+
+        private static byte[] serializeFailure(Throwable failure) throws IOException {
+            // serialized the same way the transport serializes a failed response, keeping the type and the cause
+            FastByteArrayOutputStream bos = new FastByteArrayOutputStream();
+            try {
+                ThrowableObjectOutputStream too = new ThrowableObjectOutputStream(bos);
+                too.writeObject(failure);
+                too.close();
+            } catch (NotSerializableException e) {
+                bos.reset();
+                ThrowableObjectOutputStream too = new ThrowableObjectOutputStream(bos);
+                too.writeObject(new NotSerializableTransportException(failure));
+                too.close();
+            }
+            return bos.copiedByteArray();
+        }
+    }
+
+    private static interface BackupListener {
+
+        void onResponse();
+
+        void onFailure(Throwable e);
+    }
+
+    private class PendingBackupOperation {
+
+        final ShardOperationRequest request;
+
+        final BackupListener listener;
+
+        PendingBackupOperation(ShardOperationRequest request, BackupListener listener) {
+            this.request = request;
+            this.listener = listener;
+        }
+    }
+
+    private String backupTargetKey(String nodeId, String index, int shardId) {
+        return nodeId + "/" + index + "/" + shardId;
+    }
+
+    private void sendToBackup(String source, Node node, ShardOperationRequest shardRequest, BackupListener listener) {
+        String key = backupTargetKey(node.id(), shardRequest.request.index(), shardRequest.shardId);
+        PendingBackupOperation operation = new PendingBackupOperation(shardRequest, listener);
+        while (true) {
+            BackupTarget target = backupTargets.get(key);
+            if (target == null) {
+                target = new BackupTarget(key, source, node);
+                BackupTarget existing = backupTargets.putIfAbsent(key, target);
+                if (existing != null) {
+                    target = existing;
+                }
+            }
+            if (target.add(operation)) {
+                return;
+            }
+            // the target was removed once it got idle (or failed), create a new one
+        }
+    }
+
+    /**
+     * The operations sent to a single backup shard on a single node. Up to <tt>backupMaxInFlight</tt> batches are
+     * sent without waiting for a response, each with the next sequence number of the target, further operations
+     * are queued and sent together once one of the in flight batches completes. The target removes itself once it
+     * has nothing left to send, so targets of closed or relocated shards go away.
+     */
+    private class BackupTarget {
+
+        private final String key;
+
+        private final String source;
+
+        private final Node node;
+
+        private final long generation = backupTargetGeneration.incrementAndGet();
+
+        private final Queue<PendingBackupOperation> pending = new LinkedList<PendingBackupOperation>();
+
+        private long seq;
+
+        private int inFlight;
+
+        private boolean removed;
+
+        private BackupTarget(String key, String source, Node node) {
+            this.key = key;
+            this.source = source;
+            this.node = node;
+        }
+
+        synchronized boolean full() {
+            return pending.size() >= backupMaxPending;
+        }
+
+        /**
+         * Queues the operation. Returns <tt>false</tt> if the target has been removed and the operation should be
+         * added to a new one.
+         */
+        boolean add(PendingBackupOperation operation) {
+            List<PendingBackupOperation> batch = null;
+            long batchSeq = 0;
+            synchronized (this) {
+                if (removed) {
+                    return false;
+                }
+                pending.add(operation);
+                if (inFlight < backupMaxInFlight) {
+                    inFlight++;
+                    batch = drain();
+                    batchSeq = seq++;
+                }
+            }
+            if (batch != null) {
+                send(batchSeq, batch);
+            }
+            return true;
+        }
+
+        private List<PendingBackupOperation> drain() {
+            List<PendingBackupOperation> batch = new ArrayList<PendingBackupOperation>(Math.min(pending.size(), backupBatchSize));
+            while (batch.size() < backupBatchSize && !pending.isEmpty()) {
+                batch.add(pending.poll());
+            }
+            return batch;
+        }
+
+        private void done(boolean failed) {
+            List<PendingBackupOperation> batch = null;
+            long batchSeq = 0;
+            List<PendingBackupOperation> requeue = null;
+            synchronized (this) {
+                inFlight--;
+                if (removed) {
+                    return;
+                }
+                if (failed) {
+                    // the backup might not have got the batch, and would keep the ones after it waiting for their
+                    // turn, move the queued operations to a new target (a new sequence) instead
+                    removed = true;
+                    backupTargets.remove(key, this);
+                    requeue = new ArrayList<PendingBackupOperation>(pending);
+                    pending.clear();
+                } else if (!pending.isEmpty()) {
+                    inFlight++;
+                    batch = drain();
+                    batchSeq = seq++;
+                } else if (inFlight == 0) {
+                    removed = true;
+                    backupTargets.remove(key, this);
+                }
+            }
+            if (batch != null) {
+                send(batchSeq, batch);
+            }
+            if (requeue != null) {
+                for (PendingBackupOperation operation : requeue) {
+                    sendToBackup(source, node, operation.request, operation.listener);
+                }
+            }
+        }
+
+        private void send(long batchSeq, final List<PendingBackupOperation> batch) {
+            List<ShardOperationRequest> requests = new ArrayList<ShardOperationRequest>(batch.size());
+            for (PendingBackupOperation operation : batch) {
+                requests.add(operation.request);
+            }
+            try {
+                transportService.sendRequest(node, transportBackupAction(), new BatchShardOperationRequest(source, generation, batchSeq, requests), new BaseTransportResponseHandler<BatchShardOperationResponse>() {
+                    @Override public BatchShardOperationResponse newInstance() {
+                        return new BatchShardOperationResponse();
+                    }
+
+                    @Override public void handleResponse(BatchShardOperationResponse response) {
+                        try {
+                            for (int i = 0; i < batch.size(); i++) {
+                                if (response.failures[i] == null) {
+                                    batch.get(i).listener.onResponse();
+                                } else {
+                                    batch.get(i).listener.onFailure(response.failures[i]);
+                                }
+                            }
+                        } finally {
+                            done(false);
+                        }
+                    }
+
+                    @Override public void handleException(RemoteTransportException exp) {
+                        try {
+                            for (PendingBackupOperation operation : batch) {
+                                operation.listener.onFailure(exp.unwrapCause());
+                            }
+                        } finally {
+                            done(true);
+                        }
+                    }
+
+                    @Override public boolean spawn() {
+                        // don't spawn, the listeners call the action listener on a thread pool if needed
+                        return false;
+                    }
+                });
+            } catch (Exception e) {
+                for (PendingBackupOperation operation : batch) {
+                    operation.listener.onFailure(e);
+                }
+                done(true);
+            }
+        }
+    }
+
+    /**
+     * Should an exception be ignored when the operation is performed on the backup. The exception
+     * is ignored if it is:
+     *
+     * <ul>
+     * <li><tt>IllegalIndexShardStateException</tt>: The shard has not yet moved to started mode (it is still recovering).
+     * <li><tt>IndexMissingException</tt>/<tt>IndexShardMissingException</tt>: The shard has not yet started to initialize on the target node.
+     * </ul>
+     */
+    private boolean ignoreBackupException(Throwable e) {
+        if (e instanceof IllegalIndexShardStateException) {
+            return true;
+        }
+        if (e instanceof IndexMissingException) {
+            return true;
+        }
+        if (e instanceof IndexShardMissingException) {
+            return true;
+        }
+        return false;
+    }
+
     private class AsyncShardOperationAction {
 
         private final ActionListener<Response> listener;
@@ -313,6 +793,11 @@ public abstract class TransportShardReplicationOperationAction<Request extends S
         }
 
         private void performOnPrimary(int primaryShardId, boolean fromDiscoveryListener, boolean alreadyThreaded, final ShardRouting shard) {
+            if (backupsFull()) {
+                // reject before the primary is changed, the backups would not keep up with it
+                listener.onFailure(new BackupQueueFullActionException(shards.shardId(), "Too many operations pending for a backup, [" + backupMaxPending + "] allowed"));
+                return;
+            }
             try {
                 Response response = shardOperationOnPrimary(new ShardOperationRequest(primaryShardId, request));
                 performBackups(response, alreadyThreaded);
@@ -324,20 +809,45 @@ public abstract class TransportShardReplicationOperationAction<Request extends S
             }
         }
 
-        private void performBackups(final Response response, boolean alreadyThreaded) {
-            if (ignoreBackups() || shards.size() == 1 /* no backups */) {
-                if (alreadyThreaded || !request.listenerThreaded()) {
-                    listener.onResponse(response);
-                } else {
-                    threadPool.execute(new Runnable() {
-                        @Override public void run() {
-                            listener.onResponse(response);
-                        }
-                    });
+        private boolean backupsFull() {
+            if (ignoreBackups()) {
+                return false;
+            }
+            for (ShardRouting shard : shards.reset()) {
+                if (shard.primary() || shard.unassigned()) {
+                    continue;
+                }
+                if (backupFull(shard.currentNodeId())) {
+                    return true;
                 }
+                if (shard.relocating() && backupFull(shard.relocatingNodeId())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean backupFull(String nodeId) {
+            BackupTarget target = backupTargets.get(backupTargetKey(nodeId, shards.shardId().index().name(), shards.shardId().id()));
+            return target != null && target.full();
+        }
+
+        private void performBackups(final Response response, final boolean alreadyThreaded) {
+            if (ignoreBackups() || shards.size() == 1 /* no backups */) {
+                notifyResponse(response, alreadyThreaded);
                 return;
             }
 
+            ReplicationType replicationType = request.replicationType();
+            if (replicationType == ReplicationType.DEFAULT) {
+                replicationType = defaultReplicationType();
+            }
+            final boolean async = replicationType == ReplicationType.ASYNC;
+            if (async) {
+                // acknowledge once the primary is done, the backups are updated in the background
+                notifyResponse(response, alreadyThreaded);
+            }
+
             // initialize the counter
             int backupCounter = 0;
             for (final ShardRouting shard : shards.reset()) {
@@ -363,45 +873,51 @@ public abstract class TransportShardReplicationOperationAction<Request extends S
                 // and that's fine, we will ignore it
                 if (shard.unassigned()) {
                     if (counter.decrementAndGet() == 0) {
-                        if (alreadyThreaded || !request.listenerThreaded()) {
-                            listener.onResponse(response);
-                        } else {
-                            threadPool.execute(new Runnable() {
-                                @Override public void run() {
-                                    listener.onResponse(response);
-                                }
-                            });
+                        if (!async) {
+                            notifyResponse(response, alreadyThreaded);
                         }
                         break;
                     }
                     continue;
                 }
-                performOnBackup(response, counter, shard, shard.currentNodeId());
+                performOnBackup(response, counter, shard, shard.currentNodeId(), async);
                 if (shard.relocating()) {
-                    performOnBackup(response, counter, shard, shard.relocatingNodeId());
+                    performOnBackup(response, counter, shard, shard.relocatingNodeId(), async);
                 }
             }
         }
 
-        private void performOnBackup(final Response response, final AtomicInteger counter, final ShardRouting shard, String nodeId) {
+        private void notifyResponse(final Response response, boolean alreadyThreaded) {
+            if (alreadyThreaded || !request.listenerThreaded()) {
+                listener.onResponse(response);
+            } else {
+                threadPool.execute(new Runnable() {
+                    @Override public void run() {
+                        listener.onResponse(response);
+                    }
+                });
+            }
+        }
+
+        private void performOnBackup(final Response response, final AtomicInteger counter, final ShardRouting shard, String nodeId, final boolean async) {
             final ShardOperationRequest shardRequest = new ShardOperationRequest(shards.shardId().id(), request);
             if (!nodeId.equals(nodes.localNodeId())) {
                 Node node = nodes.get(nodeId);
-                transportService.sendRequest(node, transportBackupAction(), shardRequest, new VoidTransportResponseHandler() {
-                    @Override public void handleResponse(VoidStreamable vResponse) {
+                sendToBackup(nodes.localNodeId(), node, shardRequest, new BackupListener() {
+                    @Override public void onResponse() {
                         finishIfPossible();
                     }
 
-                    @Override public void handleException(RemoteTransportException exp) {
-                        if (!ignoreBackupException(exp.unwrapCause())) {
-                            logger.warn("Failed to perform " + transportAction() + " on backup " + shards.shardId(), exp);
+                    @Override public void onFailure(Throwable e) {
+                        if (!ignoreBackupException(e)) {
+                            logger.warn("Failed to perform " + transportAction() + " on backup " + shards.shardId(), e);
                             shardStateAction.shardFailed(shard);
                         }
                         finishIfPossible();
                     }
 
                     private void finishIfPossible() {
-                        if (counter.decrementAndGet() == 0) {
+                        if (counter.decrementAndGet() == 0 && !async) {
                             if (request.listenerThreaded()) {
                                 threadPool.execute(new Runnable() {
                                     @Override public void run() {
@@ -413,11 +929,6 @@ public abstract class TransportShardReplicationOperationAction<Request extends S
                             }
                         }
                     }
-
-                    @Override public boolean spawn() {
-                        // don't spawn, we will call the listener on a thread pool if needed
-                        return false;
-                    }
                 });
             } else {
                 if (request.operationThreaded()) {
@@ -431,7 +942,7 @@ public abstract class TransportShardReplicationOperationAction<Request extends S
                                     shardStateAction.shardFailed(shard);
                                 }
                             }
-                            if (counter.decrementAndGet() == 0) {
+                            if (counter.decrementAndGet() == 0 && !async) {
                                 listener.onResponse(response);
                             }
                         }
@@ -445,7 +956,7 @@ public abstract class TransportShardReplicationOperationAction<Request extends S
                             shardStateAction.shardFailed(shard);
                         }
                     }
-                    if (counter.decrementAndGet() == 0) {
+                    if (counter.decrementAndGet() == 0 && !async) {
                         if (request.listenerThreaded()) {
                             threadPool.execute(new Runnable() {
                                 @Override public void run() {
@@ -459,27 +970,5 @@ public abstract class TransportShardReplicationOperationAction<Request extends S
                 }
             }
         }
-
-        /**
-         * Should an exception be ignored when the operation is performed on the backup. The exception
-         * is ignored if it is:
-         *
-         * <ul>
-         * <li><tt>IllegalIndexShardStateException</tt>: The shard has not yet moved to started mode (it is still recovering).
-         * <li><tt>IndexMissingException</tt>/<tt>IndexShardMissingException</tt>: The shard has not yet started to initialize on the target node.
-         * </ul>
-         */
-        private boolean ignoreBackupException(Throwable e) {
-            if (e instanceof IllegalIndexShardStateException) {
-                return true;
-            }
-            if (e instanceof IndexMissingException) {
-                return true;
-            }
-            if (e instanceof IndexShardMissingException) {
-                return true;
-            }
-            return false;
-        }
     }
 }
@@ -139,6 +139,10 @@ public class TransportClient implements Client {
         return nodesService.connectedNodes();
     }
 
+    public TransportClientNodesService nodesService() {
+        return this.nodesService;
+    }
+
     /**
      * Adds a transport address that will be used to connect to.
      *
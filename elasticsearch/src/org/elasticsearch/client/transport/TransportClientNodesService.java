@@ -20,15 +20,28 @@
 package org.elasticsearch.client.transport;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.inject.Inject;
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.TransportActions;
 import org.elasticsearch.action.admin.cluster.node.info.NodesInfoResponse;
+import org.elasticsearch.action.admin.cluster.state.ClusterStateResponse;
 import org.elasticsearch.client.Requests;
+import org.elasticsearch.client.transport.action.admin.cluster.state.ClientTransportClusterStateAction;
 import org.elasticsearch.cluster.ClusterChangedEvent;
 import org.elasticsearch.cluster.ClusterName;
+import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.ClusterStateListener;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.cluster.node.Node;
 import org.elasticsearch.cluster.node.Nodes;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.cluster.routing.ShardsIterator;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.routing.OperationRouting;
+import org.elasticsearch.index.routing.hash.HashFunction;
+import org.elasticsearch.index.routing.hash.djb.DjbHashFunction;
+import org.elasticsearch.index.routing.plain.PlainOperationRouting;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.BaseTransportResponseHandler;
 import org.elasticsearch.transport.RemoteTransportException;
@@ -39,26 +52,44 @@ import org.elasticsearch.util.settings.Settings;
 import org.elasticsearch.util.transport.TransportAddress;
 
 import java.util.HashSet;
+import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import static com.google.common.collect.Maps.*;
 import static org.elasticsearch.util.TimeValue.*;
 
 /**
+ * Keeps the list of nodes the transport client can send requests to, sampled from the configured transport
+ * addresses.
+ *
+ * <p>When <tt>client.transport.shardAwareRouting</tt> is enabled, the cluster state is sampled as well, and single
+ * document operations are sent directly to a node holding the relevant shard (using the same hashing as the
+ * index {@link OperationRouting}), saving the extra hop through a random node. The cluster state is sampled every
+ * <tt>client.transport.routingStateInterval</tt> (defaults to 10s), and as soon as the sampled nodes change. Only
+ * nodes that are currently sampled as alive are routed to, so until a stale cluster state is refreshed, operations
+ * for shards on nodes that went away go to a random node.
+ *
  * @author kimchy (Shay Banon)
  */
 public class TransportClientNodesService extends AbstractComponent implements ClusterStateListener {
 
     private final TimeValue nodesSamplerInterval;
 
+    private final TimeValue routingStateInterval;
+
     private final ClusterName clusterName;
 
     private final TransportService transportService;
 
     private final ThreadPool threadPool;
 
+    private final ClientTransportClusterStateAction clusterStateAction;
+
+    private final boolean shardAwareRouting;
+
     private volatile ImmutableList<TransportAddress> transportAddresses = ImmutableList.of();
 
     private final Object transportMutex = new Object();
@@ -73,18 +104,38 @@ public class TransportClientNodesService extends AbstractComponent implements Cl
 
     private final ScheduledFuture nodesSamplerFuture;
 
+    private final ScheduledFuture routingStateSamplerFuture;
+
     private final AtomicInteger randomNodeGenerator = new AtomicInteger();
 
+    private volatile ClusterState routingState;
+
+    private volatile ImmutableMap<String, OperationRouting> operationRoutings = ImmutableMap.of();
+
     @Inject public TransportClientNodesService(Settings settings, ClusterName clusterName,
-                                               TransportService transportService, ThreadPool threadPool) {
+                                               TransportService transportService, ThreadPool threadPool,
+                                               ClientTransportClusterStateAction clusterStateAction) {
         super(settings);
         this.clusterName = clusterName;
         this.transportService = transportService;
         this.threadPool = threadPool;
+        this.clusterStateAction = clusterStateAction;
 
         this.nodesSamplerInterval = componentSettings.getAsTime("nodesSamplerInterval", timeValueSeconds(1));
+        this.shardAwareRouting = componentSettings.getAsBoolean("shardAwareRouting", false);
+        // the full cluster state is much heavier than the nodes info, so it is not sampled with the nodes
+        this.routingStateInterval = componentSettings.getAsTime("routingStateInterval", timeValueSeconds(10));
 
         this.nodesSamplerFuture = threadPool.scheduleWithFixedDelay(nodesSampler, nodesSamplerInterval);
+        if (shardAwareRouting) {
+            this.routingStateSamplerFuture = threadPool.scheduleWithFixedDelay(new Runnable() {
+                @Override public void run() {
+                    sampleRoutingState();
+                }
+            }, routingStateInterval);
+        } else {
+            this.routingStateSamplerFuture = null;
+        }
     }
 
     public ImmutableList<TransportAddress> transportAddresses() {
@@ -126,8 +177,87 @@ public class TransportClientNodesService extends AbstractComponent implements Cl
         return nodes.get(Math.abs(randomNodeGenerator.incrementAndGet()) % nodes.size());
     }
 
+    /**
+     * A node holding the primary shard the document belongs to, falling back to a random node when it can't
+     * be resolved (shard aware routing disabled, unknown index, or no started primary).
+     */
+    public Node primaryShardNode(String index, String type, String id) {
+        ClusterState routingState = this.routingState;
+        ShardsIterator shards = shards(routingState, index, type, id, true);
+        if (shards != null) {
+            for (ShardRouting shard : shards) {
+                if (shard.primary()) {
+                    Node node = shardNode(routingState, shard);
+                    if (node != null) {
+                        return node;
+                    }
+                }
+            }
+        }
+        return randomNode();
+    }
+
+    /**
+     * A node holding one of the copies of the shard the document belongs to, falling back to a random node
+     * when it can't be resolved.
+     */
+    public Node anyShardNode(String index, String type, String id) {
+        ClusterState routingState = this.routingState;
+        ShardsIterator shards = shards(routingState, index, type, id, false);
+        if (shards != null) {
+            for (ShardRouting shard : shards) {
+                Node node = shardNode(routingState, shard);
+                if (node != null) {
+                    return node;
+                }
+            }
+        }
+        return randomNode();
+    }
+
+    private ShardsIterator shards(ClusterState routingState, String index, String type, String id, boolean primary) {
+        if (routingState == null || index == null || type == null || id == null) {
+            return null;
+        }
+        OperationRouting operationRouting = operationRoutings.get(index);
+        if (operationRouting == null) {
+            return null;
+        }
+        try {
+            if (primary) {
+                return operationRouting.indexShards(routingState, type, id);
+            }
+            return operationRouting.getShards(routingState, type, id);
+        } catch (Exception e) {
+            // the routing table might be stale (index deleted, shards missing), just use a random node
+            return null;
+        }
+    }
+
+    private Node shardNode(ClusterState routingState, ShardRouting shard) {
+        if (!shard.active()) {
+            return null;
+        }
+        Node node = routingState.nodes().get(shard.currentNodeId());
+        if (node == null || !nodes.contains(node)) {
+            // the routing state might be stale, only use nodes that are still alive
+            return null;
+        }
+        return node;
+    }
+
     public void close() {
         nodesSamplerFuture.cancel(true);
+        if (routingStateSamplerFuture != null) {
+            routingStateSamplerFuture.cancel(true);
+        }
+    }
+
+    /**
+     * The last sampled cluster state used for shard aware routing, <tt>null</tt> if not sampled yet.
+     */
+    public ClusterState routingState() {
+        return this.routingState;
     }
 
     @Override public void clusterChanged(ClusterChangedEvent event) {
@@ -200,9 +330,71 @@ public class TransportClientNodesService extends AbstractComponent implements Cl
             if (discoveredNodes != null) {
                 newNodes.addAll(discoveredNodes.nodes().values());
             }
+            boolean nodesChanged = !newNodes.equals(new HashSet<Node>(nodes));
             nodes = new ImmutableList.Builder<Node>().addAll(newNodes).build();
 
             transportService.nodesRemoved(tempNodes);
+
+            if (shardAwareRouting && nodesChanged) {
+                // nodes joined or left, shards are probably moving, don't wait for the next routing state sample
+                sampleRoutingState();
+            }
+        }
+    }
+
+    private void sampleRoutingState() {
+        Node node;
+        try {
+            node = randomNode();
+        } catch (NoNodeAvailableException e) {
+            return;
+        }
+        clusterStateAction.execute(node, Requests.clusterState(), new ActionListener<ClusterStateResponse>() {
+            @Override public void onResponse(ClusterStateResponse response) {
+                updateRoutingState(response.state());
+            }
+
+            @Override public void onFailure(Throwable e) {
+                logger.debug("Failed to sample the cluster state for shard aware routing", e);
+            }
+        });
+    }
+
+    private void updateRoutingState(ClusterState clusterState) {
+        ClusterState previousState = this.routingState;
+        Map<String, OperationRouting> newOperationRoutings = newHashMap();
+        for (IndexMetaData indexMetaData : clusterState.metaData()) {
+            OperationRouting operationRouting = operationRoutings.get(indexMetaData.index());
+            // the sampled states are deserialized, so the index metadata is never the same instance, the routing
+            // only depends on the index settings though
+            IndexMetaData previousIndexMetaData = previousState == null ? null : previousState.metaData().index(indexMetaData.index());
+            if (operationRouting == null || previousIndexMetaData == null
+                    || !previousIndexMetaData.settings().getAsMap().equals(indexMetaData.settings().getAsMap())) {
+                operationRouting = createOperationRouting(indexMetaData);
+            }
+            if (operationRouting != null) {
+                newOperationRoutings.put(indexMetaData.index(), operationRouting);
+            }
+        }
+        this.operationRoutings = ImmutableMap.copyOf(newOperationRoutings);
+        this.routingState = clusterState;
+    }
+
+    /**
+     * Creates the same operation routing the index uses on the server side, only the default (plain) routing
+     * is supported. Returns <tt>null</tt> if the index routing can't be replicated on the client side.
+     */
+    private OperationRouting createOperationRouting(IndexMetaData indexMetaData) {
+        Settings indexSettings = indexMetaData.settings();
+        if (indexSettings.get("index.routing.type") != null && !"plain".equals(indexSettings.get("index.routing.type"))) {
+            return null;
+        }
+        try {
+            Class<? extends HashFunction> hashFunctionClass = indexSettings.getAsClass("index.routing.hash.type", DjbHashFunction.class, "org.elasticsearch.index.routing.hash.", "HashFunction");
+            return new PlainOperationRouting(new Index(indexMetaData.index()), indexSettings, hashFunctionClass.newInstance());
+        } catch (Exception e) {
+            logger.debug("Failed to create operation routing for index [" + indexMetaData.index() + "], using random nodes", e);
+            return null;
         }
     }
 }
@@ -97,27 +97,27 @@ public class InternalTransportClient extends AbstractComponent implements Client
     }
 
     @Override public ActionFuture<IndexResponse> index(IndexRequest request) {
-        return indexAction.submit(nodesService.randomNode(), request);
+        return indexAction.submit(nodesService.primaryShardNode(request.index(), request.type(), request.id()), request);
     }
 
     @Override public ActionFuture<IndexResponse> index(IndexRequest request, ActionListener<IndexResponse> listener) {
-        return indexAction.submit(nodesService.randomNode(), request, listener);
+        return indexAction.submit(nodesService.primaryShardNode(request.index(), request.type(), request.id()), request, listener);
     }
 
     @Override public void execIndex(IndexRequest request, ActionListener<IndexResponse> listener) {
-        indexAction.execute(nodesService.randomNode(), request, listener);
+        indexAction.execute(nodesService.primaryShardNode(request.index(), request.type(), request.id()), request, listener);
     }
 
     @Override public ActionFuture<DeleteResponse> delete(DeleteRequest request) {
-        return deleteAction.submit(nodesService.randomNode(), request);
+        return deleteAction.submit(nodesService.primaryShardNode(request.index(), request.type(), request.id()), request);
     }
 
     @Override public ActionFuture<DeleteResponse> delete(DeleteRequest request, ActionListener<DeleteResponse> listener) {
-        return deleteAction.submit(nodesService.randomNode(), request, listener);
+        return deleteAction.submit(nodesService.primaryShardNode(request.index(), request.type(), request.id()), request, listener);
     }
 
     @Override public void execDelete(DeleteRequest request, ActionListener<DeleteResponse> listener) {
-        deleteAction.execute(nodesService.randomNode(), request, listener);
+        deleteAction.execute(nodesService.primaryShardNode(request.index(), request.type(), request.id()), request, listener);
     }
 
     @Override public ActionFuture<DeleteByQueryResponse> deleteByQuery(DeleteByQueryRequest request) {
@@ -133,15 +133,15 @@ public class InternalTransportClient extends AbstractComponent implements Client
     }
 
     @Override public ActionFuture<GetResponse> get(GetRequest request) {
-        return getAction.submit(nodesService.randomNode(), request);
+        return getAction.submit(nodesService.anyShardNode(request.index(), request.type(), request.id()), request);
     }
 
     @Override public ActionFuture<GetResponse> get(GetRequest request, ActionListener<GetResponse> listener) {
-        return getAction.submit(nodesService.randomNode(), request, listener);
+        return getAction.submit(nodesService.anyShardNode(request.index(), request.type(), request.id()), request, listener);
     }
 
     @Override public void execGet(GetRequest request, ActionListener<GetResponse> listener) {
-        getAction.execute(nodesService.randomNode(), request, listener);
+        getAction.execute(nodesService.anyShardNode(request.index(), request.type(), request.id()), request, listener);
     }
 
     @Override public ActionFuture<CountResponse> count(CountRequest request) {
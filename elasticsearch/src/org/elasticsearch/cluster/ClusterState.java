@@ -27,6 +27,8 @@ import org.elasticsearch.cluster.routing.RoutingTable;
 import org.elasticsearch.util.Nullable;
 import org.elasticsearch.util.io.ByteArrayDataInputStream;
 import org.elasticsearch.util.io.ByteArrayDataOutputStream;
+import org.elasticsearch.util.io.CompactDataInput;
+import org.elasticsearch.util.io.CompactDataOutput;
 import org.elasticsearch.util.settings.Settings;
 
 import java.io.DataInput;
@@ -49,6 +51,9 @@ public class ClusterState {
     // built on demand
     private volatile RoutingNodes routingNodes;
 
+    // serialized on demand, the state is immutable so it can be reused when sent to several nodes
+    private volatile byte[] serializedForm;
+
     public ClusterState(long version, MetaData metaData, RoutingTable routingTable, Nodes nodes) {
         this.version = version;
         this.metaData = metaData;
@@ -141,17 +146,35 @@ public class ClusterState {
             return new ClusterState(version, metaData, routingTable, nodes);
         }
 
+        /**
+         * Returns the serialized form of the cluster state. The serialized form is cached on the state and
+         * shared between callers, so it must not be modified.
+         */
         public static byte[] toBytes(ClusterState state) throws IOException {
+            byte[] serializedForm = state.serializedForm;
+            if (serializedForm != null) {
+                return serializedForm;
+            }
             ByteArrayDataOutputStream os = ByteArrayDataOutputStream.Cached.cached();
             writeTo(state, os);
-            return os.copiedByteArray();
+            serializedForm = os.copiedByteArray();
+            state.serializedForm = serializedForm;
+            return serializedForm;
         }
 
         public static ClusterState fromBytes(byte[] data, Settings globalSettings, Node localNode) throws IOException, ClassNotFoundException {
-            return readFrom(new ByteArrayDataInputStream(data), globalSettings, localNode);
+            ClusterState clusterState = readFrom(new ByteArrayDataInputStream(data), globalSettings, localNode);
+            // the serialized form does not depend on the local node, reuse it if this node needs to send the state
+            clusterState.serializedForm = data;
+            return clusterState;
         }
 
+        /**
+         * Writes the cluster state in a compact form, see {@link CompactDataOutput}. Index names and node ids
+         * repeat across the meta data, routing table and nodes, and are written only once.
+         */
         public static void writeTo(ClusterState state, DataOutput out) throws IOException {
+            out = new CompactDataOutput(out);
             out.writeLong(state.version());
             MetaData.Builder.writeTo(state.metaData(), out);
             RoutingTable.Builder.writeTo(state.routingTable(), out);
@@ -159,6 +182,7 @@ public class ClusterState {
         }
 
         public static ClusterState readFrom(DataInput in, @Nullable Settings globalSettings, @Nullable Node localNode) throws ClassNotFoundException, IOException {
+            in = new CompactDataInput(in);
             Builder builder = new Builder();
             builder.version = in.readLong();
             builder.metaData = MetaData.Builder.readFrom(in, globalSettings);
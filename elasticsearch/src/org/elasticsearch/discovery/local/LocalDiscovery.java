@@ -0,0 +1,268 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.discovery.local;
+
+import com.google.inject.Inject;
+import org.elasticsearch.ElasticSearchException;
+import org.elasticsearch.ElasticSearchIllegalStateException;
+import org.elasticsearch.cluster.*;
+import org.elasticsearch.cluster.node.Node;
+import org.elasticsearch.cluster.node.Nodes;
+import org.elasticsearch.discovery.Discovery;
+import org.elasticsearch.discovery.InitialStateDiscoveryListener;
+import org.elasticsearch.transport.TransportService;
+import org.elasticsearch.util.component.AbstractComponent;
+import org.elasticsearch.util.component.Lifecycle;
+import org.elasticsearch.util.settings.Settings;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.collect.Lists.*;
+import static com.google.common.collect.Maps.*;
+import static com.google.common.collect.Sets.*;
+import static org.elasticsearch.cluster.ClusterState.*;
+
+/**
+ * A discovery of nodes running within the same JVM (usually used with the local transport). Nodes
+ * with the same cluster name join the same cluster, the first node started is the master, and when
+ * the master leaves the next node in line takes over.
+ *
+ * @author kimchy (Shay Banon)
+ */
+public class LocalDiscovery extends AbstractComponent implements Discovery {
+
+    private static final Map<ClusterName, ClusterGroup> clusterGroups = newHashMap();
+
+    private static final AtomicLong nodeIdGenerator = new AtomicLong();
+
+    private final Lifecycle lifecycle = new Lifecycle();
+
+    private final TransportService transportService;
+
+    private final ClusterService clusterService;
+
+    private final ClusterName clusterName;
+
+    private volatile Node localNode;
+
+    private volatile boolean master = false;
+
+    private volatile boolean firstMaster = false;
+
+    private final AtomicBoolean initialStateSent = new AtomicBoolean();
+
+    private final CopyOnWriteArrayList<InitialStateDiscoveryListener> initialStateListeners = new CopyOnWriteArrayList<InitialStateDiscoveryListener>();
+
+    @Inject public LocalDiscovery(Settings settings, ClusterName clusterName, TransportService transportService, ClusterService clusterService) {
+        super(settings);
+        this.clusterName = clusterName;
+        this.clusterService = clusterService;
+        this.transportService = transportService;
+    }
+
+    @Override public Lifecycle.State lifecycleState() {
+        return this.lifecycle.state();
+    }
+
+    @Override public Discovery start() throws ElasticSearchException {
+        if (!lifecycle.moveToStarted()) {
+            return this;
+        }
+        synchronized (clusterGroups) {
+            ClusterGroup clusterGroup = clusterGroups.get(clusterName);
+            if (clusterGroup == null) {
+                clusterGroup = new ClusterGroup();
+                clusterGroups.put(clusterName, clusterGroup);
+            }
+            this.localNode = new Node(settings.get("name"), settings.getAsBoolean("node.data", true), Long.toString(nodeIdGenerator.incrementAndGet()), transportService.boundAddress().publishAddress());
+            logger.debug("Connected to cluster [{}]", clusterName);
+            clusterGroup.members().add(this);
+
+            LocalDiscovery masterDiscovery = clusterGroup.members().get(0);
+            if (masterDiscovery == this) {
+                master = true;
+                firstMaster = true;
+                clusterService.submitStateUpdateTask("local-disco-initialconnect(master)", new ProcessedClusterStateUpdateTask() {
+                    @Override public ClusterState execute(ClusterState currentState) {
+                        Nodes.Builder builder = new Nodes.Builder()
+                                .localNodeId(localNode.id())
+                                .masterNodeId(localNode.id())
+                                        // put our local node
+                                .put(localNode);
+                        return newClusterStateBuilder().state(currentState).nodes(builder).build();
+                    }
+
+                    @Override public void clusterStateProcessed(ClusterState clusterState) {
+                        sendInitialStateEventIfNeeded();
+                    }
+                });
+            } else {
+                clusterService.submitStateUpdateTask("local-disco-initialconnect", new ClusterStateUpdateTask() {
+                    @Override public ClusterState execute(ClusterState currentState) {
+                        Nodes.Builder builder = new Nodes.Builder()
+                                .localNodeId(localNode.id())
+                                .put(localNode);
+                        return newClusterStateBuilder().state(currentState).nodes(builder).build();
+                    }
+                });
+                // tell the master about us, it will publish the new cluster state back
+                final Node newNode = localNode;
+                masterDiscovery.clusterService.submitStateUpdateTask("local-disco-receive(from node[" + newNode + "])", new ClusterStateUpdateTask() {
+                    @Override public ClusterState execute(ClusterState currentState) {
+                        if (currentState.nodes().nodeExists(newNode.id())) {
+                            // no change, the node already exists in the cluster
+                            logger.warn("Received an address [{}] for an existing node [{}]", newNode.address(), newNode);
+                            return currentState;
+                        }
+                        return newClusterStateBuilder().state(currentState).nodes(currentState.nodes().newNode(newNode)).build();
+                    }
+                });
+            }
+        }
+        return this;
+    }
+
+    @Override public Discovery stop() throws ElasticSearchException {
+        if (!lifecycle.moveToStopped()) {
+            return this;
+        }
+        synchronized (clusterGroups) {
+            ClusterGroup clusterGroup = clusterGroups.get(clusterName);
+            if (clusterGroup == null) {
+                logger.warn("Illegal state, should not have an empty cluster group when stopping, I should be there at the very least...");
+                return this;
+            }
+            clusterGroup.members().remove(this);
+            if (clusterGroup.members().isEmpty()) {
+                // no more members, remove and return
+                clusterGroups.remove(clusterName);
+                return this;
+            }
+
+            final Set<String> newMembers = newHashSet();
+            for (LocalDiscovery discovery : clusterGroup.members()) {
+                newMembers.add(discovery.localNode.id());
+            }
+
+            final LocalDiscovery masterDiscovery = clusterGroup.members().get(0);
+            if (master) {
+                // the next node in line takes over as master, and publishes the new state
+                masterDiscovery.master = true;
+            }
+            master = false;
+            masterDiscovery.clusterService.submitStateUpdateTask("local-disco-update", new ClusterStateUpdateTask() {
+                @Override public ClusterState execute(ClusterState currentState) {
+                    Nodes newNodes = currentState.nodes().removeDeadMembers(newMembers, masterDiscovery.localNode.id());
+                    return newClusterStateBuilder().state(currentState).nodes(newNodes).build();
+                }
+            });
+        }
+        initialStateSent.set(false);
+        return this;
+    }
+
+    @Override public void close() throws ElasticSearchException {
+        if (lifecycle.started()) {
+            stop();
+        }
+        if (!lifecycle.moveToClosed()) {
+            return;
+        }
+    }
+
+    @Override public void addListener(InitialStateDiscoveryListener listener) {
+        initialStateListeners.add(listener);
+    }
+
+    @Override public void removeListener(InitialStateDiscoveryListener listener) {
+        initialStateListeners.remove(listener);
+    }
+
+    @Override public String nodeDescription() {
+        return clusterName.value() + "/" + localNode.id();
+    }
+
+    @Override public boolean firstMaster() {
+        return firstMaster;
+    }
+
+    @Override public void publish(ClusterState clusterState) {
+        if (!master) {
+            throw new ElasticSearchIllegalStateException("Shouldn't publish state when not master");
+        }
+        List<LocalDiscovery> members;
+        synchronized (clusterGroups) {
+            ClusterGroup clusterGroup = clusterGroups.get(clusterName);
+            if (clusterGroup == null) {
+                return;
+            }
+            members = newArrayList(clusterGroup.members());
+        }
+        try {
+            // each node gets its own copy of the cluster state, with its own local node
+            byte[] clusterStateBytes = Builder.toBytes(clusterState);
+            for (final LocalDiscovery discovery : members) {
+                if (discovery == this) {
+                    continue;
+                }
+                final ClusterState nodeSpecificClusterState = Builder.fromBytes(clusterStateBytes, discovery.settings, discovery.localNode);
+                // ignore cluster state messages that do not include "me", not in the game yet...
+                if (nodeSpecificClusterState.nodes().localNode() != null) {
+                    discovery.clusterService.submitStateUpdateTask("local-disco-receive(from master)", new ProcessedClusterStateUpdateTask() {
+                        @Override public ClusterState execute(ClusterState currentState) {
+                            return nodeSpecificClusterState;
+                        }
+
+                        @Override public void clusterStateProcessed(ClusterState clusterState) {
+                            discovery.sendInitialStateEventIfNeeded();
+                        }
+                    });
+                }
+            }
+        } catch (Exception e) {
+            // failure to marshal or un-marshal
+            throw new ElasticSearchIllegalStateException("Cluster state failed to serialize", e);
+        }
+    }
+
+    private void sendInitialStateEventIfNeeded() {
+        if (initialStateSent.compareAndSet(false, true)) {
+            for (InitialStateDiscoveryListener listener : initialStateListeners) {
+                listener.initialStateProcessed();
+            }
+        }
+    }
+
+    private static class ClusterGroup {
+
+        private final LinkedList<LocalDiscovery> members = new LinkedList<LocalDiscovery>();
+
+        LinkedList<LocalDiscovery> members() {
+            return members;
+        }
+    }
+}
@@ -0,0 +1,511 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.discovery.zen;
+
+import com.google.inject.Inject;
+import org.elasticsearch.ElasticSearchException;
+import org.elasticsearch.ElasticSearchIllegalStateException;
+import org.elasticsearch.cluster.*;
+import org.elasticsearch.cluster.node.Node;
+import org.elasticsearch.cluster.node.Nodes;
+import org.elasticsearch.discovery.Discovery;
+import org.elasticsearch.discovery.InitialStateDiscoveryListener;
+import org.elasticsearch.discovery.zen.elect.ElectMasterService;
+import org.elasticsearch.discovery.zen.fd.MasterFaultDetection;
+import org.elasticsearch.discovery.zen.fd.NodesFaultDetection;
+import org.elasticsearch.discovery.zen.membership.MembershipAction;
+import org.elasticsearch.discovery.zen.ping.ZenPing;
+import org.elasticsearch.discovery.zen.publish.PublishClusterStateAction;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.TransportService;
+import org.elasticsearch.util.TimeValue;
+import org.elasticsearch.util.component.AbstractComponent;
+import org.elasticsearch.util.component.Lifecycle;
+import org.elasticsearch.util.settings.Settings;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.google.common.collect.Lists.*;
+import static org.elasticsearch.cluster.ClusterState.*;
+import static org.elasticsearch.cluster.node.Nodes.*;
+import static org.elasticsearch.util.TimeValue.*;
+
+/**
+ * A discovery built on top of the {@link TransportService}. Nodes find each other by pinging (see {@link ZenPing}),
+ * join an existing master or elect one (the node with the lowest id), and the master publishes the cluster state
+ * to the rest of the nodes over the transport.
+ * <p/>
+ * The master pings all the nodes and the nodes ping the master periodically (see {@link NodesFaultDetection} and
+ * {@link MasterFaultDetection}). A failed node is removed from the cluster, and when the master fails (or shuts
+ * down) the remaining nodes elect the next master right away out of the nodes they already know of.
+ *
+ * @author kimchy (Shay Banon)
+ */
+public class ZenDiscovery extends AbstractComponent implements Discovery, DiscoveryNodesProvider {
+
+    private final Lifecycle lifecycle = new Lifecycle();
+
+    private final ThreadPool threadPool;
+
+    private final TransportService transportService;
+
+    private final ClusterService clusterService;
+
+    private final ClusterName clusterName;
+
+    private final ZenPing zenPing;
+
+    private final ElectMasterService electMaster;
+
+    private final MasterFaultDetection masterFD;
+
+    private final NodesFaultDetection nodesFD;
+
+    private final PublishClusterStateAction publishClusterState;
+
+    private final MembershipAction membership;
+
+    private final TimeValue pingTimeout;
+
+    private final TimeValue joinTimeout;
+
+    private volatile Node localNode;
+
+    private volatile boolean master = false;
+
+    private volatile boolean firstMaster = false;
+
+    private volatile Nodes latestDiscoNodes = EMPTY_NODES;
+
+    private final AtomicBoolean joining = new AtomicBoolean();
+
+    private final AtomicBoolean initialStateSent = new AtomicBoolean();
+
+    private final CopyOnWriteArrayList<InitialStateDiscoveryListener> initialStateListeners = new CopyOnWriteArrayList<InitialStateDiscoveryListener>();
+
+    @Inject public ZenDiscovery(Settings settings, ClusterName clusterName, ThreadPool threadPool,
+                                TransportService transportService, ClusterService clusterService, ZenPing zenPing) {
+        super(settings);
+        this.clusterName = clusterName;
+        this.threadPool = threadPool;
+        this.transportService = transportService;
+        this.clusterService = clusterService;
+        this.zenPing = zenPing;
+
+        this.pingTimeout = componentSettings.getAsTime("pingTimeout", timeValueSeconds(3));
+        this.joinTimeout = componentSettings.getAsTime("joinTimeout", timeValueSeconds(30));
+
+        logger.debug("Using pingTimeout [{}], joinTimeout [{}]", pingTimeout, joinTimeout);
+
+        this.electMaster = new ElectMasterService(settings);
+
+        this.masterFD = new MasterFaultDetection(settings, threadPool, transportService, this);
+        this.masterFD.addListener(new MasterNodeFailureListener());
+
+        this.nodesFD = new NodesFaultDetection(settings, threadPool, transportService, this);
+        this.nodesFD.addListener(new NodeFailureListener());
+
+        this.publishClusterState = new PublishClusterStateAction(settings, threadPool, transportService, this, new NewClusterStateListener());
+        this.membership = new MembershipAction(settings, transportService, new MembershipListener());
+
+        this.zenPing.setNodesProvider(this);
+    }
+
+    @Override public Lifecycle.State lifecycleState() {
+        return this.lifecycle.state();
+    }
+
+    @Override public Discovery start() throws ElasticSearchException {
+        if (!lifecycle.moveToStarted()) {
+            return this;
+        }
+        localNode = new Node(settings.get("name"), settings.getAsBoolean("node.data", true), UUID.randomUUID().toString(), transportService.boundAddress().publishAddress());
+        latestDiscoNodes = newNodesBuilder().put(localNode).localNodeId(localNode.id()).build();
+        nodesFD.updateNodes(latestDiscoNodes);
+        zenPing.start();
+
+        clusterService.submitStateUpdateTask("zen-disco-initial_connect", new ClusterStateUpdateTask() {
+            @Override public ClusterState execute(ClusterState currentState) {
+                Nodes.Builder builder = newNodesBuilder()
+                        .localNodeId(localNode.id())
+                        .put(localNode);
+                return newClusterStateBuilder().state(currentState).nodes(builder).build();
+            }
+        });
+        // the initial state is set once we join a master, or get elected as one
+        asyncJoinCluster(true);
+        return this;
+    }
+
+    @Override public Discovery stop() throws ElasticSearchException {
+        if (!lifecycle.moveToStopped()) {
+            return this;
+        }
+        nodesFD.stop();
+        masterFD.stop("zen disco stop");
+        zenPing.stop();
+        Nodes nodes = latestDiscoNodes;
+        if (master) {
+            // let the other nodes know right away, so they elect a new master without waiting on the fault detection
+            for (Node node : nodes) {
+                if (node.equals(localNode)) {
+                    continue;
+                }
+                try {
+                    membership.sendLeaveRequest(localNode, node);
+                } catch (Exception e) {
+                    logger.debug("Failed to send leave request to [" + node + "]", e);
+                }
+            }
+        } else if (nodes.masterNode() != null) {
+            try {
+                membership.sendLeaveRequestBlocking(nodes.masterNode(), localNode, timeValueSeconds(1));
+            } catch (Exception e) {
+                logger.debug("Failed to send leave request to master [" + nodes.masterNode() + "]", e);
+            }
+        }
+        master = false;
+        initialStateSent.set(false);
+        return this;
+    }
+
+    @Override public void close() throws ElasticSearchException {
+        if (lifecycle.started()) {
+            stop();
+        }
+        if (!lifecycle.moveToClosed()) {
+            return;
+        }
+        masterFD.close();
+        nodesFD.close();
+        publishClusterState.close();
+        membership.close();
+        zenPing.close();
+    }
+
+    @Override public void addListener(InitialStateDiscoveryListener listener) {
+        initialStateListeners.add(listener);
+    }
+
+    @Override public void removeListener(InitialStateDiscoveryListener listener) {
+        initialStateListeners.remove(listener);
+    }
+
+    @Override public String nodeDescription() {
+        return clusterName.value() + "/" + localNode.id();
+    }
+
+    @Override public boolean firstMaster() {
+        return firstMaster;
+    }
+
+    @Override public Nodes nodes() {
+        return latestDiscoNodes;
+    }
+
+    @Override public void publish(ClusterState clusterState) {
+        if (!master) {
+            throw new ElasticSearchIllegalStateException("Shouldn't publish state when not master");
+        }
+        latestDiscoNodes = clusterState.nodes();
+        nodesFD.updateNodes(clusterState.nodes());
+        publishClusterState.publish(clusterState);
+    }
+
+    private void asyncJoinCluster(final boolean initialJoin) {
+        if (!joining.compareAndSet(false, true)) {
+            // already trying to join
+            return;
+        }
+        threadPool.execute(new Runnable() {
+            @Override public void run() {
+                try {
+                    joinCluster(initialJoin);
+                } finally {
+                    joining.set(false);
+                }
+            }
+        });
+    }
+
+    private void joinCluster(boolean initialJoin) {
+        while (lifecycle.started()) {
+            if (joined()) {
+                return;
+            }
+            Node masterNode = findMaster();
+            if (masterNode == null || joined()) {
+                continue;
+            }
+            if (localNode.equals(masterNode)) {
+                becomeMaster("zen-disco-join (elected_as_master)", null, initialJoin);
+                return;
+            }
+            try {
+                // the master publishes the cluster state including us once it processed the join
+                membership.sendJoinRequestBlocking(masterNode, localNode, joinTimeout);
+                masterFD.start(masterNode, "initial_join");
+                return;
+            } catch (Exception e) {
+                logger.debug("Failed to send join request to master [" + masterNode + "], retrying...", e);
+            }
+        }
+    }
+
+    /**
+     * Returns <tt>true</tt> if this node is the master, or follows one.
+     */
+    private boolean joined() {
+        return master || latestDiscoNodes.masterNodeId() != null;
+    }
+
+    private Node findMaster() {
+        ZenPing.PingResponse[] pingResponses = pingAndWait(pingTimeout);
+        if (pingResponses == null) {
+            return null;
+        }
+        if (logger.isDebugEnabled()) {
+            StringBuilder sb = new StringBuilder("ping responses:");
+            if (pingResponses.length == 0) {
+                sb.append(" {none}");
+            } else {
+                for (ZenPing.PingResponse pingResponse : pingResponses) {
+                    sb.append("\n\t--> ").append(pingResponse);
+                }
+            }
+            logger.debug(sb.toString());
+        }
+        List<Node> pingMasters = newArrayList();
+        for (ZenPing.PingResponse pingResponse : pingResponses) {
+            if (pingResponse.master() != null && !localNode.equals(pingResponse.master())) {
+                pingMasters.add(pingResponse.master());
+            }
+        }
+        if (pingMasters.isEmpty()) {
+            // no master yet, elect one out of all the nodes that responded (and us)
+            List<Node> possibleMasterNodes = newArrayList();
+            possibleMasterNodes.add(localNode);
+            for (ZenPing.PingResponse pingResponse : pingResponses) {
+                possibleMasterNodes.add(pingResponse.target());
+            }
+            return electMaster.electMaster(possibleMasterNodes);
+        }
+        // there is already a master (several ones while failing over), join the one that would win the election
+        return electMaster.electMaster(pingMasters);
+    }
+
+    private ZenPing.PingResponse[] pingAndWait(TimeValue timeout) {
+        final AtomicReference<ZenPing.PingResponse[]> response = new AtomicReference<ZenPing.PingResponse[]>();
+        final CountDownLatch latch = new CountDownLatch(1);
+        try {
+            zenPing.ping(new ZenPing.PingListener() {
+                @Override public void onPing(ZenPing.PingResponse[] pings) {
+                    response.set(pings);
+                    latch.countDown();
+                }
+            }, timeout);
+        } catch (Exception e) {
+            logger.warn("Failed to ping", e);
+            return null;
+        }
+        try {
+            latch.await();
+            return response.get();
+        } catch (InterruptedException e) {
+            return null;
+        }
+    }
+
+    private void becomeMaster(String source, final Node previousMasterNode, boolean initialJoin) {
+        master = true;
+        if (initialJoin) {
+            firstMaster = true;
+        }
+        masterFD.stop("elected as master");
+        nodesFD.start();
+        clusterService.submitStateUpdateTask(source, new ProcessedClusterStateUpdateTask() {
+            @Override public ClusterState execute(ClusterState currentState) {
+                Nodes.Builder builder = newNodesBuilder()
+                        .putAll(currentState.nodes())
+                        .localNodeId(localNode.id())
+                        .masterNodeId(localNode.id());
+                if (previousMasterNode != null) {
+                    builder.remove(previousMasterNode.id());
+                }
+                latestDiscoNodes = builder.build();
+                return newClusterStateBuilder().state(currentState).nodes(latestDiscoNodes).build();
+            }
+
+            @Override public void clusterStateProcessed(ClusterState clusterState) {
+                sendInitialStateEventIfNeeded();
+            }
+        });
+    }
+
+    private void handleMasterGone(final Node masterNode, String reason) {
+        if (!lifecycle.started() || master) {
+            return;
+        }
+        logger.info("Master [{}] left, reason [{}]", masterNode, reason);
+        masterFD.stop("master left");
+
+        List<Node> remainingNodes = newArrayList();
+        for (Node node : latestDiscoNodes) {
+            if (!node.equals(masterNode)) {
+                remainingNodes.add(node);
+            }
+        }
+        Node electedMaster = electMaster.electMaster(remainingNodes);
+        if (localNode.equals(electedMaster)) {
+            becomeMaster("zen-disco-master_failed (" + masterNode + "), elected as master", masterNode, false);
+            return;
+        }
+
+        // no master until the elected one publishes its cluster state to us
+        latestDiscoNodes = newNodesBuilder().putAll(latestDiscoNodes).remove(masterNode.id()).masterNodeId(null).build();
+        clusterService.submitStateUpdateTask("zen-disco-master_failed (" + masterNode + ")", new ClusterStateUpdateTask() {
+            @Override public ClusterState execute(ClusterState currentState) {
+                Nodes nodes = newNodesBuilder().putAll(currentState.nodes()).remove(masterNode.id()).masterNodeId(null).build();
+                return newClusterStateBuilder().state(currentState).nodes(nodes).build();
+            }
+        });
+        // in case the elected master is gone as well, go through the join process
+        asyncJoinCluster(false);
+    }
+
+    private void removeNode(final Node node, String source) {
+        clusterService.submitStateUpdateTask(source, new ClusterStateUpdateTask() {
+            @Override public ClusterState execute(ClusterState currentState) {
+                if (!currentState.nodes().nodeExists(node.id())) {
+                    return currentState;
+                }
+                latestDiscoNodes = newNodesBuilder().putAll(currentState.nodes()).remove(node.id()).build();
+                return newClusterStateBuilder().state(currentState).nodes(latestDiscoNodes).build();
+            }
+        });
+    }
+
+    private void sendInitialStateEventIfNeeded() {
+        if (initialStateSent.compareAndSet(false, true)) {
+            for (InitialStateDiscoveryListener listener : initialStateListeners) {
+                listener.initialStateProcessed();
+            }
+        }
+    }
+
+    private class NewClusterStateListener implements PublishClusterStateAction.NewClusterStateListener {
+
+        @Override public void onNewClusterState(final ClusterState clusterState) {
+            if (master) {
+                logger.warn("Master should not receive new cluster state from [{}]", clusterState.nodes().masterNode());
+                return;
+            }
+            final Node newMasterNode = clusterState.nodes().masterNode();
+            // ignore cluster states that do not include "me", not in the game yet...
+            if (newMasterNode == null || clusterState.nodes().localNode() == null) {
+                return;
+            }
+            masterFD.start(newMasterNode, "new cluster state received");
+            clusterService.submitStateUpdateTask("zen-disco-receive(from master [" + newMasterNode + "])", new ProcessedClusterStateUpdateTask() {
+                @Override public ClusterState execute(ClusterState currentState) {
+                    if (newMasterNode.id().equals(currentState.nodes().masterNodeId()) && clusterState.version() < currentState.version()) {
+                        // an older cluster state from the same master, arrived after a newer one
+                        return currentState;
+                    }
+                    latestDiscoNodes = clusterState.nodes();
+                    return clusterState;
+                }
+
+                @Override public void clusterStateProcessed(ClusterState clusterState) {
+                    sendInitialStateEventIfNeeded();
+                }
+            });
+        }
+    }
+
+    private class MembershipListener implements MembershipAction.MembershipListener {
+
+        @Override public void onJoin(final Node node) {
+            if (!master) {
+                throw new ElasticSearchIllegalStateException("Node [" + localNode + "] not master for join request from [" + node + "]");
+            }
+            clusterService.submitStateUpdateTask("zen-disco-receive(join from node[" + node + "])", new ClusterStateUpdateTask() {
+                @Override public ClusterState execute(ClusterState currentState) {
+                    if (currentState.nodes().nodeExists(node.id())) {
+                        // the node rejoined, it might have missed cluster states, so publish the current one again
+                        logger.debug("Received a join request for an existing node [{}]", node);
+                        return newClusterStateBuilder().state(currentState).build();
+                    }
+                    latestDiscoNodes = currentState.nodes().newNode(node);
+                    return newClusterStateBuilder().state(currentState).nodes(latestDiscoNodes).build();
+                }
+            });
+        }
+
+        @Override public void onLeave(Node node) {
+            if (master) {
+                removeNode(node, "zen-disco-node_left(" + node + ")");
+                return;
+            }
+            Node masterNode = latestDiscoNodes.masterNode();
+            if (masterNode != null && masterNode.equals(node)) {
+                handleMasterGone(node, "shut_down");
+            }
+        }
+    }
+
+    private class NodeFailureListener implements NodesFaultDetection.Listener {
+
+        @Override public void onNodeFailure(Node node, String reason) {
+            if (!master) {
+                return;
+            }
+            removeNode(node, "zen-disco-node_failed(" + node + "), reason " + reason);
+        }
+    }
+
+    private class MasterNodeFailureListener implements MasterFaultDetection.Listener {
+
+        @Override public void onMasterFailure(Node masterNode, String reason) {
+            handleMasterGone(masterNode, reason);
+        }
+
+        @Override public void onDisconnectedFromMaster() {
+            final Node masterNode = latestDiscoNodes.masterNode();
+            if (masterNode == null) {
+                return;
+            }
+            threadPool.execute(new Runnable() {
+                @Override public void run() {
+                    try {
+                        membership.sendJoinRequestBlocking(masterNode, localNode, joinTimeout);
+                    } catch (Exception e) {
+                        logger.warn("Failed to send rejoin request to master [" + masterNode + "]", e);
+                    }
+                }
+            });
+        }
+    }
+}
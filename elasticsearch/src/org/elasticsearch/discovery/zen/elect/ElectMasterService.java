@@ -0,0 +1,72 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.discovery.zen.elect;
+
+import org.elasticsearch.cluster.node.Node;
+import org.elasticsearch.util.component.AbstractComponent;
+import org.elasticsearch.util.settings.Settings;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.google.common.collect.Lists.*;
+
+/**
+ * Elects the master out of a set of candidate nodes. The election is deterministic (the node with the
+ * lowest id wins), so nodes that see the same candidates elect the same master without talking to each other.
+ *
+ * @author kimchy (Shay Banon)
+ */
+public class ElectMasterService extends AbstractComponent {
+
+    private final NodeComparator nodeComparator = new NodeComparator();
+
+    public ElectMasterService(Settings settings) {
+        super(settings);
+    }
+
+    /**
+     * Returns the elected master out of the provided nodes, <tt>null</tt> if there are none.
+     */
+    public Node electMaster(Iterable<Node> nodes) {
+        List<Node> sortedNodes = sortedNodes(nodes);
+        if (sortedNodes.isEmpty()) {
+            return null;
+        }
+        return sortedNodes.get(0);
+    }
+
+    /**
+     * Returns the nodes in the order they would be elected as master.
+     */
+    public List<Node> sortedNodes(Iterable<Node> nodes) {
+        List<Node> sortedNodes = newArrayList(nodes);
+        Collections.sort(sortedNodes, nodeComparator);
+        return sortedNodes;
+    }
+
+    private static class NodeComparator implements Comparator<Node> {
+
+        @Override public int compare(Node o1, Node o2) {
+            return o1.id().compareTo(o2.id());
+        }
+    }
+}
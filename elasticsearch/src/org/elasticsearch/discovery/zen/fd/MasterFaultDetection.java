@@ -0,0 +1,306 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.discovery.zen.fd;
+
+import org.elasticsearch.ElasticSearchIllegalStateException;
+import org.elasticsearch.cluster.node.Node;
+import org.elasticsearch.cluster.node.Nodes;
+import org.elasticsearch.discovery.zen.DiscoveryNodesProvider;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.BaseTransportRequestHandler;
+import org.elasticsearch.transport.TransportChannel;
+import org.elasticsearch.transport.TransportService;
+import org.elasticsearch.transport.VoidTransportResponseHandler;
+import org.elasticsearch.util.TimeValue;
+import org.elasticsearch.util.component.AbstractComponent;
+import org.elasticsearch.util.io.Streamable;
+import org.elasticsearch.util.io.VoidStreamable;
+import org.elasticsearch.util.settings.Settings;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.elasticsearch.util.TimeValue.*;
+
+/**
+ * Used by the non master nodes to periodically ping the master. The master is considered failed once
+ * <tt>pingRetries</tt> consecutive pings did not get a response within <tt>pingTimeout</tt>, or right
+ * away when it no longer considers itself the master.
+ *
+ * @author kimchy (Shay Banon)
+ */
+public class MasterFaultDetection extends AbstractComponent {
+
+    public static interface Listener {
+
+        void onMasterFailure(Node masterNode, String reason);
+
+        /**
+         * The master is alive, but does not know of the local node (for example, it removed it after
+         * failing to ping it), the local node should join it again.
+         */
+        void onDisconnectedFromMaster();
+    }
+
+    private final ThreadPool threadPool;
+
+    private final TransportService transportService;
+
+    private final DiscoveryNodesProvider nodesProvider;
+
+    private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<Listener>();
+
+    private final TimeValue pingInterval;
+
+    private final TimeValue pingTimeout;
+
+    private final int pingRetryCount;
+
+    private volatile MasterPinger masterPinger;
+
+    private final Object masterNodeMutex = new Object();
+
+    private volatile Node masterNode;
+
+    public MasterFaultDetection(Settings settings, ThreadPool threadPool, TransportService transportService, DiscoveryNodesProvider nodesProvider) {
+        super(settings);
+        this.threadPool = threadPool;
+        this.transportService = transportService;
+        this.nodesProvider = nodesProvider;
+
+        this.pingInterval = componentSettings.getAsTime("pingInterval", timeValueSeconds(1));
+        this.pingTimeout = componentSettings.getAsTime("pingTimeout", timeValueSeconds(2));
+        this.pingRetryCount = componentSettings.getAsInt("pingRetries", 3);
+
+        logger.debug("Master FD uses pingInterval [{}], pingTimeout [{}], pingRetries [{}]", new Object[]{pingInterval, pingTimeout, pingRetryCount});
+
+        transportService.registerHandler(MasterPingRequestHandler.ACTION, new MasterPingRequestHandler());
+    }
+
+    public Node masterNode() {
+        return this.masterNode;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Starts pinging the provided master, a no op if it is already the master being pinged.
+     */
+    public void start(Node masterNode, String reason) {
+        synchronized (masterNodeMutex) {
+            if (masterNode.equals(this.masterNode) && masterPinger != null) {
+                return;
+            }
+            stop(reason);
+            logger.trace("Starting fault detection against master [{}], reason [{}]", masterNode, reason);
+            this.masterNode = masterNode;
+            this.masterPinger = new MasterPinger(masterNode);
+            threadPool.schedule(new SchedulePinger(masterPinger), pingInterval.millis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void stop(String reason) {
+        synchronized (masterNodeMutex) {
+            if (masterPinger != null) {
+                logger.trace("Stopping fault detection against master [{}], reason [{}]", masterNode, reason);
+                masterPinger.stop();
+                masterPinger = null;
+            }
+            masterNode = null;
+        }
+    }
+
+    public void close() {
+        stop("closing");
+        listeners.clear();
+        transportService.removeHandler(MasterPingRequestHandler.ACTION);
+    }
+
+    private void notifyMasterFailure(final MasterPinger pinger, final String reason) {
+        synchronized (masterNodeMutex) {
+            if (pinger != masterPinger) {
+                // fault detection moved on to another master in the meantime
+                return;
+            }
+            stop("master failure, " + reason);
+        }
+        for (Listener listener : listeners) {
+            listener.onMasterFailure(pinger.masterToPing, reason);
+        }
+    }
+
+    private void notifyDisconnectedFromMaster() {
+        for (Listener listener : listeners) {
+            listener.onDisconnectedFromMaster();
+        }
+    }
+
+    /**
+     * Executes the (blocking) ping on the thread pool, and not on the scheduler threads.
+     */
+    private class SchedulePinger implements Runnable {
+
+        private final MasterPinger pinger;
+
+        private SchedulePinger(MasterPinger pinger) {
+            this.pinger = pinger;
+        }
+
+        @Override public void run() {
+            if (pinger.running) {
+                threadPool.execute(pinger);
+            }
+        }
+    }
+
+    private class MasterPinger implements Runnable {
+
+        private final Node masterToPing;
+
+        private volatile boolean running = true;
+
+        private int retryCount;
+
+        private MasterPinger(Node masterToPing) {
+            this.masterToPing = masterToPing;
+        }
+
+        public void stop() {
+            this.running = false;
+        }
+
+        @Override public void run() {
+            if (!running) {
+                return;
+            }
+            try {
+                transportService.submitRequest(masterToPing, MasterPingRequestHandler.ACTION, new MasterPingRequest(nodesProvider.nodes().localNodeId(), masterToPing.id()), VoidTransportResponseHandler.INSTANCE_NOSPAWN)
+                        .txGet(pingTimeout.millis(), TimeUnit.MILLISECONDS);
+                retryCount = 0;
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                if (isCause(e, NotMasterException.class)) {
+                    logger.debug("Master [{}] no longer the master, failing it", masterToPing);
+                    notifyMasterFailure(this, "no longer master");
+                    return;
+                }
+                if (isCause(e, NodeDoesNotExistOnMasterException.class)) {
+                    logger.debug("Master [{}] does not know of the local node, rejoining", masterToPing);
+                    notifyDisconnectedFromMaster();
+                } else {
+                    retryCount++;
+                    logger.trace("Master [" + masterToPing + "] failed on ping, tried [" + retryCount + "] times", e);
+                    if (retryCount >= pingRetryCount) {
+                        notifyMasterFailure(this, "failed to ping, tried [" + pingRetryCount + "] times, each with maximum [" + pingTimeout + "] timeout");
+                        return;
+                    }
+                }
+            }
+            threadPool.schedule(new SchedulePinger(this), pingInterval.millis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    static boolean isCause(Throwable t, Class<? extends Throwable> type) {
+        while (t != null) {
+            if (type.isInstance(t)) {
+                return true;
+            }
+            if (t.getCause() == t) {
+                break;
+            }
+            t = t.getCause();
+        }
+        return false;
+    }
+
+    static class NotMasterException extends ElasticSearchIllegalStateException {
+
+        NotMasterException() {
+            super("Not the master");
+        }
+    }
+
+    static class NodeDoesNotExistOnMasterException extends ElasticSearchIllegalStateException {
+
+        NodeDoesNotExistOnMasterException() {
+            super("Node does not exist on the master");
+        }
+    }
+
+    private static class MasterPingRequest implements Streamable {
+
+        private String nodeId;
+
+        private String masterNodeId;
+
+        private MasterPingRequest() {
+        }
+
+        private MasterPingRequest(String nodeId, String masterNodeId) {
+            this.nodeId = nodeId;
+            this.masterNodeId = masterNodeId;
+        }
+
+        @Override public void readFrom(DataInput in) throws IOException, ClassNotFoundException {
+            nodeId = in.readUTF();
+            masterNodeId = in.readUTF();
+        }
+
+        @Override public void writeTo(DataOutput out) throws IOException {
+            out.writeUTF(nodeId);
+            out.writeUTF(masterNodeId);
+        }
+    }
+
+    private class MasterPingRequestHandler extends BaseTransportRequestHandler<MasterPingRequest> {
+
+        static final String ACTION = "discovery/zen/fd/masterPing";
+
+        @Override public MasterPingRequest newInstance() {
+            return new MasterPingRequest();
+        }
+
+        @Override public void messageReceived(MasterPingRequest request, TransportChannel channel) throws Exception {
+            Nodes nodes = nodesProvider.nodes();
+            if (!request.masterNodeId.equals(nodes.localNodeId()) || !nodes.localNodeMaster()) {
+                throw new NotMasterException();
+            }
+            if (!nodes.nodeExists(request.nodeId)) {
+                throw new NodeDoesNotExistOnMasterException();
+            }
+            channel.sendResponse(VoidStreamable.INSTANCE);
+        }
+
+        @Override public boolean spawn() {
+            return false;
+        }
+    }
+}
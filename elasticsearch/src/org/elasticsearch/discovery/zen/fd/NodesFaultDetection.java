@@ -0,0 +1,272 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.discovery.zen.fd;
+
+import org.elasticsearch.ElasticSearchIllegalStateException;
+import org.elasticsearch.cluster.node.Node;
+import org.elasticsearch.cluster.node.Nodes;
+import org.elasticsearch.discovery.zen.DiscoveryNodesProvider;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.BaseTransportRequestHandler;
+import org.elasticsearch.transport.TransportChannel;
+import org.elasticsearch.transport.TransportService;
+import org.elasticsearch.transport.VoidTransportResponseHandler;
+import org.elasticsearch.util.TimeValue;
+import org.elasticsearch.util.component.AbstractComponent;
+import org.elasticsearch.util.io.Streamable;
+import org.elasticsearch.util.io.VoidStreamable;
+import org.elasticsearch.util.settings.Settings;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.elasticsearch.cluster.node.Nodes.*;
+import static org.elasticsearch.util.TimeValue.*;
+import static org.elasticsearch.util.concurrent.ConcurrentMaps.*;
+
+/**
+ * Used by the master to periodically ping all the other nodes. A node is considered failed once
+ * <tt>pingRetries</tt> consecutive pings did not get a response within <tt>pingTimeout</tt>.
+ *
+ * @author kimchy (Shay Banon)
+ */
+public class NodesFaultDetection extends AbstractComponent {
+
+    public static interface Listener {
+
+        void onNodeFailure(Node node, String reason);
+    }
+
+    private final ThreadPool threadPool;
+
+    private final TransportService transportService;
+
+    private final DiscoveryNodesProvider nodesProvider;
+
+    private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<Listener>();
+
+    private final TimeValue pingInterval;
+
+    private final TimeValue pingTimeout;
+
+    private final int pingRetryCount;
+
+    private final ConcurrentMap<String, NodePinger> nodesFD = newConcurrentMap();
+
+    private volatile Nodes latestNodes = EMPTY_NODES;
+
+    private volatile boolean running = false;
+
+    public NodesFaultDetection(Settings settings, ThreadPool threadPool, TransportService transportService, DiscoveryNodesProvider nodesProvider) {
+        super(settings);
+        this.threadPool = threadPool;
+        this.transportService = transportService;
+        this.nodesProvider = nodesProvider;
+
+        this.pingInterval = componentSettings.getAsTime("pingInterval", timeValueSeconds(1));
+        this.pingTimeout = componentSettings.getAsTime("pingTimeout", timeValueSeconds(2));
+        this.pingRetryCount = componentSettings.getAsInt("pingRetries", 3);
+
+        logger.debug("Nodes FD uses pingInterval [{}], pingTimeout [{}], pingRetries [{}]", new Object[]{pingInterval, pingTimeout, pingRetryCount});
+
+        transportService.registerHandler(PingRequestHandler.ACTION, new PingRequestHandler());
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Updates the nodes to ping, starting to ping new nodes and stopping to ping removed ones.
+     */
+    public void updateNodes(Nodes nodes) {
+        Nodes prevNodes = latestNodes;
+        this.latestNodes = nodes;
+        if (!running) {
+            return;
+        }
+        Nodes.Delta delta = nodes.delta(prevNodes);
+        for (Node newNode : delta.addedNodes()) {
+            startPinging(newNode);
+        }
+        for (Node removedNode : delta.removedNodes()) {
+            stopPinging(removedNode);
+        }
+    }
+
+    public NodesFaultDetection start() {
+        if (running) {
+            return this;
+        }
+        running = true;
+        for (Node node : latestNodes) {
+            startPinging(node);
+        }
+        return this;
+    }
+
+    public NodesFaultDetection stop() {
+        if (!running) {
+            return this;
+        }
+        running = false;
+        for (NodePinger nodePinger : nodesFD.values()) {
+            nodePinger.running = false;
+        }
+        nodesFD.clear();
+        return this;
+    }
+
+    public void close() {
+        stop();
+        listeners.clear();
+        transportService.removeHandler(PingRequestHandler.ACTION);
+    }
+
+    private void startPinging(Node node) {
+        if (node.id().equals(latestNodes.localNodeId())) {
+            // no need to ping ourselves
+            return;
+        }
+        NodePinger nodePinger = new NodePinger(node);
+        if (nodesFD.putIfAbsent(node.id(), nodePinger) == null) {
+            threadPool.schedule(new SchedulePinger(nodePinger), pingInterval.millis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void stopPinging(Node node) {
+        NodePinger nodePinger = nodesFD.remove(node.id());
+        if (nodePinger != null) {
+            nodePinger.running = false;
+        }
+    }
+
+    private void notifyNodeFailure(NodePinger nodePinger, String reason) {
+        if (!nodesFD.remove(nodePinger.node.id(), nodePinger)) {
+            return;
+        }
+        nodePinger.running = false;
+        for (Listener listener : listeners) {
+            listener.onNodeFailure(nodePinger.node, reason);
+        }
+    }
+
+    /**
+     * Executes the (blocking) ping on the thread pool, and not on the scheduler threads.
+     */
+    private class SchedulePinger implements Runnable {
+
+        private final NodePinger pinger;
+
+        private SchedulePinger(NodePinger pinger) {
+            this.pinger = pinger;
+        }
+
+        @Override public void run() {
+            if (pinger.running) {
+                threadPool.execute(pinger);
+            }
+        }
+    }
+
+    private class NodePinger implements Runnable {
+
+        private final Node node;
+
+        private volatile boolean running = true;
+
+        private int retryCount;
+
+        private NodePinger(Node node) {
+            this.node = node;
+        }
+
+        @Override public void run() {
+            if (!running) {
+                return;
+            }
+            try {
+                transportService.submitRequest(node, PingRequestHandler.ACTION, new PingRequest(node.id()), VoidTransportResponseHandler.INSTANCE_NOSPAWN)
+                        .txGet(pingTimeout.millis(), TimeUnit.MILLISECONDS);
+                retryCount = 0;
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                retryCount++;
+                logger.trace("Node [" + node + "] failed on ping, tried [" + retryCount + "] times", e);
+                if (retryCount >= pingRetryCount) {
+                    notifyNodeFailure(this, "failed to ping, tried [" + pingRetryCount + "] times, each with maximum [" + pingTimeout + "] timeout");
+                    return;
+                }
+            }
+            threadPool.schedule(new SchedulePinger(this), pingInterval.millis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static class PingRequest implements Streamable {
+
+        // the id of the node we are pinging, to make sure a different node did not start on the same address
+        private String nodeId;
+
+        private PingRequest() {
+        }
+
+        private PingRequest(String nodeId) {
+            this.nodeId = nodeId;
+        }
+
+        @Override public void readFrom(DataInput in) throws IOException, ClassNotFoundException {
+            nodeId = in.readUTF();
+        }
+
+        @Override public void writeTo(DataOutput out) throws IOException {
+            out.writeUTF(nodeId);
+        }
+    }
+
+    private class PingRequestHandler extends BaseTransportRequestHandler<PingRequest> {
+
+        static final String ACTION = "discovery/zen/fd/ping";
+
+        @Override public PingRequest newInstance() {
+            return new PingRequest();
+        }
+
+        @Override public void messageReceived(PingRequest request, TransportChannel channel) throws Exception {
+            if (!request.nodeId.equals(nodesProvider.nodes().localNodeId())) {
+                throw new ElasticSearchIllegalStateException("Got pinged as node [" + request.nodeId + "], but I am node [" + nodesProvider.nodes().localNodeId() + "]");
+            }
+            channel.sendResponse(VoidStreamable.INSTANCE);
+        }
+
+        @Override public boolean spawn() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.discovery.zen.ping;
+
+import org.elasticsearch.ElasticSearchException;
+import org.elasticsearch.cluster.ClusterName;
+import org.elasticsearch.cluster.node.Node;
+import org.elasticsearch.discovery.zen.DiscoveryNodesProvider;
+import org.elasticsearch.util.TimeValue;
+import org.elasticsearch.util.component.LifecycleComponent;
+import org.elasticsearch.util.io.Streamable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import static org.elasticsearch.cluster.ClusterName.*;
+import static org.elasticsearch.cluster.node.Node.*;
+
+/**
+ * Finds the other nodes of the cluster (and who they think the master is) so the zen discovery can
+ * join an existing master or elect a new one.
+ *
+ * @author kimchy (Shay Banon)
+ */
+public interface ZenPing extends LifecycleComponent<ZenPing> {
+
+    void setNodesProvider(DiscoveryNodesProvider nodesProvider);
+
+    /**
+     * Pings the other nodes, calling the listener with the responses received within the timeout.
+     */
+    void ping(PingListener listener, TimeValue timeout) throws ElasticSearchException;
+
+    public interface PingListener {
+
+        void onPing(PingResponse[] pings);
+    }
+
+    public class PingResponse implements Streamable {
+
+        private ClusterName clusterName;
+
+        private Node target;
+
+        private Node master;
+
+        public PingResponse() {
+        }
+
+        public PingResponse(Node target, Node master, ClusterName clusterName) {
+            this.target = target;
+            this.master = master;
+            this.clusterName = clusterName;
+        }
+
+        public ClusterName clusterName() {
+            return this.clusterName;
+        }
+
+        /**
+         * The node that responded to the ping.
+         */
+        public Node target() {
+            return target;
+        }
+
+        /**
+         * The master the responding node follows, <tt>null</tt> if it does not know of a master.
+         */
+        public Node master() {
+            return master;
+        }
+
+        public static PingResponse readPingResponse(DataInput in) throws IOException, ClassNotFoundException {
+            PingResponse response = new PingResponse();
+            response.readFrom(in);
+            return response;
+        }
+
+        @Override public void readFrom(DataInput in) throws IOException, ClassNotFoundException {
+            clusterName = readClusterName(in);
+            target = readNode(in);
+            if (in.readBoolean()) {
+                master = readNode(in);
+            }
+        }
+
+        @Override public void writeTo(DataOutput out) throws IOException {
+            clusterName.writeTo(out);
+            target.writeTo(out);
+            if (master == null) {
+                out.writeBoolean(false);
+            } else {
+                out.writeBoolean(true);
+                master.writeTo(out);
+            }
+        }
+
+        @Override public String toString() {
+            return "ping_response target [" + target + "], master [" + master + "]";
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.discovery.zen.ping.unicast;
+
+import com.google.inject.Inject;
+import org.elasticsearch.ElasticSearchException;
+import org.elasticsearch.ElasticSearchIllegalStateException;
+import org.elasticsearch.cluster.ClusterName;
+import org.elasticsearch.cluster.node.Node;
+import org.elasticsearch.cluster.node.Nodes;
+import org.elasticsearch.discovery.zen.DiscoveryNodesProvider;
+import org.elasticsearch.discovery.zen.ping.ZenPing;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.*;
+import org.elasticsearch.util.Strings;
+import org.elasticsearch.util.TimeValue;
+import org.elasticsearch.util.component.AbstractComponent;
+import org.elasticsearch.util.component.Lifecycle;
+import org.elasticsearch.util.io.VoidStreamable;
+import org.elasticsearch.util.settings.Settings;
+import org.elasticsearch.util.transport.TransportAddress;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.collect.Lists.*;
+import static com.google.common.collect.Sets.*;
+import static org.elasticsearch.util.concurrent.ConcurrentMaps.*;
+
+/**
+ * A {@link ZenPing} that pings a configured list of hosts (<tt>discovery.zen.ping.unicast.hosts</tt>, comma
+ * delimited, each either <tt>host:port</tt>, <tt>host[port range]</tt> or just <tt>host</tt>) over the transport,
+ * along with the nodes already known to this node.
+ *
+ * @author kimchy (Shay Banon)
+ */
+public class UnicastZenPing extends AbstractComponent implements ZenPing {
+
+    private final Lifecycle lifecycle = new Lifecycle();
+
+    private final ThreadPool threadPool;
+
+    private final TransportService transportService;
+
+    private final ClusterName clusterName;
+
+    private final List<String> hosts;
+
+    private volatile DiscoveryNodesProvider nodesProvider;
+
+    @Inject public UnicastZenPing(Settings settings, ThreadPool threadPool, TransportService transportService, ClusterName clusterName) {
+        super(settings);
+        this.threadPool = threadPool;
+        this.transportService = transportService;
+        this.clusterName = clusterName;
+
+        this.hosts = newArrayList(componentSettings.getAsArray("hosts"));
+        String hostsList = componentSettings.get("hosts");
+        if (hostsList != null) {
+            for (String host : Strings.commaDelimitedListToStringArray(hostsList)) {
+                hosts.add(host.trim());
+            }
+        }
+        logger.debug("Using hosts {}", hosts);
+
+        transportService.registerHandler(UnicastPingRequestHandler.ACTION, new UnicastPingRequestHandler());
+    }
+
+    @Override public Lifecycle.State lifecycleState() {
+        return this.lifecycle.state();
+    }
+
+    @Override public ZenPing start() throws ElasticSearchException {
+        lifecycle.moveToStarted();
+        return this;
+    }
+
+    @Override public ZenPing stop() throws ElasticSearchException {
+        lifecycle.moveToStopped();
+        return this;
+    }
+
+    @Override public void close() throws ElasticSearchException {
+        if (lifecycle.started()) {
+            stop();
+        }
+        if (!lifecycle.moveToClosed()) {
+            return;
+        }
+        transportService.removeHandler(UnicastPingRequestHandler.ACTION);
+    }
+
+    @Override public void setNodesProvider(DiscoveryNodesProvider nodesProvider) {
+        this.nodesProvider = nodesProvider;
+    }
+
+    @Override public void ping(final PingListener listener, TimeValue timeout) throws ElasticSearchException {
+        if (!lifecycle.started()) {
+            throw new ElasticSearchIllegalStateException("Can't ping when not started");
+        }
+        final Nodes nodes = nodesProvider.nodes();
+        final ConcurrentMap<String, PingResponse> responses = newConcurrentMap();
+
+        // ping the nodes we already know of, and each of the configured hosts using a temporal node
+        final List<Node> nodesToPing = newArrayList();
+        final List<Node> temporalNodes = newArrayList();
+        Set<TransportAddress> knownAddresses = newHashSet();
+        for (Node node : nodes) {
+            knownAddresses.add(node.address());
+            if (!node.id().equals(nodes.localNodeId())) {
+                nodesToPing.add(node);
+            }
+        }
+        int temporalNodeId = 0;
+        for (String host : hosts) {
+            try {
+                for (TransportAddress address : transportService.addressesFromString(host)) {
+                    if (knownAddresses.add(address)) {
+                        temporalNodes.add(new Node("#zen_unicast_" + (++temporalNodeId) + "#", address));
+                    }
+                }
+            } catch (Exception e) {
+                logger.warn("Failed to resolve unicast host [" + host + "]", e);
+            }
+        }
+        nodesToPing.addAll(temporalNodes);
+
+        for (final Node node : nodesToPing) {
+            threadPool.execute(new Runnable() {
+                @Override public void run() {
+                    sendPingRequest(node, nodes.localNodeId(), responses);
+                }
+            });
+        }
+
+        threadPool.schedule(new Runnable() {
+            @Override public void run() {
+                try {
+                    listener.onPing(responses.values().toArray(new PingResponse[responses.size()]));
+                } finally {
+                    transportService.nodesRemoved(temporalNodes);
+                }
+            }
+        }, timeout.millis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void sendPingRequest(final Node node, final String localNodeId, final ConcurrentMap<String, PingResponse> responses) {
+        try {
+            transportService.sendRequest(node, UnicastPingRequestHandler.ACTION, VoidStreamable.INSTANCE, new BaseTransportResponseHandler<PingResponse>() {
+
+                @Override public PingResponse newInstance() {
+                    return new PingResponse();
+                }
+
+                @Override public void handleResponse(PingResponse response) {
+                    if (!clusterName.equals(response.clusterName())) {
+                        // a node of another cluster, ignore it
+                        return;
+                    }
+                    if (response.target().id().equals(localNodeId)) {
+                        // pinged ourselves
+                        return;
+                    }
+                    responses.put(response.target().id(), response);
+                }
+
+                @Override public void handleException(RemoteTransportException exp) {
+                    logger.trace("Failed to ping [" + node + "]", exp);
+                }
+
+                @Override public boolean spawn() {
+                    return false;
+                }
+            });
+        } catch (Exception e) {
+            logger.trace("Failed to ping [" + node + "]", e);
+        }
+    }
+
+    private class UnicastPingRequestHandler extends BaseTransportRequestHandler<VoidStreamable> {
+
+        static final String ACTION = "discovery/zen/unicast";
+
+        @Override public VoidStreamable newInstance() {
+            return VoidStreamable.INSTANCE;
+        }
+
+        @Override public void messageReceived(VoidStreamable request, TransportChannel channel) throws Exception {
+            Nodes nodes = nodesProvider.nodes();
+            channel.sendResponse(new PingResponse(nodes.localNode(), nodes.masterNode(), clusterName));
+        }
+
+        @Override public boolean spawn() {
+            return false;
+        }
+    }
+}
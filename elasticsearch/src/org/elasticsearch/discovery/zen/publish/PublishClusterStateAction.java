@@ -0,0 +1,140 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.discovery.zen.publish;
+
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.node.Node;
+import org.elasticsearch.discovery.zen.DiscoveryNodesProvider;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.*;
+import org.elasticsearch.util.component.AbstractComponent;
+import org.elasticsearch.util.io.Streamable;
+import org.elasticsearch.util.io.VoidStreamable;
+import org.elasticsearch.util.settings.Settings;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Publishes the cluster state from the master to the rest of the nodes over the transport. The state is
+ * serialized once and sent to each of the nodes (other than the master) on the thread pool, so a node that
+ * is slow to connect to does not hold back the cluster state update thread or the other nodes.
+ *
+ * @author kimchy (Shay Banon)
+ */
+public class PublishClusterStateAction extends AbstractComponent {
+
+    public static interface NewClusterStateListener {
+
+        void onNewClusterState(ClusterState clusterState);
+    }
+
+    private final ThreadPool threadPool;
+
+    private final TransportService transportService;
+
+    private final DiscoveryNodesProvider nodesProvider;
+
+    private final NewClusterStateListener listener;
+
+    public PublishClusterStateAction(Settings settings, ThreadPool threadPool, TransportService transportService, DiscoveryNodesProvider nodesProvider,
+                                     NewClusterStateListener listener) {
+        super(settings);
+        this.threadPool = threadPool;
+        this.transportService = transportService;
+        this.nodesProvider = nodesProvider;
+        this.listener = listener;
+        transportService.registerHandler(PublishClusterStateRequestHandler.ACTION, new PublishClusterStateRequestHandler());
+    }
+
+    public void close() {
+        transportService.removeHandler(PublishClusterStateRequestHandler.ACTION);
+    }
+
+    public void publish(ClusterState clusterState) {
+        final byte[] clusterStateInBytes;
+        try {
+            clusterStateInBytes = ClusterState.Builder.toBytes(clusterState);
+        } catch (IOException e) {
+            logger.warn("Failed to serialize cluster state, not publishing it", e);
+            return;
+        }
+        Node localNode = nodesProvider.nodes().localNode();
+        for (final Node node : clusterState.nodes()) {
+            if (node.equals(localNode)) {
+                continue;
+            }
+            // sending might connect to the node first, don't block the cluster state update thread on it
+            threadPool.execute(new Runnable() {
+                @Override public void run() {
+                    try {
+                        transportService.sendRequest(node, PublishClusterStateRequestHandler.ACTION, new PublishClusterStateRequest(clusterStateInBytes), new VoidTransportResponseHandler(false) {
+                            @Override public void handleException(RemoteTransportException exp) {
+                                logger.debug("Failed to send cluster state to [" + node + "]", exp);
+                            }
+                        });
+                    } catch (Exception e) {
+                        // the node fault detection takes care of nodes that are gone
+                        logger.debug("Failed to send cluster state to [" + node + "]", e);
+                    }
+                }
+            });
+        }
+    }
+
+    private static class PublishClusterStateRequest implements Streamable {
+
+        private byte[] clusterStateInBytes;
+
+        private PublishClusterStateRequest() {
+        }
+
+        private PublishClusterStateRequest(byte[] clusterStateInBytes) {
+            this.clusterStateInBytes = clusterStateInBytes;
+        }
+
+        @Override public void readFrom(DataInput in) throws IOException, ClassNotFoundException {
+            clusterStateInBytes = new byte[in.readInt()];
+            in.readFully(clusterStateInBytes);
+        }
+
+        @Override public void writeTo(DataOutput out) throws IOException {
+            out.writeInt(clusterStateInBytes.length);
+            out.write(clusterStateInBytes);
+        }
+    }
+
+    private class PublishClusterStateRequestHandler extends BaseTransportRequestHandler<PublishClusterStateRequest> {
+
+        static final String ACTION = "discovery/zen/publish";
+
+        @Override public PublishClusterStateRequest newInstance() {
+            return new PublishClusterStateRequest();
+        }
+
+        @Override public void messageReceived(PublishClusterStateRequest request, TransportChannel channel) throws Exception {
+            // read the state with our own local node, so it is the local node of the state
+            ClusterState clusterState = ClusterState.Builder.fromBytes(request.clusterStateInBytes, settings, nodesProvider.nodes().localNode());
+            listener.onNewClusterState(clusterState);
+            channel.sendResponse(VoidStreamable.INSTANCE);
+        }
+    }
+}
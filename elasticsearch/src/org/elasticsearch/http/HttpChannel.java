@@ -19,9 +19,18 @@
 
 package org.elasticsearch.http;
 
+import java.io.OutputStream;
+
 /**
  * @author kimchy (Shay Banon)
  */
 public interface HttpChannel {
     void sendResponse(HttpResponse response);
+
+    /**
+     * Starts a response whose content is streamed to the client (using chunked transfer encoding when possible)
+     * as it is written to the returned stream, instead of being buffered in memory. The stream must be closed
+     * in order to complete the response.
+     */
+    OutputStream sendChunkedResponse(HttpResponse.Status status, String contentType);
 }
@@ -62,6 +62,10 @@ public class HttpNodesInfoAction extends BaseHttpServerHandler {
                         builder.field("transportAddress", nodeInfo.node().address().toString());
                         builder.field("dataNode", nodeInfo.node().dataNode());
 
+                        builder.startObject("indexing");
+                        nodeInfo.indexingStats().toJson(builder);
+                        builder.endObject();
+
                         builder.endObject();
                     }
                     builder.endObject();
@@ -25,6 +25,10 @@ import org.elasticsearch.action.admin.indices.status.*;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.http.*;
 import org.elasticsearch.http.action.support.HttpJsonBuilder;
+import org.elasticsearch.index.indexing.IndexingStats;
+import org.elasticsearch.index.merge.MergeStats;
+import org.elasticsearch.index.search.stats.SearchStats;
+import org.elasticsearch.util.LatencyHistogram;
 import org.elasticsearch.util.json.JsonBuilder;
 import org.elasticsearch.util.settings.Settings;
 
@@ -67,6 +71,8 @@ public class HttpIndicesStatusAction extends BaseHttpServerHandler {
 
                         builder.field("storeSize", indexStatus.storeSize().toString());
                         builder.field("storeSizeInBytes", indexStatus.storeSize().bytes());
+                        builder.field("storeMemorySize", indexStatus.storeMemorySize().toString());
+                        builder.field("storeMemorySizeInBytes", indexStatus.storeMemorySize().bytes());
                         builder.field("estimatedFlushableMemorySize", indexStatus.estimatedFlushableMemorySize().toString());
                         builder.field("estimatedFlushableMemorySizeInBytes", indexStatus.estimatedFlushableMemorySize().bytes());
                         builder.field("translogOperations", indexStatus.translogOperations());
@@ -75,6 +81,9 @@ public class HttpIndicesStatusAction extends BaseHttpServerHandler {
                         builder.field("maxDoc", indexStatus.docs().maxDoc());
                         builder.field("deletedDocs", indexStatus.docs().deletedDocs());
                         builder.endObject();
+                        buildMergeStats(builder, indexStatus.mergeStats());
+                        buildSearchStats(builder, indexStatus.searchStats());
+                        buildIndexingStats(builder, indexStatus.indexingStats());
 
                         builder.startObject("shards");
                         for (IndexShardStatus indexShardStatus : indexStatus) {
@@ -94,6 +103,8 @@ public class HttpIndicesStatusAction extends BaseHttpServerHandler {
                                 builder.field("state", shardStatus.state());
                                 builder.field("storeSize", shardStatus.storeSize().toString());
                                 builder.field("storeSizeInBytes", shardStatus.storeSize().bytes());
+                                builder.field("storeMemorySize", shardStatus.storeMemorySize().toString());
+                                builder.field("storeMemorySizeInBytes", shardStatus.storeMemorySize().bytes());
                                 builder.field("estimatedFlushableMemorySize", shardStatus.estimatedFlushableMemorySize().toString());
                                 builder.field("estimatedFlushableMemorySizeInBytes", shardStatus.estimatedFlushableMemorySize().bytes());
                                 builder.field("translogId", shardStatus.translogId());
@@ -103,6 +114,9 @@ public class HttpIndicesStatusAction extends BaseHttpServerHandler {
                                 builder.field("maxDoc", shardStatus.docs().maxDoc());
                                 builder.field("deletedDocs", shardStatus.docs().deletedDocs());
                                 builder.endObject();
+                                buildMergeStats(builder, shardStatus.mergeStats());
+                                buildSearchStats(builder, shardStatus.searchStats());
+                                buildIndexingStats(builder, shardStatus.indexingStats());
 
                                 builder.endObject();
                             }
@@ -131,6 +145,57 @@ public class HttpIndicesStatusAction extends BaseHttpServerHandler {
         });
     }
 
+    private void buildMergeStats(JsonBuilder builder, MergeStats mergeStats) throws IOException {
+        if (mergeStats == null) {
+            return;
+        }
+        builder.startObject("merges");
+        builder.field("current", mergeStats.current());
+        builder.field("currentNumDocs", mergeStats.currentNumDocs());
+        builder.field("currentSize", mergeStats.currentSize().toString());
+        builder.field("currentSizeInBytes", mergeStats.currentSize().bytes());
+        builder.field("total", mergeStats.total());
+        builder.field("totalTime", mergeStats.totalTime().toString());
+        builder.field("totalTimeInMillis", mergeStats.totalTime().millis());
+        builder.field("totalNumDocs", mergeStats.totalNumDocs());
+        builder.field("totalSize", mergeStats.totalSize().toString());
+        builder.field("totalSizeInBytes", mergeStats.totalSize().bytes());
+        builder.field("totalThrottledTime", mergeStats.totalThrottledTime().toString());
+        builder.field("totalThrottledTimeInMillis", mergeStats.totalThrottledTime().millis());
+        builder.field("totalStalledTime", mergeStats.totalStalledTime().toString());
+        builder.field("totalStalledTimeInMillis", mergeStats.totalStalledTime().millis());
+        builder.endObject();
+    }
+
+    private void buildSearchStats(JsonBuilder builder, SearchStats searchStats) throws IOException {
+        if (searchStats == null) {
+            return;
+        }
+        builder.startObject("search");
+        for (SearchStats.Phase phase : SearchStats.Phase.values()) {
+            SearchStats.PhaseStats phaseStats = searchStats.phase(phase);
+            builder.startObject(phase.lowercase());
+            builder.field("total", phaseStats.total());
+            builder.field("totalTime", phaseStats.totalTime().toString());
+            builder.field("totalTimeInMillis", phaseStats.totalTime().millis());
+            builder.field("current", phaseStats.current());
+            builder.startObject("histogram");
+            LatencyHistogram.toJson(builder, phaseStats.histogram());
+            builder.endObject();
+            builder.endObject();
+        }
+        builder.endObject();
+    }
+
+    private void buildIndexingStats(JsonBuilder builder, IndexingStats indexingStats) throws IOException {
+        if (indexingStats == null) {
+            return;
+        }
+        builder.startObject("indexing");
+        indexingStats.toJson(builder);
+        builder.endObject();
+    }
+
     @Override public boolean spawn() {
         // we don't spawn since we fork in index replication based on operation
         return false;
@@ -65,6 +65,7 @@ public class HttpCountAction extends BaseHttpServerHandler {
             countRequest.queryParserName(request.param("queryParserName"));
             countRequest.queryHint(request.param("queryHint"));
             countRequest.minScore(HttpActions.paramAsFloat(request.param("minScore"), DEFAULT_MIN_SCORE));
+            countRequest.terminateAfter(HttpActions.paramAsInt(request.param("terminateAfter"), DEFAULT_TERMINATE_AFTER));
             String typesParam = request.param("type");
             if (typesParam != null) {
                 countRequest.types(splitTypes(typesParam));
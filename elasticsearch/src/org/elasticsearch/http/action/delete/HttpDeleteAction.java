@@ -20,9 +20,11 @@
 package org.elasticsearch.http.action.delete;
 
 import com.google.inject.Inject;
+import org.elasticsearch.ElasticSearchIllegalArgumentException;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.delete.DeleteRequest;
 import org.elasticsearch.action.delete.DeleteResponse;
+import org.elasticsearch.action.support.replication.ReplicationType;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.http.*;
 import org.elasticsearch.http.action.support.HttpJsonBuilder;
@@ -47,6 +49,16 @@ public class HttpDeleteAction extends BaseHttpServerHandler {
     @Override public void handleRequest(final HttpRequest request, final HttpChannel channel) {
         DeleteRequest deleteRequest = new DeleteRequest(request.param("index"), request.param("type"), request.param("id"));
         deleteRequest.timeout(TimeValue.parseTimeValue(request.param("timeout"), DeleteRequest.DEFAULT_TIMEOUT));
+        try {
+            deleteRequest.replicationType(ReplicationType.fromString(request.param("replicationType"), ReplicationType.DEFAULT));
+        } catch (ElasticSearchIllegalArgumentException e) {
+            try {
+                channel.sendResponse(new JsonHttpResponse(request, BAD_REQUEST, JsonBuilder.cached().startObject().field("error", e.getMessage()).endObject()));
+            } catch (IOException e1) {
+                logger.warn("Failed to send response", e1);
+            }
+            return;
+        }
         // we just send a response, no need to fork
         deleteRequest.listenerThreaded(false);
         // we don't spawn, then fork if local
@@ -20,9 +20,11 @@
 package org.elasticsearch.http.action.index;
 
 import com.google.inject.Inject;
+import org.elasticsearch.ElasticSearchIllegalArgumentException;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.index.IndexResponse;
+import org.elasticsearch.action.support.replication.ReplicationType;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.http.*;
 import org.elasticsearch.http.action.support.HttpJsonBuilder;
@@ -48,6 +50,16 @@ public class HttpIndexAction extends BaseHttpServerHandler {
     @Override public void handleRequest(final HttpRequest request, final HttpChannel channel) {
         IndexRequest indexRequest = new IndexRequest(request.param("index"), request.param("type"), request.param("id"), request.contentAsString());
         indexRequest.timeout(TimeValue.parseTimeValue(request.param("timeout"), IndexRequest.DEFAULT_TIMEOUT));
+        try {
+            indexRequest.replicationType(ReplicationType.fromString(request.param("replicationType"), ReplicationType.DEFAULT));
+        } catch (ElasticSearchIllegalArgumentException e) {
+            try {
+                channel.sendResponse(new JsonHttpResponse(request, BAD_REQUEST, JsonBuilder.cached().startObject().field("error", e.getMessage()).endObject()));
+            } catch (IOException e1) {
+                logger.warn("Failed to send response", e1);
+            }
+            return;
+        }
         String sOpType = request.param("opType");
         if (sOpType != null) {
             if ("index".equals(sOpType)) {
@@ -39,6 +39,7 @@ import org.elasticsearch.util.json.JsonBuilder;
 import org.elasticsearch.util.settings.Settings;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.regex.Pattern;
 
@@ -66,9 +67,11 @@ public class HttpSearchAction extends BaseHttpServerHandler {
 
     @Override public void handleRequest(final HttpRequest request, final HttpChannel channel) {
         SearchRequest searchRequest;
+        final boolean stream = "true".equals(request.param("stream"));
         try {
             searchRequest = parseSearchRequest(request);
-            searchRequest.listenerThreaded(false);
+            // streaming might wait for a slow client, so don't do it on the network threads
+            searchRequest.listenerThreaded(stream);
             SearchOperationThreading operationThreading = SearchOperationThreading.fromString(request.param("operationThreading"), SearchOperationThreading.SINGLE_THREAD);
             if (operationThreading == SearchOperationThreading.NO_THREADS) {
                 // since we don't spawn, don't allow no_threads, but change it to a single thread
@@ -85,6 +88,10 @@ public class HttpSearchAction extends BaseHttpServerHandler {
         }
         client.execSearch(searchRequest, new ActionListener<SearchResponse>() {
             @Override public void onResponse(SearchResponse result) {
+                if (stream) {
+                    streamResponse(request, channel, result);
+                    return;
+                }
                 try {
                     JsonBuilder builder = HttpJsonBuilder.cached(request);
                     builder.startObject();
@@ -106,6 +113,37 @@ public class HttpSearchAction extends BaseHttpServerHandler {
         });
     }
 
+    /**
+     * Writes the response straight to the channel as it is serialized, so large responses are never
+     * fully materialized in memory.
+     */
+    private void streamResponse(HttpRequest request, HttpChannel channel, SearchResponse result) {
+        OutputStream out = channel.sendChunkedResponse(OK, "application/json; charset=UTF-8");
+        try {
+            String callback = request.param("callback");
+            if (callback != null) {
+                out.write((callback + "(").getBytes("UTF-8"));
+            }
+            JsonBuilder builder = HttpJsonBuilder.streaming(request, out);
+            builder.startObject();
+            result.toJson(builder);
+            builder.endObject();
+            builder.flush();
+            if (callback != null) {
+                out.write(");".getBytes("UTF-8"));
+            }
+        } catch (Exception e) {
+            // the response status was already sent, the client will get a truncated response
+            logger.warn("Failed to stream search response", e);
+        } finally {
+            try {
+                out.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+
     @Override public boolean spawn() {
         return false;
     }
@@ -124,6 +162,8 @@ public class HttpSearchAction extends BaseHttpServerHandler {
                 searchRequest.searchType(SearchType.QUERY_THEN_FETCH);
             } else if ("query_and_fetch".equals(searchType)) {
                 searchRequest.searchType(SearchType.QUERY_AND_FETCH);
+            } else if ("scan".equals(searchType)) {
+                searchRequest.searchType(SearchType.SCAN);
             } else {
                 throw new ElasticSearchIllegalArgumentException("No search type for [" + searchType + "]");
             }
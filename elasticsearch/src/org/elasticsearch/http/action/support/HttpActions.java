@@ -85,6 +85,13 @@ public class HttpActions {
         return nodesIdsPattern.split(nodes);
     }
 
+    public static int paramAsInt(String intValue, int defaultValue) {
+        if (intValue == null) {
+            return defaultValue;
+        }
+        return Integer.parseInt(intValue);
+    }
+
     public static float paramAsFloat(String floatValue, float defaultValue) {
         if (floatValue == null) {
             return defaultValue;
@@ -21,8 +21,10 @@ package org.elasticsearch.http.action.support;
 
 import org.elasticsearch.http.HttpRequest;
 import org.elasticsearch.util.json.JsonBuilder;
+import org.elasticsearch.util.json.Jackson;
 
 import java.io.IOException;
+import java.io.OutputStream;
 
 /**
  * @author kimchy (Shay Banon)
@@ -37,4 +39,16 @@ public class HttpJsonBuilder {
         }
         return builder;
     }
+
+    /**
+     * A builder streaming the json to the provided output stream.
+     */
+    public static JsonBuilder streaming(HttpRequest request, OutputStream outputStream) throws IOException {
+        JsonBuilder builder = new JsonBuilder(Jackson.defaultJsonFactory(), outputStream);
+        String prettyPrint = request.param("pretty");
+        if (prettyPrint != null && "true".equals(prettyPrint)) {
+            builder.prettyPrint();
+        }
+        return builder;
+    }
 }
@@ -0,0 +1,188 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.http.netty;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBufferInputStream;
+import org.jboss.netty.buffer.ChannelBufferOutputStream;
+import org.jboss.netty.buffer.ChannelBuffers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.*;
+
+/**
+ * Gzip / deflate support for http content, used both to compress responses (negotiated using the
+ * <tt>Accept-Encoding</tt> request header) and to decompress request bodies sent with a
+ * <tt>Content-Encoding</tt> header.
+ *
+ * @author kimchy (Shay Banon)
+ */
+public class HttpContentCompression {
+
+    public static final String GZIP = "gzip";
+
+    public static final String DEFLATE = "deflate";
+
+    private HttpContentCompression() {
+
+    }
+
+    /**
+     * Picks the encoding to compress the response with based on the <tt>Accept-Encoding</tt> header, returning
+     * <tt>null</tt> if no supported encoding is accepted. Gzip is preferred when both are equally acceptable.
+     */
+    public static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return null;
+        }
+        float gzipQ = -1;
+        float deflateQ = -1;
+        float starQ = -1;
+        for (String token : acceptEncoding.split(",")) {
+            String encoding = token.trim();
+            float q = 1.0f;
+            int paramsIndex = encoding.indexOf(';');
+            if (paramsIndex != -1) {
+                String params = encoding.substring(paramsIndex + 1).trim();
+                encoding = encoding.substring(0, paramsIndex).trim();
+                if (params.startsWith("q=")) {
+                    try {
+                        q = Float.parseFloat(params.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0.0f;
+                    }
+                }
+            }
+            if (GZIP.equalsIgnoreCase(encoding) || "x-gzip".equalsIgnoreCase(encoding)) {
+                gzipQ = q;
+            } else if (DEFLATE.equalsIgnoreCase(encoding)) {
+                deflateQ = q;
+            } else if ("*".equals(encoding)) {
+                starQ = q;
+            }
+        }
+        if (gzipQ == -1) {
+            gzipQ = starQ;
+        }
+        if (deflateQ == -1) {
+            deflateQ = starQ;
+        }
+        if (gzipQ > 0 && gzipQ >= deflateQ) {
+            return GZIP;
+        }
+        if (deflateQ > 0) {
+            return DEFLATE;
+        }
+        return null;
+    }
+
+    /**
+     * Is the content encoding (of a request body) one that can be decompressed.
+     */
+    public static boolean isCompressed(String contentEncoding) {
+        if (contentEncoding == null) {
+            return false;
+        }
+        contentEncoding = contentEncoding.trim();
+        return GZIP.equalsIgnoreCase(contentEncoding) || "x-gzip".equalsIgnoreCase(contentEncoding) || DEFLATE.equalsIgnoreCase(contentEncoding);
+    }
+
+    /**
+     * Wraps the output stream with a compressing stream of the given encoding. Closing the returned stream
+     * finishes the compressed content and closes the wrapped stream.
+     */
+    public static OutputStream compressedStream(OutputStream out, String encoding, final int level) throws IOException {
+        if (GZIP.equals(encoding)) {
+            return new GZIPOutputStream(out, 8192) {
+                {
+                    def.setLevel(level);
+                }
+            };
+        }
+        return new DeflaterOutputStream(out, new Deflater(level), 8192) {
+            @Override public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    def.end();
+                }
+            }
+        };
+    }
+
+    public static ChannelBuffer compress(ChannelBuffer content, String encoding, int level) throws IOException {
+        // compressed text content is usually much smaller, start with a quarter of the size
+        ChannelBuffer compressed = ChannelBuffers.dynamicBuffer(Math.max(256, content.readableBytes() / 4));
+        OutputStream out = compressedStream(new ChannelBufferOutputStream(compressed), encoding, level);
+        content.getBytes(content.readerIndex(), out, content.readableBytes());
+        out.close();
+        return compressed;
+    }
+
+    public static ChannelBuffer decompress(ChannelBuffer content, String contentEncoding) throws IOException {
+        return decompress(content, contentEncoding, Long.MAX_VALUE);
+    }
+
+    /**
+     * Decompresses the content, failing with a {@link ContentTooLongException} as soon as the decompressed
+     * content gets longer than <tt>maxLength</tt> (a small compressed body can inflate to a huge one).
+     */
+    public static ChannelBuffer decompress(ChannelBuffer content, String contentEncoding, long maxLength) throws IOException {
+        contentEncoding = contentEncoding.trim();
+        InputStream in = new ChannelBufferInputStream(content.duplicate());
+        Inflater inflater = null;
+        if (DEFLATE.equalsIgnoreCase(contentEncoding)) {
+            inflater = new Inflater();
+            in = new InflaterInputStream(in, inflater);
+        } else {
+            in = new GZIPInputStream(in);
+        }
+        try {
+            ChannelBuffer decompressed = ChannelBuffers.dynamicBuffer((int) Math.min(maxLength, Math.max(256, content.readableBytes() * 4)));
+            byte[] buffer = new byte[8192];
+            int len;
+            while ((len = in.read(buffer)) != -1) {
+                if (decompressed.writerIndex() + len > maxLength) {
+                    throw new ContentTooLongException("Decompressed content is longer than [" + maxLength + "] bytes");
+                }
+                decompressed.writeBytes(buffer, 0, len);
+            }
+            return decompressed;
+        } finally {
+            in.close();
+            if (inflater != null) {
+                inflater.end();
+            }
+        }
+    }
+
+    /**
+     * Thrown when the decompressed content is longer than the allowed length.
+     */
+    public static class ContentTooLongException extends IOException {
+
+        public ContentTooLongException(String message) {
+            super(message);
+        }
+    }
+}
@@ -19,9 +19,14 @@
 
 package org.elasticsearch.http.netty;
 
+import org.elasticsearch.http.HttpResponse;
+import org.elasticsearch.http.StringHttpResponse;
 import org.jboss.netty.channel.*;
+import org.jboss.netty.handler.codec.http.HttpHeaders;
 import org.jboss.netty.handler.codec.http.HttpRequest;
 
+import java.io.IOException;
+
 
 /**
  * @author kimchy (Shay Banon)
@@ -37,7 +42,25 @@ public class HttpRequestHandler extends SimpleChannelUpstreamHandler {
 
     @Override public void messageReceived(ChannelHandlerContext ctx, MessageEvent e) throws Exception {
         HttpRequest request = (HttpRequest) e.getMessage();
-        serverTransport.dispatchRequest(new NettyHttpRequest(request), new NettyHttpChannel(e.getChannel(), request));
+        NettyHttpChannel channel = new NettyHttpChannel(serverTransport, e.getChannel(), request);
+        String contentEncoding = request.getHeader(HttpHeaders.Names.CONTENT_ENCODING);
+        if (HttpContentCompression.isCompressed(contentEncoding) && request.getContent().readable()) {
+            // decompress the body up front, so actions see plain content (and the right content length)
+            try {
+                request.setContent(HttpContentCompression.decompress(request.getContent(), contentEncoding, serverTransport.maxContentLength().bytes()));
+            } catch (HttpContentCompression.ContentTooLongException ex) {
+                channel.sendResponse(new StringHttpResponse(HttpResponse.Status.REQUEST_ENTITY_TOO_LARGE, "Decompressed [" + contentEncoding + "] request content is longer than [" + serverTransport.maxContentLength() + "]"));
+                super.messageReceived(ctx, e);
+                return;
+            } catch (IOException ex) {
+                channel.sendResponse(new StringHttpResponse(HttpResponse.Status.BAD_REQUEST, "Failed to decompress [" + contentEncoding + "] request content: " + ex.getMessage()));
+                super.messageReceived(ctx, e);
+                return;
+            }
+            request.removeHeader(HttpHeaders.Names.CONTENT_ENCODING);
+            request.setHeader(HttpHeaders.Names.CONTENT_LENGTH, String.valueOf(request.getContent().readableBytes()));
+        }
+        serverTransport.dispatchRequest(new NettyHttpRequest(request), channel);
         super.messageReceived(ctx, e);
     }
 
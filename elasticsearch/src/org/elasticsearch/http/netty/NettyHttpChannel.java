@@ -28,39 +28,29 @@ import org.jboss.netty.channel.ChannelFuture;
 import org.jboss.netty.channel.ChannelFutureListener;
 import org.jboss.netty.handler.codec.http.*;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Set;
 
 /**
  * @author kimchy (Shay Banon)
  */
 public class NettyHttpChannel implements HttpChannel {
+    private final NettyHttpServerTransport transport;
     private final Channel channel;
     private final org.jboss.netty.handler.codec.http.HttpRequest request;
 
-    public NettyHttpChannel(Channel channel, org.jboss.netty.handler.codec.http.HttpRequest request) {
+    public NettyHttpChannel(NettyHttpServerTransport transport, Channel channel, org.jboss.netty.handler.codec.http.HttpRequest request) {
+        this.transport = transport;
         this.channel = channel;
         this.request = request;
     }
 
     @Override public void sendResponse(HttpResponse response) {
-
-        // Decide whether to close the connection or not.
-        boolean http10 = request.getProtocolVersion().equals(HttpVersion.HTTP_1_0);
-        boolean close =
-                HttpHeaders.Values.CLOSE.equalsIgnoreCase(request.getHeader(HttpHeaders.Names.CONNECTION)) ||
-                        (http10 && !HttpHeaders.Values.KEEP_ALIVE.equalsIgnoreCase(request.getHeader(HttpHeaders.Names.CONNECTION)));
+        boolean close = shouldClose();
 
         // Build the response object.
-        HttpResponseStatus status = getStatus(response.status());
-        org.jboss.netty.handler.codec.http.HttpResponse resp;
-        if (http10) {
-            resp = new DefaultHttpResponse(HttpVersion.HTTP_1_0, status);
-            if (!close) {
-                resp.addHeader(HttpHeaders.Names.CONNECTION, "Keep-Alive");
-            }
-        } else {
-            resp = new DefaultHttpResponse(HttpVersion.HTTP_1_1, status);
-        }
+        org.jboss.netty.handler.codec.http.HttpResponse resp = newResponse(response.status(), close);
         // Convert the response content to a ChannelBuffer.
         ChannelBuffer buf;
         if (response.contentThreadSafe()) {
@@ -79,11 +69,94 @@ public class NettyHttpChannel implements HttpChannel {
             }
             buf = ChannelBuffers.wrappedBuffer(prefixBuf, buf, suffixBuf);
         }
+        String encoding = compressionEncoding();
+        if (encoding != null && buf.readableBytes() >= transport.compressionMinSize().bytes()) {
+            try {
+                buf = HttpContentCompression.compress(buf, encoding, transport.compressionLevel());
+                resp.setHeader(HttpHeaders.Names.CONTENT_ENCODING, encoding);
+            } catch (IOException e) {
+                // can't really happen when compressing in memory, send the content as is
+            }
+        }
+        if (encoding != null) {
+            resp.setHeader(HttpHeaders.Names.VARY, HttpHeaders.Names.ACCEPT_ENCODING);
+        }
         resp.setContent(buf);
         resp.setHeader(HttpHeaders.Names.CONTENT_TYPE, response.contentType());
 
         resp.setHeader(HttpHeaders.Names.CONTENT_LENGTH, String.valueOf(buf.readableBytes()));
 
+        // Write the response.
+        ChannelFuture future = channel.write(resp);
+
+        // Close the connection after the write operation is done if necessary.
+        if (close) {
+            future.addListener(ChannelFutureListener.CLOSE);
+        }
+    }
+
+    @Override public OutputStream sendChunkedResponse(HttpResponse.Status status, String contentType) {
+        boolean http10 = isHttp10();
+        // HTTP 1.0 has no chunked encoding, the end of the content is marked by closing the connection
+        boolean close = http10 || shouldClose();
+
+        org.jboss.netty.handler.codec.http.HttpResponse resp = newResponse(status, close);
+        resp.setHeader(HttpHeaders.Names.CONTENT_TYPE, contentType);
+        if (!http10) {
+            resp.setHeader(HttpHeaders.Names.TRANSFER_ENCODING, HttpHeaders.Values.CHUNKED);
+        }
+        // the size of streamed content is not known up front, so the min size does not apply
+        String encoding = compressionEncoding();
+        if (encoding != null) {
+            resp.setHeader(HttpHeaders.Names.CONTENT_ENCODING, encoding);
+            resp.setHeader(HttpHeaders.Names.VARY, HttpHeaders.Names.ACCEPT_ENCODING);
+        }
+        OutputStream out = new NettyHttpChunkedOutputStream(channel, channel.write(resp), !http10, close);
+        if (encoding != null) {
+            try {
+                out = HttpContentCompression.compressedStream(out, encoding, transport.compressionLevel());
+            } catch (IOException e) {
+                // only writes the gzip header into the chunk buffer, can't fail
+            }
+        }
+        return out;
+    }
+
+    /**
+     * The encoding to compress the response with, <tt>null</tt> if compression is disabled or not accepted
+     * by the client.
+     */
+    private String compressionEncoding() {
+        if (!transport.compression()) {
+            return null;
+        }
+        return HttpContentCompression.negotiate(request.getHeader(HttpHeaders.Names.ACCEPT_ENCODING));
+    }
+
+    private boolean isHttp10() {
+        return request.getProtocolVersion().equals(HttpVersion.HTTP_1_0);
+    }
+
+    /**
+     * Decide whether to close the connection or not.
+     */
+    private boolean shouldClose() {
+        return HttpHeaders.Values.CLOSE.equalsIgnoreCase(request.getHeader(HttpHeaders.Names.CONNECTION)) ||
+                (isHttp10() && !HttpHeaders.Values.KEEP_ALIVE.equalsIgnoreCase(request.getHeader(HttpHeaders.Names.CONNECTION)));
+    }
+
+    private org.jboss.netty.handler.codec.http.HttpResponse newResponse(HttpResponse.Status responseStatus, boolean close) {
+        HttpResponseStatus status = getStatus(responseStatus);
+        org.jboss.netty.handler.codec.http.HttpResponse resp;
+        if (isHttp10()) {
+            resp = new DefaultHttpResponse(HttpVersion.HTTP_1_0, status);
+            if (!close) {
+                resp.addHeader(HttpHeaders.Names.CONNECTION, "Keep-Alive");
+            }
+        } else {
+            resp = new DefaultHttpResponse(HttpVersion.HTTP_1_1, status);
+        }
+
         String cookieString = request.getHeader(HttpHeaders.Names.COOKIE);
         if (cookieString != null) {
             CookieDecoder cookieDecoder = new CookieDecoder();
@@ -97,14 +170,7 @@ public class NettyHttpChannel implements HttpChannel {
                 resp.addHeader(HttpHeaders.Names.SET_COOKIE, cookieEncoder.encode());
             }
         }
-
-        // Write the response.
-        ChannelFuture future = channel.write(resp);
-
-        // Close the connection after the write operation is done if necessary.
-        if (close) {
-            future.addListener(ChannelFutureListener.CLOSE);
-        }
+        return resp;
     }
 
     private HttpResponseStatus getStatus(HttpResponse.Status status) {
@@ -0,0 +1,132 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.http.netty;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelFuture;
+import org.jboss.netty.channel.ChannelFutureListener;
+import org.jboss.netty.handler.codec.http.DefaultHttpChunk;
+import org.jboss.netty.handler.codec.http.HttpChunk;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An output stream writing the content of a response to the channel as http chunks (or as raw content
+ * when chunking is not possible). Content is buffered up to the chunk size before being written, and
+ * writers wait for the pending writes to complete when the channel is not writable (a slow client), so the
+ * memory used per response is bounded.
+ *
+ * @author kimchy (Shay Banon)
+ */
+public class NettyHttpChunkedOutputStream extends OutputStream {
+
+    public static final int DEFAULT_CHUNK_SIZE = 16 * 1024;
+
+    private final Channel channel;
+
+    private final boolean chunked;
+
+    private final boolean close;
+
+    private final byte[] buffer;
+
+    private int count;
+
+    private ChannelFuture lastWriteFuture;
+
+    private boolean closed;
+
+    public NettyHttpChunkedOutputStream(Channel channel, ChannelFuture headersWriteFuture, boolean chunked, boolean close) {
+        this(channel, headersWriteFuture, chunked, close, DEFAULT_CHUNK_SIZE);
+    }
+
+    public NettyHttpChunkedOutputStream(Channel channel, ChannelFuture headersWriteFuture, boolean chunked, boolean close, int chunkSize) {
+        this.channel = channel;
+        this.lastWriteFuture = headersWriteFuture;
+        this.chunked = chunked;
+        this.close = close;
+        this.buffer = new byte[chunkSize];
+    }
+
+    @Override public void write(int b) throws IOException {
+        if (count == buffer.length) {
+            writeChunk();
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    @Override public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            if (count == buffer.length) {
+                writeChunk();
+            }
+            int toCopy = Math.min(len, buffer.length - count);
+            System.arraycopy(b, off, buffer, count, toCopy);
+            count += toCopy;
+            off += toCopy;
+            len -= toCopy;
+        }
+    }
+
+    @Override public void flush() throws IOException {
+        if (count > 0) {
+            writeChunk();
+        }
+    }
+
+    @Override public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        flush();
+        closed = true;
+        if (chunked) {
+            lastWriteFuture = channel.write(HttpChunk.LAST_CHUNK);
+        }
+        if (close) {
+            lastWriteFuture.addListener(ChannelFutureListener.CLOSE);
+        }
+    }
+
+    private void writeChunk() throws IOException {
+        if (closed) {
+            throw new IOException("Stream already closed");
+        }
+        if (!channel.isConnected()) {
+            throw new IOException("Channel closed while streaming the response");
+        }
+        if (!channel.isWritable()) {
+            // don't queue more content than the channel can handle, wait for the previous chunks to be written
+            lastWriteFuture.awaitUninterruptibly();
+        }
+        // the buffer is reused, so the chunk must be a copy
+        ChannelBuffer content = ChannelBuffers.copiedBuffer(buffer, 0, count);
+        if (chunked) {
+            lastWriteFuture = channel.write(new DefaultHttpChunk(content));
+        } else {
+            // raw buffers are passed as is by the http encoder
+            lastWriteFuture = channel.write(content);
+        }
+        count = 0;
+    }
+}
@@ -21,9 +21,11 @@ package org.elasticsearch.http.netty;
 
 import com.google.inject.Inject;
 import org.elasticsearch.ElasticSearchException;
+import org.elasticsearch.ElasticSearchIllegalArgumentException;
 import org.elasticsearch.http.*;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.BindTransportException;
+import org.elasticsearch.util.SizeUnit;
 import org.elasticsearch.util.SizeValue;
 import org.elasticsearch.util.TimeValue;
 import org.elasticsearch.util.component.AbstractComponent;
@@ -51,6 +53,7 @@ import java.net.InetSocketAddress;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.Deflater;
 
 import static org.elasticsearch.util.TimeValue.*;
 import static org.elasticsearch.util.concurrent.DynamicExecutors.*;
@@ -95,6 +98,14 @@ public class NettyHttpServerTransport extends AbstractComponent implements HttpS
 
     private final TimeValue httpKeepAliveTickDuration;
 
+    private final boolean compression;
+
+    private final int compressionLevel;
+
+    private final SizeValue compressionMinSize;
+
+    private final SizeValue maxContentLength;
+
     private volatile ServerBootstrap serverBootstrap;
 
     private volatile BoundTransportAddress boundAddress;
@@ -119,10 +130,17 @@ public class NettyHttpServerTransport extends AbstractComponent implements HttpS
         this.tcpReceiveBufferSize = componentSettings.getAsSize("tcpReceiveBufferSize", null);
         this.httpKeepAlive = componentSettings.getAsTime("httpKeepAlive", timeValueSeconds(30));
         this.httpKeepAliveTickDuration = componentSettings.getAsTime("httpKeepAliveTickDuration", timeValueMillis(500));
+        this.compression = componentSettings.getAsBoolean("compression", true);
+        this.compressionLevel = componentSettings.getAsInt("compressionLevel", 6);
+        this.compressionMinSize = componentSettings.getAsSize("compressionMinSize", new SizeValue(1, SizeUnit.KB));
+        this.maxContentLength = componentSettings.getAsSize("maxContentLength", new SizeValue(100, SizeUnit.MB));
 
         if ((httpKeepAliveTickDuration.millis() * 10) > httpKeepAlive.millis()) {
             logger.warn("Suspicious keep alive settings, httpKeepAlive set to [{}], while httpKeepAliveTickDuration is set to [{}]", httpKeepAlive, httpKeepAliveTickDuration);
         }
+        if (compressionLevel < Deflater.BEST_SPEED || compressionLevel > Deflater.BEST_COMPRESSION) {
+            throw new ElasticSearchIllegalArgumentException("compressionLevel must be between [" + Deflater.BEST_SPEED + "] and [" + Deflater.BEST_COMPRESSION + "], got [" + compressionLevel + "]");
+        }
     }
 
     @Override public Lifecycle.State lifecycleState() {
@@ -256,6 +274,22 @@ public class NettyHttpServerTransport extends AbstractComponent implements HttpS
         }
     }
 
+    boolean compression() {
+        return this.compression;
+    }
+
+    int compressionLevel() {
+        return this.compressionLevel;
+    }
+
+    SizeValue compressionMinSize() {
+        return this.compressionMinSize;
+    }
+
+    SizeValue maxContentLength() {
+        return this.maxContentLength;
+    }
+
     public BoundTransportAddress boundAddress() {
         return this.boundAddress;
     }
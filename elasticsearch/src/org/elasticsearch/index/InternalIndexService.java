@@ -25,6 +25,8 @@ import com.google.inject.Inject;
 import com.google.inject.Injector;
 import org.elasticsearch.ElasticSearchException;
 import org.elasticsearch.index.cache.filter.FilterCache;
+import org.elasticsearch.index.cache.result.ResultCache;
+import org.elasticsearch.index.cache.result.ResultCacheModule;
 import org.elasticsearch.index.deletionpolicy.DeletionPolicyModule;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.engine.EngineModule;
@@ -175,6 +177,7 @@ public class InternalIndexService extends AbstractIndexComponent implements Inde
         Injector shardInjector = injector.createChildInjector(
                 new IndexShardModule(shardId),
                 new StoreModule(indexSettings),
+                new ResultCacheModule(indexSettings),
                 new DeletionPolicyModule(indexSettings),
                 new MergePolicyModule(indexSettings),
                 new MergeSchedulerModule(indexSettings),
@@ -231,6 +234,7 @@ public class InternalIndexService extends AbstractIndexComponent implements Inde
 
         indexShard.close();
 
+        shardInjector.getInstance(ResultCache.class).close();
 
         Engine engine = shardInjector.getInstance(Engine.class);
         engine.close();
@@ -0,0 +1,60 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.cache.result;
+
+import org.apache.lucene.index.IndexReader;
+import org.elasticsearch.index.shard.IndexShardComponent;
+import org.elasticsearch.index.shard.IndexShardLifecycle;
+import org.elasticsearch.util.SizeValue;
+import org.elasticsearch.util.concurrent.ThreadSafe;
+
+/**
+ * A shard level cache of serialized request results (counts, facet only searches) keyed
+ * by the reader they were executed against and the request source.
+ *
+ * <p>Once a different reader is seen (which happens after the engine refresh publishes a new
+ * one), all the results cached for the previous reader are dropped.
+ *
+ * @author kimchy (Shay Banon)
+ */
+@ThreadSafe
+@IndexShardLifecycle
+public interface ResultCache extends IndexShardComponent {
+
+    /**
+     * Returns the cached result for the given reader and key, <tt>null</tt> if there is none.
+     */
+    byte[] get(IndexReader reader, String key);
+
+    void put(IndexReader reader, String key, byte[] result);
+
+    void clear();
+
+    /**
+     * The estimated size the cached results (and their keys) take.
+     */
+    SizeValue sizeInBytes();
+
+    long hitCount();
+
+    long missCount();
+
+    void close();
+}
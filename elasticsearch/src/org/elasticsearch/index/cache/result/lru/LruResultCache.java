@@ -0,0 +1,143 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.cache.result.lru;
+
+import com.google.inject.Inject;
+import org.apache.lucene.index.IndexReader;
+import org.elasticsearch.index.cache.result.ResultCache;
+import org.elasticsearch.index.settings.IndexSettings;
+import org.elasticsearch.index.shard.AbstractIndexShardComponent;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.util.SizeUnit;
+import org.elasticsearch.util.SizeValue;
+import org.elasticsearch.util.settings.Settings;
+
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A result cache bounded by the number of bytes the cached results and their keys take, evicting
+ * the least recently used results once the bound is crossed.
+ *
+ * @author kimchy (Shay Banon)
+ */
+public class LruResultCache extends AbstractIndexShardComponent implements ResultCache {
+
+    private final SizeValue maxSize;
+
+    private final SizeValue maxResultSize;
+
+    private final LinkedHashMap<String, byte[]> cache = new LinkedHashMap<String, byte[]>(16, 0.75f, true);
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    private WeakReference<IndexReader> reader = new WeakReference<IndexReader>(null);
+
+    private long sizeInBytes;
+
+    @Inject public LruResultCache(ShardId shardId, @IndexSettings Settings indexSettings) {
+        super(shardId, indexSettings);
+        this.maxSize = componentSettings.getAsSize("maxSize", new SizeValue(10, SizeUnit.MB));
+        this.maxResultSize = componentSettings.getAsSize("maxResultSize", new SizeValue(maxSize.bytes() / 10));
+
+        logger.debug("Using lru result cache with maxSize [{}], maxResultSize [{}]", maxSize, maxResultSize);
+    }
+
+    @Override public byte[] get(IndexReader reader, String key) {
+        byte[] result = null;
+        synchronized (cache) {
+            if (reader == this.reader.get()) {
+                result = cache.get(key);
+            }
+        }
+        if (result == null) {
+            missCount.incrementAndGet();
+        } else {
+            hitCount.incrementAndGet();
+        }
+        return result;
+    }
+
+    @Override public void put(IndexReader reader, String key, byte[] result) {
+        long resultSize = entrySize(key, result);
+        if (resultSize > maxResultSize.bytes()) {
+            return;
+        }
+        synchronized (cache) {
+            if (reader != this.reader.get()) {
+                if (reader.getRefCount() <= 0) {
+                    // executed against a reader that has since been closed, no point in caching it
+                    return;
+                }
+                // a new reader has been published, all the cached results are stale
+                innerClear();
+                this.reader = new WeakReference<IndexReader>(reader);
+            }
+            byte[] previous = cache.put(key, result);
+            if (previous != null) {
+                sizeInBytes -= entrySize(key, previous);
+            }
+            sizeInBytes += resultSize;
+            for (Iterator<Map.Entry<String, byte[]>> it = cache.entrySet().iterator(); sizeInBytes > maxSize.bytes() && it.hasNext();) {
+                Map.Entry<String, byte[]> entry = it.next();
+                sizeInBytes -= entrySize(entry.getKey(), entry.getValue());
+                it.remove();
+            }
+        }
+    }
+
+    @Override public void clear() {
+        synchronized (cache) {
+            innerClear();
+        }
+    }
+
+    @Override public SizeValue sizeInBytes() {
+        synchronized (cache) {
+            return new SizeValue(sizeInBytes);
+        }
+    }
+
+    @Override public long hitCount() {
+        return hitCount.get();
+    }
+
+    @Override public long missCount() {
+        return missCount.get();
+    }
+
+    @Override public void close() {
+        clear();
+    }
+
+    private void innerClear() {
+        cache.clear();
+        sizeInBytes = 0;
+    }
+
+    private static long entrySize(String key, byte[] result) {
+        return key.length() * 2 + result.length;
+    }
+}
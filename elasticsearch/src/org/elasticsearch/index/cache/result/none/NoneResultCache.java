@@ -0,0 +1,68 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.cache.result.none;
+
+import com.google.inject.Inject;
+import org.apache.lucene.index.IndexReader;
+import org.elasticsearch.index.cache.result.ResultCache;
+import org.elasticsearch.index.settings.IndexSettings;
+import org.elasticsearch.index.shard.AbstractIndexShardComponent;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.util.SizeValue;
+import org.elasticsearch.util.settings.Settings;
+
+/**
+ * @author kimchy (Shay Banon)
+ */
+public class NoneResultCache extends AbstractIndexShardComponent implements ResultCache {
+
+    @Inject public NoneResultCache(ShardId shardId, @IndexSettings Settings indexSettings) {
+        super(shardId, indexSettings);
+        logger.debug("Using no result cache");
+    }
+
+    @Override public byte[] get(IndexReader reader, String key) {
+        return null;
+    }
+
+    @Override public void put(IndexReader reader, String key, byte[] result) {
+        // nothing to do here
+    }
+
+    @Override public void clear() {
+        // nothing to do here
+    }
+
+    @Override public SizeValue sizeInBytes() {
+        return new SizeValue(0);
+    }
+
+    @Override public long hitCount() {
+        return 0;
+    }
+
+    @Override public long missCount() {
+        return 0;
+    }
+
+    @Override public void close() {
+        // nothing to do here
+    }
+}
@@ -81,6 +81,16 @@ public interface Engine extends IndexShardComponent {
      */
     SizeValue estimateFlushableMemorySize();
 
+    /**
+     * The size of the buffer holding indexed documents in memory before they are written to a new segment.
+     */
+    SizeValue indexingBufferSize();
+
+    /**
+     * Updates the indexing buffer size, taking effect on the next indexing operation.
+     */
+    void updateIndexingBufferSize(SizeValue indexingBufferSize);
+
     void close() throws ElasticSearchException;
 
     /**
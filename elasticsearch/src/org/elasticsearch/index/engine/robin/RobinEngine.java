@@ -28,6 +28,8 @@ import org.elasticsearch.index.analysis.AnalysisService;
 import org.elasticsearch.index.deletionpolicy.SnapshotDeletionPolicy;
 import org.elasticsearch.index.deletionpolicy.SnapshotIndexCommit;
 import org.elasticsearch.index.engine.*;
+import org.elasticsearch.index.indexing.IndexingStats;
+import org.elasticsearch.index.indexing.ShardIndexingStats;
 import org.elasticsearch.index.merge.policy.MergePolicyProvider;
 import org.elasticsearch.index.merge.scheduler.MergeSchedulerProvider;
 import org.elasticsearch.index.settings.IndexSettings;
@@ -61,7 +63,7 @@ import static org.elasticsearch.util.lucene.Lucene.*;
 @IndexShardLifecycle
 public class RobinEngine extends AbstractIndexShardComponent implements Engine, ScheduledRefreshableEngine {
 
-    private final SizeValue ramBufferSize;
+    private volatile SizeValue ramBufferSize;
 
     private final TimeValue refreshInterval;
 
@@ -85,6 +87,8 @@ public class RobinEngine extends AbstractIndexShardComponent implements Engine,
 
     private final SimilarityService similarityService;
 
+    private final ShardIndexingStats indexingStats;
+
     private volatile IndexWriter indexWriter;
 
     private volatile AcquirableResource<ReaderSearcherHolder> nrtResource;
@@ -98,7 +102,7 @@ public class RobinEngine extends AbstractIndexShardComponent implements Engine,
 
     @Inject public RobinEngine(ShardId shardId, @IndexSettings Settings indexSettings, Store store, SnapshotDeletionPolicy deletionPolicy, Translog translog,
                                MergePolicyProvider mergePolicyProvider, MergeSchedulerProvider mergeScheduler,
-                               AnalysisService analysisService, SimilarityService similarityService) throws EngineException {
+                               AnalysisService analysisService, SimilarityService similarityService, ShardIndexingStats indexingStats) throws EngineException {
         super(shardId, indexSettings);
         Preconditions.checkNotNull(store, "Store must be provided to the engine");
         Preconditions.checkNotNull(deletionPolicy, "Snapshot deletion policy must be provided to the engine");
@@ -115,6 +119,7 @@ public class RobinEngine extends AbstractIndexShardComponent implements Engine,
         this.mergeScheduler = mergeScheduler;
         this.analysisService = analysisService;
         this.similarityService = similarityService;
+        this.indexingStats = indexingStats;
     }
 
     @Override public void start() throws EngineException {
@@ -132,7 +137,8 @@ public class RobinEngine extends AbstractIndexShardComponent implements Engine,
                 store.directory().clearLock(IndexWriter.WRITE_LOCK_NAME);
             }
             boolean create = !IndexReader.indexExists(store.directory());
-            indexWriter = new IndexWriter(store.directory(),
+            // the merge scheduler might throttle the I/O merges perform on the directory
+            indexWriter = new IndexWriter(mergeScheduler.wrapDirectory(store.directory()),
                     analysisService.defaultIndexAnalyzer(), create, deletionPolicy, IndexWriter.MaxFieldLength.UNLIMITED);
             indexWriter.setMergeScheduler(mergeScheduler.newMergeScheduler());
             indexWriter.setMergePolicy(mergePolicyProvider.newMergePolicy(indexWriter));
@@ -171,55 +177,87 @@ public class RobinEngine extends AbstractIndexShardComponent implements Engine,
     }
 
     @Override public void create(Create create) throws EngineException {
-        rwl.readLock().lock();
+        long startTime = indexingStats.onPreExecute(IndexingStats.Operation.CREATE);
         try {
-            indexWriter.addDocument(create.doc(), create.analyzer());
-            translog.add(new Translog.Create(create));
-            dirty = true;
-        } catch (IOException e) {
-            throw new CreateFailedEngineException(shardId, create, e);
-        } finally {
-            rwl.readLock().unlock();
+            lockRead();
+            try {
+                indexWriter.addDocument(create.doc(), create.analyzer());
+                translog.add(new Translog.Create(create));
+                dirty = true;
+            } catch (IOException e) {
+                throw new CreateFailedEngineException(shardId, create, e);
+            } finally {
+                rwl.readLock().unlock();
+            }
+        } catch (RuntimeException e) {
+            // also translog failures, and a closed index writer
+            indexingStats.onFailedExecute(IndexingStats.Operation.CREATE);
+            throw e;
         }
+        indexingStats.onPostExecute(IndexingStats.Operation.CREATE, startTime);
     }
 
     @Override public void index(Index index) throws EngineException {
-        rwl.readLock().lock();
+        long startTime = indexingStats.onPreExecute(IndexingStats.Operation.INDEX);
         try {
-            indexWriter.updateDocument(index.uid(), index.doc(), index.analyzer());
-            translog.add(new Translog.Index(index));
-            dirty = true;
-        } catch (IOException e) {
-            throw new IndexFailedEngineException(shardId, index, e);
-        } finally {
-            rwl.readLock().unlock();
+            lockRead();
+            try {
+                indexWriter.updateDocument(index.uid(), index.doc(), index.analyzer());
+                translog.add(new Translog.Index(index));
+                dirty = true;
+            } catch (IOException e) {
+                throw new IndexFailedEngineException(shardId, index, e);
+            } finally {
+                rwl.readLock().unlock();
+            }
+        } catch (RuntimeException e) {
+            // also translog failures, and a closed index writer
+            indexingStats.onFailedExecute(IndexingStats.Operation.INDEX);
+            throw e;
         }
+        indexingStats.onPostExecute(IndexingStats.Operation.INDEX, startTime);
     }
 
     @Override public void delete(Delete delete) throws EngineException {
-        rwl.readLock().lock();
+        long startTime = indexingStats.onPreExecute(IndexingStats.Operation.DELETE);
         try {
-            indexWriter.deleteDocuments(delete.uid());
-            translog.add(new Translog.Delete(delete));
-            dirty = true;
-        } catch (IOException e) {
-            throw new DeleteFailedEngineException(shardId, delete, e);
-        } finally {
-            rwl.readLock().unlock();
+            lockRead();
+            try {
+                indexWriter.deleteDocuments(delete.uid());
+                translog.add(new Translog.Delete(delete));
+                dirty = true;
+            } catch (IOException e) {
+                throw new DeleteFailedEngineException(shardId, delete, e);
+            } finally {
+                rwl.readLock().unlock();
+            }
+        } catch (RuntimeException e) {
+            // also translog failures, and a closed index writer
+            indexingStats.onFailedExecute(IndexingStats.Operation.DELETE);
+            throw e;
         }
+        indexingStats.onPostExecute(IndexingStats.Operation.DELETE, startTime);
     }
 
     @Override public void delete(DeleteByQuery delete) throws EngineException {
-        rwl.readLock().lock();
+        long startTime = indexingStats.onPreExecute(IndexingStats.Operation.DELETE_BY_QUERY);
         try {
-            indexWriter.deleteDocuments(delete.query());
-            translog.add(new Translog.DeleteByQuery(delete));
-            dirty = true;
-        } catch (IOException e) {
-            throw new DeleteByQueryFailedEngineException(shardId, delete, e);
-        } finally {
-            rwl.readLock().unlock();
+            lockRead();
+            try {
+                indexWriter.deleteDocuments(delete.query());
+                translog.add(new Translog.DeleteByQuery(delete));
+                dirty = true;
+            } catch (IOException e) {
+                throw new DeleteByQueryFailedEngineException(shardId, delete, e);
+            } finally {
+                rwl.readLock().unlock();
+            }
+        } catch (RuntimeException e) {
+            // also translog failures, and a closed index writer
+            indexingStats.onFailedExecute(IndexingStats.Operation.DELETE_BY_QUERY);
+            throw e;
         }
+        indexingStats.onPostExecute(IndexingStats.Operation.DELETE_BY_QUERY, startTime);
     }
 
     @Override public Searcher searcher() throws EngineException {
@@ -247,23 +285,48 @@ public class RobinEngine extends AbstractIndexShardComponent implements Engine,
         }
     }
 
+    @Override public SizeValue indexingBufferSize() {
+        return ramBufferSize;
+    }
+
+    @Override public void updateIndexingBufferSize(SizeValue indexingBufferSize) {
+        rwl.readLock().lock();
+        try {
+            this.ramBufferSize = indexingBufferSize;
+            if (indexWriter != null) {
+                indexWriter.setRAMBufferSizeMB(indexingBufferSize.mbFrac());
+            }
+        } finally {
+            rwl.readLock().unlock();
+        }
+    }
+
     @Override public void refresh(boolean waitForOperations) throws EngineException {
         // this engine always acts as if waitForOperations=true
         if (refreshMutex.compareAndSet(false, true)) {
-            if (dirty) {
-                dirty = false;
-                try {
-                    AcquirableResource<ReaderSearcherHolder> current = nrtResource;
-                    IndexReader newReader = current.resource().reader().reopen(true);
-                    if (newReader != current.resource().reader()) {
-                        nrtResource = newAcquirableResource(new ReaderSearcherHolder(newReader));
-                        current.markForClose();
+            try {
+                if (dirty) {
+                    dirty = false;
+                    long startTime = indexingStats.onPreExecute(IndexingStats.Operation.REFRESH);
+                    try {
+                        AcquirableResource<ReaderSearcherHolder> current = nrtResource;
+                        IndexReader newReader = current.resource().reader().reopen(true);
+                        if (newReader != current.resource().reader()) {
+                            nrtResource = newAcquirableResource(new ReaderSearcherHolder(newReader));
+                            current.markForClose();
+                        }
+                    } catch (IOException e) {
+                        indexingStats.onFailedExecute(IndexingStats.Operation.REFRESH);
+                        throw new RefreshFailedEngineException(shardId, e);
+                    } catch (RuntimeException e) {
+                        indexingStats.onFailedExecute(IndexingStats.Operation.REFRESH);
+                        throw e;
                     }
-                } catch (IOException e) {
-                    throw new RefreshFailedEngineException(shardId, e);
+                    indexingStats.onPostExecute(IndexingStats.Operation.REFRESH, startTime);
                 }
+            } finally {
+                refreshMutex.set(false);
             }
-            refreshMutex.set(false);
         }
     }
 
@@ -272,20 +335,39 @@ public class RobinEngine extends AbstractIndexShardComponent implements Engine,
         if (disableFlushCounter > 0) {
             throw new FlushNotAllowedEngineException(shardId, "Recovery is in progress, flush is not allowed");
         }
-        rwl.writeLock().lock();
+        long startTime = indexingStats.onPreExecute(IndexingStats.Operation.FLUSH);
         try {
-            if (disableFlushCounter > 0) {
-                throw new FlushNotAllowedEngineException(shardId, "Recovery is in progress, flush is not allowed");
-            }
+            long lockStartTime = System.nanoTime();
+            rwl.writeLock().lock();
+            indexingStats.onLockWait(System.nanoTime() - lockStartTime);
             try {
-                indexWriter.commit();
-                translog.newTranslog();
-            } catch (IOException e) {
-                throw new FlushFailedEngineException(shardId, e);
+                if (disableFlushCounter > 0) {
+                    throw new FlushNotAllowedEngineException(shardId, "Recovery is in progress, flush is not allowed");
+                }
+                try {
+                    indexWriter.commit();
+                    translog.newTranslog();
+                } catch (IOException e) {
+                    throw new FlushFailedEngineException(shardId, e);
+                }
+            } finally {
+                rwl.writeLock().unlock();
             }
-        } finally {
-            rwl.writeLock().unlock();
+        } catch (RuntimeException e) {
+            indexingStats.onFailedExecute(IndexingStats.Operation.FLUSH);
+            throw e;
         }
+        indexingStats.onPostExecute(IndexingStats.Operation.FLUSH, startTime);
+    }
+
+    /**
+     * Acquires the read lock for an indexing operation, recording the time spent waiting on it (mostly
+     * behind a flush holding the write lock).
+     */
+    private void lockRead() {
+        long startTime = System.nanoTime();
+        rwl.readLock().lock();
+        indexingStats.onLockWait(System.nanoTime() - startTime);
     }
 
     @Override public void snapshot(SnapshotHandler snapshotHandler) throws EngineException {
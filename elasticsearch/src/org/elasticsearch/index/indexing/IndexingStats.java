@@ -0,0 +1,226 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.indexing;
+
+import org.elasticsearch.util.LatencyHistogram;
+import org.elasticsearch.util.TimeValue;
+import org.elasticsearch.util.io.Streamable;
+import org.elasticsearch.util.json.JsonBuilder;
+import org.elasticsearch.util.json.ToJson;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Indexing statistics of a shard, or the sum of several shards, broken down by engine operation.
+ *
+ * @author kimchy (Shay Banon)
+ */
+public class IndexingStats implements Streamable, ToJson {
+
+    public static enum Operation {
+        CREATE((byte) 0),
+        INDEX((byte) 1),
+        DELETE((byte) 2),
+        DELETE_BY_QUERY((byte) 3),
+        REFRESH((byte) 4),
+        FLUSH((byte) 5);
+
+        private final byte id;
+
+        Operation(byte id) {
+            this.id = id;
+        }
+
+        public byte id() {
+            return this.id;
+        }
+
+        public String camelCase() {
+            if (this == DELETE_BY_QUERY) {
+                return "deleteByQuery";
+            }
+            return name().toLowerCase();
+        }
+    }
+
+    OperationStats[] operations;
+
+    long lockWaitTimeInMillis;
+
+    public IndexingStats() {
+        operations = new OperationStats[Operation.values().length];
+        for (int i = 0; i < operations.length; i++) {
+            operations[i] = new OperationStats();
+        }
+    }
+
+    public OperationStats create() {
+        return operation(Operation.CREATE);
+    }
+
+    public OperationStats index() {
+        return operation(Operation.INDEX);
+    }
+
+    public OperationStats delete() {
+        return operation(Operation.DELETE);
+    }
+
+    public OperationStats deleteByQuery() {
+        return operation(Operation.DELETE_BY_QUERY);
+    }
+
+    public OperationStats refresh() {
+        return operation(Operation.REFRESH);
+    }
+
+    public OperationStats flush() {
+        return operation(Operation.FLUSH);
+    }
+
+    public OperationStats operation(Operation operation) {
+        return operations[operation.id()];
+    }
+
+    /**
+     * The total time operations, flushes included, spent waiting on the engine lock.
+     */
+    public TimeValue lockWaitTime() {
+        return new TimeValue(lockWaitTimeInMillis);
+    }
+
+    public void add(IndexingStats other) {
+        if (other == null) {
+            return;
+        }
+        for (int i = 0; i < operations.length; i++) {
+            operations[i].add(other.operations[i]);
+        }
+        lockWaitTimeInMillis += other.lockWaitTimeInMillis;
+    }
+
+    @Override public void toJson(JsonBuilder builder) throws IOException {
+        for (Operation operation : Operation.values()) {
+            OperationStats operationStats = operation(operation);
+            builder.startObject(operation.camelCase());
+            builder.field("total", operationStats.total());
+            builder.field("totalTime", operationStats.totalTime().toString());
+            builder.field("totalTimeInMillis", operationStats.totalTime().millis());
+            builder.field("current", operationStats.current());
+            builder.startObject("histogram");
+            LatencyHistogram.toJson(builder, operationStats.histogram());
+            builder.endObject();
+            builder.endObject();
+        }
+        builder.field("lockWaitTime", lockWaitTime().toString());
+        builder.field("lockWaitTimeInMillis", lockWaitTime().millis());
+    }
+
+    public static IndexingStats readIndexingStats(DataInput in) throws IOException, ClassNotFoundException {
+        IndexingStats stats = new IndexingStats();
+        stats.readFrom(in);
+        return stats;
+    }
+
+    @Override public void readFrom(DataInput in) throws IOException, ClassNotFoundException {
+        for (OperationStats operation : operations) {
+            operation.readFrom(in);
+        }
+        lockWaitTimeInMillis = in.readLong();
+    }
+
+    @Override public void writeTo(DataOutput out) throws IOException {
+        for (OperationStats operation : operations) {
+            operation.writeTo(out);
+        }
+        out.writeLong(lockWaitTimeInMillis);
+    }
+
+    public static class OperationStats implements Streamable {
+
+        long total;
+
+        long totalTimeInMillis;
+
+        long current;
+
+        long[] histogram = new long[LatencyHistogram.BUCKETS];
+
+        OperationStats() {
+        }
+
+        public void add(OperationStats other) {
+            this.total += other.total;
+            this.totalTimeInMillis += other.totalTimeInMillis;
+            this.current += other.current;
+            for (int i = 0; i < histogram.length; i++) {
+                this.histogram[i] += other.histogram[i];
+            }
+        }
+
+        /**
+         * The total number of times the operation was executed.
+         */
+        public long total() {
+            return total;
+        }
+
+        /**
+         * The total time spent executing the operation, including waiting on the engine lock.
+         */
+        public TimeValue totalTime() {
+            return new TimeValue(totalTimeInMillis);
+        }
+
+        /**
+         * The number of operations currently executing.
+         */
+        public long current() {
+            return current;
+        }
+
+        /**
+         * The number of executions per latency bucket, see {@link LatencyHistogram#BOUNDS}.
+         */
+        public long[] histogram() {
+            return histogram;
+        }
+
+        @Override public void readFrom(DataInput in) throws IOException, ClassNotFoundException {
+            total = in.readLong();
+            totalTimeInMillis = in.readLong();
+            current = in.readLong();
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] = in.readLong();
+            }
+        }
+
+        @Override public void writeTo(DataOutput out) throws IOException {
+            out.writeLong(total);
+            out.writeLong(totalTimeInMillis);
+            out.writeLong(current);
+            for (long count : histogram) {
+                out.writeLong(count);
+            }
+        }
+    }
+}
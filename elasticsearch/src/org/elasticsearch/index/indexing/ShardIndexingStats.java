@@ -0,0 +1,102 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.indexing;
+
+import com.google.inject.Inject;
+import org.elasticsearch.index.settings.IndexSettings;
+import org.elasticsearch.index.shard.AbstractIndexShardComponent;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.util.LatencyHistogram;
+import org.elasticsearch.util.settings.Settings;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects the per operation indexing statistics of a shard. The engine reports each operation it executes,
+ * and the time it waited to acquire its lock. All counters are lock free so reporting never blocks indexing.
+ *
+ * @author kimchy (Shay Banon)
+ */
+public class ShardIndexingStats extends AbstractIndexShardComponent {
+
+    private final OperationCounters[] operations;
+
+    private final AtomicLong lockWaitTimeInNanos = new AtomicLong();
+
+    @Inject public ShardIndexingStats(ShardId shardId, @IndexSettings Settings indexSettings) {
+        super(shardId, indexSettings);
+        this.operations = new OperationCounters[IndexingStats.Operation.values().length];
+        for (int i = 0; i < operations.length; i++) {
+            operations[i] = new OperationCounters();
+        }
+    }
+
+    /**
+     * Marks the start of an operation, returning the start time to pass to
+     * {@link #onPostExecute(IndexingStats.Operation, long)}.
+     */
+    public long onPreExecute(IndexingStats.Operation operation) {
+        operations[operation.id()].current.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    public void onPostExecute(IndexingStats.Operation operation, long startTime) {
+        long tookInNanos = System.nanoTime() - startTime;
+        OperationCounters counters = operations[operation.id()];
+        counters.current.decrementAndGet();
+        counters.total.incrementAndGet();
+        counters.totalTimeInNanos.addAndGet(tookInNanos);
+        counters.histogram.record(tookInNanos);
+    }
+
+    public void onFailedExecute(IndexingStats.Operation operation) {
+        operations[operation.id()].current.decrementAndGet();
+    }
+
+    public void onLockWait(long waitInNanos) {
+        lockWaitTimeInNanos.addAndGet(waitInNanos);
+    }
+
+    public IndexingStats stats() {
+        IndexingStats stats = new IndexingStats();
+        for (IndexingStats.Operation operation : IndexingStats.Operation.values()) {
+            OperationCounters counters = operations[operation.id()];
+            IndexingStats.OperationStats operationStats = stats.operation(operation);
+            operationStats.total = counters.total.get();
+            operationStats.totalTimeInMillis = TimeUnit.NANOSECONDS.toMillis(counters.totalTimeInNanos.get());
+            operationStats.current = counters.current.get();
+            counters.histogram.copyTo(operationStats.histogram);
+        }
+        stats.lockWaitTimeInMillis = TimeUnit.NANOSECONDS.toMillis(lockWaitTimeInNanos.get());
+        return stats;
+    }
+
+    private static class OperationCounters {
+
+        final AtomicLong total = new AtomicLong();
+
+        final AtomicLong totalTimeInNanos = new AtomicLong();
+
+        final AtomicLong current = new AtomicLong();
+
+        final LatencyHistogram histogram = new LatencyHistogram();
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.indexing;
+
+import com.google.inject.Inject;
+import org.elasticsearch.index.settings.IndexSettings;
+import org.elasticsearch.index.shard.AbstractIndexShardComponent;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.jmx.MBean;
+import org.elasticsearch.jmx.ManagedAttribute;
+import org.elasticsearch.util.settings.Settings;
+
+/**
+ * @author kimchy (Shay Banon)
+ */
+@MBean(objectName = "shardType=indexing", description = "The indexing statistics of the index shard")
+public class ShardIndexingStatsManagement extends AbstractIndexShardComponent {
+
+    private final ShardIndexingStats indexingStats;
+
+    @Inject public ShardIndexingStatsManagement(ShardId shardId, @IndexSettings Settings indexSettings, ShardIndexingStats indexingStats) {
+        super(shardId, indexSettings);
+        this.indexingStats = indexingStats;
+    }
+
+    @ManagedAttribute(description = "Total number of create operations")
+    public long getCreateCount() {
+        return stats().create().total();
+    }
+
+    @ManagedAttribute(description = "Total time spent on create operations")
+    public String getCreateTime() {
+        return stats().create().totalTime().toString();
+    }
+
+    @ManagedAttribute(description = "Total number of index operations")
+    public long getIndexCount() {
+        return stats().index().total();
+    }
+
+    @ManagedAttribute(description = "Total time spent on index operations")
+    public String getIndexTime() {
+        return stats().index().totalTime().toString();
+    }
+
+    @ManagedAttribute(description = "Total number of delete operations")
+    public long getDeleteCount() {
+        return stats().delete().total();
+    }
+
+    @ManagedAttribute(description = "Total time spent on delete operations")
+    public String getDeleteTime() {
+        return stats().delete().totalTime().toString();
+    }
+
+    @ManagedAttribute(description = "Total number of delete by query operations")
+    public long getDeleteByQueryCount() {
+        return stats().deleteByQuery().total();
+    }
+
+    @ManagedAttribute(description = "Total time spent on delete by query operations")
+    public String getDeleteByQueryTime() {
+        return stats().deleteByQuery().totalTime().toString();
+    }
+
+    @ManagedAttribute(description = "Total number of refreshes")
+    public long getRefreshCount() {
+        return stats().refresh().total();
+    }
+
+    @ManagedAttribute(description = "Total time spent refreshing")
+    public String getRefreshTime() {
+        return stats().refresh().totalTime().toString();
+    }
+
+    @ManagedAttribute(description = "Total number of flushes")
+    public long getFlushCount() {
+        return stats().flush().total();
+    }
+
+    @ManagedAttribute(description = "Total time spent flushing")
+    public String getFlushTime() {
+        return stats().flush().totalTime().toString();
+    }
+
+    @ManagedAttribute(description = "Total time operations waited on the engine lock")
+    public String getLockWaitTime() {
+        return stats().lockWaitTime().toString();
+    }
+
+    private IndexingStats stats() {
+        return indexingStats.stats();
+    }
+}
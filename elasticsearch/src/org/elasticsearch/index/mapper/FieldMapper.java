@@ -117,5 +117,12 @@ public interface FieldMapper<T> {
      */
     Filter rangeFilter(String lowerTerm, String upperTerm, boolean includeLower, boolean includeUpper);
 
+    /**
+     * Constructs a range filter that executes by scanning the field data (per segment values) of
+     * the field instead of its terms. Only valid for single valued fields. Returns <tt>null</tt> if
+     * not supported by the mapper.
+     */
+    Filter fieldDataRangeFilter(String lowerTerm, String upperTerm, boolean includeLower, boolean includeUpper);
+
     int sortType();
 }
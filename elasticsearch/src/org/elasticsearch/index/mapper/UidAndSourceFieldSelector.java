@@ -0,0 +1,69 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.mapper;
+
+import org.apache.lucene.document.FieldSelector;
+import org.apache.lucene.document.FieldSelectorResult;
+
+import java.util.HashSet;
+
+/**
+ * A field selector loading only the uid and source fields, and stopping to read the stored fields
+ * of the doc once both were loaded. Keeps state per doc, so {@link #reset()} must be called before
+ * loading each doc, and it can't be shared between threads.
+ *
+ * @author kimchy (Shay Banon)
+ */
+public class UidAndSourceFieldSelector implements FieldSelector {
+
+    private final HashSet<String> uidNames = new HashSet<String>();
+
+    private final HashSet<String> sourceNames = new HashSet<String>();
+
+    private boolean uidLoaded;
+
+    private boolean sourceLoaded;
+
+    public UidAndSourceFieldSelector(FieldMappers uidFieldMappers, FieldMappers sourceFieldMappers) {
+        for (FieldMapper fieldMapper : uidFieldMappers) {
+            uidNames.add(fieldMapper.indexName());
+        }
+        for (FieldMapper fieldMapper : sourceFieldMappers) {
+            sourceNames.add(fieldMapper.indexName());
+        }
+    }
+
+    public void reset() {
+        uidLoaded = false;
+        sourceLoaded = false;
+    }
+
+    @Override public FieldSelectorResult accept(String fieldName) {
+        if (!uidLoaded && uidNames.contains(fieldName)) {
+            uidLoaded = true;
+            return sourceLoaded ? FieldSelectorResult.LOAD_AND_BREAK : FieldSelectorResult.LOAD;
+        }
+        if (!sourceLoaded && sourceNames.contains(fieldName)) {
+            sourceLoaded = true;
+            return uidLoaded ? FieldSelectorResult.LOAD_AND_BREAK : FieldSelectorResult.LOAD;
+        }
+        return FieldSelectorResult.NO_LOAD;
+    }
+}
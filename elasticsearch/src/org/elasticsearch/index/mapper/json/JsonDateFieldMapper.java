@@ -124,6 +124,13 @@ public class JsonDateFieldMapper extends JsonNumberFieldMapper<Long> {
                 includeLower, includeUpper);
     }
 
+    @Override public Filter fieldDataRangeFilter(String lowerTerm, String upperTerm, boolean includeLower, boolean includeUpper) {
+        Long lower = lowerTerm == null ? null : dateTimeFormatter.parseMillis(lowerTerm);
+        Long upper = upperTerm == null ? null : dateTimeFormatter.parseMillis(upperTerm);
+        return docsWithValueFieldDataFilter(FieldCacheRangeFilter.newLongRange(indexName, FieldCache.NUMERIC_UTILS_LONG_PARSER, lower, upper, includeLower, includeUpper),
+                lower, upper, includeLower, includeUpper);
+    }
+
     @Override protected Field parseCreateField(JsonParseContext jsonContext) throws IOException {
         String dateAsString;
         if (jsonContext.jp().getCurrentToken() == JsonToken.VALUE_NULL) {
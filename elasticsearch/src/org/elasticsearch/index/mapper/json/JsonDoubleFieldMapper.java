@@ -103,6 +103,13 @@ public class JsonDoubleFieldMapper extends JsonNumberFieldMapper<Double> {
                 includeLower, includeUpper);
     }
 
+    @Override public Filter fieldDataRangeFilter(String lowerTerm, String upperTerm, boolean includeLower, boolean includeUpper) {
+        Double lower = lowerTerm == null ? null : Double.parseDouble(lowerTerm);
+        Double upper = upperTerm == null ? null : Double.parseDouble(upperTerm);
+        return docsWithValueFieldDataFilter(FieldCacheRangeFilter.newDoubleRange(indexName, FieldCache.NUMERIC_UTILS_DOUBLE_PARSER, lower, upper, includeLower, includeUpper),
+                lower, upper, includeLower, includeUpper);
+    }
+
     @Override protected Field parseCreateField(JsonParseContext jsonContext) throws IOException {
         double value;
         if (jsonContext.jp().getCurrentToken() == JsonToken.VALUE_NULL) {
@@ -274,6 +274,10 @@ public abstract class JsonFieldMapper<T> implements FieldMapper<T>, JsonMapper {
                 includeLower, includeUpper);
     }
 
+    @Override public Filter fieldDataRangeFilter(String lowerTerm, String upperTerm, boolean includeLower, boolean includeUpper) {
+        return null;
+    }
+
     @Override public int sortType() {
         return SortField.STRING;
     }
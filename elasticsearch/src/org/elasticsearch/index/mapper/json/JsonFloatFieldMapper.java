@@ -103,6 +103,13 @@ public class JsonFloatFieldMapper extends JsonNumberFieldMapper<Float> {
                 includeLower, includeUpper);
     }
 
+    @Override public Filter fieldDataRangeFilter(String lowerTerm, String upperTerm, boolean includeLower, boolean includeUpper) {
+        Float lower = lowerTerm == null ? null : Float.parseFloat(lowerTerm);
+        Float upper = upperTerm == null ? null : Float.parseFloat(upperTerm);
+        return docsWithValueFieldDataFilter(FieldCacheRangeFilter.newFloatRange(indexName, FieldCache.NUMERIC_UTILS_FLOAT_PARSER, lower, upper, includeLower, includeUpper),
+                lower, upper, includeLower, includeUpper);
+    }
+
     @Override protected Field parseCreateField(JsonParseContext jsonContext) throws IOException {
         float value;
         if (jsonContext.jp().getCurrentToken() == JsonToken.VALUE_NULL) {
@@ -102,6 +102,13 @@ public class JsonIntegerFieldMapper extends JsonNumberFieldMapper<Integer> {
                 includeLower, includeUpper);
     }
 
+    @Override public Filter fieldDataRangeFilter(String lowerTerm, String upperTerm, boolean includeLower, boolean includeUpper) {
+        Integer lower = lowerTerm == null ? null : Integer.parseInt(lowerTerm);
+        Integer upper = upperTerm == null ? null : Integer.parseInt(upperTerm);
+        return docsWithValueFieldDataFilter(FieldCacheRangeFilter.newIntRange(indexName, FieldCache.NUMERIC_UTILS_INT_PARSER, lower, upper, includeLower, includeUpper),
+                lower, upper, includeLower, includeUpper);
+    }
+
     @Override protected Field parseCreateField(JsonParseContext jsonContext) throws IOException {
         int value;
         if (jsonContext.jp().getCurrentToken() == JsonToken.VALUE_NULL) {
@@ -102,6 +102,13 @@ public class JsonLongFieldMapper extends JsonNumberFieldMapper<Long> {
                 includeLower, includeUpper);
     }
 
+    @Override public Filter fieldDataRangeFilter(String lowerTerm, String upperTerm, boolean includeLower, boolean includeUpper) {
+        Long lower = lowerTerm == null ? null : Long.parseLong(lowerTerm);
+        Long upper = upperTerm == null ? null : Long.parseLong(upperTerm);
+        return docsWithValueFieldDataFilter(FieldCacheRangeFilter.newLongRange(indexName, FieldCache.NUMERIC_UTILS_LONG_PARSER, lower, upper, includeLower, includeUpper),
+                lower, upper, includeLower, includeUpper);
+    }
+
     @Override protected Field parseCreateField(JsonParseContext jsonContext) throws IOException {
         long value;
         if (jsonContext.jp().getCurrentToken() == JsonToken.VALUE_NULL) {
@@ -24,13 +24,17 @@ import org.apache.lucene.analysis.NumericTokenStream;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.Fieldable;
+import org.apache.lucene.search.Filter;
 import org.apache.lucene.util.NumericUtils;
 import org.elasticsearch.util.gnu.trove.TIntObjectHashMap;
+import org.elasticsearch.util.lucene.search.AndFilter;
 
 import java.io.IOException;
 import java.util.ArrayDeque;
 import java.util.Deque;
 
+import static com.google.common.collect.Lists.*;
+
 /**
  * @author kimchy (Shay Banon)
  */
@@ -99,6 +103,26 @@ public abstract class JsonNumberFieldMapper<T extends Number> extends JsonFieldM
 
     @Override public abstract int sortType();
 
+    /**
+     * Field data holds <tt>0</tt> for docs that have no value for the field. If the range includes <tt>0</tt>,
+     * the field data filter is restricted to the docs that have a value (using the index).
+     */
+    protected Filter docsWithValueFieldDataFilter(Filter fieldDataFilter, Number lower, Number upper, boolean includeLower, boolean includeUpper) {
+        if (lower != null) {
+            double lowerValue = lower.doubleValue();
+            if (lowerValue > 0 || (lowerValue == 0 && !includeLower)) {
+                return fieldDataFilter;
+            }
+        }
+        if (upper != null) {
+            double upperValue = upper.doubleValue();
+            if (upperValue < 0 || (upperValue == 0 && !includeUpper)) {
+                return fieldDataFilter;
+            }
+        }
+        return new AndFilter(newArrayList(fieldDataFilter, rangeFilter(null, null, true, true)));
+    }
+
     /**
      * Removes a cached numeric token stream. The stream will be returned to the cahed once it is used
      * sicne it implements the end method.
@@ -0,0 +1,173 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.merge;
+
+import org.elasticsearch.util.SizeValue;
+import org.elasticsearch.util.TimeValue;
+import org.elasticsearch.util.io.Streamable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Merge statistics of a shard, or the sum of several shards.
+ *
+ * @author kimchy (Shay Banon)
+ */
+public class MergeStats implements Streamable {
+
+    long total;
+
+    long totalTimeInMillis;
+
+    long totalNumDocs;
+
+    long totalSizeInBytes;
+
+    long current;
+
+    long currentNumDocs;
+
+    long currentSizeInBytes;
+
+    long totalThrottledTimeInMillis;
+
+    long totalStalledTimeInMillis;
+
+    public MergeStats() {
+    }
+
+    public MergeStats(long total, long totalTimeInMillis, long totalNumDocs, long totalSizeInBytes,
+                      long current, long currentNumDocs, long currentSizeInBytes,
+                      long totalThrottledTimeInMillis, long totalStalledTimeInMillis) {
+        this.total = total;
+        this.totalTimeInMillis = totalTimeInMillis;
+        this.totalNumDocs = totalNumDocs;
+        this.totalSizeInBytes = totalSizeInBytes;
+        this.current = current;
+        this.currentNumDocs = currentNumDocs;
+        this.currentSizeInBytes = currentSizeInBytes;
+        this.totalThrottledTimeInMillis = totalThrottledTimeInMillis;
+        this.totalStalledTimeInMillis = totalStalledTimeInMillis;
+    }
+
+    public void add(MergeStats other) {
+        if (other == null) {
+            return;
+        }
+        this.total += other.total;
+        this.totalTimeInMillis += other.totalTimeInMillis;
+        this.totalNumDocs += other.totalNumDocs;
+        this.totalSizeInBytes += other.totalSizeInBytes;
+        this.current += other.current;
+        this.currentNumDocs += other.currentNumDocs;
+        this.currentSizeInBytes += other.currentSizeInBytes;
+        this.totalThrottledTimeInMillis += other.totalThrottledTimeInMillis;
+        this.totalStalledTimeInMillis += other.totalStalledTimeInMillis;
+    }
+
+    /**
+     * The total number of merges executed.
+     */
+    public long total() {
+        return total;
+    }
+
+    /**
+     * The total time merges have been executing.
+     */
+    public TimeValue totalTime() {
+        return new TimeValue(totalTimeInMillis);
+    }
+
+    /**
+     * The total number of docs merged.
+     */
+    public long totalNumDocs() {
+        return totalNumDocs;
+    }
+
+    /**
+     * The total size of segments merged.
+     */
+    public SizeValue totalSize() {
+        return new SizeValue(totalSizeInBytes);
+    }
+
+    /**
+     * The current number of merges executing.
+     */
+    public long current() {
+        return current;
+    }
+
+    public long currentNumDocs() {
+        return currentNumDocs;
+    }
+
+    public SizeValue currentSize() {
+        return new SizeValue(currentSizeInBytes);
+    }
+
+    /**
+     * The total time merges were paused in order to keep within the merge rate limit.
+     */
+    public TimeValue totalThrottledTime() {
+        return new TimeValue(totalThrottledTimeInMillis);
+    }
+
+    /**
+     * The total time indexing was stalled waiting for merges to catch up.
+     */
+    public TimeValue totalStalledTime() {
+        return new TimeValue(totalStalledTimeInMillis);
+    }
+
+    public static MergeStats readMergeStats(DataInput in) throws IOException, ClassNotFoundException {
+        MergeStats stats = new MergeStats();
+        stats.readFrom(in);
+        return stats;
+    }
+
+    @Override public void readFrom(DataInput in) throws IOException, ClassNotFoundException {
+        total = in.readLong();
+        totalTimeInMillis = in.readLong();
+        totalNumDocs = in.readLong();
+        totalSizeInBytes = in.readLong();
+        current = in.readLong();
+        currentNumDocs = in.readLong();
+        currentSizeInBytes = in.readLong();
+        totalThrottledTimeInMillis = in.readLong();
+        totalStalledTimeInMillis = in.readLong();
+    }
+
+    @Override public void writeTo(DataOutput out) throws IOException {
+        out.writeLong(total);
+        out.writeLong(totalTimeInMillis);
+        out.writeLong(totalNumDocs);
+        out.writeLong(totalSizeInBytes);
+        out.writeLong(current);
+        out.writeLong(currentNumDocs);
+        out.writeLong(currentSizeInBytes);
+        out.writeLong(totalThrottledTimeInMillis);
+        out.writeLong(totalStalledTimeInMillis);
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.merge.policy;
+
+import org.apache.lucene.index.*;
+
+import java.io.IOException;
+
+/**
+ * A merge policy that allows a budget of segments per size tier (derived from the total index size)
+ * and, once over budget, picks the run of segments that is cheapest to merge: segments of similar size,
+ * preferring runs that reclaim many deleted documents. Merged segments are capped in size, and segments
+ * already larger than half the cap are left out of regular merges, unless most of their documents have
+ * been deleted, in which case they are rewritten on their own.
+ * <p/>
+ * <p>Lucene 3.0 only allows merging adjacent segments, so candidates are contiguous runs of segments
+ * rather than arbitrary sets. Unlike the log merge policies though, a run is not bound to a single
+ * level, and a run of small segments sitting between large ones can be merged on its own.
+ * <p/>
+ * <p>Optimize and expunge deletes are handled by {@link LogByteSizeMergePolicy}, with the merge factor
+ * controlling how many segments are merged at once.
+ *
+ * @author kimchy (Shay Banon)
+ */
+public class TieredMergePolicy extends LogByteSizeMergePolicy {
+
+    public static final int DEFAULT_SEGMENTS_PER_TIER = 10;
+    public static final int DEFAULT_MAX_MERGE_AT_ONCE = 10;
+    public static final int DEFAULT_MAX_MERGE_AT_ONCE_EXPLICIT = 30;
+    public static final long DEFAULT_MAX_MERGED_SEGMENT_BYTES = 5L * 1024 * 1024 * 1024;
+    public static final long DEFAULT_FLOOR_SEGMENT_BYTES = 2L * 1024 * 1024;
+    public static final double DEFAULT_RECLAIM_DELETES_WEIGHT = 2.0;
+    public static final double DEFAULT_MAX_DELETES_PCT_ALLOWED = 50.0;
+
+    private int segmentsPerTier = DEFAULT_SEGMENTS_PER_TIER;
+    private int maxMergeAtOnce = DEFAULT_MAX_MERGE_AT_ONCE;
+    private long maxMergedSegmentBytes = DEFAULT_MAX_MERGED_SEGMENT_BYTES;
+    private long floorSegmentBytes = DEFAULT_FLOOR_SEGMENT_BYTES;
+    private double reclaimDeletesWeight = DEFAULT_RECLAIM_DELETES_WEIGHT;
+    private double maxDeletesPctAllowed = DEFAULT_MAX_DELETES_PCT_ALLOWED;
+
+    public TieredMergePolicy(IndexWriter writer) {
+        super(writer);
+        setCalibrateSizeByDeletes(true);
+        setMergeFactor(DEFAULT_MAX_MERGE_AT_ONCE_EXPLICIT);
+    }
+
+    public void setSegmentsPerTier(int segmentsPerTier) {
+        if (segmentsPerTier < 2) {
+            throw new IllegalArgumentException("segmentsPerTier must be at least 2, got " + segmentsPerTier);
+        }
+        this.segmentsPerTier = segmentsPerTier;
+    }
+
+    public int getSegmentsPerTier() {
+        return segmentsPerTier;
+    }
+
+    public void setMaxMergeAtOnce(int maxMergeAtOnce) {
+        if (maxMergeAtOnce < 2) {
+            throw new IllegalArgumentException("maxMergeAtOnce must be at least 2, got " + maxMergeAtOnce);
+        }
+        this.maxMergeAtOnce = maxMergeAtOnce;
+    }
+
+    public int getMaxMergeAtOnce() {
+        return maxMergeAtOnce;
+    }
+
+    public void setMaxMergedSegmentBytes(long maxMergedSegmentBytes) {
+        this.maxMergedSegmentBytes = maxMergedSegmentBytes;
+    }
+
+    public long getMaxMergedSegmentBytes() {
+        return maxMergedSegmentBytes;
+    }
+
+    public void setFloorSegmentBytes(long floorSegmentBytes) {
+        this.floorSegmentBytes = Math.max(1, floorSegmentBytes);
+    }
+
+    public long getFloorSegmentBytes() {
+        return floorSegmentBytes;
+    }
+
+    public void setReclaimDeletesWeight(double reclaimDeletesWeight) {
+        if (reclaimDeletesWeight < 0) {
+            throw new IllegalArgumentException("reclaimDeletesWeight must be >= 0, got " + reclaimDeletesWeight);
+        }
+        this.reclaimDeletesWeight = reclaimDeletesWeight;
+    }
+
+    public double getReclaimDeletesWeight() {
+        return reclaimDeletesWeight;
+    }
+
+    public void setMaxDeletesPctAllowed(double maxDeletesPctAllowed) {
+        this.maxDeletesPctAllowed = maxDeletesPctAllowed;
+    }
+
+    public double getMaxDeletesPctAllowed() {
+        return maxDeletesPctAllowed;
+    }
+
+    @Override public MergeSpecification findMerges(SegmentInfos infos) throws IOException {
+        final int numSegments = infos.size();
+        if (numSegments == 0) {
+            return null;
+        }
+
+        final long[] sizes = new long[numSegments];
+        final boolean[] excluded = new boolean[numSegments];
+        long totalSize = 0;
+        long minSize = Long.MAX_VALUE;
+        int eligibleCount = 0;
+        for (int i = 0; i < numSegments; i++) {
+            sizes[i] = size(infos.info(i));
+            if (sizes[i] > maxMergedSegmentBytes / 2) {
+                excluded[i] = true;
+            } else {
+                totalSize += sizes[i];
+                minSize = Math.min(minSize, sizes[i]);
+                eligibleCount++;
+            }
+        }
+
+        MergeSpecification spec = null;
+
+        // large segments never take part in regular merges, rewrite them when too many of their docs are deleted
+        for (int i = 0; i < numSegments; i++) {
+            SegmentInfo info = infos.info(i);
+            if (excluded[i] && info.docCount > 0 && info.getDelCount() * 100.0 > maxDeletesPctAllowed * info.docCount) {
+                if (spec == null) {
+                    spec = new MergeSpecification();
+                }
+                spec.add(new OneMerge(infos.range(i, i + 1), getUseCompoundFile()));
+            }
+        }
+
+        if (eligibleCount == 0) {
+            return spec;
+        }
+
+        // compute how many segments the index is allowed to have, segmentsPerTier for each tier
+        long tierSize = Math.max(minSize, floorSegmentBytes);
+        long bytesLeft = totalSize;
+        double allowedSegmentCount = 0;
+        while (true) {
+            double tierSegmentCount = bytesLeft / (double) tierSize;
+            if (tierSegmentCount < segmentsPerTier) {
+                allowedSegmentCount += Math.ceil(tierSegmentCount);
+                break;
+            }
+            allowedSegmentCount += segmentsPerTier;
+            bytesLeft -= segmentsPerTier * tierSize;
+            tierSize *= maxMergeAtOnce;
+        }
+        int allowed = Math.max(segmentsPerTier, (int) allowedSegmentCount);
+
+        int segmentCount = eligibleCount;
+        while (segmentCount > allowed) {
+            int bestStart = -1;
+            int bestEnd = -1;
+            double bestScore = Double.MAX_VALUE;
+            for (int start = 0; start < numSegments; start++) {
+                long mergeSize = 0;
+                long mergeSizeFloored = 0;
+                long largestFloored = 0;
+                long rawSize = 0;
+                for (int end = start; end < numSegments && end - start < maxMergeAtOnce; end++) {
+                    if (excluded[end] || mergeSize + sizes[end] > maxMergedSegmentBytes) {
+                        break;
+                    }
+                    long floored = Math.max(sizes[end], floorSegmentBytes);
+                    mergeSize += sizes[end];
+                    mergeSizeFloored += floored;
+                    largestFloored = Math.max(largestFloored, floored);
+                    rawSize += infos.info(end).sizeInBytes();
+                    if (end == start) {
+                        continue;
+                    }
+                    double score = score(mergeSize, mergeSizeFloored, largestFloored, rawSize);
+                    if (score < bestScore) {
+                        bestScore = score;
+                        bestStart = start;
+                        bestEnd = end;
+                    }
+                }
+            }
+            if (bestStart == -1) {
+                break;
+            }
+            if (spec == null) {
+                spec = new MergeSpecification();
+            }
+            spec.add(new OneMerge(infos.range(bestStart, bestEnd + 1), getUseCompoundFile()));
+            for (int i = bestStart; i <= bestEnd; i++) {
+                excluded[i] = true;
+            }
+            segmentCount -= bestEnd - bestStart;
+        }
+        return spec;
+    }
+
+    /**
+     * Scores a candidate merge, lower is better. Runs of equally sized segments score best (low skew),
+     * with a slight bias towards smaller merges, and the score is reduced the more deleted docs the
+     * merge reclaims.
+     */
+    private double score(long mergeSize, long mergeSizeFloored, long largestFloored, long rawSize) {
+        double skew = (double) largestFloored / mergeSizeFloored;
+        double score = skew * Math.pow(mergeSize, 0.05);
+        if (rawSize > 0) {
+            double nonDelRatio = (double) mergeSize / rawSize;
+            score *= Math.pow(nonDelRatio, reclaimDeletesWeight);
+        }
+        return score;
+    }
+}
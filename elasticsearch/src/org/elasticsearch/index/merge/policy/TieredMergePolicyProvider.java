@@ -0,0 +1,75 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.merge.policy;
+
+import com.google.inject.Inject;
+import org.apache.lucene.index.IndexWriter;
+import org.elasticsearch.index.shard.AbstractIndexShardComponent;
+import org.elasticsearch.index.shard.IndexShardLifecycle;
+import org.elasticsearch.index.store.Store;
+import org.elasticsearch.util.Preconditions;
+import org.elasticsearch.util.SizeValue;
+
+/**
+ * @author kimchy (Shay Banon)
+ */
+@IndexShardLifecycle
+public class TieredMergePolicyProvider extends AbstractIndexShardComponent implements MergePolicyProvider<TieredMergePolicy> {
+
+    private final int segmentsPerTier;
+    private final int maxMergeAtOnce;
+    private final int maxMergeAtOnceExplicit;
+    private final SizeValue maxMergedSegment;
+    private final SizeValue floorSegment;
+    private final double reclaimDeletesWeight;
+    private final double maxDeletesPctAllowed;
+    private final Boolean useCompoundFile;
+
+    @Inject public TieredMergePolicyProvider(Store store) {
+        super(store.shardId(), store.indexSettings());
+        Preconditions.checkNotNull(store, "Store must be provided to merge policy");
+
+        this.segmentsPerTier = componentSettings.getAsInt("segmentsPerTier", TieredMergePolicy.DEFAULT_SEGMENTS_PER_TIER);
+        this.maxMergeAtOnce = componentSettings.getAsInt("maxMergeAtOnce", TieredMergePolicy.DEFAULT_MAX_MERGE_AT_ONCE);
+        this.maxMergeAtOnceExplicit = componentSettings.getAsInt("maxMergeAtOnceExplicit", TieredMergePolicy.DEFAULT_MAX_MERGE_AT_ONCE_EXPLICIT);
+        this.maxMergedSegment = componentSettings.getAsSize("maxMergedSegment", new SizeValue(TieredMergePolicy.DEFAULT_MAX_MERGED_SEGMENT_BYTES));
+        this.floorSegment = componentSettings.getAsSize("floorSegment", new SizeValue(TieredMergePolicy.DEFAULT_FLOOR_SEGMENT_BYTES));
+        this.reclaimDeletesWeight = componentSettings.getAsDouble("reclaimDeletesWeight", TieredMergePolicy.DEFAULT_RECLAIM_DELETES_WEIGHT);
+        this.maxDeletesPctAllowed = componentSettings.getAsDouble("maxDeletesPctAllowed", TieredMergePolicy.DEFAULT_MAX_DELETES_PCT_ALLOWED);
+        this.useCompoundFile = componentSettings.getAsBoolean("useCompoundFile", store == null || store.suggestUseCompoundFile());
+
+        logger.debug("Using [Tiered] merge policy with segmentsPerTier[{}], maxMergeAtOnce[{}], maxMergeAtOnceExplicit[{}], maxMergedSegment[{}], floorSegment[{}], reclaimDeletesWeight[{}], maxDeletesPctAllowed[{}], useCompoundFile[{}]",
+                new Object[]{segmentsPerTier, maxMergeAtOnce, maxMergeAtOnceExplicit, maxMergedSegment, floorSegment, reclaimDeletesWeight, maxDeletesPctAllowed, useCompoundFile});
+    }
+
+    @Override public TieredMergePolicy newMergePolicy(IndexWriter indexWriter) {
+        TieredMergePolicy mergePolicy = new TieredMergePolicy(indexWriter);
+        mergePolicy.setSegmentsPerTier(segmentsPerTier);
+        mergePolicy.setMaxMergeAtOnce(maxMergeAtOnce);
+        mergePolicy.setMergeFactor(maxMergeAtOnceExplicit);
+        mergePolicy.setMaxMergedSegmentBytes(maxMergedSegment.bytes());
+        mergePolicy.setFloorSegmentBytes(floorSegment.bytes());
+        mergePolicy.setReclaimDeletesWeight(reclaimDeletesWeight);
+        mergePolicy.setMaxDeletesPctAllowed(maxDeletesPctAllowed);
+        mergePolicy.setUseCompoundFile(useCompoundFile);
+        mergePolicy.setUseCompoundDocStore(useCompoundFile);
+        return mergePolicy;
+    }
+}
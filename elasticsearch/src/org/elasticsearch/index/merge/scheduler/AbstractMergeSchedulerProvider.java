@@ -0,0 +1,94 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.merge.scheduler;
+
+import org.apache.lucene.index.MergePolicy;
+import org.apache.lucene.index.MergeScheduler;
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.index.merge.MergeStats;
+import org.elasticsearch.index.settings.IndexSettings;
+import org.elasticsearch.index.shard.AbstractIndexShardComponent;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.util.settings.Settings;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.apache.lucene.index.OneMerges.*;
+
+/**
+ * A base merge scheduler provider keeping track of merge statistics. Merge schedulers should call
+ * {@link #beforeMerge(org.apache.lucene.index.MergePolicy.OneMerge)} and
+ * {@link #afterMerge(org.apache.lucene.index.MergePolicy.OneMerge, long)} around each merge.
+ *
+ * @author kimchy (Shay Banon)
+ */
+public abstract class AbstractMergeSchedulerProvider<T extends MergeScheduler> extends AbstractIndexShardComponent implements MergeSchedulerProvider<T> {
+
+    private final AtomicLong totalMerges = new AtomicLong();
+    private final AtomicLong totalMergesTime = new AtomicLong();
+    private final AtomicLong totalMergesNumDocs = new AtomicLong();
+    private final AtomicLong totalMergesSizeInBytes = new AtomicLong();
+
+    private final AtomicLong currentMerges = new AtomicLong();
+    private final AtomicLong currentMergesNumDocs = new AtomicLong();
+    private final AtomicLong currentMergesSizeInBytes = new AtomicLong();
+
+    protected final AtomicLong totalThrottledTime = new AtomicLong();
+    protected final AtomicLong totalStalledTime = new AtomicLong();
+
+    protected AbstractMergeSchedulerProvider(ShardId shardId, @IndexSettings Settings indexSettings) {
+        super(shardId, indexSettings);
+    }
+
+    /**
+     * Returns the directory as is.
+     */
+    @Override public Directory wrapDirectory(Directory directory) {
+        return directory;
+    }
+
+    @Override public MergeStats stats() {
+        return new MergeStats(totalMerges.get(), totalMergesTime.get(), totalMergesNumDocs.get(), totalMergesSizeInBytes.get(),
+                currentMerges.get(), currentMergesNumDocs.get(), currentMergesSizeInBytes.get(),
+                totalThrottledTime.get(), totalStalledTime.get());
+    }
+
+    protected void beforeMerge(MergePolicy.OneMerge merge) {
+        currentMerges.incrementAndGet();
+        currentMergesNumDocs.addAndGet(totalNumDocs(merge));
+        currentMergesSizeInBytes.addAndGet(totalSizeInBytes(merge));
+    }
+
+    protected void afterMerge(MergePolicy.OneMerge merge, long tookInMillis) {
+        long numDocs = totalNumDocs(merge);
+        long sizeInBytes = totalSizeInBytes(merge);
+        currentMerges.decrementAndGet();
+        currentMergesNumDocs.addAndGet(-numDocs);
+        currentMergesSizeInBytes.addAndGet(-sizeInBytes);
+
+        totalMerges.incrementAndGet();
+        totalMergesTime.addAndGet(tookInMillis);
+        totalMergesNumDocs.addAndGet(numDocs);
+        totalMergesSizeInBytes.addAndGet(sizeInBytes);
+        if (logger.isTraceEnabled()) {
+            logger.trace("Merged [{}] docs of size [{}] in [{}]ms", new Object[]{numDocs, sizeInBytes, tookInMillis});
+        }
+    }
+}
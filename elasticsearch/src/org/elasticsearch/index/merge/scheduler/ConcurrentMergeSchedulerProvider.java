@@ -21,31 +21,130 @@ package org.elasticsearch.index.merge.scheduler;
 
 import com.google.inject.Inject;
 import org.apache.lucene.index.ConcurrentMergeScheduler;
+import org.apache.lucene.index.MergePolicy;
 import org.apache.lucene.index.MergeScheduler;
+import org.apache.lucene.index.TrackingConcurrentMergeScheduler;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.ThreadInterruptedException;
 import org.elasticsearch.index.settings.IndexSettings;
-import org.elasticsearch.index.shard.AbstractIndexShardComponent;
 import org.elasticsearch.index.shard.IndexShardLifecycle;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.indices.merge.MergeRateLimiter;
 import org.elasticsearch.util.settings.Settings;
 
+import java.io.IOException;
+import java.util.PriorityQueue;
+
+import static org.apache.lucene.index.OneMerges.*;
+
 /**
+ * A merge scheduler provider based on Lucene {@link ConcurrentMergeScheduler}.
+ *
+ * <p>At most <tt>maxThreadCount</tt> merges execute at the same time, with the smallest pending merge
+ * going first. Once more than <tt>maxMergeCount</tt> merges are pending, indexing threads are stalled
+ * until merges catch up. Merge writes are rate limited by the node level {@link MergeRateLimiter}.
+ *
  * @author kimchy (Shay Banon)
  */
 @IndexShardLifecycle
-public class ConcurrentMergeSchedulerProvider extends AbstractIndexShardComponent implements MergeSchedulerProvider {
+public class ConcurrentMergeSchedulerProvider extends AbstractMergeSchedulerProvider {
+
+    private final MergeRateLimiter rateLimiter;
 
     private final int maxThreadCount;
 
-    @Inject public ConcurrentMergeSchedulerProvider(ShardId shardId, @IndexSettings Settings indexSettings) {
+    private final int maxMergeCount;
+
+    private final MergeGate mergeGate;
+
+    private final ThreadLocal<Boolean> merging = new ThreadLocal<Boolean>();
+
+    @Inject public ConcurrentMergeSchedulerProvider(ShardId shardId, @IndexSettings Settings indexSettings, MergeRateLimiter rateLimiter) {
         super(shardId, indexSettings);
+        this.rateLimiter = rateLimiter;
 
         this.maxThreadCount = componentSettings.getAsInt("maxThreadCount", 1);
-        logger.debug("Using [concurrent] merge scheduler with maxThreadCount[{}]", maxThreadCount);
+        this.maxMergeCount = Math.max(maxThreadCount, componentSettings.getAsInt("maxMergeCount", maxThreadCount + 2));
+        this.mergeGate = new MergeGate(maxThreadCount);
+        logger.debug("Using [concurrent] merge scheduler with maxThreadCount[{}], maxMergeCount[{}]", maxThreadCount, maxMergeCount);
     }
 
     @Override public MergeScheduler newMergeScheduler() {
-        ConcurrentMergeScheduler concurrentMergeScheduler = new ConcurrentMergeScheduler();
-        concurrentMergeScheduler.setMaxThreadCount(maxThreadCount);
-        return concurrentMergeScheduler;
+        return new CustomConcurrentMergeScheduler();
+    }
+
+    @Override public Directory wrapDirectory(Directory directory) {
+        if (!rateLimiter.enabled()) {
+            return directory;
+        }
+        return new MergeThrottlingDirectory(directory, rateLimiter, merging, totalThrottledTime);
+    }
+
+    private class CustomConcurrentMergeScheduler extends TrackingConcurrentMergeScheduler {
+
+        private CustomConcurrentMergeScheduler() {
+            // merge threads beyond maxThreadCount wait on the gate, and once maxMergeCount
+            // threads exist, the scheduler blocks the indexing thread
+            setMaxThreadCount(maxMergeCount);
+        }
+
+        @Override protected void afterStall(long tookInMillis) {
+            totalStalledTime.addAndGet(tookInMillis);
+        }
+
+        @Override protected void doMerge(MergePolicy.OneMerge merge) throws IOException {
+            long size = totalSizeInBytes(merge);
+            mergeGate.acquire(size);
+            try {
+                long start = System.currentTimeMillis();
+                beforeMerge(merge);
+                merging.set(Boolean.TRUE);
+                try {
+                    super.doMerge(merge);
+                } finally {
+                    merging.remove();
+                    afterMerge(merge, System.currentTimeMillis() - start);
+                }
+            } finally {
+                mergeGate.release();
+            }
+        }
+    }
+
+    /**
+     * Lets at most <tt>maxThreadCount</tt> merges run, smallest waiting merge first.
+     */
+    static class MergeGate {
+
+        private final int maxThreadCount;
+
+        private final PriorityQueue<Long> waiting = new PriorityQueue<Long>();
+
+        private int running;
+
+        MergeGate(int maxThreadCount) {
+            this.maxThreadCount = maxThreadCount;
+        }
+
+        synchronized void acquire(long size) {
+            Long key = size;
+            waiting.add(key);
+            try {
+                while (running >= maxThreadCount || waiting.peek() < size) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                waiting.remove(key);
+                notifyAll();
+                throw new ThreadInterruptedException(e);
+            }
+            waiting.remove(key);
+            running++;
+        }
+
+        synchronized void release() {
+            running--;
+            notifyAll();
+        }
     }
 }
@@ -0,0 +1,92 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.merge.scheduler;
+
+import com.google.inject.Inject;
+import org.elasticsearch.index.merge.MergeStats;
+import org.elasticsearch.index.settings.IndexSettings;
+import org.elasticsearch.index.shard.AbstractIndexShardComponent;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.jmx.MBean;
+import org.elasticsearch.jmx.ManagedAttribute;
+import org.elasticsearch.util.settings.Settings;
+
+/**
+ * @author kimchy (Shay Banon)
+ */
+@MBean(objectName = "shardType=mergeScheduler", description = "The merge scheduler of the index shard")
+public class MergeSchedulerManagement extends AbstractIndexShardComponent {
+
+    private final MergeSchedulerProvider mergeSchedulerProvider;
+
+    @Inject public MergeSchedulerManagement(ShardId shardId, @IndexSettings Settings indexSettings, MergeSchedulerProvider mergeSchedulerProvider) {
+        super(shardId, indexSettings);
+        this.mergeSchedulerProvider = mergeSchedulerProvider;
+    }
+
+    @ManagedAttribute(description = "Type")
+    public String getType() {
+        return mergeSchedulerProvider.getClass().getSimpleName();
+    }
+
+    @ManagedAttribute(description = "Number of merges currently executing")
+    public long getCurrentMerges() {
+        return stats().current();
+    }
+
+    @ManagedAttribute(description = "Size of the merges currently executing")
+    public String getCurrentMergesSize() {
+        return stats().currentSize().toString();
+    }
+
+    @ManagedAttribute(description = "Total number of merges")
+    public long getTotalMerges() {
+        return stats().total();
+    }
+
+    @ManagedAttribute(description = "Total number of docs merged")
+    public long getTotalMergedDocs() {
+        return stats().totalNumDocs();
+    }
+
+    @ManagedAttribute(description = "Total size merged")
+    public String getTotalMergedSize() {
+        return stats().totalSize().toString();
+    }
+
+    @ManagedAttribute(description = "Total time spent merging")
+    public String getTotalMergeTime() {
+        return stats().totalTime().toString();
+    }
+
+    @ManagedAttribute(description = "Total time merges were throttled")
+    public String getTotalThrottledTime() {
+        return stats().totalThrottledTime().toString();
+    }
+
+    @ManagedAttribute(description = "Total time indexing was stalled by pending merges")
+    public String getTotalStalledTime() {
+        return stats().totalStalledTime().toString();
+    }
+
+    private MergeStats stats() {
+        return mergeSchedulerProvider.stats();
+    }
+}
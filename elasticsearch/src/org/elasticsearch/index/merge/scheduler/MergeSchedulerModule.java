@@ -45,5 +45,6 @@ public class MergeSchedulerModule extends AbstractModule {
         bind(MergeSchedulerProvider.class)
                 .to(settings.getAsClass(TYPE, ConcurrentMergeSchedulerProvider.class))
                 .asEagerSingleton();
+        bind(MergeSchedulerManagement.class).asEagerSingleton();
     }
 }
@@ -20,6 +20,8 @@
 package org.elasticsearch.index.merge.scheduler;
 
 import org.apache.lucene.index.MergeScheduler;
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.index.merge.MergeStats;
 import org.elasticsearch.index.shard.IndexShardComponent;
 
 /**
@@ -28,4 +30,15 @@ import org.elasticsearch.index.shard.IndexShardComponent;
 public interface MergeSchedulerProvider<T extends MergeScheduler> extends IndexShardComponent {
 
     T newMergeScheduler();
+
+    /**
+     * Wraps the directory the {@link org.apache.lucene.index.IndexWriter} works with, allowing the
+     * scheduler to control the I/O merges perform. Returns the directory as is if not needed.
+     */
+    Directory wrapDirectory(Directory directory);
+
+    /**
+     * The merge statistics of all the merge schedulers created by this provider.
+     */
+    MergeStats stats();
 }
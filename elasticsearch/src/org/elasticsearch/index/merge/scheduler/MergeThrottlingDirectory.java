@@ -0,0 +1,181 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.merge.scheduler;
+
+import org.apache.lucene.store.*;
+import org.elasticsearch.indices.merge.MergeRateLimiter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A directory delegating to another directory, rate limiting outputs created while merging (as
+ * marked by the <tt>merging</tt> thread local) using the node level {@link MergeRateLimiter}.
+ *
+ * @author kimchy (Shay Banon)
+ */
+class MergeThrottlingDirectory extends Directory {
+
+    // the number of bytes written before the limiter is consulted
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final Directory delegate;
+
+    private final MergeRateLimiter rateLimiter;
+
+    private final ThreadLocal<Boolean> merging;
+
+    private final AtomicLong throttledTime;
+
+    MergeThrottlingDirectory(Directory delegate, MergeRateLimiter rateLimiter, ThreadLocal<Boolean> merging, AtomicLong throttledTime) {
+        this.delegate = delegate;
+        this.merging = merging;
+        this.rateLimiter = rateLimiter;
+        this.throttledTime = throttledTime;
+        this.lockFactory = delegate.getLockFactory();
+    }
+
+    @Override public String[] listAll() throws IOException {
+        return delegate.listAll();
+    }
+
+    @Override public boolean fileExists(String name) throws IOException {
+        return delegate.fileExists(name);
+    }
+
+    @Override public long fileModified(String name) throws IOException {
+        return delegate.fileModified(name);
+    }
+
+    @Override public void touchFile(String name) throws IOException {
+        delegate.touchFile(name);
+    }
+
+    @Override public void deleteFile(String name) throws IOException {
+        delegate.deleteFile(name);
+    }
+
+    @Override public long fileLength(String name) throws IOException {
+        return delegate.fileLength(name);
+    }
+
+    @Override public IndexOutput createOutput(String name) throws IOException {
+        IndexOutput output = delegate.createOutput(name);
+        if (merging.get() != null) {
+            return new ThrottledIndexOutput(output);
+        }
+        return output;
+    }
+
+    @Override public void sync(String name) throws IOException {
+        delegate.sync(name);
+    }
+
+    @Override public IndexInput openInput(String name) throws IOException {
+        return delegate.openInput(name);
+    }
+
+    @Override public IndexInput openInput(String name, int bufferSize) throws IOException {
+        return delegate.openInput(name, bufferSize);
+    }
+
+    @Override public Lock makeLock(String name) {
+        return delegate.makeLock(name);
+    }
+
+    @Override public void clearLock(String name) throws IOException {
+        delegate.clearLock(name);
+    }
+
+    @Override public void setLockFactory(LockFactory lockFactory) {
+        delegate.setLockFactory(lockFactory);
+        this.lockFactory = lockFactory;
+    }
+
+    @Override public String getLockID() {
+        return delegate.getLockID();
+    }
+
+    @Override public void close() throws IOException {
+        delegate.close();
+    }
+
+    @Override public String toString() {
+        return "throttled(" + delegate + ")";
+    }
+
+    private class ThrottledIndexOutput extends IndexOutput {
+
+        private final IndexOutput output;
+
+        private long bytesSinceLastPause;
+
+        private ThrottledIndexOutput(IndexOutput output) {
+            this.output = output;
+        }
+
+        @Override public void writeByte(byte b) throws IOException {
+            output.writeByte(b);
+            maybePause(1);
+        }
+
+        @Override public void writeBytes(byte[] b, int offset, int length) throws IOException {
+            output.writeBytes(b, offset, length);
+            maybePause(length);
+        }
+
+        @Override public void flush() throws IOException {
+            output.flush();
+        }
+
+        @Override public void close() throws IOException {
+            output.close();
+        }
+
+        @Override public long getFilePointer() {
+            return output.getFilePointer();
+        }
+
+        @Override public void seek(long pos) throws IOException {
+            output.seek(pos);
+        }
+
+        @Override public long length() throws IOException {
+            return output.length();
+        }
+
+        @Override public void setLength(long length) throws IOException {
+            output.setLength(length);
+        }
+
+        private void maybePause(int bytes) {
+            bytesSinceLastPause += bytes;
+            if (bytesSinceLastPause < CHUNK_SIZE) {
+                return;
+            }
+            long pausedNanos = rateLimiter.pause(bytesSinceLastPause);
+            bytesSinceLastPause = 0;
+            if (pausedNanos > 0) {
+                throttledTime.addAndGet(TimeUnit.NANOSECONDS.toMillis(pausedNanos));
+            }
+        }
+    }
+}
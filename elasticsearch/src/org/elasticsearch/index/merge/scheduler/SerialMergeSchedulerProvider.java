@@ -20,26 +20,56 @@
 package org.elasticsearch.index.merge.scheduler;
 
 import com.google.inject.Inject;
+import org.apache.lucene.index.MergePolicy;
 import org.apache.lucene.index.MergeScheduler;
-import org.apache.lucene.index.SerialMergeScheduler;
+import org.apache.lucene.index.TrackingSerialMergeScheduler;
+import org.apache.lucene.store.Directory;
 import org.elasticsearch.index.settings.IndexSettings;
-import org.elasticsearch.index.shard.AbstractIndexShardComponent;
 import org.elasticsearch.index.shard.IndexShardLifecycle;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.indices.merge.MergeRateLimiter;
 import org.elasticsearch.util.settings.Settings;
 
 /**
+ * A merge scheduler provider running merges one at a time on the indexing thread. Merge writes are
+ * rate limited by the node level {@link MergeRateLimiter}.
+ *
  * @author kimchy (Shay Banon)
  */
 @IndexShardLifecycle
-public class SerialMergeSchedulerProvider extends AbstractIndexShardComponent implements MergeSchedulerProvider {
+public class SerialMergeSchedulerProvider extends AbstractMergeSchedulerProvider {
+
+    private final MergeRateLimiter rateLimiter;
+
+    private final ThreadLocal<Boolean> merging = new ThreadLocal<Boolean>();
 
-    @Inject public SerialMergeSchedulerProvider(ShardId shardId, @IndexSettings Settings indexSettings) {
+    @Inject public SerialMergeSchedulerProvider(ShardId shardId, @IndexSettings Settings indexSettings, MergeRateLimiter rateLimiter) {
         super(shardId, indexSettings);
+        this.rateLimiter = rateLimiter;
         logger.trace("Using [serial] merge scheduler");
     }
 
     @Override public MergeScheduler newMergeScheduler() {
-        return new SerialMergeScheduler();
+        return new CustomSerialMergeScheduler();
+    }
+
+    @Override public Directory wrapDirectory(Directory directory) {
+        if (!rateLimiter.enabled()) {
+            return directory;
+        }
+        return new MergeThrottlingDirectory(directory, rateLimiter, merging, totalThrottledTime);
+    }
+
+    private class CustomSerialMergeScheduler extends TrackingSerialMergeScheduler {
+
+        @Override protected void beforeMerge(MergePolicy.OneMerge merge) {
+            SerialMergeSchedulerProvider.this.beforeMerge(merge);
+            merging.set(Boolean.TRUE);
+        }
+
+        @Override protected void afterMerge(MergePolicy.OneMerge merge, long tookInMillis) {
+            merging.remove();
+            SerialMergeSchedulerProvider.this.afterMerge(merge, tookInMillis);
+        }
     }
 }
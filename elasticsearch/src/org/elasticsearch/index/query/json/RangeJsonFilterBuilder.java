@@ -38,6 +38,8 @@ public class RangeJsonFilterBuilder extends BaseJsonFilterBuilder {
 
     private boolean includeUpper = true;
 
+    private String execution;
+
     public RangeJsonFilterBuilder(String name) {
         this.name = name;
     }
@@ -102,6 +104,17 @@ public class RangeJsonFilterBuilder extends BaseJsonFilterBuilder {
         return this;
     }
 
+    /**
+     * How the range is executed, <tt>index</tt> (the default) enumerates the terms of the field,
+     * <tt>fielddata</tt> scans the per segment values of the field, and <tt>auto</tt> chooses between
+     * the two per segment based on the fraction of docs the range matches. Field data execution is
+     * only supported on single valued numeric and date fields.
+     */
+    public RangeJsonFilterBuilder execution(String execution) {
+        this.execution = execution;
+        return this;
+    }
+
     @Override protected void doJson(JsonBuilder builder) throws IOException {
         builder.startObject(RangeJsonFilterParser.NAME);
         builder.startObject(name);
@@ -109,6 +122,9 @@ public class RangeJsonFilterBuilder extends BaseJsonFilterBuilder {
         builder.field("to", to);
         builder.field("includeLower", includeLower);
         builder.field("includeUpper", includeUpper);
+        if (execution != null) {
+            builder.field("execution", execution);
+        }
         builder.endObject();
         builder.endObject();
     }
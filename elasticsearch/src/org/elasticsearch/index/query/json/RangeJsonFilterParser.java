@@ -21,6 +21,8 @@ package org.elasticsearch.index.query.json;
 
 import com.google.inject.Inject;
 import org.apache.lucene.search.Filter;
+import org.apache.lucene.search.MultiTermQuery;
+import org.apache.lucene.search.Query;
 import org.apache.lucene.search.TermRangeFilter;
 import org.codehaus.jackson.JsonParser;
 import org.codehaus.jackson.JsonToken;
@@ -30,6 +32,7 @@ import org.elasticsearch.index.mapper.FieldMapper;
 import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.index.query.QueryParsingException;
 import org.elasticsearch.index.settings.IndexSettings;
+import org.elasticsearch.util.lucene.search.AutoRangeFilter;
 import org.elasticsearch.util.settings.Settings;
 
 import java.io.IOException;
@@ -43,8 +46,11 @@ public class RangeJsonFilterParser extends AbstractIndexComponent implements Jso
 
     public static final String NAME = "range";
 
+    private final float fieldDataRatio;
+
     @Inject public RangeJsonFilterParser(Index index, @IndexSettings Settings settings) {
         super(index, settings);
+        this.fieldDataRatio = componentSettings.getAsFloat("range.fieldDataRatio", 0.25f);
     }
 
     @Override public String name() {
@@ -65,6 +71,7 @@ public class RangeJsonFilterParser extends AbstractIndexComponent implements Jso
         String to = null;
         boolean includeLower = true;
         boolean includeUpper = true;
+        String execution = "index";
 
         String currentFieldName = null;
         while ((token = jp.nextToken()) != JsonToken.END_OBJECT) {
@@ -87,6 +94,8 @@ public class RangeJsonFilterParser extends AbstractIndexComponent implements Jso
                     includeLower = token == JsonToken.VALUE_TRUE;
                 } else if ("includeUpper".equals(currentFieldName)) {
                     includeUpper = token == JsonToken.VALUE_TRUE;
+                } else if ("execution".equals(currentFieldName)) {
+                    execution = jp.getText();
                 }
             }
         }
@@ -97,6 +106,21 @@ public class RangeJsonFilterParser extends AbstractIndexComponent implements Jso
             FieldMapper fieldMapper = smartNameFieldMappers.fieldMappers().mapper();
             if (fieldMapper != null) {
                 filter = fieldMapper.rangeFilter(from, to, includeLower, includeUpper);
+                if ("fielddata".equals(execution)) {
+                    Filter fieldDataFilter = fieldMapper.fieldDataRangeFilter(from, to, includeLower, includeUpper);
+                    if (fieldDataFilter == null) {
+                        throw new QueryParsingException(index, "[range] filter on field [" + fieldName + "] does not support fielddata execution");
+                    }
+                    filter = fieldDataFilter;
+                } else if ("auto".equals(execution)) {
+                    Filter fieldDataFilter = fieldMapper.fieldDataRangeFilter(from, to, includeLower, includeUpper);
+                    Query rangeQuery = fieldMapper.rangeQuery(from, to, includeLower, includeUpper);
+                    if (fieldDataFilter != null && rangeQuery instanceof MultiTermQuery) {
+                        filter = new AutoRangeFilter((MultiTermQuery) rangeQuery, filter, fieldDataFilter, fieldDataRatio);
+                    }
+                } else if (!"index".equals(execution)) {
+                    throw new QueryParsingException(index, "[range] filter execution [" + execution + "] not supported");
+                }
             }
         }
         if (filter == null) {
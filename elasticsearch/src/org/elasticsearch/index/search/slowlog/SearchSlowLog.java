@@ -0,0 +1,96 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.index.search.slowlog;
+
+import com.google.inject.Inject;
+import org.elasticsearch.index.search.stats.SearchStats;
+import org.elasticsearch.index.settings.IndexSettings;
+import org.elasticsearch.index.shard.AbstractIndexShardComponent;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.util.TimeValue;
+import org.elasticsearch.util.settings.Settings;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs search phases that took longer than the configured thresholds, along with the search source. The
+ * thresholds are set per phase and log level using <tt>index.search.slowlog.threshold.[phase].[level]</tt>
+ * (for example <tt>index.search.slowlog.threshold.query.warn: 10s</tt>), and are disabled by default.
+ *
+ * <p>Logs under the <tt>index.search.slowlog</tt> logger, prefixed with the index and shard.
+ *
+ * @author kimchy (Shay Banon)
+ */
+public class SearchSlowLog extends AbstractIndexShardComponent {
+
+    private final long[] warnThresholds;
+
+    private final long[] infoThresholds;
+
+    private final long[] debugThresholds;
+
+    private final long[] traceThresholds;
+
+    private final boolean enabled;
+
+    @Inject public SearchSlowLog(ShardId shardId, @IndexSettings Settings indexSettings) {
+        super(shardId, indexSettings);
+        SearchStats.Phase[] phases = SearchStats.Phase.values();
+        this.warnThresholds = new long[phases.length];
+        this.infoThresholds = new long[phases.length];
+        this.debugThresholds = new long[phases.length];
+        this.traceThresholds = new long[phases.length];
+        boolean enabled = false;
+        for (SearchStats.Phase phase : phases) {
+            String prefix = "index.search.slowlog.threshold." + phase.lowercase() + ".";
+            warnThresholds[phase.id()] = threshold(indexSettings, prefix + "warn");
+            infoThresholds[phase.id()] = threshold(indexSettings, prefix + "info");
+            debugThresholds[phase.id()] = threshold(indexSettings, prefix + "debug");
+            traceThresholds[phase.id()] = threshold(indexSettings, prefix + "trace");
+            enabled |= warnThresholds[phase.id()] >= 0 || infoThresholds[phase.id()] >= 0 || debugThresholds[phase.id()] >= 0 || traceThresholds[phase.id()] >= 0;
+        }
+        this.enabled = enabled;
+    }
+
+    private static long threshold(Settings indexSettings, String setting) {
+        return indexSettings.getAsTime(setting, TimeValue.timeValueMillis(-1)).nanos();
+    }
+
+    public void log(SearchStats.Phase phase, long tookInNanos, String source) {
+        if (!enabled) {
+            return;
+        }
+        int id = phase.id();
+        if (warnThresholds[id] >= 0 && tookInNanos > warnThresholds[id] && logger.isWarnEnabled()) {
+            logger.warn(message(phase, tookInNanos, source));
+        } else if (infoThresholds[id] >= 0 && tookInNanos > infoThresholds[id] && logger.isInfoEnabled()) {
+            logger.info(message(phase, tookInNanos, source));
+        } else if (debugThresholds[id] >= 0 && tookInNanos > debugThresholds[id] && logger.isDebugEnabled()) {
+            logger.debug(message(phase, tookInNanos, source));
+        } else if (traceThresholds[id] >= 0 && tookInNanos > traceThresholds[id] && logger.isTraceEnabled()) {
+            logger.trace(message(phase, tookInNanos, source));
+        }
+    }
+
+    private String message(SearchStats.Phase phase, long tookInNanos, String source) {
+        return "took [" + new TimeValue(tookInNanos, TimeUnit.NANOSECONDS) + "], phase [" + phase.lowercase() + "], source [" + source + "]";
+    }
+}
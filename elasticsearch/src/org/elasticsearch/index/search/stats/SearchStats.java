@@ -0,0 +1,178 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.index.search.stats;
+
+import org.elasticsearch.util.LatencyHistogram;
+import org.elasticsearch.util.TimeValue;
+import org.elasticsearch.util.io.Streamable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Search statistics of a shard, or the sum of several shards, broken down by search phase.
+ *
+ * @author kimchy (Shay Banon)
+ */
+public class SearchStats implements Streamable {
+
+    public static enum Phase {
+        DFS((byte) 0),
+        QUERY((byte) 1),
+        FETCH((byte) 2);
+
+        private final byte id;
+
+        Phase(byte id) {
+            this.id = id;
+        }
+
+        public byte id() {
+            return this.id;
+        }
+
+        public String lowercase() {
+            return name().toLowerCase();
+        }
+    }
+
+    PhaseStats[] phases;
+
+    public SearchStats() {
+        phases = new PhaseStats[Phase.values().length];
+        for (int i = 0; i < phases.length; i++) {
+            phases[i] = new PhaseStats();
+        }
+    }
+
+    public PhaseStats dfs() {
+        return phase(Phase.DFS);
+    }
+
+    public PhaseStats query() {
+        return phase(Phase.QUERY);
+    }
+
+    public PhaseStats fetch() {
+        return phase(Phase.FETCH);
+    }
+
+    public PhaseStats phase(Phase phase) {
+        return phases[phase.id()];
+    }
+
+    public void add(SearchStats other) {
+        if (other == null) {
+            return;
+        }
+        for (int i = 0; i < phases.length; i++) {
+            phases[i].add(other.phases[i]);
+        }
+    }
+
+    public static SearchStats readSearchStats(DataInput in) throws IOException, ClassNotFoundException {
+        SearchStats stats = new SearchStats();
+        stats.readFrom(in);
+        return stats;
+    }
+
+    @Override public void readFrom(DataInput in) throws IOException, ClassNotFoundException {
+        for (PhaseStats phase : phases) {
+            phase.readFrom(in);
+        }
+    }
+
+    @Override public void writeTo(DataOutput out) throws IOException {
+        for (PhaseStats phase : phases) {
+            phase.writeTo(out);
+        }
+    }
+
+    public static class PhaseStats implements Streamable {
+
+        long total;
+
+        long totalTimeInMillis;
+
+        long current;
+
+        long[] histogram = new long[LatencyHistogram.BUCKETS];
+
+        PhaseStats() {
+        }
+
+        public void add(PhaseStats other) {
+            this.total += other.total;
+            this.totalTimeInMillis += other.totalTimeInMillis;
+            this.current += other.current;
+            for (int i = 0; i < histogram.length; i++) {
+                this.histogram[i] += other.histogram[i];
+            }
+        }
+
+        /**
+         * The total number of times the phase was executed.
+         */
+        public long total() {
+            return total;
+        }
+
+        /**
+         * The total time spent executing the phase.
+         */
+        public TimeValue totalTime() {
+            return new TimeValue(totalTimeInMillis);
+        }
+
+        /**
+         * The number of phase executions currently running.
+         */
+        public long current() {
+            return current;
+        }
+
+        /**
+         * The number of executions per latency bucket, see {@link LatencyHistogram#BOUNDS}.
+         */
+        public long[] histogram() {
+            return histogram;
+        }
+
+        @Override public void readFrom(DataInput in) throws IOException, ClassNotFoundException {
+            total = in.readLong();
+            totalTimeInMillis = in.readLong();
+            current = in.readLong();
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] = in.readLong();
+            }
+        }
+
+        @Override public void writeTo(DataOutput out) throws IOException {
+            out.writeLong(total);
+            out.writeLong(totalTimeInMillis);
+            out.writeLong(current);
+            for (long count : histogram) {
+                out.writeLong(count);
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.index.search.stats;
+
+import com.google.inject.Inject;
+import org.elasticsearch.index.search.slowlog.SearchSlowLog;
+import org.elasticsearch.index.settings.IndexSettings;
+import org.elasticsearch.index.shard.AbstractIndexShardComponent;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.util.LatencyHistogram;
+import org.elasticsearch.util.settings.Settings;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects the per phase search statistics of a shard, and hands slow executions to the {@link SearchSlowLog}.
+ *
+ * @author kimchy (Shay Banon)
+ */
+public class ShardSearchStats extends AbstractIndexShardComponent {
+
+    private final SearchSlowLog slowLog;
+
+    private final PhaseCounters[] phases;
+
+    @Inject public ShardSearchStats(ShardId shardId, @IndexSettings Settings indexSettings, SearchSlowLog slowLog) {
+        super(shardId, indexSettings);
+        this.slowLog = slowLog;
+        this.phases = new PhaseCounters[SearchStats.Phase.values().length];
+        for (int i = 0; i < phases.length; i++) {
+            phases[i] = new PhaseCounters();
+        }
+    }
+
+    /**
+     * Marks the start of a phase execution, returning the start time to pass to
+     * {@link #onPostExecute(SearchStats.Phase, long, String)}.
+     */
+    public long onPreExecute(SearchStats.Phase phase) {
+        phases[phase.id()].current.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    public void onPostExecute(SearchStats.Phase phase, long startTime, String source) {
+        long tookInNanos = System.nanoTime() - startTime;
+        PhaseCounters counters = phases[phase.id()];
+        counters.current.decrementAndGet();
+        counters.total.incrementAndGet();
+        counters.totalTimeInNanos.addAndGet(tookInNanos);
+        counters.histogram.record(tookInNanos);
+        slowLog.log(phase, tookInNanos, source);
+    }
+
+    public void onFailedExecute(SearchStats.Phase phase) {
+        phases[phase.id()].current.decrementAndGet();
+    }
+
+    public SearchStats stats() {
+        SearchStats stats = new SearchStats();
+        for (SearchStats.Phase phase : SearchStats.Phase.values()) {
+            PhaseCounters counters = phases[phase.id()];
+            SearchStats.PhaseStats phaseStats = stats.phase(phase);
+            phaseStats.total = counters.total.get();
+            phaseStats.totalTimeInMillis = TimeUnit.NANOSECONDS.toMillis(counters.totalTimeInNanos.get());
+            phaseStats.current = counters.current.get();
+            counters.histogram.copyTo(phaseStats.histogram);
+        }
+        return stats;
+    }
+
+    private static class PhaseCounters {
+
+        final AtomicLong total = new AtomicLong();
+
+        final AtomicLong totalTimeInNanos = new AtomicLong();
+
+        final AtomicLong current = new AtomicLong();
+
+        final LatencyHistogram histogram = new LatencyHistogram();
+    }
+}
@@ -58,6 +58,11 @@ public interface IndexShard extends IndexShardComponent {
 
     long count(float minScore, String querySource, @Nullable String queryParserName, String... types) throws ElasticSearchException;
 
+    /**
+     * Counts the docs matching the query, stopping once <tt>terminateAfter</tt> docs were counted (if positive).
+     */
+    long count(float minScore, int terminateAfter, String querySource, @Nullable String queryParserName, String... types) throws ElasticSearchException;
+
     void refresh(boolean waitForOperations) throws ElasticSearchException;
 
     void flush() throws ElasticSearchException;
@@ -20,7 +20,10 @@
 package org.elasticsearch.index.shard;
 
 import com.google.inject.Inject;
+import org.elasticsearch.index.cache.result.ResultCache;
 import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.search.stats.SearchStats;
+import org.elasticsearch.index.search.stats.ShardSearchStats;
 import org.elasticsearch.index.settings.IndexSettings;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.translog.Translog;
@@ -51,13 +54,19 @@ public class IndexShardManagement extends AbstractIndexShardComponent {
 
     private final Translog translog;
 
+    private final ResultCache resultCache;
+
+    private final ShardSearchStats searchStats;
+
     @Inject public IndexShardManagement(ShardId shardId, @IndexSettings Settings indexSettings, JmxService jmxService, IndexShard indexShard,
-                                        Store store, Translog translog) {
+                                        Store store, Translog translog, ResultCache resultCache, ShardSearchStats searchStats) {
         super(shardId, indexSettings);
         this.jmxService = jmxService;
         this.indexShard = indexShard;
         this.store = store;
         this.translog = translog;
+        this.resultCache = resultCache;
+        this.searchStats = searchStats;
     }
 
     public void close() {
@@ -98,6 +107,51 @@ public class IndexShardManagement extends AbstractIndexShardComponent {
         return translog.estimateMemorySize().toString();
     }
 
+    @ManagedAttribute(description = "Estimated size the cached results take")
+    public String getResultCacheSize() {
+        return resultCache.sizeInBytes().toString();
+    }
+
+    @ManagedAttribute(description = "Number of requests served from the result cache")
+    public long getResultCacheHitCount() {
+        return resultCache.hitCount();
+    }
+
+    @ManagedAttribute(description = "Number of requests not found in the result cache")
+    public long getResultCacheMissCount() {
+        return resultCache.missCount();
+    }
+
+    @ManagedAttribute(description = "Number of executed query phases")
+    public long getSearchQueryCount() {
+        return searchStats.stats().phase(SearchStats.Phase.QUERY).total();
+    }
+
+    @ManagedAttribute(description = "Total time spent executing query phases")
+    public String getSearchQueryTime() {
+        return searchStats.stats().phase(SearchStats.Phase.QUERY).totalTime().toString();
+    }
+
+    @ManagedAttribute(description = "Number of executed fetch phases")
+    public long getSearchFetchCount() {
+        return searchStats.stats().phase(SearchStats.Phase.FETCH).total();
+    }
+
+    @ManagedAttribute(description = "Total time spent executing fetch phases")
+    public String getSearchFetchTime() {
+        return searchStats.stats().phase(SearchStats.Phase.FETCH).totalTime().toString();
+    }
+
+    @ManagedAttribute(description = "Number of executed dfs phases")
+    public long getSearchDfsCount() {
+        return searchStats.stats().phase(SearchStats.Phase.DFS).total();
+    }
+
+    @ManagedAttribute(description = "Total time spent executing dfs phases")
+    public String getSearchDfsTime() {
+        return searchStats.stats().phase(SearchStats.Phase.DFS).totalTime().toString();
+    }
+
     @ManagedAttribute(description = "The state of the shard")
     public String getState() {
         return indexShard.state().toString();
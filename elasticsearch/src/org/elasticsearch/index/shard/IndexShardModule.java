@@ -20,6 +20,10 @@
 package org.elasticsearch.index.shard;
 
 import com.google.inject.AbstractModule;
+import org.elasticsearch.index.indexing.ShardIndexingStats;
+import org.elasticsearch.index.indexing.ShardIndexingStatsManagement;
+import org.elasticsearch.index.search.slowlog.SearchSlowLog;
+import org.elasticsearch.index.search.stats.ShardSearchStats;
 import org.elasticsearch.index.shard.recovery.RecoveryAction;
 
 /**
@@ -38,6 +42,10 @@ public class IndexShardModule extends AbstractModule {
         bind(ShardId.class).toInstance(shardId);
         bind(IndexShard.class).to(InternalIndexShard.class).asEagerSingleton();
         bind(IndexShardManagement.class).asEagerSingleton();
+        bind(SearchSlowLog.class).asEagerSingleton();
+        bind(ShardSearchStats.class).asEagerSingleton();
+        bind(ShardIndexingStats.class).asEagerSingleton();
+        bind(ShardIndexingStatsManagement.class).asEagerSingleton();
 
         bind(RecoveryAction.class).asEagerSingleton();
     }
@@ -28,6 +28,7 @@ import org.elasticsearch.ElasticSearchIllegalArgumentException;
 import org.elasticsearch.ElasticSearchIllegalStateException;
 import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.index.cache.filter.FilterCache;
+import org.elasticsearch.index.cache.result.ResultCache;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.engine.EngineException;
 import org.elasticsearch.index.engine.ScheduledRefreshableEngine;
@@ -48,6 +49,8 @@ import org.elasticsearch.util.SizeValue;
 import org.elasticsearch.util.Strings;
 import org.elasticsearch.util.TimeValue;
 import org.elasticsearch.util.concurrent.ThreadSafe;
+import org.elasticsearch.util.io.ByteArrayDataInputStream;
+import org.elasticsearch.util.io.ByteArrayDataOutputStream;
 import org.elasticsearch.util.lucene.Lucene;
 import org.elasticsearch.util.lucene.search.TermFilter;
 import org.elasticsearch.util.settings.Settings;
@@ -70,6 +73,8 @@ public class InternalIndexShard extends AbstractIndexShardComponent implements I
 
     private final FilterCache filterCache;
 
+    private final ResultCache resultCache;
+
     private final Store store;
 
     private final Engine engine;
@@ -85,7 +90,8 @@ public class InternalIndexShard extends AbstractIndexShardComponent implements I
     private volatile ShardRouting shardRouting;
 
     @Inject public InternalIndexShard(ShardId shardId, @IndexSettings Settings indexSettings, Store store, Engine engine, Translog translog,
-                                      ThreadPool threadPool, MapperService mapperService, IndexQueryParserService queryParserService, FilterCache filterCache) {
+                                      ThreadPool threadPool, MapperService mapperService, IndexQueryParserService queryParserService, FilterCache filterCache,
+                                      ResultCache resultCache) {
         super(shardId, indexSettings);
         this.store = store;
         this.engine = engine;
@@ -94,6 +100,7 @@ public class InternalIndexShard extends AbstractIndexShardComponent implements I
         this.mapperService = mapperService;
         this.queryParserService = queryParserService;
         this.filterCache = filterCache;
+        this.resultCache = resultCache;
         state = IndexShardState.CREATED;
     }
 
@@ -306,6 +313,10 @@ public class InternalIndexShard extends AbstractIndexShardComponent implements I
     }
 
     public long count(float minScore, String querySource, @Nullable String queryParserName, String... types) throws ElasticSearchException {
+        return count(minScore, Lucene.NO_TERMINATE_AFTER, querySource, queryParserName, types);
+    }
+
+    public long count(float minScore, int terminateAfter, String querySource, @Nullable String queryParserName, String... types) throws ElasticSearchException {
         readAllowed();
         IndexQueryParser queryParser = queryParserService.defaultIndexQueryParser();
         if (queryParserName != null) {
@@ -318,10 +329,18 @@ public class InternalIndexShard extends AbstractIndexShardComponent implements I
         query = filterByTypesIfNeeded(query, types);
         Engine.Searcher searcher = engine.searcher();
         try {
-            long count = Lucene.count(searcher.searcher(), query, minScore);
+            String cacheKey = countCacheKey(minScore, terminateAfter, querySource, queryParserName, types);
+            byte[] cachedCount = resultCache.get(searcher.reader(), cacheKey);
+            if (cachedCount != null) {
+                return new ByteArrayDataInputStream(cachedCount).readLong();
+            }
+            long count = Lucene.count(searcher.searcher(), query, minScore, terminateAfter);
             if (logger.isTraceEnabled()) {
                 logger.trace("Count of [{}] is [{}]", query, count);
             }
+            ByteArrayDataOutputStream out = ByteArrayDataOutputStream.Cached.cached();
+            out.writeLong(count);
+            resultCache.put(searcher.reader(), cacheKey, out.copiedByteArray());
             return count;
         } catch (IOException e) {
             throw new ElasticSearchException("Failed to count query [" + query + "]", e);
@@ -330,6 +349,16 @@ public class InternalIndexShard extends AbstractIndexShardComponent implements I
         }
     }
 
+    private String countCacheKey(float minScore, int terminateAfter, String querySource, String queryParserName, String[] types) {
+        StringBuilder sb = new StringBuilder("count/").append(minScore).append('/').append(terminateAfter).append('/').append(queryParserName).append('/');
+        if (types != null) {
+            for (String type : types) {
+                sb.append(type).append(',');
+            }
+        }
+        return sb.append('/').append(querySource).toString();
+    }
+
     public void refresh(boolean waitForOperations) throws ElasticSearchException {
         writeAllowed();
         if (logger.isTraceEnabled()) {
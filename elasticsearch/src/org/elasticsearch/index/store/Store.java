@@ -53,6 +53,12 @@ public interface Store<T extends Directory> extends IndexShardComponent {
      */
     SizeValue estimateSize() throws IOException;
 
+    /**
+     * The memory the store has allocated to hold its content, {@link SizeValue#UNKNOWN} if the
+     * store is not memory based.
+     */
+    SizeValue estimateMemorySize();
+
     /**
      * The store can suggest the best setting for compound file the
      * {@link org.apache.lucene.index.MergePolicy} will use.
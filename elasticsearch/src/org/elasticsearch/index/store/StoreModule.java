@@ -25,6 +25,7 @@ import org.elasticsearch.index.store.bytebuffer.ByteBufferStoreModule;
 import org.elasticsearch.index.store.fs.MmapFsStoreModule;
 import org.elasticsearch.index.store.fs.NioFsStoreModule;
 import org.elasticsearch.index.store.fs.SimpleFsStoreModule;
+import org.elasticsearch.index.store.hybrid.HybridStoreModule;
 import org.elasticsearch.index.store.memory.MemoryStoreModule;
 import org.elasticsearch.index.store.ram.RamStoreModule;
 import org.elasticsearch.util.OsUtils;
@@ -62,6 +63,8 @@ public class StoreModule extends AbstractModule {
             storeModule = NioFsStoreModule.class;
         } else if ("mmapfs".equalsIgnoreCase(storeType)) {
             storeModule = MmapFsStoreModule.class;
+        } else if ("hybrid".equalsIgnoreCase(storeType)) {
+            storeModule = HybridStoreModule.class;
         } else if (storeType != null) {
             storeModule = settings.getAsClass("index.store.type", storeModule, "org.elasticsearch.index.store.", "StoreModule");
         }
@@ -0,0 +1,258 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.store.bytebuffer;
+
+import sun.nio.ch.DirectBuffer;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Allocates the buffers used by a {@link ByteBufferDirectory}. Buffers come in size classes, where
+ * class <tt>i</tt> holds buffers of <tt>bufferSize * 2^i</tt> bytes.
+ *
+ * <p>When a slab size is set, buffers that fit within a slab are sliced out of large slabs, and released
+ * buffers go back to their slab. Buffers larger than a slab (or all buffers when slabs are disabled) are
+ * allocated on their own and pooled on release.
+ *
+ * <p>The free bytes kept for reuse (pooled buffers and free slab space) are bounded by the cache size. Once
+ * crossed, released buffers are freed, and so are slabs once all their buffers are released.
+ *
+ * @author kimchy (Shay Banon)
+ */
+class ByteBufferAllocator {
+
+    private final int bufferSize;
+
+    private final int slabSize;
+
+    private final long cacheSize;
+
+    private final boolean direct;
+
+    private final SizeClass[] sizeClasses;
+
+    private final AtomicLong allocatedBytes = new AtomicLong();
+
+    private final AtomicLong usedBytes = new AtomicLong();
+
+    private final AtomicLong cachedBytes = new AtomicLong();
+
+    ByteBufferAllocator(int bufferSize, int numberOfSizeClasses, int slabSize, long cacheSize, boolean direct) {
+        this.bufferSize = bufferSize;
+        this.slabSize = slabSize;
+        this.cacheSize = cacheSize;
+        this.direct = direct;
+        this.sizeClasses = new SizeClass[numberOfSizeClasses];
+        for (int i = 0; i < numberOfSizeClasses; i++) {
+            sizeClasses[i] = new SizeClass(bufferSize << i);
+        }
+    }
+
+    /**
+     * The total number of bytes allocated, including free slab space and pooled buffers.
+     */
+    long allocatedBytes() {
+        return allocatedBytes.get();
+    }
+
+    /**
+     * The number of bytes held by buffers currently handed out.
+     */
+    long usedBytes() {
+        return usedBytes.get();
+    }
+
+    /**
+     * The number of bytes allocated but not handed out (free slab space and pooled buffers).
+     */
+    long cachedBytes() {
+        return cachedBytes.get();
+    }
+
+    int numberOfSlabs() {
+        int count = 0;
+        for (SizeClass sizeClass : sizeClasses) {
+            synchronized (sizeClass) {
+                count += sizeClass.slabs.size();
+            }
+        }
+        return count;
+    }
+
+    ByteBuffer acquire(int sizeClassIndex) {
+        SizeClass sizeClass = sizeClasses[sizeClassIndex];
+        ByteBuffer buffer;
+        if (sizeClass.sliced) {
+            buffer = sizeClass.acquireSlice();
+        } else {
+            buffer = sizeClass.pool.poll();
+            if (buffer != null) {
+                cachedBytes.addAndGet(-sizeClass.size);
+            } else {
+                buffer = create(sizeClass.size);
+                allocatedBytes.addAndGet(sizeClass.size);
+            }
+        }
+        usedBytes.addAndGet(sizeClass.size);
+        buffer.clear();
+        return buffer;
+    }
+
+    void release(ByteBuffer buffer, int sizeClassIndex) {
+        SizeClass sizeClass = sizeClasses[sizeClassIndex];
+        usedBytes.addAndGet(-sizeClass.size);
+        if (sizeClass.sliced) {
+            sizeClass.releaseSlice(buffer);
+            return;
+        }
+        if (cachedBytes.addAndGet(sizeClass.size) <= cacheSize) {
+            sizeClass.pool.offer(buffer);
+            return;
+        }
+        cachedBytes.addAndGet(-sizeClass.size);
+        allocatedBytes.addAndGet(-sizeClass.size);
+        destroy(buffer);
+    }
+
+    /**
+     * Frees all the slabs and pooled buffers. Buffers still handed out must not be used afterwards.
+     */
+    void close() {
+        for (SizeClass sizeClass : sizeClasses) {
+            synchronized (sizeClass) {
+                if (sizeClass.sliced) {
+                    for (Slab slab : sizeClass.slabs) {
+                        cachedBytes.addAndGet(-(long) slab.freeSlices.size() * sizeClass.size);
+                        allocatedBytes.addAndGet(-slab.buffer.capacity());
+                        destroy(slab.buffer);
+                    }
+                    sizeClass.slabs.clear();
+                    sizeClass.slabsBySlice.clear();
+                } else {
+                    ByteBuffer buffer = sizeClass.pool.poll();
+                    while (buffer != null) {
+                        cachedBytes.addAndGet(-sizeClass.size);
+                        allocatedBytes.addAndGet(-sizeClass.size);
+                        destroy(buffer);
+                        buffer = sizeClass.pool.poll();
+                    }
+                }
+            }
+        }
+    }
+
+    private ByteBuffer create(int size) {
+        if (direct) {
+            return ByteBuffer.allocateDirect(size);
+        }
+        return ByteBuffer.allocate(size);
+    }
+
+    private void destroy(ByteBuffer buffer) {
+        if (direct) {
+            ((DirectBuffer) buffer).cleaner().clean();
+        }
+    }
+
+    private static class Slab {
+
+        final ByteBuffer buffer;
+
+        final int numberOfSlices;
+
+        final Deque<ByteBuffer> freeSlices = new ArrayDeque<ByteBuffer>();
+
+        Slab(ByteBuffer buffer, int numberOfSlices) {
+            this.buffer = buffer;
+            this.numberOfSlices = numberOfSlices;
+        }
+    }
+
+    private class SizeClass {
+
+        final int size;
+
+        final boolean sliced;
+
+        final Queue<ByteBuffer> pool = new ConcurrentLinkedQueue<ByteBuffer>();
+
+        // older slabs come first, and are preferred when acquiring so newer ones can drain and be freed
+        final List<Slab> slabs = new ArrayList<Slab>();
+
+        final Map<ByteBuffer, Slab> slabsBySlice = new IdentityHashMap<ByteBuffer, Slab>();
+
+        SizeClass(int size) {
+            this.size = size;
+            this.sliced = slabSize > 0 && size <= slabSize;
+        }
+
+        synchronized ByteBuffer acquireSlice() {
+            for (Slab slab : slabs) {
+                if (!slab.freeSlices.isEmpty()) {
+                    cachedBytes.addAndGet(-size);
+                    return slab.freeSlices.pop();
+                }
+            }
+            // round the slab down so it is fully used by buffers of this class
+            int numberOfSlices = slabSize / size;
+            Slab slab = new Slab(create(numberOfSlices * size), numberOfSlices);
+            for (int i = 0; i < numberOfSlices; i++) {
+                slab.buffer.limit((i + 1) * size);
+                slab.buffer.position(i * size);
+                ByteBuffer slice = slab.buffer.slice();
+                slab.freeSlices.add(slice);
+                slabsBySlice.put(slice, slab);
+            }
+            slab.buffer.clear();
+            slabs.add(slab);
+            allocatedBytes.addAndGet(slab.buffer.capacity());
+            cachedBytes.addAndGet(slab.buffer.capacity() - size);
+            return slab.freeSlices.pop();
+        }
+
+        synchronized void releaseSlice(ByteBuffer buffer) {
+            Slab slab = slabsBySlice.get(buffer);
+            if (slab == null) {
+                // the allocator was closed
+                return;
+            }
+            slab.freeSlices.push(buffer);
+            cachedBytes.addAndGet(size);
+            if (slab.freeSlices.size() == slab.numberOfSlices && cachedBytes.get() > cacheSize) {
+                slabs.remove(slab);
+                for (ByteBuffer slice : slab.freeSlices) {
+                    slabsBySlice.remove(slice);
+                }
+                cachedBytes.addAndGet(-slab.buffer.capacity());
+                allocatedBytes.addAndGet(-slab.buffer.capacity());
+                destroy(slab.buffer);
+            }
+        }
+    }
+}
@@ -26,31 +26,44 @@ import org.apache.lucene.store.SingleInstanceLockFactory;
 import org.elasticsearch.util.SizeUnit;
 import org.elasticsearch.util.SizeValue;
 import org.elasticsearch.util.concurrent.highscalelib.NonBlockingHashMap;
-import sun.nio.ch.DirectBuffer;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.Map;
-import java.util.Queue;
-import java.util.concurrent.ArrayBlockingQueue;
 
 /**
+ * A {@link Directory} storing its files in {@link ByteBuffer}s, which can be direct (off heap).
+ *
+ * <p>Each file starts with buffers of <tt>bufferSize</tt> bytes, doubling the buffer size for each
+ * additional buffer until <tt>maxBufferSize</tt> is reached, so small files stay compact while large
+ * files are held in a small number of big buffers. When a <tt>slabSize</tt> is set, buffers are sliced
+ * out of large slabs instead of being allocated one by one. Slabs whose buffers were all released are
+ * freed once the free memory crosses <tt>cacheSize</tt>.
+ *
  * @author kimchy (Shay Banon)
  */
 public class ByteBufferDirectory extends Directory {
 
     private final Map<String, ByteBufferFile> files = new NonBlockingHashMap<String, ByteBufferFile>();
 
-    private final Queue<ByteBuffer> cache;
+    private final ByteBufferAllocator allocator;
 
     private final int bufferSizeInBytes;
 
+    private final int maxBufferSizeInBytes;
+
+    private final int numberOfGrowingBuffers;
+
+    private final long growingBuffersLength;
+
     private final SizeValue bufferSize;
 
-    private final SizeValue cacheSize;
+    private final SizeValue maxBufferSize;
 
-    private final boolean disableCache;
+    private final SizeValue slabSize;
+
+    private final SizeValue cacheSize;
 
     private final boolean direct;
 
@@ -59,20 +72,45 @@ public class ByteBufferDirectory extends Directory {
     }
 
     public ByteBufferDirectory(SizeValue bufferSize, SizeValue cacheSize, boolean direct, boolean warmCache) {
-        disableCache = cacheSize.bytes() == 0;
+        this(bufferSize, bufferSize, new SizeValue(0, SizeUnit.BYTES), cacheSize, direct, warmCache);
+    }
+
+    /**
+     * @param bufferSize    The size of the first buffer of each file
+     * @param maxBufferSize The size buffers grow to (by doubling), must be <tt>bufferSize</tt> times a power of two
+     * @param slabSize      The size of the slabs buffers are sliced from, <tt>0</tt> to allocate each buffer on its own
+     * @param cacheSize     The maximum size of free memory (released buffers and free slab space) kept for reuse
+     * @param direct        Should direct (off heap) buffers be used
+     * @param warmCache     Should <tt>cacheSize</tt> worth of first buffers be allocated upfront
+     */
+    public ByteBufferDirectory(SizeValue bufferSize, SizeValue maxBufferSize, SizeValue slabSize, SizeValue cacheSize, boolean direct, boolean warmCache) {
+        boolean disableCache = cacheSize.bytes() == 0;
         if (!disableCache && cacheSize.bytes() < bufferSize.bytes()) {
             throw new IllegalArgumentException("Cache size [" + cacheSize + "] is smaller than buffer size [" + bufferSize + "]");
         }
+        long ratio = maxBufferSize.bytes() / bufferSize.bytes();
+        if (maxBufferSize.bytes() % bufferSize.bytes() != 0 || Long.bitCount(ratio) != 1) {
+            throw new IllegalArgumentException("Max buffer size [" + maxBufferSize + "] must be buffer size [" + bufferSize + "] times a power of two");
+        }
         this.bufferSize = bufferSize;
+        this.maxBufferSize = maxBufferSize;
+        this.slabSize = slabSize;
+        this.cacheSize = disableCache ? new SizeValue(0, SizeUnit.BYTES) : cacheSize;
         this.bufferSizeInBytes = (int) bufferSize.bytes();
-        int numberOfCacheEntries = (int) (cacheSize.bytes() / bufferSize.bytes());
-        this.cache = disableCache ? null : new ArrayBlockingQueue<ByteBuffer>(numberOfCacheEntries);
-        this.cacheSize = disableCache ? new SizeValue(0, SizeUnit.BYTES) : new SizeValue(numberOfCacheEntries * bufferSize.bytes(), SizeUnit.BYTES);
+        this.maxBufferSizeInBytes = (int) maxBufferSize.bytes();
+        this.numberOfGrowingBuffers = Long.numberOfTrailingZeros(ratio);
+        this.growingBuffersLength = maxBufferSize.bytes() - bufferSize.bytes();
         this.direct = direct;
+        this.allocator = new ByteBufferAllocator(bufferSizeInBytes, numberOfGrowingBuffers + 1, (int) slabSize.bytes(), this.cacheSize.bytes(), direct);
         setLockFactory(new SingleInstanceLockFactory());
         if (!disableCache && warmCache) {
-            for (int i = 0; i < numberOfCacheEntries; i++) {
-                cache.add(createBuffer());
+            long numberOfCacheEntries = cacheSize.bytes() / bufferSize.bytes();
+            ByteBuffer[] buffers = new ByteBuffer[(int) numberOfCacheEntries];
+            for (int i = 0; i < buffers.length; i++) {
+                buffers[i] = allocator.acquire(0);
+            }
+            for (ByteBuffer buffer : buffers) {
+                allocator.release(buffer, 0);
             }
         }
     }
@@ -81,16 +119,62 @@ public class ByteBufferDirectory extends Directory {
         return this.bufferSize;
     }
 
+    public SizeValue maxBufferSize() {
+        return this.maxBufferSize;
+    }
+
+    public SizeValue slabSize() {
+        return this.slabSize;
+    }
+
     public SizeValue cacheSize() {
         return this.cacheSize;
     }
 
+    public boolean isDirect() {
+        return direct;
+    }
+
+    /**
+     * The memory allocated by this directory, including pooled buffers and unused slab space.
+     */
+    public SizeValue allocatedSize() {
+        return new SizeValue(allocator.allocatedBytes(), SizeUnit.BYTES);
+    }
+
+    /**
+     * The memory held by the buffers of the files in this directory.
+     */
+    public SizeValue usedSize() {
+        return new SizeValue(allocator.usedBytes(), SizeUnit.BYTES);
+    }
+
+    public int numberOfSlabs() {
+        return allocator.numberOfSlabs();
+    }
+
     int bufferSizeInBytes() {
         return bufferSizeInBytes;
     }
 
-    public boolean isDirect() {
-        return direct;
+    /**
+     * The index of the buffer holding the given file position.
+     */
+    int bufferIndex(long pos) {
+        if (pos >= growingBuffersLength) {
+            return numberOfGrowingBuffers + (int) ((pos - growingBuffersLength) / maxBufferSizeInBytes);
+        }
+        return 63 - Long.numberOfLeadingZeros(pos / bufferSizeInBytes + 1);
+    }
+
+    /**
+     * The file position the buffer with the given index starts at.
+     */
+    long bufferStart(int index) {
+        if (index >= numberOfGrowingBuffers) {
+            return growingBuffersLength + (long) (index - numberOfGrowingBuffers) * maxBufferSizeInBytes;
+        }
+        return ((1l << index) - 1) * bufferSizeInBytes;
     }
 
     @Override public String[] listAll() throws IOException {
@@ -164,49 +248,18 @@ public class ByteBufferDirectory extends Directory {
         for (String file : files) {
             deleteFile(file);
         }
-        if (!disableCache) {
-            ByteBuffer buffer = cache.poll();
-            while (buffer != null) {
-                closeBuffer(buffer);
-                buffer = cache.poll();
-            }
-        }
-    }
-
-    void releaseBuffer(ByteBuffer byteBuffer) {
-        if (disableCache) {
-            closeBuffer(byteBuffer);
-            return;
-        }
-        boolean success = cache.offer(byteBuffer);
-        if (!success) {
-            closeBuffer(byteBuffer);
-        }
+        allocator.close();
     }
 
-    ByteBuffer acquireBuffer() {
-        if (disableCache) {
-            return createBuffer();
-        }
-        ByteBuffer byteBuffer = cache.poll();
-        if (byteBuffer == null) {
-            // everything is taken, return a new one
-            return createBuffer();
-        }
-        byteBuffer.position(0);
-        return byteBuffer;
+    ByteBuffer acquireBuffer(int index) {
+        return allocator.acquire(sizeClass(index));
     }
 
-    ByteBuffer createBuffer() {
-        if (isDirect()) {
-            return ByteBuffer.allocateDirect(bufferSizeInBytes());
-        }
-        return ByteBuffer.allocate(bufferSizeInBytes());
+    void releaseBuffer(ByteBuffer byteBuffer, int index) {
+        allocator.release(byteBuffer, sizeClass(index));
     }
 
-    void closeBuffer(ByteBuffer byteBuffer) {
-        if (isDirect()) {
-            ((DirectBuffer) byteBuffer).cleaner().clean();
-        }
+    private int sizeClass(int index) {
+        return index < numberOfGrowingBuffers ? index : numberOfGrowingBuffers;
     }
 }
@@ -62,14 +62,18 @@ public class ByteBufferFile {
         return this.buffers.length;
     }
 
+    ByteBuffer[] buffers() {
+        return this.buffers;
+    }
+
     void buffers(ByteBuffer[] buffers) {
         this.buffers = buffers;
     }
 
     void clean() {
         if (buffers != null) {
-            for (ByteBuffer buffer : buffers) {
-                dir.releaseBuffer(buffer);
+            for (int i = 0; i < buffers.length; i++) {
+                dir.releaseBuffer(buffers[i], i);
             }
             buffers = null;
         }
@@ -29,8 +29,9 @@ import java.nio.ByteBuffer;
  */
 public class ByteBufferIndexInput extends IndexInput {
 
-    private final ByteBufferFile file;
-    private final int bufferSize;
+    private final ByteBufferDirectory dir;
+    // the buffers are captured on open, so the input can still be read after the file is deleted
+    private final ByteBuffer[] buffers;
     private final long length;
 
     private ByteBuffer currentBuffer;
@@ -40,8 +41,8 @@ public class ByteBufferIndexInput extends IndexInput {
 
 
     public ByteBufferIndexInput(ByteBufferDirectory dir, ByteBufferFile file) throws IOException {
-        this.file = file;
-        this.bufferSize = dir.bufferSizeInBytes();
+        this.dir = dir;
+        this.buffers = file.buffers();
         this.length = file.length();
         switchCurrentBuffer(true);
     }
@@ -77,11 +78,11 @@ public class ByteBufferIndexInput extends IndexInput {
     }
 
     @Override public void seek(long pos) throws IOException {
-        if (currentBuffer == null || pos < bufferStart || pos >= bufferStart + bufferSize) {
-            currentBufferIndex = (int) (pos / bufferSize);
+        if (currentBuffer == null || pos < bufferStart || pos >= bufferStart + currentBuffer.capacity()) {
+            currentBufferIndex = dir.bufferIndex(pos);
             switchCurrentBuffer(false);
         }
-        currentBuffer.position((int) (pos % bufferSize));
+        currentBuffer.position((int) (pos - bufferStart));
     }
 
     @Override public long length() {
@@ -89,20 +90,20 @@ public class ByteBufferIndexInput extends IndexInput {
     }
 
     private void switchCurrentBuffer(boolean enforceEOF) throws IOException {
-        if (currentBufferIndex >= file.numberOfBuffers()) {
+        if (currentBufferIndex >= buffers.length) {
             // end of file reached, no more buffers left
             if (enforceEOF)
                 throw new IOException("Read past EOF");
             else {
                 // Force EOF if a read takes place at this position
                 currentBufferIndex--;
-                currentBuffer.position(bufferSize);
+                currentBuffer.position(currentBuffer.capacity());
             }
         } else {
             // we must duplicate (and make it read only while we are at it) since we need position and such to be independant
-            currentBuffer = file.buffer(currentBufferIndex).asReadOnlyBuffer();
+            currentBuffer = buffers[currentBufferIndex].asReadOnlyBuffer();
             currentBuffer.position(0);
-            bufferStart = (long) bufferSize * (long) currentBufferIndex;
+            bufferStart = dir.bufferStart(currentBufferIndex);
         }
     }
 
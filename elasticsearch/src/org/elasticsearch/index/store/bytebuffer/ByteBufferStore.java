@@ -34,6 +34,10 @@ public class ByteBufferStore extends AbstractStore<ByteBufferDirectory> {
 
     private final SizeValue bufferSize;
 
+    private final SizeValue maxBufferSize;
+
+    private final SizeValue slabSize;
+
     private final SizeValue cacheSize;
 
     private final boolean direct;
@@ -46,18 +50,24 @@ public class ByteBufferStore extends AbstractStore<ByteBufferDirectory> {
         super(shardId, indexSettings);
 
         this.bufferSize = componentSettings.getAsSize("bufferSize", new SizeValue(1, SizeUnit.KB));
+        this.maxBufferSize = componentSettings.getAsSize("maxBufferSize", new SizeValue(64, SizeUnit.KB));
+        this.slabSize = componentSettings.getAsSize("slabSize", new SizeValue(1, SizeUnit.MB));
         this.cacheSize = componentSettings.getAsSize("cacheSize", new SizeValue(20, SizeUnit.MB));
         this.direct = componentSettings.getAsBoolean("direct", true);
         this.warmCache = componentSettings.getAsBoolean("warmCache", true);
-        this.directory = new ByteBufferDirectory(bufferSize, cacheSize, direct, warmCache);
-        logger.debug("Using [ByteBuffer] Store with bufferSize[{}], cacheSize[{}], direct[{}], warmCache[{}]",
-                new Object[]{directory.bufferSize(), directory.cacheSize(), directory.isDirect(), warmCache});
+        this.directory = new ByteBufferDirectory(bufferSize, maxBufferSize, slabSize, cacheSize, direct, warmCache);
+        logger.debug("Using [ByteBuffer] Store with bufferSize[{}], maxBufferSize[{}], slabSize[{}], cacheSize[{}], direct[{}], warmCache[{}]",
+                new Object[]{directory.bufferSize(), directory.maxBufferSize(), directory.slabSize(), directory.cacheSize(), directory.isDirect(), warmCache});
     }
 
     @Override public ByteBufferDirectory directory() {
         return directory;
     }
 
+    @Override public SizeValue estimateMemorySize() {
+        return directory.allocatedSize();
+    }
+
     /**
      * Its better to not use the compound format when using the Ram store.
      */
@@ -0,0 +1,65 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.store.bytebuffer;
+
+import com.google.inject.Inject;
+import org.elasticsearch.index.shard.AbstractIndexShardComponent;
+import org.elasticsearch.index.store.Store;
+import org.elasticsearch.jmx.MBean;
+import org.elasticsearch.jmx.ManagedAttribute;
+
+/**
+ * @author kimchy (Shay Banon)
+ */
+@MBean(objectName = "shardType=store,storeType=bytebuffer", description = "The byte buffer storage of the index shard")
+public class ByteBufferStoreManagement extends AbstractIndexShardComponent {
+
+    private final ByteBufferStore store;
+
+    @Inject public ByteBufferStoreManagement(Store store) {
+        super(store.shardId(), store.indexSettings());
+        this.store = (ByteBufferStore) store;
+    }
+
+    @ManagedAttribute(description = "Allocated size in bytes")
+    public long getAllocatedSizeInBytes() {
+        return store.directory().allocatedSize().bytes();
+    }
+
+    @ManagedAttribute(description = "Allocated size")
+    public String getAllocatedSize() {
+        return store.directory().allocatedSize().toString();
+    }
+
+    @ManagedAttribute(description = "Size used by files")
+    public String getUsedSize() {
+        return store.directory().usedSize().toString();
+    }
+
+    @ManagedAttribute(description = "Number of slabs allocated")
+    public int getNumberOfSlabs() {
+        return store.directory().numberOfSlabs();
+    }
+
+    @ManagedAttribute(description = "Is direct (off heap) memory used")
+    public boolean isDirect() {
+        return store.directory().isDirect();
+    }
+}
@@ -29,5 +29,6 @@ public class ByteBufferStoreModule extends AbstractModule {
 
     @Override protected void configure() {
         bind(Store.class).to(ByteBufferStore.class).asEagerSingleton();
+        bind(ByteBufferStoreManagement.class).asEagerSingleton();
     }
 }
\ No newline at end of file
@@ -19,21 +19,37 @@
 
 package org.elasticsearch.index.store.fs;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.inject.Inject;
+import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.store.NIOFSDirectory;
 import org.elasticsearch.env.Environment;
 import org.elasticsearch.index.LocalNodeId;
 import org.elasticsearch.index.settings.IndexSettings;
 import org.elasticsearch.index.shard.IndexShardLifecycle;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.util.SizeValue;
+import org.elasticsearch.util.Strings;
 import org.elasticsearch.util.settings.Settings;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.ConcurrentMap;
 
 import static org.elasticsearch.index.store.fs.FsStores.*;
+import static org.elasticsearch.util.concurrent.ConcurrentMaps.*;
 
 /**
+ * A file system store that memory maps its files. Files with one of the <tt>nioExtensions</tt>
+ * are read using NIO instead of being mapped (for example, stored fields <tt>fdt</tt> that should
+ * not pollute the page cache), and files with one of the <tt>preloadExtensions</tt> have all their
+ * pages touched when opened (for example, <tt>tis</tt> and <tt>nrm</tt>) so they are resident once
+ * the first search executes.
+ *
+ * <p>Note, mapping files per extension requires segments not to use the compound file format,
+ * which is why the store suggests not using it once any extension is configured.
+ *
  * @author kimchy (Shay Banon)
  */
 @IndexShardLifecycle
@@ -41,27 +57,128 @@ public class MmapFsStore extends AbstractFsStore<MMapDirectory> {
 
     private final boolean syncToDisk;
 
-    private final MMapDirectory directory;
+    private final ImmutableSet<String> preloadExtensions;
+
+    private final ImmutableSet<String> nioExtensions;
+
+    private final boolean suggestUseCompoundFile;
+
+    private final CustomMMapDirectory directory;
 
     @Inject public MmapFsStore(ShardId shardId, @IndexSettings Settings indexSettings, Environment environment, @LocalNodeId String localNodeId) throws IOException {
         super(shardId, indexSettings);
         // by default, we don't need to sync to disk, since we use the gateway
         this.syncToDisk = componentSettings.getAsBoolean("syncToDisk", false);
-        this.directory = new CustomMMapDirectory(createStoreFilePath(environment.workWithClusterFile(), localNodeId, shardId), syncToDisk);
-        logger.debug("Using [MmapFs] Store with path [{}]", directory.getFile());
+        this.preloadExtensions = extensions("mmap.preloadExtensions");
+        this.nioExtensions = extensions("mmap.nioExtensions");
+        this.suggestUseCompoundFile = componentSettings.getAsBoolean("mmap.compoundFile", preloadExtensions.isEmpty() && nioExtensions.isEmpty());
+        this.directory = new CustomMMapDirectory(createStoreFilePath(environment.workWithClusterFile(), localNodeId, shardId), syncToDisk,
+                preloadExtensions, nioExtensions);
+        logger.debug("Using [MmapFs] Store with path [{}], preloadExtensions {}, nioExtensions {}", new Object[]{directory.getFile(), preloadExtensions, nioExtensions});
     }
 
     @Override public MMapDirectory directory() {
         return directory;
     }
 
+    @Override public boolean suggestUseCompoundFile() {
+        return suggestUseCompoundFile;
+    }
+
+    /**
+     * The estimated size of the files in the store that are memory mapped (and not read using NIO).
+     */
+    public SizeValue estimateMappedSize() throws IOException {
+        long mappedSize = 0;
+        for (String file : directory.listAll()) {
+            if (nioExtensions.contains(extension(file))) {
+                continue;
+            }
+            mappedSize += directory.fileLength(file);
+        }
+        return new SizeValue(mappedSize);
+    }
+
+    /**
+     * The total size of the files in the store that were preloaded when opened.
+     */
+    public SizeValue preloadedSize() {
+        return new SizeValue(directory.preloadedBytes());
+    }
+
+    private ImmutableSet<String> extensions(String setting) {
+        String[] extensions = componentSettings.getAsArray(setting);
+        if (extensions.length == 0) {
+            extensions = Strings.commaDelimitedListToStringArray(componentSettings.get(setting));
+        }
+        ImmutableSet.Builder<String> builder = ImmutableSet.builder();
+        for (String extension : extensions) {
+            extension = extension.trim();
+            if (extension.startsWith(".")) {
+                extension = extension.substring(1);
+            }
+            if (extension.length() > 0) {
+                builder.add(extension);
+            }
+        }
+        return builder.build();
+    }
+
+    private static String extension(String fileName) {
+        int index = fileName.lastIndexOf('.');
+        if (index == -1) {
+            return "";
+        }
+        return fileName.substring(index + 1);
+    }
+
     private static class CustomMMapDirectory extends MMapDirectory {
 
+        private static final int PAGE_SIZE = 4096;
+
         private final boolean syncToDisk;
 
-        private CustomMMapDirectory(File path, boolean syncToDisk) throws IOException {
+        private final ImmutableSet<String> preloadExtensions;
+
+        private final ImmutableSet<String> nioExtensions;
+
+        private final NIOFSDirectory nioDirectory;
+
+        // the preloaded files still in the directory, and their length
+        private final ConcurrentMap<String, Long> preloadedFiles = newConcurrentMap();
+
+        private CustomMMapDirectory(File path, boolean syncToDisk, ImmutableSet<String> preloadExtensions, ImmutableSet<String> nioExtensions) throws IOException {
             super(path);
             this.syncToDisk = syncToDisk;
+            this.preloadExtensions = preloadExtensions;
+            this.nioExtensions = nioExtensions;
+            this.nioDirectory = nioExtensions.isEmpty() ? null : new NIOFSDirectory(path, getLockFactory());
+        }
+
+        @Override public IndexInput openInput(String name, int bufferSize) throws IOException {
+            String extension = extension(name);
+            if (nioDirectory != null && nioExtensions.contains(extension)) {
+                return nioDirectory.openInput(name, bufferSize);
+            }
+            IndexInput indexInput = super.openInput(name, bufferSize);
+            if (preloadExtensions.contains(extension)) {
+                preload(indexInput);
+                preloadedFiles.put(name, indexInput.length());
+            }
+            return indexInput;
+        }
+
+        @Override public void deleteFile(String name) throws IOException {
+            super.deleteFile(name);
+            preloadedFiles.remove(name);
+        }
+
+        long preloadedBytes() {
+            long preloadedBytes = 0;
+            for (Long length : preloadedFiles.values()) {
+                preloadedBytes += length;
+            }
+            return preloadedBytes;
         }
 
         @Override public void sync(String name) throws IOException {
@@ -70,5 +187,25 @@ public class MmapFsStore extends AbstractFsStore<MMapDirectory> {
             }
             super.sync(name);
         }
+
+        @Override public synchronized void close() {
+            if (nioDirectory != null) {
+                nioDirectory.close();
+            }
+            preloadedFiles.clear();
+            super.close();
+        }
+
+        /**
+         * Touches a byte on each page of the mapped file so it is loaded into memory.
+         */
+        private void preload(IndexInput indexInput) throws IOException {
+            IndexInput preloadInput = (IndexInput) indexInput.clone();
+            long length = preloadInput.length();
+            for (long position = 0; position < length; position += PAGE_SIZE) {
+                preloadInput.seek(position);
+                preloadInput.readByte();
+            }
+        }
     }
-}
\ No newline at end of file
+}
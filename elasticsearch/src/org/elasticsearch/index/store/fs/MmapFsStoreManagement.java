@@ -0,0 +1,65 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.store.fs;
+
+import com.google.inject.Inject;
+import org.elasticsearch.index.shard.AbstractIndexShardComponent;
+import org.elasticsearch.index.store.Store;
+import org.elasticsearch.jmx.MBean;
+import org.elasticsearch.jmx.ManagedAttribute;
+
+import java.io.IOException;
+
+/**
+ * @author kimchy (Shay Banon)
+ */
+@MBean(objectName = "shardType=store,storeType=mmapfs", description = "The memory mapped storage of the index shard")
+public class MmapFsStoreManagement extends AbstractIndexShardComponent {
+
+    private final MmapFsStore store;
+
+    @Inject public MmapFsStoreManagement(Store store) {
+        super(store.shardId(), store.indexSettings());
+        this.store = (MmapFsStore) store;
+    }
+
+    @ManagedAttribute(description = "Mapped size in bytes")
+    public long getMappedSizeInBytes() {
+        try {
+            return store.estimateMappedSize().bytes();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    @ManagedAttribute(description = "Mapped size")
+    public String getMappedSize() {
+        try {
+            return store.estimateMappedSize().toString();
+        } catch (IOException e) {
+            return "NA";
+        }
+    }
+
+    @ManagedAttribute(description = "Preloaded size")
+    public String getPreloadedSize() {
+        return store.preloadedSize().toString();
+    }
+}
@@ -29,5 +29,6 @@ public class MmapFsStoreModule extends AbstractModule {
 
     @Override protected void configure() {
         bind(Store.class).to(MmapFsStore.class).asEagerSingleton();
+        bind(MmapFsStoreManagement.class).asEagerSingleton();
     }
 }
\ No newline at end of file
@@ -0,0 +1,269 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.store.hybrid;
+
+import org.apache.lucene.store.*;
+import org.elasticsearch.index.store.bytebuffer.ByteBufferDirectory;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+
+import static com.google.common.collect.Sets.*;
+
+/**
+ * A {@link Directory} writing new files into an in memory {@link ByteBufferDirectory} and moving them to
+ * a file system {@link FSDirectory} once they grow past a size threshold, or when they are synced as
+ * part of a commit. The <tt>segments</tt> files are always written to the file system.
+ *
+ * <p>Open inputs of a moved file keep reading the in memory copy, so the memory directory must not
+ * pool or clean its buffers on delete (heap buffers with no cache).
+ *
+ * @author kimchy (Shay Banon)
+ */
+public class HybridDirectory extends Directory {
+
+    private static final String SEGMENTS = "segments";
+
+    private final ByteBufferDirectory memoryDirectory;
+
+    private final FSDirectory fsDirectory;
+
+    private final long moveThreshold;
+
+    private final boolean syncToDisk;
+
+    public HybridDirectory(ByteBufferDirectory memoryDirectory, FSDirectory fsDirectory, long moveThreshold, boolean syncToDisk) {
+        this.memoryDirectory = memoryDirectory;
+        this.fsDirectory = fsDirectory;
+        this.moveThreshold = moveThreshold;
+        this.syncToDisk = syncToDisk;
+        this.lockFactory = fsDirectory.getLockFactory();
+    }
+
+    public ByteBufferDirectory memoryDirectory() {
+        return memoryDirectory;
+    }
+
+    public FSDirectory fsDirectory() {
+        return fsDirectory;
+    }
+
+    public long moveThreshold() {
+        return moveThreshold;
+    }
+
+    /**
+     * Returns <tt>true</tt> if the file is currently held in memory.
+     */
+    public boolean inMemory(String name) throws IOException {
+        return memoryDirectory.fileExists(name);
+    }
+
+    @Override public String[] listAll() throws IOException {
+        Set<String> files = newHashSet();
+        Collections.addAll(files, fsDirectory.listAll());
+        Collections.addAll(files, memoryDirectory.listAll());
+        return files.toArray(new String[files.size()]);
+    }
+
+    @Override public boolean fileExists(String name) throws IOException {
+        return memoryDirectory.fileExists(name) || fsDirectory.fileExists(name);
+    }
+
+    @Override public long fileModified(String name) throws IOException {
+        try {
+            return memoryDirectory.fileModified(name);
+        } catch (FileNotFoundException e) {
+            return fsDirectory.fileModified(name);
+        }
+    }
+
+    @Override public void touchFile(String name) throws IOException {
+        try {
+            memoryDirectory.touchFile(name);
+        } catch (FileNotFoundException e) {
+            fsDirectory.touchFile(name);
+        }
+    }
+
+    @Override public void deleteFile(String name) throws IOException {
+        try {
+            memoryDirectory.deleteFile(name);
+        } catch (FileNotFoundException e) {
+            fsDirectory.deleteFile(name);
+        }
+    }
+
+    @Override public long fileLength(String name) throws IOException {
+        try {
+            return memoryDirectory.fileLength(name);
+        } catch (FileNotFoundException e) {
+            return fsDirectory.fileLength(name);
+        }
+    }
+
+    @Override public IndexOutput createOutput(String name) throws IOException {
+        if (name.startsWith(SEGMENTS)) {
+            if (memoryDirectory.fileExists(name)) {
+                memoryDirectory.deleteFile(name);
+            }
+            return fsDirectory.createOutput(name);
+        }
+        if (fsDirectory.fileExists(name)) {
+            fsDirectory.deleteFile(name);
+        }
+        return new HybridIndexOutput(name, memoryDirectory.createOutput(name));
+    }
+
+    @Override public IndexInput openInput(String name) throws IOException {
+        return openInput(name, BufferedIndexInput.BUFFER_SIZE);
+    }
+
+    @Override public IndexInput openInput(String name, int bufferSize) throws IOException {
+        try {
+            return memoryDirectory.openInput(name);
+        } catch (FileNotFoundException e) {
+            return fsDirectory.openInput(name, bufferSize);
+        }
+    }
+
+    /**
+     * Moves the file to the file system if it is held in memory, so a commit never references memory
+     * only files.
+     */
+    @Override public void sync(String name) throws IOException {
+        synchronized (this) {
+            if (memoryDirectory.fileExists(name)) {
+                moveToFs(name);
+            }
+        }
+        if (syncToDisk) {
+            fsDirectory.sync(name);
+        }
+    }
+
+    @Override public void close() throws IOException {
+        try {
+            memoryDirectory.close();
+        } finally {
+            fsDirectory.close();
+        }
+    }
+
+    private void moveToFs(String name) throws IOException {
+        IndexInput input = memoryDirectory.openInput(name);
+        IndexOutput output = fsDirectory.createOutput(name);
+        try {
+            copy(input, output, input.length());
+        } finally {
+            try {
+                output.close();
+            } finally {
+                input.close();
+            }
+        }
+        memoryDirectory.deleteFile(name);
+    }
+
+    private static void copy(IndexInput input, IndexOutput output, long length) throws IOException {
+        byte[] buffer = new byte[16384];
+        long left = length;
+        while (left > 0) {
+            int toCopy = left > buffer.length ? buffer.length : (int) left;
+            input.readBytes(buffer, 0, toCopy);
+            output.writeBytes(buffer, toCopy);
+            left -= toCopy;
+        }
+    }
+
+    /**
+     * Writes to memory, and switches over to the file system once the written data grows past the
+     * move threshold.
+     */
+    private class HybridIndexOutput extends IndexOutput {
+
+        private final String name;
+
+        private IndexOutput delegate;
+
+        private boolean inMemory = true;
+
+        private HybridIndexOutput(String name, IndexOutput delegate) {
+            this.name = name;
+            this.delegate = delegate;
+        }
+
+        @Override public void writeByte(byte b) throws IOException {
+            maybeSwitchToFs(1);
+            delegate.writeByte(b);
+        }
+
+        @Override public void writeBytes(byte[] b, int offset, int length) throws IOException {
+            maybeSwitchToFs(length);
+            delegate.writeBytes(b, offset, length);
+        }
+
+        @Override public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override public long getFilePointer() {
+            return delegate.getFilePointer();
+        }
+
+        @Override public void seek(long pos) throws IOException {
+            delegate.seek(pos);
+        }
+
+        @Override public long length() throws IOException {
+            return delegate.length();
+        }
+
+        private void maybeSwitchToFs(int length) throws IOException {
+            if (!inMemory || delegate.getFilePointer() + length <= moveThreshold) {
+                return;
+            }
+            long position = delegate.getFilePointer();
+            delegate.close();
+            synchronized (HybridDirectory.this) {
+                IndexInput input = memoryDirectory.openInput(name);
+                IndexOutput fsOutput = fsDirectory.createOutput(name);
+                try {
+                    copy(input, fsOutput, input.length());
+                    fsOutput.seek(position);
+                } catch (IOException e) {
+                    fsOutput.close();
+                    throw e;
+                } finally {
+                    input.close();
+                }
+                memoryDirectory.deleteFile(name);
+                delegate = fsOutput;
+                inMemory = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.store.hybrid;
+
+import com.google.inject.Inject;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.NIOFSDirectory;
+import org.apache.lucene.store.SimpleFSDirectory;
+import org.elasticsearch.env.Environment;
+import org.elasticsearch.index.LocalNodeId;
+import org.elasticsearch.index.settings.IndexSettings;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.store.bytebuffer.ByteBufferDirectory;
+import org.elasticsearch.index.store.support.AbstractStore;
+import org.elasticsearch.util.OsUtils;
+import org.elasticsearch.util.SizeUnit;
+import org.elasticsearch.util.SizeValue;
+import org.elasticsearch.util.io.FileSystemUtils;
+import org.elasticsearch.util.settings.Settings;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.elasticsearch.index.store.fs.FsStores.*;
+
+/**
+ * A store keeping newly written files in memory, and moving them to the file system once they grow
+ * past <tt>moveThreshold</tt> or are committed. See {@link HybridDirectory}.
+ *
+ * @author kimchy (Shay Banon)
+ */
+public class HybridStore extends AbstractStore<HybridDirectory> {
+
+    private final SizeValue moveThreshold;
+
+    private final boolean syncToDisk;
+
+    private final HybridDirectory directory;
+
+    @Inject public HybridStore(ShardId shardId, @IndexSettings Settings indexSettings, Environment environment, @LocalNodeId String localNodeId) throws IOException {
+        super(shardId, indexSettings);
+        SizeValue bufferSize = componentSettings.getAsSize("bufferSize", new SizeValue(1, SizeUnit.KB));
+        SizeValue maxBufferSize = componentSettings.getAsSize("maxBufferSize", new SizeValue(64, SizeUnit.KB));
+        this.moveThreshold = componentSettings.getAsSize("moveThreshold", new SizeValue(10, SizeUnit.MB));
+        // by default, we don't need to sync to disk, since we use the gateway
+        this.syncToDisk = componentSettings.getAsBoolean("syncToDisk", false);
+
+        File path = createStoreFilePath(environment.workWithClusterFile(), localNodeId, shardId);
+        FSDirectory fsDirectory = OsUtils.WINDOWS ? new SimpleFSDirectory(path) : new NIOFSDirectory(path);
+        // heap buffers that are not pooled, since open inputs may still read a file after it was moved to disk
+        ByteBufferDirectory memoryDirectory = new ByteBufferDirectory(bufferSize, maxBufferSize, new SizeValue(0, SizeUnit.BYTES),
+                new SizeValue(0, SizeUnit.BYTES), false, false);
+        this.directory = new HybridDirectory(memoryDirectory, fsDirectory, moveThreshold.bytes(), syncToDisk);
+        logger.debug("Using [Hybrid] Store with path [{}], moveThreshold [{}], bufferSize [{}], maxBufferSize [{}], syncToDisk [{}]",
+                new Object[]{path, moveThreshold, bufferSize, maxBufferSize, syncToDisk});
+    }
+
+    @Override public HybridDirectory directory() {
+        return directory;
+    }
+
+    @Override public SizeValue estimateMemorySize() {
+        return directory.memoryDirectory().allocatedSize();
+    }
+
+    @Override public void fullDelete() throws IOException {
+        deleteContent();
+        File path = directory.fsDirectory().getFile();
+        FileSystemUtils.deleteRecursively(path);
+        // if we are the last ones, delete also the actual index
+        if (path.getParentFile().list().length == 0) {
+            FileSystemUtils.deleteRecursively(path.getParentFile());
+        }
+    }
+
+    /**
+     * Small segments are held in memory, where the compound format brings no benefit.
+     */
+    @Override public boolean suggestUseCompoundFile() {
+        return false;
+    }
+}
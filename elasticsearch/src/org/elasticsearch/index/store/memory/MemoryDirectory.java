@@ -31,6 +31,7 @@ import java.io.IOException;
 import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.elasticsearch.util.concurrent.ConcurrentMaps.*;
 
@@ -51,6 +52,8 @@ public class MemoryDirectory extends Directory {
 
     private final boolean disableCache;
 
+    private final AtomicLong allocatedBytes = new AtomicLong();
+
     public MemoryDirectory() {
         this(new SizeValue(1, SizeUnit.KB), new SizeValue(20, SizeUnit.MB), false);
     }
@@ -81,6 +84,13 @@ public class MemoryDirectory extends Directory {
         return this.cacheSize;
     }
 
+    /**
+     * The memory allocated by this directory, including cached buffers.
+     */
+    public SizeValue allocatedSize() {
+        return new SizeValue(allocatedBytes.get(), SizeUnit.BYTES);
+    }
+
     int bufferSizeInBytes() {
         return bufferSizeInBytes;
     }
@@ -189,9 +199,11 @@ public class MemoryDirectory extends Directory {
     }
 
     byte[] createBuffer() {
+        allocatedBytes.addAndGet(bufferSizeInBytes);
         return new byte[bufferSizeInBytes];
     }
 
     void closeBuffer(byte[] buffer) {
+        allocatedBytes.addAndGet(-buffer.length);
     }
 }
\ No newline at end of file
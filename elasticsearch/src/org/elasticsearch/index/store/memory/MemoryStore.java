@@ -56,6 +56,10 @@ public class MemoryStore extends AbstractStore<MemoryDirectory> {
         return directory;
     }
 
+    @Override public SizeValue estimateMemorySize() {
+        return directory.allocatedSize();
+    }
+
     /**
      * Its better to not use the compound format when using the Ram store.
      */
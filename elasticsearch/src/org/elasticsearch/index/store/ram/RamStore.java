@@ -51,6 +51,10 @@ public class RamStore extends AbstractStore<RAMDirectory> {
         return new SizeValue(directory.sizeInBytes(), SizeUnit.BYTES);
     }
 
+    @Override public SizeValue estimateMemorySize() {
+        return new SizeValue(directory.sizeInBytes(), SizeUnit.BYTES);
+    }
+
     /**
      * Its better to not use the compound format when using the Ram store.
      */
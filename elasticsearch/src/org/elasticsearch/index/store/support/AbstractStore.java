@@ -51,6 +51,13 @@ public abstract class AbstractStore<T extends Directory> extends AbstractIndexSh
         return Directories.estimateSize(directory());
     }
 
+    /**
+     * Returns {@link SizeValue#UNKNOWN} by default.
+     */
+    @Override public SizeValue estimateMemorySize() {
+        return SizeValue.UNKNOWN;
+    }
+
     /**
      * Returns <tt>true</tt> by default.
      */
@@ -21,6 +21,8 @@ package org.elasticsearch.indices;
 
 import com.google.inject.AbstractModule;
 import org.elasticsearch.indices.cluster.IndicesClusterStateService;
+import org.elasticsearch.indices.memory.IndexingMemoryBufferController;
+import org.elasticsearch.indices.merge.MergeRateLimiter;
 import org.elasticsearch.util.settings.Settings;
 
 /**
@@ -38,5 +40,7 @@ public class IndicesModule extends AbstractModule {
         bind(IndicesService.class).to(InternalIndicesService.class).asEagerSingleton();
         bind(IndicesClusterStateService.class).asEagerSingleton();
         bind(IndicesMemoryCleaner.class).asEagerSingleton();
+        bind(IndexingMemoryBufferController.class).asEagerSingleton();
+        bind(MergeRateLimiter.class).asEagerSingleton();
     }
 }
@@ -0,0 +1,307 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices.memory;
+
+import com.google.inject.Inject;
+import org.elasticsearch.ElasticSearchException;
+import org.elasticsearch.index.IndexService;
+import org.elasticsearch.index.engine.FlushNotAllowedEngineException;
+import org.elasticsearch.index.shard.IllegalIndexShardStateException;
+import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.index.shard.IndexShardState;
+import org.elasticsearch.index.shard.InternalIndexShard;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.indices.IndicesService;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.util.SizeUnit;
+import org.elasticsearch.util.SizeValue;
+import org.elasticsearch.util.TimeValue;
+import org.elasticsearch.util.component.AbstractComponent;
+import org.elasticsearch.util.component.Lifecycle;
+import org.elasticsearch.util.component.LifecycleComponent;
+import org.elasticsearch.util.settings.Settings;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+
+import static com.google.common.collect.Lists.*;
+import static com.google.common.collect.Maps.*;
+import static com.google.common.collect.Sets.*;
+import static org.elasticsearch.util.TimeValue.*;
+
+/**
+ * Divides a node level indexing buffer budget between the shards that are actively indexing. Shards
+ * that did not index for <tt>inactiveTime</tt> are flushed and have their buffer shrunk to
+ * <tt>inactiveShardIndexBufferSize</tt>, leaving the budget to the active ones.
+ *
+ * <p>The budget is set using <tt>indices.memory.indexBufferSize</tt>, either as a percentage of the
+ * max heap (defaults to <tt>10%</tt>) or as an absolute size.
+ *
+ * @author kimchy (Shay Banon)
+ */
+public class IndexingMemoryBufferController extends AbstractComponent implements LifecycleComponent<IndexingMemoryBufferController> {
+
+    private final Lifecycle lifecycle = new Lifecycle();
+
+    private final ThreadPool threadPool;
+
+    private final IndicesService indicesService;
+
+    private final SizeValue indexingBuffer;
+
+    private final SizeValue minShardIndexBufferSize;
+
+    private final SizeValue maxShardIndexBufferSize;
+
+    private final SizeValue inactiveShardIndexBufferSize;
+
+    private final TimeValue inactiveTime;
+
+    private final TimeValue interval;
+
+    private final Map<ShardId, ShardIndexingStatus> shardsIndexingStatus = newHashMap();
+
+    private volatile ScheduledFuture scheduledFuture;
+
+    @Inject public IndexingMemoryBufferController(Settings settings, ThreadPool threadPool, IndicesService indicesService) {
+        super(settings);
+        this.threadPool = threadPool;
+        this.indicesService = indicesService;
+
+        String indexBufferSize = componentSettings.get("indexBufferSize", "10%");
+        if (indexBufferSize.endsWith("%")) {
+            double percent = Double.parseDouble(indexBufferSize.substring(0, indexBufferSize.length() - 1));
+            this.indexingBuffer = new SizeValue((long) (Runtime.getRuntime().maxMemory() * (percent / 100)), SizeUnit.BYTES);
+        } else {
+            this.indexingBuffer = SizeValue.parse(indexBufferSize, null);
+        }
+        this.minShardIndexBufferSize = componentSettings.getAsSize("minShardIndexBufferSize", new SizeValue(4, SizeUnit.MB));
+        this.maxShardIndexBufferSize = componentSettings.getAsSize("maxShardIndexBufferSize", new SizeValue(512, SizeUnit.MB));
+        this.inactiveShardIndexBufferSize = componentSettings.getAsSize("inactiveShardIndexBufferSize", new SizeValue(500, SizeUnit.KB));
+        this.inactiveTime = componentSettings.getAsTime("inactiveTime", timeValueMinutes(30));
+        this.interval = componentSettings.getAsTime("interval", timeValueSeconds(30));
+
+        logger.debug("Using indexBufferSize [{}], minShardIndexBufferSize [{}], maxShardIndexBufferSize [{}], inactiveTime [{}], interval [{}]",
+                new Object[]{indexingBuffer, minShardIndexBufferSize, maxShardIndexBufferSize, inactiveTime, interval});
+    }
+
+    @Override public Lifecycle.State lifecycleState() {
+        return lifecycle.state();
+    }
+
+    @Override public IndexingMemoryBufferController start() throws ElasticSearchException {
+        if (!lifecycle.moveToStarted()) {
+            return this;
+        }
+        scheduledFuture = threadPool.scheduleWithFixedDelay(new ShardsIndicesStatusChecker(), interval);
+        return this;
+    }
+
+    @Override public IndexingMemoryBufferController stop() throws ElasticSearchException {
+        if (!lifecycle.moveToStopped()) {
+            return this;
+        }
+        if (scheduledFuture != null) {
+            scheduledFuture.cancel(false);
+        }
+        return this;
+    }
+
+    @Override public void close() throws ElasticSearchException {
+        if (lifecycle.started()) {
+            stop();
+        }
+        if (!lifecycle.moveToClosed()) {
+            return;
+        }
+    }
+
+    /**
+     * The indexing buffer budget shared by all the active shards on this node.
+     */
+    public SizeValue indexingBufferSize() {
+        return indexingBuffer;
+    }
+
+    /**
+     * Updates the indexing status of the provided (started) shards. Shards that indexed since the last check are
+     * marked as active, and shards that did not index for <tt>inactiveTime</tt> are marked as inactive, have
+     * their buffer shrunk and get flushed. If the active shards changed, the budget is divided between them.
+     *
+     * @return The buffer size set on each active shard, <tt>null</tt> if the active shards did not change
+     */
+    SizeValue checkShards(List<? extends IndexingShard> shards, long time) {
+        synchronized (shardsIndexingStatus) {
+            boolean activeShardsChanged = false;
+            List<IndexingShard> activeShards = newArrayList();
+            Set<ShardId> existingShards = newHashSet();
+            for (IndexingShard shard : shards) {
+                existingShards.add(shard.shardId());
+
+                ShardIndexingStatus status = shardsIndexingStatus.get(shard.shardId());
+                if (status == null) {
+                    status = new ShardIndexingStatus();
+                    shardsIndexingStatus.put(shard.shardId(), status);
+                    status.update(shard, time);
+                    activeShardsChanged = true;
+                } else if (status.changed(shard)) {
+                    status.update(shard, time);
+                    if (!status.active) {
+                        status.active = true;
+                        activeShardsChanged = true;
+                        logger.debug("Marking shard [{}][{}] as active", shard.shardId().index().name(), shard.shardId().id());
+                    }
+                } else if (status.active && (time - status.time) > inactiveTime.millis()) {
+                    status.active = false;
+                    activeShardsChanged = true;
+                    logger.debug("Marking shard [{}][{}] as inactive (inactive_time[{}]), setting size to [{}]",
+                            new Object[]{shard.shardId().index().name(), shard.shardId().id(), inactiveTime, inactiveShardIndexBufferSize});
+                    shard.updateIndexingBufferSize(inactiveShardIndexBufferSize);
+                    shard.flush();
+                    // the flush creates a new translog, which should not count as activity
+                    status.update(shard, status.time);
+                }
+                if (status.active) {
+                    activeShards.add(shard);
+                }
+            }
+            for (Iterator<ShardId> it = shardsIndexingStatus.keySet().iterator(); it.hasNext();) {
+                if (!existingShards.contains(it.next())) {
+                    it.remove();
+                    activeShardsChanged = true;
+                }
+            }
+            if (!activeShardsChanged || activeShards.isEmpty()) {
+                return null;
+            }
+            SizeValue shardIndexingBufferSize = calcShardIndexingBufferSize(activeShards.size());
+            logger.debug("Recalculating shard indexing buffer (reason=active/inactive shards changed), total is [{}] with [{}] active shards, each shard set to [{}]",
+                    new Object[]{indexingBuffer, activeShards.size(), shardIndexingBufferSize});
+            for (IndexingShard shard : activeShards) {
+                shard.updateIndexingBufferSize(shardIndexingBufferSize);
+            }
+            return shardIndexingBufferSize;
+        }
+    }
+
+    private class ShardsIndicesStatusChecker implements Runnable {
+
+        @Override public void run() {
+            List<IndexingShard> shards = newArrayList();
+            for (IndexService indexService : indicesService) {
+                for (IndexShard indexShard : indexService) {
+                    if (indexShard.state() != IndexShardState.STARTED) {
+                        continue;
+                    }
+                    shards.add(new InternalIndexingShard((InternalIndexShard) indexShard));
+                }
+            }
+            checkShards(shards, System.currentTimeMillis());
+        }
+    }
+
+    SizeValue calcShardIndexingBufferSize(int activeShards) {
+        long bytes = indexingBuffer.bytes() / activeShards;
+        if (bytes < minShardIndexBufferSize.bytes()) {
+            bytes = minShardIndexBufferSize.bytes();
+        }
+        if (bytes > maxShardIndexBufferSize.bytes()) {
+            bytes = maxShardIndexBufferSize.bytes();
+        }
+        return new SizeValue(bytes, SizeUnit.BYTES);
+    }
+
+    /**
+     * The view of a shard the controller works with.
+     */
+    static interface IndexingShard {
+
+        ShardId shardId();
+
+        long translogId();
+
+        int translogNumberOfOperations();
+
+        void updateIndexingBufferSize(SizeValue indexingBufferSize);
+
+        void flush();
+    }
+
+    private class InternalIndexingShard implements IndexingShard {
+
+        private final InternalIndexShard shard;
+
+        private InternalIndexingShard(InternalIndexShard shard) {
+            this.shard = shard;
+        }
+
+        @Override public ShardId shardId() {
+            return shard.shardId();
+        }
+
+        @Override public long translogId() {
+            return shard.translog().currentId();
+        }
+
+        @Override public int translogNumberOfOperations() {
+            return shard.translog().size();
+        }
+
+        @Override public void updateIndexingBufferSize(SizeValue indexingBufferSize) {
+            shard.engine().updateIndexingBufferSize(indexingBufferSize);
+        }
+
+        @Override public void flush() {
+            try {
+                shard.flush();
+            } catch (FlushNotAllowedEngineException e) {
+                // ignore this one, its temporal
+            } catch (IllegalIndexShardStateException e) {
+                // ignore this one as well
+            } catch (Exception e) {
+                logger.warn(shard.shardId() + ": Failed to flush inactive shard", e);
+            }
+        }
+    }
+
+    private static class ShardIndexingStatus {
+
+        long translogId = -1;
+
+        long translogNumberOfOperations = -1;
+
+        boolean active = true;
+
+        long time;
+
+        boolean changed(IndexingShard shard) {
+            return shard.translogId() != translogId || shard.translogNumberOfOperations() != translogNumberOfOperations;
+        }
+
+        void update(IndexingShard shard, long time) {
+            this.translogId = shard.translogId();
+            this.translogNumberOfOperations = shard.translogNumberOfOperations();
+            this.time = time;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices.merge;
+
+import com.google.inject.Inject;
+import org.apache.lucene.util.ThreadInterruptedException;
+import org.elasticsearch.util.SizeUnit;
+import org.elasticsearch.util.SizeValue;
+import org.elasticsearch.util.component.AbstractComponent;
+import org.elasticsearch.util.settings.Settings;
+
+/**
+ * Limits the rate merges write at across all the shards allocated on the node. Controlled using
+ * <tt>indices.merge.maxBytesPerSec</tt> (defaults to <tt>20mb</tt>), <tt>0</tt> disables throttling.
+ *
+ * @author kimchy (Shay Banon)
+ */
+public class MergeRateLimiter extends AbstractComponent {
+
+    private final SizeValue maxBytesPerSec;
+
+    private final double nanosPerByte;
+
+    private long nextNanos = System.nanoTime();
+
+    @Inject public MergeRateLimiter(Settings settings) {
+        super(settings);
+        this.maxBytesPerSec = componentSettings.getAsSize("maxBytesPerSec", new SizeValue(20, SizeUnit.MB));
+        this.nanosPerByte = maxBytesPerSec.bytes() <= 0 ? 0 : 1000000000.0 / maxBytesPerSec.bytes();
+        logger.debug("Using maxBytesPerSec [{}]", maxBytesPerSec);
+    }
+
+    public SizeValue maxBytesPerSec() {
+        return maxBytesPerSec;
+    }
+
+    public boolean enabled() {
+        return nanosPerByte > 0;
+    }
+
+    /**
+     * Accounts for the given number of written bytes, pausing the calling thread if writes
+     * (across all threads) are ahead of the allowed rate. Returns the time paused in nanos.
+     */
+    public long pause(long bytes) {
+        if (nanosPerByte == 0) {
+            return 0;
+        }
+        long pauseNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            if (nextNanos < now) {
+                nextNanos = now;
+            }
+            pauseNanos = nextNanos - now;
+            nextNanos += (long) (bytes * nanosPerByte);
+        }
+        if (pauseNanos <= 0) {
+            return 0;
+        }
+        try {
+            Thread.sleep(pauseNanos / 1000000, (int) (pauseNanos % 1000000));
+        } catch (InterruptedException e) {
+            throw new ThreadInterruptedException(e);
+        }
+        return pauseNanos;
+    }
+}
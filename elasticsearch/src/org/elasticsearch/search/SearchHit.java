@@ -42,5 +42,12 @@ public interface SearchHit extends Streamable, ToJson {
 
     Map<String, SearchHitField> fields();
 
+    /**
+     * The sort values of the hit (the score when not sorting), followed by the shard key and the doc id
+     * of the hit breaking ties between hits with the same sort values. To be used as the <tt>searchAfter</tt>
+     * values of the next page.
+     */
+    Object[] sortValues();
+
     SearchShardTarget target();
 }
@@ -21,6 +21,8 @@ package org.elasticsearch.search;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.inject.Inject;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.TopDocs;
 import org.codehaus.jackson.JsonFactory;
 import org.codehaus.jackson.JsonParser;
@@ -28,7 +30,10 @@ import org.codehaus.jackson.JsonToken;
 import org.elasticsearch.ElasticSearchException;
 import org.elasticsearch.cluster.ClusterService;
 import org.elasticsearch.index.IndexService;
+import org.elasticsearch.index.cache.result.ResultCache;
 import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.search.stats.SearchStats;
+import org.elasticsearch.index.search.stats.ShardSearchStats;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.indices.IndicesService;
 import org.elasticsearch.search.dfs.CachedDfSource;
@@ -47,7 +52,10 @@ import org.elasticsearch.search.query.QuerySearchResult;
 import org.elasticsearch.util.component.AbstractComponent;
 import org.elasticsearch.util.component.Lifecycle;
 import org.elasticsearch.util.component.LifecycleComponent;
+import org.elasticsearch.util.concurrent.DynamicExecutors;
 import org.elasticsearch.util.concurrent.highscalelib.NonBlockingHashMapLong;
+import org.elasticsearch.util.io.ByteArrayDataInputStream;
+import org.elasticsearch.util.io.ByteArrayDataOutputStream;
 import org.elasticsearch.util.io.FastStringReader;
 import org.elasticsearch.util.json.Jackson;
 import org.elasticsearch.util.settings.Settings;
@@ -56,6 +64,8 @@ import java.io.IOException;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -83,6 +93,12 @@ public class SearchService extends AbstractComponent implements LifecycleCompone
 
     private final ImmutableMap<String, SearchParseElement> elementParsers;
 
+    private final int parallelism;
+
+    private final int parallelThreads;
+
+    private final ExecutorService parallelExecutor;
+
     @Inject public SearchService(Settings settings, ClusterService clusterService, IndicesService indicesService,
                                  DfsPhase dfsPhase, QueryPhase queryPhase, FetchPhase fetchPhase) {
         super(settings);
@@ -97,6 +113,12 @@ public class SearchService extends AbstractComponent implements LifecycleCompone
         elementParsers.putAll(queryPhase.parseElements());
         elementParsers.putAll(fetchPhase.parseElements());
         this.elementParsers = ImmutableMap.copyOf(elementParsers);
+
+        this.parallelism = componentSettings.getAsInt("parallelism", 1);
+        this.parallelThreads = componentSettings.getAsInt("parallelThreads", Runtime.getRuntime().availableProcessors());
+        logger.debug("Using parallelism [{}], parallelThreads [{}]", parallelism, parallelThreads);
+        // segment slices are executed on their own pool so they never wait behind the shard level search requests
+        this.parallelExecutor = Executors.newFixedThreadPool(parallelThreads, DynamicExecutors.daemonThreadFactory(settings, "[search_parallel]"));
     }
 
     @Override public Lifecycle.State lifecycleState() {
@@ -128,26 +150,27 @@ public class SearchService extends AbstractComponent implements LifecycleCompone
         if (!lifecycle.moveToClosed()) {
             return;
         }
+        parallelExecutor.shutdownNow();
     }
 
     public DfsSearchResult executeDfsPhase(InternalSearchRequest request) throws ElasticSearchException {
         SearchContext context = createContext(request);
         activeContexts.put(context.id(), context);
-        dfsPhase.execute(context);
+        executeDfs(context);
         return context.dfsResult();
     }
 
     public QuerySearchResult executeQueryPhase(InternalSearchRequest request) throws ElasticSearchException {
         SearchContext context = createContext(request);
         activeContexts.put(context.id(), context);
-        queryPhase.execute(context);
+        executeQuery(context, true);
         return context.queryResult();
     }
 
     public QuerySearchResult executeQueryPhase(InternalScrollSearchRequest request) throws ElasticSearchException {
         SearchContext context = findContext(request.id());
         processScroll(request, context);
-        queryPhase.execute(context);
+        executeQuery(context, false);
         return context.queryResult();
     }
 
@@ -158,15 +181,15 @@ public class SearchService extends AbstractComponent implements LifecycleCompone
         } catch (IOException e) {
             throw new SearchException("Failed to set aggreagted df", e);
         }
-        queryPhase.execute(context);
+        executeQuery(context, false);
         return context.queryResult();
     }
 
     public QueryFetchSearchResult executeFetchPhase(InternalSearchRequest request) throws ElasticSearchException {
         SearchContext context = createContext(request);
-        queryPhase.execute(context);
+        executeQuery(context, true);
         shortcutDocIdsToLoad(context);
-        fetchPhase.execute(context);
+        executeFetch(context);
         if (context.scroll() != null) {
             activeContexts.put(context.id(), context);
         }
@@ -180,9 +203,9 @@ public class SearchService extends AbstractComponent implements LifecycleCompone
         } catch (IOException e) {
             throw new SearchException("Failed to set aggregated df", e);
         }
-        queryPhase.execute(context);
+        executeQuery(context, false);
         shortcutDocIdsToLoad(context);
-        fetchPhase.execute(context);
+        executeFetch(context);
         if (context.scroll() != null) {
             activeContexts.put(context.id(), context);
         }
@@ -192,9 +215,9 @@ public class SearchService extends AbstractComponent implements LifecycleCompone
     public QueryFetchSearchResult executeFetchPhase(InternalScrollSearchRequest request) throws ElasticSearchException {
         SearchContext context = findContext(request.id());
         processScroll(request, context);
-        queryPhase.execute(context);
+        executeQuery(context, false);
         shortcutDocIdsToLoad(context);
-        fetchPhase.execute(context);
+        executeFetch(context);
         if (context.scroll() == null) {
             freeContext(request.id());
         }
@@ -204,13 +227,42 @@ public class SearchService extends AbstractComponent implements LifecycleCompone
     public FetchSearchResult executeFetchPhase(FetchSearchRequest request) throws ElasticSearchException {
         SearchContext context = findContext(request.id());
         context.docIdsToLoad(request.docIds());
-        fetchPhase.execute(context);
+        executeFetch(context);
         if (context.scroll() == null) {
             freeContext(request.id());
         }
         return context.fetchResult();
     }
 
+    public QuerySearchResult executeScan(InternalSearchRequest request) throws ElasticSearchException {
+        SearchContext context = createContext(request);
+        if (context.scroll() == null) {
+            freeContext(context);
+            throw new SearchException("Scan search type requires a scroll");
+        }
+        activeContexts.put(context.id(), context);
+        executeScanQuery(context);
+        return context.queryResult();
+    }
+
+    public QueryFetchSearchResult executeScan(InternalScrollSearchRequest request) throws ElasticSearchException {
+        SearchContext context = findContext(request.id());
+        context.scroll(request.scroll());
+        executeScanQuery(context);
+        ScoreDoc[] scoreDocs = context.queryResult().topDocs().scoreDocs;
+        int[] docIdsToLoad = new int[scoreDocs.length];
+        for (int i = 0; i < scoreDocs.length; i++) {
+            docIdsToLoad[i] = scoreDocs[i].doc;
+        }
+        context.docIdsToLoad(docIdsToLoad);
+        executeFetch(context);
+        if (context.scroll() == null || scoreDocs.length < context.size()) {
+            // no more scrolling, or all the docs of this shard have been scanned
+            freeContext(request.id());
+        }
+        return new QueryFetchSearchResult(context.queryResult(), context.fetchResult());
+    }
+
     private SearchContext findContext(long id) throws SearchContextMissingException {
         SearchContext context = activeContexts.get(id);
         if (context == null) {
@@ -226,8 +278,10 @@ public class SearchService extends AbstractComponent implements LifecycleCompone
 
         SearchShardTarget shardTarget = new SearchShardTarget(clusterService.state().nodes().localNodeId(), request.index(), request.shardId());
 
+        ResultCache resultCache = indexService.shardInjectorSafe(request.shardId()).getInstance(ResultCache.class);
+
         SearchContext context = new SearchContext(idGenerator.incrementAndGet(), shardTarget, request.timeout(),
-                request.queryBoost(), request.source(), request.types(), engineSearcher, indexService);
+                request.queryBoost(), request.source(), request.types(), engineSearcher, indexService, resultCache);
 
         // init the from and size
         context.from(request.from());
@@ -235,6 +289,26 @@ public class SearchService extends AbstractComponent implements LifecycleCompone
 
         context.scroll(request.scroll());
 
+        // the index level parallelism, can be overridden by the request
+        context.parallelism(indexShard.indexSettings().getAsInt("index.search.parallelism", parallelism));
+        context.parallelExecutor(parallelExecutor);
+
+        context.searchStats(indexService.shardInjectorSafe(request.shardId()).getInstance(ShardSearchStats.class));
+
+        if (request.dfs() != null) {
+            long readerVersion = context.searcher().getIndexReader().getVersion();
+            if (readerVersion != request.dfsReaderVersion()) {
+                freeContext(context);
+                throw new SearchException("Cached dfs computed against reader version [" + request.dfsReaderVersion() + "], the shard reader is at [" + readerVersion + "]");
+            }
+            try {
+                context.searcher().dfSource(new CachedDfSource(request.dfs(), context.similarityService().defaultSearchSimilarity()));
+            } catch (IOException e) {
+                freeContext(context);
+                throw new SearchException("Failed to set aggregated df", e);
+            }
+        }
+
         parseSource(context);
 
         // if the from and size are still not set, default them
@@ -244,6 +318,10 @@ public class SearchService extends AbstractComponent implements LifecycleCompone
         if (context.size() == -1) {
             context.size(10);
         }
+        if (context.searchAfter() != null && context.from() != 0) {
+            freeContext(context);
+            throw new SearchParseException("searchAfter can't be used with from, page using the sort values of the last hit instead");
+        }
 
         return context;
     }
@@ -282,6 +360,100 @@ public class SearchService extends AbstractComponent implements LifecycleCompone
         }
     }
 
+    private void executeDfs(SearchContext context) throws ElasticSearchException {
+        long startTime = context.searchStats().onPreExecute(SearchStats.Phase.DFS);
+        try {
+            dfsPhase.execute(context);
+        } catch (RuntimeException e) {
+            context.searchStats().onFailedExecute(SearchStats.Phase.DFS);
+            throw e;
+        }
+        context.searchStats().onPostExecute(SearchStats.Phase.DFS, startTime, context.source());
+    }
+
+    private void executeQuery(SearchContext context, boolean cached) throws ElasticSearchException {
+        long startTime = context.searchStats().onPreExecute(SearchStats.Phase.QUERY);
+        try {
+            if (cached) {
+                executeCachedQueryPhase(context);
+            } else {
+                queryPhase.execute(context);
+            }
+        } catch (RuntimeException e) {
+            context.searchStats().onFailedExecute(SearchStats.Phase.QUERY);
+            throw e;
+        }
+        context.searchStats().onPostExecute(SearchStats.Phase.QUERY, startTime, context.source());
+    }
+
+    private void executeScanQuery(SearchContext context) throws ElasticSearchException {
+        long startTime = context.searchStats().onPreExecute(SearchStats.Phase.QUERY);
+        try {
+            queryPhase.executeScan(context);
+        } catch (RuntimeException e) {
+            context.searchStats().onFailedExecute(SearchStats.Phase.QUERY);
+            throw e;
+        }
+        context.searchStats().onPostExecute(SearchStats.Phase.QUERY, startTime, context.source());
+    }
+
+    private void executeFetch(SearchContext context) throws ElasticSearchException {
+        long startTime = context.searchStats().onPreExecute(SearchStats.Phase.FETCH);
+        try {
+            fetchPhase.execute(context);
+        } catch (RuntimeException e) {
+            context.searchStats().onFailedExecute(SearchStats.Phase.FETCH);
+            throw e;
+        }
+        context.searchStats().onPostExecute(SearchStats.Phase.FETCH, startTime, context.source());
+    }
+
+    /**
+     * Executes the query phase, serving it from the shard result cache when the request only
+     * asks for totals and facets (no hits and no scroll) and the reader has not changed since.
+     */
+    private void executeCachedQueryPhase(SearchContext context) throws ElasticSearchException {
+        if (context.size() != 0 || context.scroll() != null) {
+            queryPhase.execute(context);
+            return;
+        }
+        IndexReader reader = context.engineSearcher().reader();
+        String cacheKey = queryCacheKey(context);
+        byte[] cachedResult = context.resultCache().get(reader, cacheKey);
+        if (cachedResult != null) {
+            try {
+                QuerySearchResult result = QuerySearchResult.readQuerySearchResult(new ByteArrayDataInputStream(cachedResult));
+                context.queryResult().from(result.from()).size(result.size());
+                context.queryResult().topDocs(result.topDocs());
+                context.queryResult().facets(result.facets());
+                context.queryResult().searchTimedOut(result.searchTimedOut());
+                context.queryResult().terminatedEarly(result.terminatedEarly());
+                return;
+            } catch (Exception e) {
+                logger.debug("Failed to read cached query result, executing the query", e);
+            }
+        }
+        queryPhase.execute(context);
+        if (context.queryResult().searchTimedOut()) {
+            return;
+        }
+        try {
+            ByteArrayDataOutputStream out = ByteArrayDataOutputStream.Cached.cached();
+            context.queryResult().writeTo(out);
+            context.resultCache().put(reader, cacheKey, out.copiedByteArray());
+        } catch (Exception e) {
+            logger.debug("Failed to cache query result", e);
+        }
+    }
+
+    private String queryCacheKey(SearchContext context) {
+        StringBuilder sb = new StringBuilder("query/").append(context.from()).append('/').append(context.queryBoost()).append('/');
+        for (String type : context.types()) {
+            sb.append(type).append(',');
+        }
+        return sb.append('/').append(context.source()).toString();
+    }
+
     private void shortcutDocIdsToLoad(SearchContext context) {
         TopDocs topDocs = context.queryResult().topDocs();
         if (topDocs.scoreDocs.length < context.from()) {
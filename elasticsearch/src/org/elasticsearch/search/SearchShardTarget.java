@@ -60,6 +60,14 @@ public class SearchShardTarget implements Streamable {
         return shardId;
     }
 
+    /**
+     * A key identifying the shard, the same for all its copies. Used to order hits of different shards
+     * having the same sort values.
+     */
+    public String shardKey() {
+        return index + "/" + shardId;
+    }
+
     public static SearchShardTarget readSearchShardTarget(DataInput in) throws IOException, ClassNotFoundException {
         SearchShardTarget result = new SearchShardTarget();
         result.readFrom(in);
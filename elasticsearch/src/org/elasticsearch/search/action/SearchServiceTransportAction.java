@@ -60,6 +60,8 @@ public class SearchServiceTransportAction {
         transportService.registerHandler(SearchQueryQueryFetchTransportHandler.ACTION, new SearchQueryQueryFetchTransportHandler());
         transportService.registerHandler(SearchQueryFetchScrollTransportHandler.ACTION, new SearchQueryFetchScrollTransportHandler());
         transportService.registerHandler(SearchFetchByIdTransportHandler.ACTION, new SearchFetchByIdTransportHandler());
+        transportService.registerHandler(SearchScanTransportHandler.ACTION, new SearchScanTransportHandler());
+        transportService.registerHandler(SearchScanScrollTransportHandler.ACTION, new SearchScanScrollTransportHandler());
     }
 
     public void sendExecuteDfs(Node node, final InternalSearchRequest request, final SearchServiceListener<DfsSearchResult> listener) {
@@ -303,6 +305,66 @@ public class SearchServiceTransportAction {
     }
 
 
+    public void sendExecuteScan(Node node, final InternalSearchRequest request, final SearchServiceListener<QuerySearchResult> listener) {
+        if (clusterService.state().nodes().localNodeId().equals(node.id())) {
+            try {
+                QuerySearchResult result = searchService.executeScan(request);
+                listener.onResult(result);
+            } catch (Exception e) {
+                listener.onFailure(e);
+            }
+        } else {
+            transportService.sendRequest(node, SearchScanTransportHandler.ACTION, request, new BaseTransportResponseHandler<QuerySearchResult>() {
+
+                @Override public QuerySearchResult newInstance() {
+                    return new QuerySearchResult();
+                }
+
+                @Override public void handleResponse(QuerySearchResult response) {
+                    listener.onResult(response);
+                }
+
+                @Override public void handleException(RemoteTransportException exp) {
+                    listener.onFailure(exp);
+                }
+
+                @Override public boolean spawn() {
+                    return false;
+                }
+            });
+        }
+    }
+
+    public void sendExecuteScan(Node node, final InternalScrollSearchRequest request, final SearchServiceListener<QueryFetchSearchResult> listener) {
+        if (clusterService.state().nodes().localNodeId().equals(node.id())) {
+            try {
+                QueryFetchSearchResult result = searchService.executeScan(request);
+                listener.onResult(result);
+            } catch (Exception e) {
+                listener.onFailure(e);
+            }
+        } else {
+            transportService.sendRequest(node, SearchScanScrollTransportHandler.ACTION, request, new BaseTransportResponseHandler<QueryFetchSearchResult>() {
+
+                @Override public QueryFetchSearchResult newInstance() {
+                    return new QueryFetchSearchResult();
+                }
+
+                @Override public void handleResponse(QueryFetchSearchResult response) {
+                    listener.onResult(response);
+                }
+
+                @Override public void handleException(RemoteTransportException exp) {
+                    listener.onFailure(exp);
+                }
+
+                @Override public boolean spawn() {
+                    return false;
+                }
+            });
+        }
+    }
+
     private class SearchDfsTransportHandler extends BaseTransportRequestHandler<InternalSearchRequest> {
 
         static final String ACTION = "search/phase/dfs";
@@ -414,4 +476,32 @@ public class SearchServiceTransportAction {
             channel.sendResponse(result);
         }
     }
+
+    private class SearchScanTransportHandler extends BaseTransportRequestHandler<InternalSearchRequest> {
+
+        static final String ACTION = "search/phase/scan";
+
+        @Override public InternalSearchRequest newInstance() {
+            return new InternalSearchRequest();
+        }
+
+        @Override public void messageReceived(InternalSearchRequest request, TransportChannel channel) throws Exception {
+            QuerySearchResult result = searchService.executeScan(request);
+            channel.sendResponse(result);
+        }
+    }
+
+    private class SearchScanScrollTransportHandler extends BaseTransportRequestHandler<InternalScrollSearchRequest> {
+
+        static final String ACTION = "search/phase/scan/scroll";
+
+        @Override public InternalScrollSearchRequest newInstance() {
+            return new InternalScrollSearchRequest();
+        }
+
+        @Override public void messageReceived(InternalScrollSearchRequest request, TransportChannel channel) throws Exception {
+            QueryFetchSearchResult result = searchService.executeScan(request);
+            channel.sendResponse(result);
+        }
+    }
 }
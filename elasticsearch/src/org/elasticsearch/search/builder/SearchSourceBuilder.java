@@ -52,6 +52,10 @@ public class SearchSourceBuilder {
 
     private List<SortTuple> sortFields;
 
+    private Object[] searchAfter;
+
+    private int terminateAfter = -1;
+
     private List<String> fieldNames;
 
     private SearchSourceFacetsBuilder facetsBuilder;
@@ -104,6 +108,23 @@ public class SearchSourceBuilder {
         return this;
     }
 
+    /**
+     * Only returns hits sorting after the provided sort values, usually the sort values of the last hit
+     * of the previous page. Should be used instead of <tt>from</tt> for deep paging.
+     */
+    public SearchSourceBuilder searchAfter(Object... searchAfter) {
+        this.searchAfter = searchAfter;
+        return this;
+    }
+
+    /**
+     * Each shard stops collecting once it collected that many docs, the total hits is then a lower bound.
+     */
+    public SearchSourceBuilder terminateAfter(int terminateAfter) {
+        this.terminateAfter = terminateAfter;
+        return this;
+    }
+
     public SearchSourceBuilder facets(SearchSourceFacetsBuilder facetsBuilder) {
         this.facetsBuilder = facetsBuilder;
         return this;
@@ -173,6 +194,22 @@ public class SearchSourceBuilder {
                 builder.endObject();
             }
 
+            if (searchAfter != null) {
+                builder.startArray("searchAfter");
+                for (Object value : searchAfter) {
+                    if (value == null) {
+                        builder.nullValue();
+                    } else {
+                        builder.value(value);
+                    }
+                }
+                builder.endArray();
+            }
+
+            if (terminateAfter != -1) {
+                builder.field("terminateAfter", terminateAfter);
+            }
+
             if (facetsBuilder != null) {
                 facetsBuilder.json(builder);
             }
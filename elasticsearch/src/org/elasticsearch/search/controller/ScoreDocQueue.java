@@ -23,7 +23,8 @@ import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.util.PriorityQueue;
 
 /**
- * <p>Same as lucene {@link org.apache.lucene.search.HitQueue}.
+ * <p>Same as lucene {@link org.apache.lucene.search.HitQueue}, with hits of different shards having the same
+ * score ordered by their shard key, so the order matches the one <tt>searchAfter</tt> pages with.
  *
  * @author kimchy (Shay Banon)
  */
@@ -34,9 +35,16 @@ public class ScoreDocQueue extends PriorityQueue<ScoreDoc> {
     }
 
     protected final boolean lessThan(ScoreDoc hitA, ScoreDoc hitB) {
-        if (hitA.score == hitB.score)
+        if (hitA.score == hitB.score) {
+            if (hitA instanceof ShardDoc && hitB instanceof ShardDoc) {
+                int c = ((ShardDoc) hitA).shardTarget().shardKey().compareTo(((ShardDoc) hitB).shardTarget().shardKey());
+                if (c != 0) {
+                    return c > 0;
+                }
+            }
             return hitA.doc > hitB.doc;
-        else
+        } else {
             return hitA.score < hitB.score;
+        }
     }
 }
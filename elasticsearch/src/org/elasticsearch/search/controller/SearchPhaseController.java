@@ -25,7 +25,6 @@ import com.google.common.collect.Maps;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.FieldDoc;
 import org.apache.lucene.search.ScoreDoc;
-import org.apache.lucene.search.ShardFieldDocSortedHitQueue;
 import org.apache.lucene.search.TopFieldDocs;
 import org.apache.lucene.util.PriorityQueue;
 import org.elasticsearch.ElasticSearchIllegalStateException;
@@ -92,7 +91,7 @@ public class SearchPhaseController {
         PriorityQueue queue;
         if (queryResultProvider.queryResult().topDocs() instanceof TopFieldDocs) {
             // sorting ...
-            queue = new ShardFieldDocSortedHitQueue(((TopFieldDocs) queryResultProvider.queryResult().topDocs()).fields, queueSize); // we need to accumulate for all and then filter the from
+            queue = new ShardFieldDocQueue(((TopFieldDocs) queryResultProvider.queryResult().topDocs()).fields, queueSize); // we need to accumulate for all and then filter the from
             for (QuerySearchResultProvider resultProvider : results) {
                 QuerySearchResult result = resultProvider.queryResult();
                 ScoreDoc[] scoreDocs = result.topDocs().scoreDocs;
@@ -186,8 +185,12 @@ public class SearchPhaseController {
 
         // count the total (we use the query result provider here, since we might not get any hits (we scrolled past them))
         long totalHits = 0;
+        boolean terminatedEarly = false;
         for (QuerySearchResultProvider queryResultProvider : queryResults.values()) {
             totalHits += queryResultProvider.queryResult().topDocs().totalHits;
+            if (queryResultProvider.queryResult().terminatedEarly()) {
+                terminatedEarly = true;
+            }
         }
 
         // clean the fetch counter
@@ -207,10 +210,28 @@ public class SearchPhaseController {
                 int index = fetchResult.counterGetAndIncrement();
                 SearchHit searchHit = fetchResult.hits().hits()[index];
                 ((InternalSearchHit) searchHit).shard(fetchResult.shardTarget());
+                if (shardDoc instanceof ShardFieldDoc) {
+                    ((InternalSearchHit) searchHit).sortValues(sortValues(shardDoc, ((ShardFieldDoc) shardDoc).fields));
+                } else if (!Float.isNaN(((ShardScoreDoc) shardDoc).score)) {
+                    // no sort value when the score was not computed
+                    ((InternalSearchHit) searchHit).sortValues(sortValues(shardDoc, new Object[]{((ShardScoreDoc) shardDoc).score}));
+                }
                 hits.add(searchHit);
             }
         }
         InternalSearchHits searchHits = new InternalSearchHits(hits.toArray(new SearchHit[hits.size()]), totalHits);
-        return new InternalSearchResponse(searchHits, facets);
+        return new InternalSearchResponse(searchHits, facets, terminatedEarly);
+    }
+
+    /**
+     * The sort values, followed by the shard key and the doc id breaking ties between docs with the same
+     * sort values (see {@link org.elasticsearch.search.query.SearchAfterCollector}).
+     */
+    private Object[] sortValues(ShardDoc shardDoc, Object[] values) {
+        Object[] sortValues = new Object[values.length + 2];
+        System.arraycopy(values, 0, sortValues, 0, values.length);
+        sortValues[values.length] = shardDoc.shardTarget().shardKey();
+        sortValues[values.length + 1] = shardDoc.docId();
+        return sortValues;
     }
 }
@@ -0,0 +1,85 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.controller;
+
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.util.PriorityQueue;
+
+import java.text.Collator;
+
+/**
+ * Same as lucene {@link org.apache.lucene.search.FieldDocSortedHitQueue}, with hits of different shards having
+ * the same sort values ordered by their shard key, so the order matches the one <tt>searchAfter</tt> pages with.
+ *
+ * @author kimchy (Shay Banon)
+ */
+public class ShardFieldDocQueue extends PriorityQueue<ShardFieldDoc> {
+
+    private final SortField[] fields;
+
+    private final Collator[] collators;
+
+    public ShardFieldDocQueue(SortField[] fields, int size) {
+        this.fields = fields;
+        this.collators = new Collator[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i].getLocale() != null) {
+                collators[i] = Collator.getInstance(fields[i].getLocale());
+            }
+        }
+        initialize(size);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override protected final boolean lessThan(ShardFieldDoc docA, ShardFieldDoc docB) {
+        int c = 0;
+        for (int i = 0; i < fields.length && c == 0; i++) {
+            int type = fields[i].getType();
+            if (type == SortField.STRING) {
+                String s1 = (String) docA.fields[i];
+                String s2 = (String) docB.fields[i];
+                if (s1 == null) {
+                    c = (s2 == null) ? 0 : -1;
+                } else if (s2 == null) {
+                    c = 1;
+                } else if (collators[i] == null) {
+                    c = s1.compareTo(s2);
+                } else {
+                    c = collators[i].compare(s1, s2);
+                }
+            } else {
+                c = docA.fields[i].compareTo(docB.fields[i]);
+                if (type == SortField.SCORE) {
+                    c = -c;
+                }
+            }
+            if (fields[i].getReverse()) {
+                c = -c;
+            }
+        }
+        if (c == 0) {
+            c = docA.shardTarget().shardKey().compareTo(docB.shardTarget().shardKey());
+            if (c == 0) {
+                return docA.doc > docB.doc;
+            }
+        }
+        return c > 0;
+    }
+}
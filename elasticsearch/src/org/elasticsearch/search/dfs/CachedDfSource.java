@@ -27,6 +27,10 @@ import org.apache.lucene.search.*;
 import java.io.IOException;
 
 /**
+ * A df source using the aggregated dfs of all shards. Both the doc freqs and the max doc come from the
+ * aggregated dfs, a term it does not have fails the search (a search using cached stats then runs the
+ * dfs phase instead).
+ *
  * @author kimchy (Shay Banon)
  */
 public class CachedDfSource extends Searcher {
@@ -48,6 +48,7 @@ public class DfsPhase implements SearchPhase {
 
             context.dfsResult().termsAndFreqs(terms, freqs);
             context.dfsResult().numDocs(context.searcher().getIndexReader().numDocs());
+            context.dfsResult().readerVersion(context.searcher().getIndexReader().getVersion());
         } catch (Exception e) {
             throw new DfsPhaseExecutionException(context);
         }
@@ -48,6 +48,8 @@ public class DfsSearchResult implements Streamable {
 
     private int numDocs;
 
+    private long readerVersion;
+
     public DfsSearchResult() {
 
     }
@@ -74,6 +76,18 @@ public class DfsSearchResult implements Streamable {
         return numDocs;
     }
 
+    /**
+     * The version of the shard reader the doc freqs were computed against.
+     */
+    public long readerVersion() {
+        return readerVersion;
+    }
+
+    public DfsSearchResult readerVersion(long readerVersion) {
+        this.readerVersion = readerVersion;
+        return this;
+    }
+
     public DfsSearchResult termsAndFreqs(Term[] terms, int[] freqs) {
         this.terms = terms;
         this.freqs = freqs;
@@ -116,6 +130,7 @@ public class DfsSearchResult implements Streamable {
             }
         }
         numDocs = in.readInt();
+        readerVersion = in.readLong();
     }
 
     @Override public void writeTo(DataOutput out) throws IOException {
@@ -131,5 +146,6 @@ public class DfsSearchResult implements Streamable {
             out.writeInt(freq);
         }
         out.writeInt(numDocs);
+        out.writeLong(readerVersion);
     }
 }
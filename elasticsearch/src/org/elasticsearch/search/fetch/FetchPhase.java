@@ -21,7 +21,9 @@ package org.elasticsearch.search.fetch;
 
 import com.google.common.collect.ImmutableMap;
 import org.apache.lucene.document.Document;
+import org.apache.lucene.document.FieldSelector;
 import org.apache.lucene.document.Fieldable;
+import org.apache.lucene.index.IndexReader;
 import org.elasticsearch.index.mapper.*;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.SearchHitField;
@@ -34,6 +36,7 @@ import org.elasticsearch.search.internal.SearchContext;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -47,12 +50,30 @@ public class FetchPhase implements SearchPhase {
     }
 
     public void execute(SearchContext context) {
-        FieldMappersFieldSelector fieldSelector = buildFieldSelectors(context);
+        // when only the source is needed (the common case), only read the uid and the source
+        UidAndSourceFieldSelector sourceFieldSelector = null;
+        FieldSelector fieldSelector;
+        if (context.fieldNames() == null) {
+            fieldSelector = sourceFieldSelector = new UidAndSourceFieldSelector(context.mapperService().uidFieldMappers(), context.mapperService().sourceFieldMappers());
+        } else {
+            fieldSelector = buildFieldSelectors(context);
+        }
 
-        SearchHit[] hits = new SearchHit[context.docIdsToLoad().length];
-        int index = 0;
-        for (int docId : context.docIdsToLoad()) {
-            Document doc = loadDocument(context, fieldSelector, docId);
+        int[] docIdsToLoad = context.docIdsToLoad();
+        IndexReader[] subReaders = context.searcher().subReaders();
+        int[] docStarts = context.searcher().docStarts();
+        SearchHit[] hits = new SearchHit[docIdsToLoad.length];
+        int readerIndex = 0;
+        // load the docs in doc id order, segment by segment, so the stored fields are read sequentially
+        for (int index : docIdOrder(docIdsToLoad)) {
+            int docId = docIdsToLoad[index];
+            while (readerIndex + 1 < subReaders.length && docStarts[readerIndex + 1] <= docId) {
+                readerIndex++;
+            }
+            if (sourceFieldSelector != null) {
+                sourceFieldSelector.reset();
+            }
+            Document doc = loadDocument(context, fieldSelector, subReaders[readerIndex], docId - docStarts[readerIndex]);
             Uid uid = extractUid(context, doc);
 
             DocumentMapper documentMapper = context.mapperService().type(uid.type());
@@ -61,6 +82,10 @@ public class FetchPhase implements SearchPhase {
 
             InternalSearchHit searchHit = new InternalSearchHit(uid.id(), uid.type(), source, null);
             hits[index] = searchHit;
+            doExplanation(context, docId, searchHit);
+            if (sourceFieldSelector != null) {
+                continue;
+            }
 
             for (Object oField : doc.getFields()) {
                 Fieldable field = (Fieldable) oField;
@@ -93,9 +118,6 @@ public class FetchPhase implements SearchPhase {
                 }
                 hitField.values().add(value);
             }
-            doExplanation(context, docId, searchHit);
-
-            index++;
         }
         context.fetchResult().hits(new InternalSearchHits(hits, context.queryResult().topDocs().totalHits));
     }
@@ -137,12 +159,28 @@ public class FetchPhase implements SearchPhase {
         return uid;
     }
 
-    private Document loadDocument(SearchContext context, FieldMappersFieldSelector fieldSelector, int docId) {
+    /**
+     * Returns the positions of the doc ids, ordered by doc id.
+     */
+    private int[] docIdOrder(int[] docIds) {
+        long[] sorted = new long[docIds.length];
+        for (int i = 0; i < docIds.length; i++) {
+            sorted[i] = (((long) docIds[i]) << 32) | i;
+        }
+        Arrays.sort(sorted);
+        int[] order = new int[docIds.length];
+        for (int i = 0; i < sorted.length; i++) {
+            order[i] = (int) sorted[i];
+        }
+        return order;
+    }
+
+    private Document loadDocument(SearchContext context, FieldSelector fieldSelector, IndexReader subReader, int subDocId) {
         Document doc;
         try {
-            doc = context.searcher().doc(docId, fieldSelector);
+            doc = subReader.document(subDocId, fieldSelector);
         } catch (IOException e) {
-            throw new FetchPhaseExecutionException(context, "Failed to fetch doc id [" + docId + "]", e);
+            throw new FetchPhaseExecutionException(context, "Failed to fetch doc id [" + subDocId + "] from segment [" + subReader + "]", e);
         }
         return doc;
     }
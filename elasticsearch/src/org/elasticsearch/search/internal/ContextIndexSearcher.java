@@ -26,6 +26,14 @@ import org.elasticsearch.search.dfs.CachedDfSource;
 import org.elasticsearch.util.lucene.docidset.DocIdSetCollector;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * @author kimchy (Shay Banon)
@@ -45,6 +53,14 @@ public class ContextIndexSearcher extends IndexSearcher {
         this.searchContext = searchContext;
     }
 
+    public IndexReader[] subReaders() {
+        return this.subReaders;
+    }
+
+    public int[] docStarts() {
+        return this.docStarts;
+    }
+
     public void dfSource(CachedDfSource dfSource) {
         this.dfSource = dfSource;
     }
@@ -53,6 +69,10 @@ public class ContextIndexSearcher extends IndexSearcher {
         docIdSetEnabled = true;
     }
 
+    public boolean docIdSetEnabled() {
+        return docIdSetEnabled;
+    }
+
     public OpenBitSet docIdSet() {
         return docIdSet;
     }
@@ -61,7 +81,25 @@ public class ContextIndexSearcher extends IndexSearcher {
         if (dfSource == null) {
             return super.createWeight(query);
         }
-        return query.weight(dfSource);
+        // the df source does not rewrite, rewrite against the shard first (the query might not have gone through the dfs phase)
+        return rewrite(query).weight(dfSource);
+    }
+
+    @Override public TopDocs search(Weight weight, Filter filter, int nDocs) throws IOException {
+        if (nDocs <= 0 || !parallel(filter)) {
+            return super.search(weight, filter, nDocs);
+        }
+        nDocs = Math.min(nDocs, getIndexReader().maxDoc());
+        return mergeTopDocs(parallelSearch(weight, nDocs, null, true), nDocs);
+    }
+
+    @Override public TopFieldDocs search(Weight weight, Filter filter, int nDocs, Sort sort, boolean fillFields) throws IOException {
+        if (nDocs <= 0 || !parallel(filter)) {
+            return super.search(weight, filter, nDocs, sort, fillFields);
+        }
+        nDocs = Math.min(nDocs, getIndexReader().maxDoc());
+        // fields are always filled, they are needed to merge the slices
+        return mergeTopFieldDocs(parallelSearch(weight, nDocs, sort, true), nDocs);
     }
 
     @Override public void search(Weight weight, Filter filter, Collector collector) throws IOException {
@@ -86,4 +124,169 @@ public class ContextIndexSearcher extends IndexSearcher {
             this.docIdSet = ((DocIdSetCollector) collector).docIdSet();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Top docs searches are executed concurrently over contiguous slices of the segments when the context
+     * asks for it. The doc id set is collected by a single (serial) collector, so it is never executed in parallel.
+     */
+    private boolean parallel(Filter filter) {
+        return filter == null && searchContext.parallelism() > 1 && searchContext.parallelExecutor() != null
+                && subReaders.length > 1 && !(docIdSetEnabled && docIdSet == null);
+    }
+
+    private TopDocs[] parallelSearch(final Weight weight, final int nDocs, final Sort sort, final boolean fillFields) throws IOException {
+        int[][] slices = slices(Math.min(searchContext.parallelism(), subReaders.length));
+        final long timeout = searchContext.timeout() == null ? -1 : searchContext.timeout().millis();
+        final boolean[] timedOut = new boolean[slices.length];
+        List<Callable<TopDocs>> tasks = new ArrayList<Callable<TopDocs>>(slices.length);
+        for (int i = 0; i < slices.length; i++) {
+            final int sliceIndex = i;
+            final int[] slice = slices[i];
+            tasks.add(new Callable<TopDocs>() {
+                @Override public TopDocs call() throws Exception {
+                    TopDocsCollector topDocsCollector;
+                    if (sort == null) {
+                        topDocsCollector = TopScoreDocCollector.create(nDocs, !weight.scoresDocsOutOfOrder());
+                    } else {
+                        topDocsCollector = TopFieldCollector.create(sort, nDocs, fillFields, false, false, !weight.scoresDocsOutOfOrder());
+                    }
+                    Collector collector = topDocsCollector;
+                    if (timeout != -1) {
+                        collector = new TimeLimitingCollector(collector, timeout);
+                    }
+                    try {
+                        for (int readerIndex = slice[0]; readerIndex < slice[1]; readerIndex++) {
+                            collector.setNextReader(subReaders[readerIndex], docStarts[readerIndex]);
+                            Scorer scorer = weight.scorer(subReaders[readerIndex], !collector.acceptsDocsOutOfOrder(), true);
+                            if (scorer != null) {
+                                scorer.score(collector);
+                            }
+                        }
+                    } catch (TimeLimitingCollector.TimeExceededException e) {
+                        timedOut[sliceIndex] = true;
+                    }
+                    return topDocsCollector.topDocs();
+                }
+            });
+        }
+
+        // the first slice is executed on the calling thread, the rest on the parallel executor
+        List<Future<TopDocs>> futures = new ArrayList<Future<TopDocs>>(slices.length - 1);
+        for (int i = 1; i < tasks.size(); i++) {
+            futures.add(searchContext.parallelExecutor().submit(tasks.get(i)));
+        }
+        TopDocs[] results = new TopDocs[slices.length];
+        try {
+            results[0] = tasks.get(0).call();
+            for (int i = 0; i < futures.size(); i++) {
+                results[i + 1] = futures.get(i).get();
+            }
+        } catch (Exception e) {
+            for (Future<TopDocs> future : futures) {
+                future.cancel(false);
+            }
+            Throwable cause = e;
+            if (e instanceof ExecutionException) {
+                cause = e.getCause();
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            IOException ioException = new IOException("Failed to execute parallel search");
+            ioException.initCause(cause);
+            throw ioException;
+        }
+
+        if (timeout != -1) {
+            boolean searchTimedOut = false;
+            for (boolean sliceTimedOut : timedOut) {
+                searchTimedOut |= sliceTimedOut;
+            }
+            searchContext.queryResult().searchTimedOut(searchTimedOut);
+        }
+        return results;
+    }
+
+    /**
+     * Splits the segments into (at most) <tt>count</tt> contiguous slices, balanced by number of docs.
+     * Each slice is represented by its start (inclusive) and end (exclusive) reader index.
+     */
+    private int[][] slices(int count) {
+        long totalDocs = 0;
+        for (IndexReader subReader : subReaders) {
+            totalDocs += subReader.maxDoc();
+        }
+        List<int[]> slices = new ArrayList<int[]>(count);
+        int start = 0;
+        long sliceDocs = 0;
+        for (int i = 0; i < subReaders.length; i++) {
+            sliceDocs += subReaders[i].maxDoc();
+            int slicesLeft = count - slices.size();
+            int readersLeft = subReaders.length - i - 1;
+            // close the slice once it got its share of docs, or when each remaining reader must get its own slice
+            if (slicesLeft > 1 && (sliceDocs * count >= totalDocs || readersLeft < slicesLeft)) {
+                slices.add(new int[]{start, i + 1});
+                start = i + 1;
+                sliceDocs = 0;
+            }
+        }
+        if (start < subReaders.length) {
+            slices.add(new int[]{start, subReaders.length});
+        }
+        return slices.toArray(new int[slices.size()][]);
+    }
+
+    private static TopDocs mergeTopDocs(TopDocs[] results, int nDocs) {
+        int totalHits = 0;
+        float maxScore = Float.NEGATIVE_INFINITY;
+        List<ScoreDoc> scoreDocs = new ArrayList<ScoreDoc>();
+        for (TopDocs result : results) {
+            totalHits += result.totalHits;
+            if (result.totalHits > 0) {
+                maxScore = Math.max(maxScore, result.getMaxScore());
+            }
+            scoreDocs.addAll(Arrays.asList(result.scoreDocs));
+        }
+        ScoreDoc[] merged = scoreDocs.toArray(new ScoreDoc[scoreDocs.size()]);
+        // same order as the hit queue, higher score first, and lower doc id first on equal scores
+        Arrays.sort(merged, new Comparator<ScoreDoc>() {
+            @Override public int compare(ScoreDoc o1, ScoreDoc o2) {
+                if (o1.score != o2.score) {
+                    return o1.score > o2.score ? -1 : 1;
+                }
+                return o1.doc - o2.doc;
+            }
+        });
+        if (merged.length > nDocs) {
+            merged = Arrays.copyOf(merged, nDocs);
+        }
+        return new TopDocs(totalHits, merged, totalHits == 0 ? Float.NaN : maxScore);
+    }
+
+    private static TopFieldDocs mergeTopFieldDocs(TopDocs[] results, int nDocs) {
+        SortField[] fields = ((TopFieldDocs) results[0]).fields;
+        int totalHits = 0;
+        float maxScore = Float.NaN;
+        ShardFieldDocSortedHitQueue queue = new ShardFieldDocSortedHitQueue(fields, nDocs);
+        for (TopDocs result : results) {
+            totalHits += result.totalHits;
+            if (!Float.isNaN(result.getMaxScore())) {
+                maxScore = Float.isNaN(maxScore) ? result.getMaxScore() : Math.max(maxScore, result.getMaxScore());
+            }
+            for (ScoreDoc scoreDoc : result.scoreDocs) {
+                if (queue.insertWithOverflow((FieldDoc) scoreDoc) == scoreDoc) {
+                    // the slice is sorted, so the rest of its docs will not make it either
+                    break;
+                }
+            }
+        }
+        ScoreDoc[] merged = new ScoreDoc[queue.size()];
+        for (int i = merged.length - 1; i >= 0; i--) {
+            merged[i] = queue.pop();
+        }
+        return new TopFieldDocs(totalHits, merged, fields, maxScore);
+    }
+}
@@ -41,6 +41,8 @@ import static org.elasticsearch.util.lucene.Lucene.*;
  */
 public class InternalSearchHit implements SearchHit {
 
+    private static final Object[] EMPTY_SORT_VALUES = new Object[0];
+
     private String id;
 
     private String type;
@@ -51,6 +53,8 @@ public class InternalSearchHit implements SearchHit {
 
     private Explanation explanation;
 
+    private Object[] sortValues = EMPTY_SORT_VALUES;
+
     @Nullable private SearchShardTarget shard;
 
     private InternalSearchHit() {
@@ -88,6 +92,14 @@ public class InternalSearchHit implements SearchHit {
         this.fields = fields;
     }
 
+    public Object[] sortValues() {
+        return sortValues;
+    }
+
+    public void sortValues(Object[] sortValues) {
+        this.sortValues = sortValues;
+    }
+
     public Explanation explanation() {
         return explanation;
     }
@@ -136,6 +148,17 @@ public class InternalSearchHit implements SearchHit {
                 }
             }
         }
+        if (sortValues.length > 0) {
+            builder.startArray("_sort");
+            for (Object sortValue : sortValues) {
+                if (sortValue == null) {
+                    builder.nullValue();
+                } else {
+                    builder.value(sortValue);
+                }
+            }
+            builder.endArray();
+        }
         if (explanation() != null) {
             builder.field("_explanation");
             buildExplanation(builder, explanation());
@@ -173,6 +196,15 @@ public class InternalSearchHit implements SearchHit {
         if (in.readBoolean()) {
             explanation = readExplanation(in);
         }
+        int sortValuesSize = in.readInt();
+        if (sortValuesSize == 0) {
+            sortValues = EMPTY_SORT_VALUES;
+        } else {
+            sortValues = new Object[sortValuesSize];
+            for (int i = 0; i < sortValuesSize; i++) {
+                sortValues[i] = readSortValue(in);
+            }
+        }
         int size = in.readInt();
         if (size == 0) {
             fields = ImmutableMap.of();
@@ -229,6 +261,10 @@ public class InternalSearchHit implements SearchHit {
             out.writeBoolean(true);
             writeExplanation(out, explanation);
         }
+        out.writeInt(sortValues.length);
+        for (Object sortValue : sortValues) {
+            writeSortValue(out, (Comparable) sortValue);
+        }
         if (fields == null) {
             out.writeInt(0);
         } else {
@@ -21,6 +21,7 @@ package org.elasticsearch.search.internal;
 
 import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.search.Scroll;
+import org.elasticsearch.search.dfs.AggregatedDfs;
 import org.elasticsearch.util.Strings;
 import org.elasticsearch.util.TimeValue;
 import org.elasticsearch.util.io.Streamable;
@@ -30,6 +31,7 @@ import java.io.DataOutput;
 import java.io.IOException;
 
 import static org.elasticsearch.search.Scroll.*;
+import static org.elasticsearch.search.dfs.AggregatedDfs.*;
 import static org.elasticsearch.util.TimeValue.*;
 
 /**
@@ -72,6 +74,10 @@ public class InternalSearchRequest implements Streamable {
 
     private String source;
 
+    private AggregatedDfs dfs;
+
+    private long dfsReaderVersion = -1;
+
     public InternalSearchRequest() {
     }
 
@@ -153,6 +159,28 @@ public class InternalSearchRequest implements Streamable {
         this.types = types;
     }
 
+    /**
+     * Aggregated term statistics (cached on the coordinating node) to score with instead of the shard
+     * local ones, saving the dfs round trip.
+     */
+    public AggregatedDfs dfs() {
+        return dfs;
+    }
+
+    /**
+     * The version of the shard reader the cached {@link #dfs()} was computed against. The search fails
+     * if the shard reader has changed since.
+     */
+    public long dfsReaderVersion() {
+        return dfsReaderVersion;
+    }
+
+    public InternalSearchRequest dfs(AggregatedDfs dfs, long dfsReaderVersion) {
+        this.dfs = dfs;
+        this.dfsReaderVersion = dfsReaderVersion;
+        return this;
+    }
+
     @Override public void readFrom(DataInput in) throws IOException, ClassNotFoundException {
         index = in.readUTF();
         shardId = in.readInt();
@@ -173,6 +201,10 @@ public class InternalSearchRequest implements Streamable {
                 types[i] = in.readUTF();
             }
         }
+        if (in.readBoolean()) {
+            dfs = readAggregatedDfs(in);
+            dfsReaderVersion = in.readLong();
+        }
     }
 
     @Override public void writeTo(DataOutput out) throws IOException {
@@ -198,5 +230,12 @@ public class InternalSearchRequest implements Streamable {
         for (String type : types) {
             out.writeUTF(type);
         }
+        if (dfs == null) {
+            out.writeBoolean(false);
+        } else {
+            out.writeBoolean(true);
+            dfs.writeTo(out);
+            out.writeLong(dfsReaderVersion);
+        }
     }
 }
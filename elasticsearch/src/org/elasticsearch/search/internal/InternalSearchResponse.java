@@ -41,12 +41,15 @@ public class InternalSearchResponse implements Streamable, ToJson {
 
     private Facets facets;
 
+    private boolean terminatedEarly;
+
     private InternalSearchResponse() {
     }
 
-    public InternalSearchResponse(InternalSearchHits hits, Facets facets) {
+    public InternalSearchResponse(InternalSearchHits hits, Facets facets, boolean terminatedEarly) {
         this.hits = hits;
         this.facets = facets;
+        this.terminatedEarly = terminatedEarly;
     }
 
     public SearchHits hits() {
@@ -57,6 +60,14 @@ public class InternalSearchResponse implements Streamable, ToJson {
         return facets;
     }
 
+    /**
+     * Did any of the shards stop collecting early because of <tt>terminateAfter</tt>, in which case the
+     * total hits is a lower bound.
+     */
+    public boolean terminatedEarly() {
+        return terminatedEarly;
+    }
+
     public static InternalSearchResponse readInternalSearchResponse(DataInput in) throws IOException, ClassNotFoundException {
         InternalSearchResponse response = new InternalSearchResponse();
         response.readFrom(in);
@@ -64,6 +75,9 @@ public class InternalSearchResponse implements Streamable, ToJson {
     }
 
     @Override public void toJson(JsonBuilder builder) throws IOException {
+        if (terminatedEarly) {
+            builder.field("terminatedEarly", true);
+        }
         hits.toJson(builder);
         if (facets != null) {
             facets.toJson(builder);
@@ -75,6 +89,7 @@ public class InternalSearchResponse implements Streamable, ToJson {
         if (in.readBoolean()) {
             facets = readFacets(in);
         }
+        terminatedEarly = in.readBoolean();
     }
 
     @Override public void writeTo(DataOutput out) throws IOException {
@@ -85,5 +100,6 @@ public class InternalSearchResponse implements Streamable, ToJson {
             out.writeBoolean(true);
             facets.writeTo(out);
         }
+        out.writeBoolean(terminatedEarly);
     }
 }
@@ -24,21 +24,25 @@ import org.apache.lucene.search.Sort;
 import org.elasticsearch.ElasticSearchException;
 import org.elasticsearch.index.IndexService;
 import org.elasticsearch.index.cache.filter.FilterCache;
+import org.elasticsearch.index.cache.result.ResultCache;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.index.query.IndexQueryParser;
 import org.elasticsearch.index.query.IndexQueryParserMissingException;
 import org.elasticsearch.index.query.IndexQueryParserService;
+import org.elasticsearch.index.search.stats.ShardSearchStats;
 import org.elasticsearch.index.similarity.SimilarityService;
 import org.elasticsearch.search.Scroll;
 import org.elasticsearch.search.SearchShardTarget;
 import org.elasticsearch.search.dfs.DfsSearchResult;
 import org.elasticsearch.search.fetch.FetchSearchResult;
 import org.elasticsearch.search.query.QuerySearchResult;
+import org.elasticsearch.search.scan.ScanContext;
 import org.elasticsearch.util.TimeValue;
 import org.elasticsearch.util.lease.Releasable;
 
 import java.io.IOException;
+import java.util.concurrent.ExecutorService;
 
 /**
  * @author kimchy (Shay Banon)
@@ -53,6 +57,8 @@ public class SearchContext implements Releasable {
 
     private final IndexService indexService;
 
+    private final ResultCache resultCache;
+
     private final ContextIndexSearcher searcher;
 
     private final DfsSearchResult dfsResult;
@@ -88,11 +94,22 @@ public class SearchContext implements Releasable {
 
     private SearchContextFacets facets;
 
+    private ScanContext scanContext;
+
+    private int parallelism = 1;
+
+    private int terminateAfter = -1;
+
+    private Object[] searchAfter;
+
+    private ExecutorService parallelExecutor;
+
+    private ShardSearchStats searchStats;
 
     private boolean queryRewritten;
 
     public SearchContext(long id, SearchShardTarget shardTarget, TimeValue timeout, float queryBoost, String source,
-                         String[] types, Engine.Searcher engineSearcher, IndexService indexService) {
+                         String[] types, Engine.Searcher engineSearcher, IndexService indexService, ResultCache resultCache) {
         this.id = id;
         this.timeout = timeout;
         this.queryBoost = queryBoost;
@@ -103,6 +120,7 @@ public class SearchContext implements Releasable {
         this.queryResult = new QuerySearchResult(id, shardTarget);
         this.fetchResult = new FetchSearchResult(id, shardTarget);
         this.indexService = indexService;
+        this.resultCache = resultCache;
 
         this.searcher = new ContextIndexSearcher(this, engineSearcher.reader());
     }
@@ -151,6 +169,70 @@ public class SearchContext implements Releasable {
         return this;
     }
 
+    public ScanContext scanContext() {
+        if (scanContext == null) {
+            scanContext = new ScanContext();
+        }
+        return scanContext;
+    }
+
+    /**
+     * The number of segment slices the query phase is executed on concurrently.
+     */
+    public int parallelism() {
+        return parallelism;
+    }
+
+    public SearchContext parallelism(int parallelism) {
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * The number of docs after which the query phase stops collecting, <tt>-1</tt> to collect all of them.
+     */
+    public int terminateAfter() {
+        return terminateAfter;
+    }
+
+    public SearchContext terminateAfter(int terminateAfter) {
+        this.terminateAfter = terminateAfter;
+        return this;
+    }
+
+    /**
+     * The sort values of the last hit of the previous page, only docs sorting after them are collected.
+     */
+    public Object[] searchAfter() {
+        return searchAfter;
+    }
+
+    public SearchContext searchAfter(Object[] searchAfter) {
+        this.searchAfter = searchAfter;
+        return this;
+    }
+
+    public ExecutorService parallelExecutor() {
+        return parallelExecutor;
+    }
+
+    public SearchContext parallelExecutor(ExecutorService parallelExecutor) {
+        this.parallelExecutor = parallelExecutor;
+        return this;
+    }
+
+    /**
+     * The stats of the shard this context executes on, each search phase is recorded against them.
+     */
+    public ShardSearchStats searchStats() {
+        return searchStats;
+    }
+
+    public SearchContext searchStats(ShardSearchStats searchStats) {
+        this.searchStats = searchStats;
+        return this;
+    }
+
     public Engine.Searcher engineSearcher() {
         return this.engineSearcher;
     }
@@ -186,6 +268,10 @@ public class SearchContext implements Releasable {
         return indexService.filterCache();
     }
 
+    public ResultCache resultCache() {
+        return resultCache;
+    }
+
     public TimeValue timeout() {
         return timeout;
     }
@@ -27,6 +27,7 @@ import org.elasticsearch.search.SearchParseElement;
 import org.elasticsearch.search.SearchPhase;
 import org.elasticsearch.search.facets.FacetsPhase;
 import org.elasticsearch.search.internal.SearchContext;
+import org.elasticsearch.util.lucene.Lucene;
 import org.elasticsearch.util.lucene.search.TermFilter;
 
 import java.util.Map;
@@ -48,6 +49,9 @@ public class QueryPhase implements SearchPhase {
                 .put("queryParserName", new QueryParserNameParseElement())
                 .put("query", new QueryParseElement())
                 .put("sort", new SortParseElement())
+                .put("parallelism", new ParallelismParseElement())
+                .put("terminateAfter", new TerminateAfterParseElement())
+                .put("searchAfter", new SearchAfterParseElement())
                 .putAll(facetsPhase.parseElements());
         return parseElements.build();
     }
@@ -57,37 +61,119 @@ public class QueryPhase implements SearchPhase {
             searchContext.queryResult().from(searchContext.from());
             searchContext.queryResult().size(searchContext.size());
 
-            Query query = searchContext.query();
-            if (searchContext.types().length > 0) {
-                if (searchContext.types().length == 1) {
-                    String type = searchContext.types()[0];
-                    DocumentMapper docMapper = searchContext.mapperService().documentMapper(type);
-                    Filter typeFilter = new TermFilter(docMapper.typeMapper().term(docMapper.type()));
-                    typeFilter = searchContext.filterCache().cache(typeFilter);
-                    query = new FilteredQuery(query, typeFilter);
-                } else {
-                    BooleanFilter booleanFilter = new BooleanFilter();
-                    for (String type : searchContext.types()) {
-                        DocumentMapper docMapper = searchContext.mapperService().documentMapper(type);
-                        Filter typeFilter = new TermFilter(docMapper.typeMapper().term(docMapper.type()));
-                        typeFilter = searchContext.filterCache().cache(typeFilter);
-                        booleanFilter.add(new FilterClause(typeFilter, BooleanClause.Occur.SHOULD));
-                    }
-                    query = new FilteredQuery(query, booleanFilter);
-                }
-            }
+            Query query = buildQuery(searchContext);
 
+            searchContext.queryResult().terminatedEarly(false);
             TopDocs topDocs;
-            if (searchContext.sort() != null) {
+            if (searchContext.searchAfter() != null || terminateAfter(searchContext)) {
+                topDocs = executeWithCollector(searchContext, query);
+            } else if (searchContext.sort() != null) {
                 topDocs = searchContext.searcher().search(query, null, searchContext.from() + searchContext.size(), searchContext.sort());
             } else {
                 topDocs = searchContext.searcher().search(query, searchContext.from() + searchContext.size());
             }
             searchContext.queryResult().topDocs(topDocs);
         } catch (Exception e) {
-            throw new QueryPhaseExecutionException(searchContext);
+            throw new QueryPhaseExecutionException(searchContext, e);
         }
 
         facetsPhase.execute(searchContext);
     }
+
+    private boolean terminateAfter(SearchContext searchContext) {
+        // the facets doc id set must be collected for all the docs, so we can't terminate early
+        return searchContext.terminateAfter() > 0 && !searchContext.searcher().docIdSetEnabled();
+    }
+
+    /**
+     * Collects the top docs using an explicit collector chain, when the request pages with <tt>searchAfter</tt>
+     * and / or terminates early.
+     *
+     * <p>With <tt>searchAfter</tt>, only docs sorting after the given sort values compete for the top docs, so the
+     * queue only needs to hold <tt>size</tt> docs no matter how deep the page is. The total hits still counts all
+     * the matching docs.
+     *
+     * <p>With <tt>terminateAfter</tt>, the collection stops once that many docs were collected. In that case, the
+     * total hits is the number of docs collected, and the top docs are the top ones out of them.
+     */
+    private TopDocs executeWithCollector(SearchContext searchContext, Query query) throws Exception {
+        // collect at least one doc, the collectors don't support an empty queue
+        int numDocs = Math.max(1, Math.min(searchContext.from() + searchContext.size(), searchContext.searcher().maxDoc()));
+        TopDocsCollector topDocsCollector;
+        if (searchContext.sort() != null) {
+            topDocsCollector = TopFieldCollector.create(searchContext.sort(), numDocs, true, false, false, true);
+        } else {
+            topDocsCollector = TopScoreDocCollector.create(numDocs, true);
+        }
+        Collector collector = topDocsCollector;
+        if (terminateAfter(searchContext)) {
+            collector = new Lucene.EarlyTerminatingCollector(collector, searchContext.terminateAfter());
+        }
+        SearchAfterCollector searchAfterCollector = null;
+        if (searchContext.searchAfter() != null) {
+            SortField[] sortFields = searchContext.sort() == null ? null : searchContext.sort().getSort();
+            collector = searchAfterCollector = new SearchAfterCollector(collector, sortFields, searchContext.searchAfter(),
+                    searchContext.queryResult().shardTarget().shardKey());
+        }
+        try {
+            searchContext.searcher().search(query, collector);
+        } catch (Lucene.EarlyTerminationException e) {
+            searchContext.queryResult().terminatedEarly(true);
+        }
+        TopDocs topDocs = topDocsCollector.topDocs();
+        if (searchAfterCollector != null && !searchContext.queryResult().terminatedEarly()) {
+            // don't set it on the collector's top docs, when empty it is a shared (static) instance
+            if (topDocs instanceof TopFieldDocs) {
+                topDocs = new TopFieldDocs(searchAfterCollector.totalHits(), topDocs.scoreDocs, ((TopFieldDocs) topDocs).fields, topDocs.getMaxScore());
+            } else {
+                topDocs = new TopDocs(searchAfterCollector.totalHits(), topDocs.scoreDocs, topDocs.getMaxScore());
+            }
+        }
+        return topDocs;
+    }
+
+    /**
+     * Scans the next batch of matching docs in doc id order, without scoring them. The first
+     * execution on a context only computes the total hits (and facets).
+     */
+    public void executeScan(SearchContext searchContext) throws QueryPhaseExecutionException {
+        boolean firstBatch = !searchContext.scanContext().counted();
+        try {
+            searchContext.queryResult().from(0);
+            searchContext.queryResult().size(searchContext.size());
+            searchContext.queryResult().topDocs(searchContext.scanContext().execute(searchContext, buildQuery(searchContext)));
+        } catch (Exception e) {
+            throw new QueryPhaseExecutionException(searchContext, e);
+        }
+
+        if (firstBatch) {
+            facetsPhase.execute(searchContext);
+        } else {
+            // the facets were computed over all the matching docs with the first batch
+            searchContext.queryResult().facets(null);
+        }
+    }
+
+    private Query buildQuery(SearchContext searchContext) {
+        Query query = searchContext.query();
+        if (searchContext.types().length > 0) {
+            if (searchContext.types().length == 1) {
+                String type = searchContext.types()[0];
+                DocumentMapper docMapper = searchContext.mapperService().documentMapper(type);
+                Filter typeFilter = new TermFilter(docMapper.typeMapper().term(docMapper.type()));
+                typeFilter = searchContext.filterCache().cache(typeFilter);
+                query = new FilteredQuery(query, typeFilter);
+            } else {
+                BooleanFilter booleanFilter = new BooleanFilter();
+                for (String type : searchContext.types()) {
+                    DocumentMapper docMapper = searchContext.mapperService().documentMapper(type);
+                    Filter typeFilter = new TermFilter(docMapper.typeMapper().term(docMapper.type()));
+                    typeFilter = searchContext.filterCache().cache(typeFilter);
+                    booleanFilter.add(new FilterClause(typeFilter, BooleanClause.Occur.SHOULD));
+                }
+                query = new FilteredQuery(query, booleanFilter);
+            }
+        }
+        return query;
+    }
 }
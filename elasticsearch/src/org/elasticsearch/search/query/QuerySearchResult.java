@@ -51,6 +51,8 @@ public class QuerySearchResult implements Streamable, QuerySearchResultProvider
 
     private boolean searchTimedOut;
 
+    private boolean terminatedEarly;
+
     public QuerySearchResult() {
 
     }
@@ -84,6 +86,18 @@ public class QuerySearchResult implements Streamable, QuerySearchResultProvider
         return searchTimedOut;
     }
 
+    /**
+     * Did the collection stop early because of <tt>terminateAfter</tt>, in which case the total hits
+     * is a lower bound.
+     */
+    public boolean terminatedEarly() {
+        return terminatedEarly;
+    }
+
+    public void terminatedEarly(boolean terminatedEarly) {
+        this.terminatedEarly = terminatedEarly;
+    }
+
     public TopDocs topDocs() {
         return topDocs;
     }
@@ -134,6 +148,7 @@ public class QuerySearchResult implements Streamable, QuerySearchResultProvider
             facets = readFacets(in);
         }
         searchTimedOut = in.readBoolean();
+        terminatedEarly = in.readBoolean();
     }
 
     @Override public void writeTo(DataOutput out) throws IOException {
@@ -149,5 +164,6 @@ public class QuerySearchResult implements Streamable, QuerySearchResultProvider
             facets.writeTo(out);
         }
         out.writeBoolean(searchTimedOut);
+        out.writeBoolean(terminatedEarly);
     }
 }
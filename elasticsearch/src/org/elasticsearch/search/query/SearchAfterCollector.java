@@ -0,0 +1,267 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.query;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.*;
+import org.elasticsearch.ElasticSearchIllegalArgumentException;
+
+import java.io.IOException;
+
+/**
+ * A collector only passing to the wrapped collector the docs that sort strictly after a set of sort
+ * values (usually, the sort values of the last hit of the previous page).
+ *
+ * <p>The sort values of a hit end with its shard key and doc id, ordering hits with the same sort values
+ * the same way the search phase controller merges them. When these are provided, docs with the same sort
+ * values as the last hit are collected if they come after it in that order, so paging does not skip docs
+ * tied with the last hit. Doc ids change with merges and may differ between the copies of a shard, so the
+ * ties are only exact as long as the same shard copies are searched with the same reader. When only the sort
+ * values are provided, docs with the exact same sort values are not collected.
+ *
+ * @author kimchy (Shay Banon)
+ */
+public class SearchAfterCollector extends Collector {
+
+    private final Collector collector;
+
+    private final SortField[] sortFields;
+
+    private final Comparable[] searchAfter;
+
+    private final boolean needsScores;
+
+    private final Object[] values;
+
+    private final String shardKey;
+
+    private final String afterShardKey;
+
+    private final int afterDoc;
+
+    private Scorer scorer;
+
+    private int docBase;
+
+    private int totalHits;
+
+    /**
+     * @param sortFields  the sort fields, <tt>null</tt> when sorting by score
+     * @param searchAfter the sort values to collect the docs after, one per sort field
+     */
+    public SearchAfterCollector(Collector collector, SortField[] sortFields, Object[] searchAfter) {
+        this(collector, sortFields, searchAfter, null);
+    }
+
+    /**
+     * @param sortFields  the sort fields, <tt>null</tt> when sorting by score
+     * @param searchAfter the sort values to collect the docs after, one per sort field, optionally followed
+     *                    by the shard key and the doc id of the last hit
+     * @param shardKey    the key of the shard searched, see {@link org.elasticsearch.search.SearchShardTarget#shardKey()}
+     */
+    public SearchAfterCollector(Collector collector, SortField[] sortFields, Object[] searchAfter, String shardKey) {
+        this.collector = collector;
+        this.sortFields = sortFields == null ? new SortField[]{SortField.FIELD_SCORE} : sortFields;
+        if (searchAfter.length == this.sortFields.length + 2 && shardKey != null) {
+            if (searchAfter[this.sortFields.length] == null || searchAfter[this.sortFields.length + 1] == null) {
+                throw new ElasticSearchIllegalArgumentException("searchAfter shard key and doc id can't be null");
+            }
+            this.shardKey = shardKey;
+            this.afterShardKey = searchAfter[this.sortFields.length].toString();
+            Object afterDoc = searchAfter[this.sortFields.length + 1];
+            this.afterDoc = afterDoc instanceof Number ? ((Number) afterDoc).intValue() : Integer.parseInt(afterDoc.toString());
+        } else if (searchAfter.length == this.sortFields.length) {
+            this.shardKey = null;
+            this.afterShardKey = null;
+            this.afterDoc = -1;
+        } else {
+            throw new ElasticSearchIllegalArgumentException("searchAfter has [" + searchAfter.length + "] values, but sorting on [" + this.sortFields.length + "] fields");
+        }
+        this.searchAfter = new Comparable[this.sortFields.length];
+        boolean needsScores = false;
+        for (int i = 0; i < this.sortFields.length; i++) {
+            this.searchAfter[i] = convert(this.sortFields[i], searchAfter[i]);
+            needsScores |= this.sortFields[i].getType() == SortField.SCORE;
+        }
+        this.needsScores = needsScores;
+        this.values = new Object[this.sortFields.length];
+    }
+
+    /**
+     * The number of docs collected, including the ones not sorting after the search after values.
+     */
+    public int totalHits() {
+        return totalHits;
+    }
+
+    @Override public void setScorer(Scorer scorer) throws IOException {
+        if (needsScores) {
+            // both us and the wrapped collector need the score
+            scorer = new ScoreCachingWrappingScorer(scorer);
+        }
+        this.scorer = scorer;
+        collector.setScorer(scorer);
+    }
+
+    @Override public void collect(int doc) throws IOException {
+        totalHits++;
+        if (after(doc)) {
+            collector.collect(doc);
+        }
+    }
+
+    @Override public void setNextReader(IndexReader reader, int docBase) throws IOException {
+        for (int i = 0; i < sortFields.length; i++) {
+            SortField sortField = sortFields[i];
+            switch (sortField.getType()) {
+                case SortField.SCORE:
+                    break;
+                case SortField.STRING:
+                    values[i] = FieldCache.DEFAULT.getStringIndex(reader, sortField.getField());
+                    break;
+                case SortField.STRING_VAL:
+                    values[i] = FieldCache.DEFAULT.getStrings(reader, sortField.getField());
+                    break;
+                case SortField.INT:
+                    values[i] = FieldCache.DEFAULT.getInts(reader, sortField.getField());
+                    break;
+                case SortField.LONG:
+                    values[i] = FieldCache.DEFAULT.getLongs(reader, sortField.getField());
+                    break;
+                case SortField.FLOAT:
+                    values[i] = FieldCache.DEFAULT.getFloats(reader, sortField.getField());
+                    break;
+                case SortField.DOUBLE:
+                    values[i] = FieldCache.DEFAULT.getDoubles(reader, sortField.getField());
+                    break;
+                case SortField.SHORT:
+                    values[i] = FieldCache.DEFAULT.getShorts(reader, sortField.getField());
+                    break;
+                case SortField.BYTE:
+                    values[i] = FieldCache.DEFAULT.getBytes(reader, sortField.getField());
+                    break;
+            }
+        }
+        this.docBase = docBase;
+        collector.setNextReader(reader, docBase);
+    }
+
+    @Override public boolean acceptsDocsOutOfOrder() {
+        return collector.acceptsDocsOutOfOrder();
+    }
+
+    private boolean after(int doc) throws IOException {
+        for (int i = 0; i < sortFields.length; i++) {
+            int c = compare(i, doc);
+            if (sortFields[i].getReverse()) {
+                c = -c;
+            }
+            if (c != 0) {
+                return c > 0;
+            }
+        }
+        if (afterShardKey == null) {
+            // the same sort values, so not strictly after
+            return false;
+        }
+        int c = shardKey.compareTo(afterShardKey);
+        if (c != 0) {
+            return c > 0;
+        }
+        return docBase + doc > afterDoc;
+    }
+
+    /**
+     * Compares the doc value with the search after value, in the natural order of the sort field.
+     */
+    private int compare(int index, int doc) throws IOException {
+        Comparable after = searchAfter[index];
+        switch (sortFields[index].getType()) {
+            case SortField.SCORE:
+                // higher scores come first
+                return Float.compare((Float) after, scorer.score());
+            case SortField.STRING:
+                FieldCache.StringIndex stringIndex = (FieldCache.StringIndex) values[index];
+                return compareStrings(stringIndex.lookup[stringIndex.order[doc]], (String) after);
+            case SortField.STRING_VAL:
+                return compareStrings(((String[]) values[index])[doc], (String) after);
+            case SortField.INT:
+                return compareLongs(((int[]) values[index])[doc], (Integer) after);
+            case SortField.LONG:
+                return compareLongs(((long[]) values[index])[doc], (Long) after);
+            case SortField.FLOAT:
+                return Float.compare(((float[]) values[index])[doc], (Float) after);
+            case SortField.DOUBLE:
+                return Double.compare(((double[]) values[index])[doc], (Double) after);
+            case SortField.SHORT:
+                return compareLongs(((short[]) values[index])[doc], (Short) after);
+            case SortField.BYTE:
+                return compareLongs(((byte[]) values[index])[doc], (Byte) after);
+            default:
+                throw new ElasticSearchIllegalArgumentException("Can't use searchAfter with sort type [" + sortFields[index].getType() + "]");
+        }
+    }
+
+    private static int compareLongs(long value, long after) {
+        return value < after ? -1 : (value == after ? 0 : 1);
+    }
+
+    private static int compareStrings(String value, String after) {
+        // docs without a value come first
+        if (value == null) {
+            return after == null ? 0 : -1;
+        }
+        if (after == null) {
+            return 1;
+        }
+        return value.compareTo(after);
+    }
+
+    private static Comparable convert(SortField sortField, Object value) {
+        switch (sortField.getType()) {
+            case SortField.STRING:
+            case SortField.STRING_VAL:
+                return value == null ? null : value.toString();
+            case SortField.SCORE:
+            case SortField.FLOAT:
+                return value instanceof Number ? ((Number) value).floatValue() : Float.parseFloat(value(sortField, value));
+            case SortField.INT:
+                return value instanceof Number ? ((Number) value).intValue() : Integer.parseInt(value(sortField, value));
+            case SortField.LONG:
+                return value instanceof Number ? ((Number) value).longValue() : Long.parseLong(value(sortField, value));
+            case SortField.DOUBLE:
+                return value instanceof Number ? ((Number) value).doubleValue() : Double.parseDouble(value(sortField, value));
+            case SortField.SHORT:
+                return value instanceof Number ? ((Number) value).shortValue() : Short.parseShort(value(sortField, value));
+            case SortField.BYTE:
+                return value instanceof Number ? ((Number) value).byteValue() : Byte.parseByte(value(sortField, value));
+            default:
+                // doc ids are not comparable across shards
+                throw new ElasticSearchIllegalArgumentException("Can't use searchAfter with sort type [" + sortField.getType() + "]");
+        }
+    }
+
+    private static String value(SortField sortField, Object value) {
+        if (value == null) {
+            throw new ElasticSearchIllegalArgumentException("searchAfter value for [" + sortField.getField() + "] can't be null");
+        }
+        return value.toString();
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.query;
+
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
+import org.elasticsearch.search.SearchParseElement;
+import org.elasticsearch.search.SearchParseException;
+import org.elasticsearch.search.internal.SearchContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses the <tt>searchAfter</tt> array, holding the sort values to page after.
+ *
+ * @author kimchy (Shay Banon)
+ */
+public class SearchAfterParseElement implements SearchParseElement {
+
+    @Override public void parse(JsonParser jp, SearchContext context) throws Exception {
+        if (jp.getCurrentToken() != JsonToken.START_ARRAY) {
+            throw new SearchParseException("searchAfter must be an array of sort values");
+        }
+        List<Object> values = new ArrayList<Object>(2);
+        JsonToken token;
+        while ((token = jp.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == JsonToken.VALUE_STRING) {
+                values.add(jp.getText());
+            } else if (token == JsonToken.VALUE_NUMBER_INT) {
+                values.add(jp.getLongValue());
+            } else if (token == JsonToken.VALUE_NUMBER_FLOAT) {
+                values.add(jp.getDoubleValue());
+            } else if (token == JsonToken.VALUE_NULL) {
+                values.add(null);
+            } else {
+                throw new SearchParseException("searchAfter values must be strings or numbers, got [" + token + "]");
+            }
+        }
+        context.searchAfter(values.toArray());
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.scan;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.*;
+import org.elasticsearch.search.internal.ContextIndexSearcher;
+import org.elasticsearch.search.internal.SearchContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The state of a scan over a search context. A scan walks the matching docs segment by segment in
+ * doc id order, without scoring or sorting them, and remembers where it stopped so the next batch
+ * continues from there instead of collecting all the previous docs again.
+ *
+ * <p>The first execution only counts the total hits, each following execution returns up to
+ * <tt>size</tt> docs.
+ *
+ * @author kimchy (Shay Banon)
+ */
+public class ScanContext {
+
+    private static final ScoreDoc[] EMPTY_DOCS = new ScoreDoc[0];
+
+    private int totalHits = -1;
+
+    private int readerIndex = 0;
+
+    private int docUpTo = 0;
+
+    private Weight weight;
+
+    /**
+     * Returns <tt>true</tt> once the first execution counted the total hits.
+     */
+    public boolean counted() {
+        return totalHits != -1;
+    }
+
+    public TopDocs execute(SearchContext context, Query query) throws IOException {
+        ContextIndexSearcher searcher = context.searcher();
+        if (totalHits == -1) {
+            TotalHitsCollector collector = new TotalHitsCollector();
+            searcher.search(query, collector);
+            totalHits = collector.totalHits;
+            return new TopDocs(totalHits, EMPTY_DOCS, 0);
+        }
+
+        IndexReader[] subReaders = searcher.subReaders();
+        int[] docStarts = searcher.docStarts();
+        int size = context.size();
+        List<ScoreDoc> docs = new ArrayList<ScoreDoc>(size);
+        if (weight == null) {
+            // the searcher does not change during the scan, so the weight can be reused across batches
+            weight = query.weight(searcher);
+        }
+        while (readerIndex < subReaders.length) {
+            Scorer scorer = weight.scorer(subReaders[readerIndex], true, false);
+            if (scorer != null) {
+                int doc = docUpTo == 0 ? scorer.nextDoc() : scorer.advance(docUpTo);
+                while (doc != DocIdSetIterator.NO_MORE_DOCS) {
+                    if (docs.size() == size) {
+                        // continue from this doc on the next batch
+                        docUpTo = doc;
+                        return new TopDocs(totalHits, docs.toArray(new ScoreDoc[docs.size()]), 0);
+                    }
+                    docs.add(new ScoreDoc(docStarts[readerIndex] + doc, 0));
+                    doc = scorer.nextDoc();
+                }
+            }
+            readerIndex++;
+            docUpTo = 0;
+        }
+        return new TopDocs(totalHits, docs.toArray(new ScoreDoc[docs.size()]), 0);
+    }
+
+    private static class TotalHitsCollector extends Collector {
+
+        int totalHits;
+
+        @Override public void setScorer(Scorer scorer) throws IOException {
+        }
+
+        @Override public void collect(int doc) throws IOException {
+            totalHits++;
+        }
+
+        @Override public void setNextReader(IndexReader reader, int docBase) throws IOException {
+        }
+
+        @Override public boolean acceptsDocsOutOfOrder() {
+            return true;
+        }
+    }
+}
@@ -42,6 +42,7 @@ import org.elasticsearch.http.HttpServerModule;
 import org.elasticsearch.index.store.fs.FsStores;
 import org.elasticsearch.indices.IndicesModule;
 import org.elasticsearch.indices.IndicesService;
+import org.elasticsearch.indices.memory.IndexingMemoryBufferController;
 import org.elasticsearch.jmx.JmxModule;
 import org.elasticsearch.jmx.JmxService;
 import org.elasticsearch.monitor.MonitorModule;
@@ -139,6 +140,7 @@ public final class InternalServer implements Server {
         logger.info("{{}}: Starting ...", Version.full());
 
         injector().getInstance(IndicesService.class).start();
+        injector().getInstance(IndexingMemoryBufferController.class).start();
         injector().getInstance(GatewayService.class).start();
         injector.getInstance(ClusterService.class).start();
         injector.getInstance(RoutingService.class).start();
@@ -172,6 +174,7 @@ public final class InternalServer implements Server {
         injector.getInstance(MonitorService.class).stop();
         injector.getInstance(GatewayService.class).stop();
         injector.getInstance(SearchService.class).stop();
+        injector.getInstance(IndexingMemoryBufferController.class).stop();
         injector.getInstance(IndicesService.class).stop();
         injector.getInstance(TransportService.class).stop();
         injector.getInstance(JmxService.class).close();
@@ -212,6 +215,7 @@ public final class InternalServer implements Server {
         injector.getInstance(MonitorService.class).close();
         injector.getInstance(GatewayService.class).close();
         injector.getInstance(SearchService.class).close();
+        injector.getInstance(IndexingMemoryBufferController.class).close();
         injector.getInstance(IndicesService.class).close();
         injector.getInstance(TransportService.class).close();
 
@@ -23,6 +23,7 @@ import org.elasticsearch.cluster.node.Node;
 import org.elasticsearch.util.component.LifecycleComponent;
 import org.elasticsearch.util.io.Streamable;
 import org.elasticsearch.util.transport.BoundTransportAddress;
+import org.elasticsearch.util.transport.TransportAddress;
 
 import java.io.IOException;
 
@@ -64,6 +65,12 @@ public interface Transport extends LifecycleComponent<Transport> {
 
     BoundTransportAddress boundAddress();
 
+    /**
+     * Returns the transport addresses the given address string (as configured, for example, in a list of
+     * unicast hosts) resolves to.
+     */
+    TransportAddress[] addressesFromString(String address) throws Exception;
+
     void nodesAdded(Iterable<Node> nodes);
 
     void nodesRemoved(Iterable<Node> nodes);
@@ -29,6 +29,7 @@ import org.elasticsearch.util.concurrent.highscalelib.NonBlockingHashMapLong;
 import org.elasticsearch.util.io.Streamable;
 import org.elasticsearch.util.settings.Settings;
 import org.elasticsearch.util.transport.BoundTransportAddress;
+import org.elasticsearch.util.transport.TransportAddress;
 
 import java.io.IOException;
 import java.util.concurrent.ConcurrentMap;
@@ -108,6 +109,10 @@ public class TransportService extends AbstractComponent implements LifecycleComp
         return transport.boundAddress();
     }
 
+    public TransportAddress[] addressesFromString(String address) throws Exception {
+        return transport.addressesFromString(address);
+    }
+
     public void nodesAdded(Iterable<Node> nodes) {
         try {
             transport.nodesAdded(nodes);
@@ -0,0 +1,246 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.transport.local;
+
+import com.google.inject.Inject;
+import org.elasticsearch.ElasticSearchException;
+import org.elasticsearch.cluster.node.Node;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.*;
+import org.elasticsearch.util.component.AbstractComponent;
+import org.elasticsearch.util.component.Lifecycle;
+import org.elasticsearch.util.io.ByteArrayDataInputStream;
+import org.elasticsearch.util.io.ByteArrayDataOutputStream;
+import org.elasticsearch.util.io.Streamable;
+import org.elasticsearch.util.settings.Settings;
+import org.elasticsearch.util.transport.BoundTransportAddress;
+import org.elasticsearch.util.transport.LocalTransportAddress;
+import org.elasticsearch.util.transport.TransportAddress;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.elasticsearch.util.concurrent.ConcurrentMaps.*;
+import static org.elasticsearch.util.settings.ImmutableSettings.Builder.*;
+
+/**
+ * A transport that works between nodes running within the same JVM. Requests and responses are handed
+ * over to the target node thread pool directly, without going through the network.
+ *
+ * <p>By default, messages are still copied by serializing them into memory, so the sending and receiving
+ * nodes never share the same instance. Setting <tt>transport.local.serialize</tt> to <tt>false</tt> passes
+ * the messages as is.
+ *
+ * @author kimchy (Shay Banon)
+ */
+public class LocalTransport extends AbstractComponent implements Transport {
+
+    private static final ConcurrentMap<TransportAddress, LocalTransport> transports = newConcurrentMap();
+
+    private static final AtomicLong transportAddressIdGenerator = new AtomicLong();
+
+    private final Lifecycle lifecycle = new Lifecycle();
+
+    private final ThreadPool threadPool;
+
+    private final boolean serialize;
+
+    private volatile TransportServiceAdapter transportServiceAdapter;
+
+    private volatile BoundTransportAddress boundAddress;
+
+    private volatile LocalTransportAddress localAddress;
+
+    public LocalTransport(ThreadPool threadPool) {
+        this(EMPTY_SETTINGS, threadPool);
+    }
+
+    @Inject public LocalTransport(Settings settings, ThreadPool threadPool) {
+        super(settings);
+        this.threadPool = threadPool;
+        this.serialize = componentSettings.getAsBoolean("serialize", true);
+    }
+
+    @Override public Lifecycle.State lifecycleState() {
+        return this.lifecycle.state();
+    }
+
+    @Override public Transport start() throws ElasticSearchException {
+        if (!lifecycle.moveToStarted()) {
+            return this;
+        }
+        localAddress = new LocalTransportAddress(Long.toString(transportAddressIdGenerator.incrementAndGet()));
+        transports.put(localAddress, this);
+        boundAddress = new BoundTransportAddress(localAddress, localAddress);
+        return this;
+    }
+
+    @Override public Transport stop() throws ElasticSearchException {
+        if (!lifecycle.moveToStopped()) {
+            return this;
+        }
+        transports.remove(localAddress);
+        return this;
+    }
+
+    @Override public void close() throws ElasticSearchException {
+        if (lifecycle.started()) {
+            stop();
+        }
+        if (!lifecycle.moveToClosed()) {
+            return;
+        }
+    }
+
+    @Override public void transportServiceAdapter(TransportServiceAdapter transportServiceAdapter) {
+        this.transportServiceAdapter = transportServiceAdapter;
+    }
+
+    @Override public BoundTransportAddress boundAddress() {
+        return boundAddress;
+    }
+
+    @Override public TransportAddress[] addressesFromString(String address) {
+        return new TransportAddress[]{new LocalTransportAddress(address)};
+    }
+
+    @Override public void nodesAdded(Iterable<Node> nodes) {
+        for (Node node : nodes) {
+            if (!transports.containsKey(node.address())) {
+                logger.warn("No local transport found for discovered node [{}]", node);
+            }
+        }
+    }
+
+    @Override public void nodesRemoved(Iterable<Node> nodes) {
+        // nothing to disconnect from
+    }
+
+    @Override public <T extends Streamable> void sendRequest(final Node node, final long requestId, final String action,
+                                                             final Streamable message, TransportResponseHandler<T> handler) throws IOException, TransportException {
+        if (node == null) {
+            throw new ConnectTransportException(node, "Can't connect to a null node");
+        }
+        final LocalTransport targetTransport = transports.get(node.address());
+        if (targetTransport == null) {
+            throw new ConnectTransportException(node, "Failed to connect, no local transport bound to [" + node.address() + "]");
+        }
+        final byte[] data = serialize ? toBytes(message) : null;
+
+        targetTransport.threadPool().execute(new Runnable() {
+            @Override public void run() {
+                targetTransport.handleRequest(LocalTransport.this, requestId, action, message, data);
+            }
+        });
+    }
+
+    ThreadPool threadPool() {
+        return this.threadPool;
+    }
+
+    TransportServiceAdapter transportServiceAdapter() {
+        return this.transportServiceAdapter;
+    }
+
+    TransportAddress localAddress() {
+        return this.localAddress;
+    }
+
+    boolean serialize() {
+        return this.serialize;
+    }
+
+    /**
+     * Handles a request sent by the source transport. Called on a thread of this transport thread pool.
+     */
+    private void handleRequest(LocalTransport sourceTransport, long requestId, String action, Streamable message, byte[] data) {
+        LocalTransportChannel transportChannel = new LocalTransportChannel(this, sourceTransport, action, requestId);
+        try {
+            TransportRequestHandler handler = transportServiceAdapter.handler(action);
+            if (handler == null) {
+                throw new ActionNotFoundTransportException("Action [" + action + "] not found");
+            }
+            Streamable request = message;
+            if (data != null) {
+                request = handler.newInstance();
+                fromBytes(request, data);
+            }
+            //noinspection unchecked
+            handler.messageReceived(request, transportChannel);
+        } catch (Throwable e) {
+            try {
+                transportChannel.sendResponse(e);
+            } catch (IOException e1) {
+                logger.warn("Failed to send error message back to client for action [" + action + "]", e1);
+                logger.warn("Actual Exception", e);
+            }
+        }
+    }
+
+    /**
+     * Handles a response to a request sent by this transport. Called on a thread of this transport thread pool.
+     */
+    void handleResponse(long requestId, Streamable message, byte[] data) {
+        TransportResponseHandler handler = transportServiceAdapter.remove(requestId);
+        if (handler == null) {
+            logger.warn("No response handler found for request [{}]", requestId);
+            return;
+        }
+        Streamable response = message;
+        if (data != null) {
+            response = handler.newInstance();
+            try {
+                fromBytes(response, data);
+            } catch (Exception e) {
+                handleException(handler, new TransportSerializationException("Failed to deserialize response of type [" + response.getClass().getName() + "]", e));
+                return;
+            }
+        }
+        try {
+            //noinspection unchecked
+            handler.handleResponse(response);
+        } catch (Exception e) {
+            handleException(handler, new ResponseHandlerFailureTransportException("Failed to handler response", e));
+        }
+    }
+
+    void handleException(TransportResponseHandler handler, Throwable error) {
+        if (!(error instanceof RemoteTransportException)) {
+            error = new RemoteTransportException("None remote transport exception", error);
+        }
+        try {
+            handler.handleException((RemoteTransportException) error);
+        } catch (Exception e) {
+            logger.error("Failed to handle exception response", e);
+        }
+    }
+
+    static byte[] toBytes(Streamable message) throws IOException {
+        ByteArrayDataOutputStream stream = ByteArrayDataOutputStream.Cached.cached();
+        message.writeTo(stream);
+        return stream.copiedByteArray();
+    }
+
+    static void fromBytes(Streamable message, byte[] data) throws IOException, ClassNotFoundException {
+        message.readFrom(new ByteArrayDataInputStream(data));
+    }
+}
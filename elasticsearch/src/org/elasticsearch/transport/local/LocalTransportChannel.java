@@ -0,0 +1,74 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.transport.local;
+
+import org.elasticsearch.transport.RemoteTransportException;
+import org.elasticsearch.transport.TransportChannel;
+import org.elasticsearch.transport.TransportResponseHandler;
+import org.elasticsearch.util.io.Streamable;
+
+import java.io.IOException;
+
+/**
+ * @author kimchy (Shay Banon)
+ */
+public class LocalTransportChannel implements TransportChannel {
+
+    private final LocalTransport transport;
+
+    private final LocalTransport sourceTransport;
+
+    private final String action;
+
+    private final long requestId;
+
+    public LocalTransportChannel(LocalTransport transport, LocalTransport sourceTransport, String action, long requestId) {
+        this.transport = transport;
+        this.sourceTransport = sourceTransport;
+        this.action = action;
+        this.requestId = requestId;
+    }
+
+    @Override public String action() {
+        return action;
+    }
+
+    @Override public void sendResponse(final Streamable message) throws IOException {
+        final byte[] data = transport.serialize() ? LocalTransport.toBytes(message) : null;
+        sourceTransport.threadPool().execute(new Runnable() {
+            @Override public void run() {
+                sourceTransport.handleResponse(requestId, message, data);
+            }
+        });
+    }
+
+    @Override public void sendResponse(Throwable error) throws IOException {
+        final RemoteTransportException tx = new RemoteTransportException(transport.nodeName(), transport.localAddress(), action, error);
+        sourceTransport.threadPool().execute(new Runnable() {
+            @Override public void run() {
+                TransportResponseHandler handler = sourceTransport.transportServiceAdapter().remove(requestId);
+                if (handler != null) {
+                    sourceTransport.handleException(handler, tx);
+                }
+            }
+        });
+    }
+}
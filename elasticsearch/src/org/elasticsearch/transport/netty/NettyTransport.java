@@ -371,6 +371,31 @@ public class NettyTransport extends AbstractComponent implements Transport {
         return new InetSocketTransportAddress((InetSocketAddress) socketAddress);
     }
 
+    @Override public TransportAddress[] addressesFromString(String address) throws Exception {
+        int index = address.indexOf('[');
+        if (index != -1) {
+            String host = address.substring(0, index);
+            return addressesFromPorts(host, address.substring(index + 1, address.indexOf(']')), Integer.MAX_VALUE);
+        }
+        index = address.lastIndexOf(':');
+        if (index == -1) {
+            // no port, try the first few ports of the range this transport binds to
+            return addressesFromPorts(address, port, 5);
+        }
+        return new TransportAddress[]{new InetSocketTransportAddress(address.substring(0, index), Integer.parseInt(address.substring(index + 1)))};
+    }
+
+    private TransportAddress[] addressesFromPorts(final String host, String ports, final int limit) {
+        final List<TransportAddress> addresses = Lists.newArrayList();
+        new PortsRange(ports).iterate(new PortsRange.PortCallback() {
+            @Override public boolean onPortNumber(int portNumber) {
+                addresses.add(new InetSocketTransportAddress(host, portNumber));
+                return addresses.size() >= limit;
+            }
+        });
+        return addresses.toArray(new TransportAddress[addresses.size()]);
+    }
+
     private static final byte[] LENGTH_PLACEHOLDER = new byte[4];
 
     @Override public <T extends Streamable> void sendRequest(Node node, long requestId, String action,
@@ -0,0 +1,81 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.util;
+
+import org.elasticsearch.util.concurrent.ThreadSafe;
+import org.elasticsearch.util.json.JsonBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock free histogram of execution times, counting the executions that fall into each of the
+ * {@link #BOUNDS} buckets.
+ *
+ * @author kimchy (Shay Banon)
+ */
+@ThreadSafe
+public class LatencyHistogram {
+
+    /**
+     * The upper bounds (in milliseconds) of the buckets, the last bucket holds everything slower than the last bound.
+     */
+    public static final long[] BOUNDS = new long[]{1, 5, 10, 50, 100, 500, 1000, 5000};
+
+    /**
+     * The number of buckets, one more than the number of bounds.
+     */
+    public static final int BUCKETS = BOUNDS.length + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    public void record(long tookInNanos) {
+        counts.incrementAndGet(bucket(TimeUnit.NANOSECONDS.toMillis(tookInNanos)));
+    }
+
+    /**
+     * Copies the current count of each bucket into the given array of {@link #BUCKETS} counts.
+     */
+    public void copyTo(long[] histogram) {
+        for (int i = 0; i < BUCKETS; i++) {
+            histogram[i] = counts.get(i);
+        }
+    }
+
+    public static int bucket(long tookInMillis) {
+        for (int i = 0; i < BOUNDS.length; i++) {
+            if (tookInMillis <= BOUNDS[i]) {
+                return i;
+            }
+        }
+        return BOUNDS.length;
+    }
+
+    /**
+     * Adds the bucket counts of a histogram as fields of the current json object.
+     */
+    public static void toJson(JsonBuilder builder, long[] histogram) throws IOException {
+        for (int i = 0; i < BOUNDS.length; i++) {
+            builder.field("<=" + BOUNDS[i] + "ms", histogram[i]);
+        }
+        builder.field(">" + BOUNDS[BOUNDS.length - 1] + "ms", histogram[BOUNDS.length]);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.util.io;
+
+import org.elasticsearch.util.concurrent.NotThreadSafe;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link DataInput} wrapper reading data written using {@link CompactDataOutput}. Repeated strings
+ * are returned as the same instance.
+ *
+ * @author kimchy (Shay Banon)
+ */
+@NotThreadSafe
+public class CompactDataInput implements DataInput {
+
+    private final DataInput in;
+
+    private final List<String> strings = new ArrayList<String>();
+
+    public CompactDataInput(DataInput in) {
+        this.in = in;
+    }
+
+    /**
+     * Reads an int written using {@link CompactDataOutput#writeVInt(int)}.
+     */
+    public int readVInt() throws IOException {
+        byte b = in.readByte();
+        int i = b & 0x7F;
+        for (int shift = 7; (b & 0x80) != 0; shift += 7) {
+            b = in.readByte();
+            i |= (b & 0x7F) << shift;
+        }
+        return i;
+    }
+
+    @Override public String readUTF() throws IOException {
+        int index = readVInt();
+        if (index == 0) {
+            String str = in.readUTF();
+            strings.add(str);
+            return str;
+        }
+        if (index > strings.size()) {
+            throw new IOException("String reference [" + index + "] out of the string table bounds [" + strings.size() + "]");
+        }
+        return strings.get(index - 1);
+    }
+
+    @Override public int readInt() throws IOException {
+        return readVInt();
+    }
+
+    @Override public void readFully(byte[] b) throws IOException {
+        in.readFully(b);
+    }
+
+    @Override public void readFully(byte[] b, int off, int len) throws IOException {
+        in.readFully(b, off, len);
+    }
+
+    @Override public int skipBytes(int n) throws IOException {
+        return in.skipBytes(n);
+    }
+
+    @Override public boolean readBoolean() throws IOException {
+        return in.readBoolean();
+    }
+
+    @Override public byte readByte() throws IOException {
+        return in.readByte();
+    }
+
+    @Override public int readUnsignedByte() throws IOException {
+        return in.readUnsignedByte();
+    }
+
+    @Override public short readShort() throws IOException {
+        return in.readShort();
+    }
+
+    @Override public int readUnsignedShort() throws IOException {
+        return in.readUnsignedShort();
+    }
+
+    @Override public char readChar() throws IOException {
+        return in.readChar();
+    }
+
+    @Override public long readLong() throws IOException {
+        return in.readLong();
+    }
+
+    @Override public float readFloat() throws IOException {
+        return in.readFloat();
+    }
+
+    @Override public double readDouble() throws IOException {
+        return in.readDouble();
+    }
+
+    @Override public String readLine() throws IOException {
+        return in.readLine();
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.util.io;
+
+import org.elasticsearch.util.concurrent.NotThreadSafe;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@link DataOutput} wrapper that writes a more compact form of the data, to be read using
+ * {@link CompactDataInput}. Strings are de-duplicated using a per stream string table (a string
+ * that was already written is written as a reference to its first occurrence), and ints are written
+ * as variable length ints (small positive numbers take a single byte).
+ *
+ * <p>Note, since every <tt>writeInt</tt> and <tt>writeUTF</tt> is encoded, the data must be read using
+ * the matching read methods of {@link CompactDataInput}.
+ *
+ * @author kimchy (Shay Banon)
+ */
+@NotThreadSafe
+public class CompactDataOutput implements DataOutput {
+
+    private final DataOutput out;
+
+    private final Map<String, Integer> strings = new HashMap<String, Integer>();
+
+    public CompactDataOutput(DataOutput out) {
+        this.out = out;
+    }
+
+    /**
+     * Writes an int in a variable length format, 1 to 5 bytes. Negative numbers always take 5 bytes.
+     */
+    public void writeVInt(int i) throws IOException {
+        while ((i & ~0x7F) != 0) {
+            out.writeByte((byte) ((i & 0x7f) | 0x80));
+            i >>>= 7;
+        }
+        out.writeByte((byte) i);
+    }
+
+    /**
+     * Writes a string reference to the string table, <tt>0</tt> followed by the string itself if this is
+     * the first time it is written.
+     */
+    @Override public void writeUTF(String str) throws IOException {
+        Integer index = strings.get(str);
+        if (index != null) {
+            writeVInt(index + 1);
+            return;
+        }
+        strings.put(str, strings.size());
+        writeVInt(0);
+        out.writeUTF(str);
+    }
+
+    @Override public void writeInt(int v) throws IOException {
+        writeVInt(v);
+    }
+
+    @Override public void write(int b) throws IOException {
+        out.write(b);
+    }
+
+    @Override public void write(byte[] b) throws IOException {
+        out.write(b);
+    }
+
+    @Override public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+    }
+
+    @Override public void writeBoolean(boolean v) throws IOException {
+        out.writeBoolean(v);
+    }
+
+    @Override public void writeByte(int v) throws IOException {
+        out.writeByte(v);
+    }
+
+    @Override public void writeShort(int v) throws IOException {
+        out.writeShort(v);
+    }
+
+    @Override public void writeChar(int v) throws IOException {
+        out.writeChar(v);
+    }
+
+    @Override public void writeLong(long v) throws IOException {
+        out.writeLong(v);
+    }
+
+    @Override public void writeFloat(float v) throws IOException {
+        out.writeFloat(v);
+    }
+
+    @Override public void writeDouble(double v) throws IOException {
+        out.writeDouble(v);
+    }
+
+    @Override public void writeBytes(String s) throws IOException {
+        out.writeBytes(s);
+    }
+
+    @Override public void writeChars(String s) throws IOException {
+        out.writeChars(s);
+    }
+}
@@ -20,12 +20,14 @@
 package org.elasticsearch.util.json;
 
 import org.apache.lucene.util.UnicodeUtil;
+import org.codehaus.jackson.JsonEncoding;
 import org.codehaus.jackson.JsonFactory;
 import org.elasticsearch.ElasticSearchException;
 import org.elasticsearch.util.concurrent.NotThreadSafe;
 import org.elasticsearch.util.io.FastCharArrayWriter;
 
 import java.io.IOException;
+import java.io.OutputStream;
 
 /**
  * @author kimchy (Shay Banon)
@@ -92,6 +94,16 @@ public class JsonBuilder {
         this.generator = factory.createJsonGenerator(writer);
     }
 
+    /**
+     * Creates a builder writing the (utf8 encoded) json directly to the output stream, instead of buffering it.
+     * Such a builder can't be reset, or have its content read back.
+     */
+    public JsonBuilder(JsonFactory factory, OutputStream outputStream) throws IOException {
+        this.writer = null;
+        this.factory = factory;
+        this.generator = factory.createJsonGenerator(outputStream, JsonEncoding.UTF8);
+    }
+
     public JsonBuilder prettyPrint() {
         generator.useDefaultPrettyPrinter();
         return this;
@@ -281,6 +293,11 @@ public class JsonBuilder {
         return this;
     }
 
+    public JsonBuilder nullValue() throws IOException {
+        generator.writeNull();
+        return this;
+    }
+
     public JsonBuilder bool(boolean value) throws IOException {
         generator.writeBoolean(value);
         return this;
@@ -298,6 +315,10 @@ public class JsonBuilder {
             number(((Integer) value).intValue());
         } else if (type == Long.class) {
             number(((Long) value).longValue());
+        } else if (type == Short.class) {
+            number(((Short) value).intValue());
+        } else if (type == Byte.class) {
+            number(((Byte) value).intValue());
         } else if (type == Boolean.class) {
             bool((Boolean) value);
         } else if (type == byte[].class) {
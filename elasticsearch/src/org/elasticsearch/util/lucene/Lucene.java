@@ -43,9 +43,23 @@ public class Lucene {
 
     public static final int NO_DOC = -1;
 
+    public static final int NO_TERMINATE_AFTER = -1;
+
     public static long count(IndexSearcher searcher, Query query, float minScore) throws IOException {
-        CountCollector countCollector = new CountCollector(minScore);
-        searcher.search(query, countCollector);
+        return count(searcher, query, minScore, NO_TERMINATE_AFTER);
+    }
+
+    /**
+     * Counts the docs matching the query, stopping once <tt>terminateAfter</tt> docs have been counted
+     * (if positive), in which case the returned count is a lower bound.
+     */
+    public static long count(IndexSearcher searcher, Query query, float minScore, int terminateAfter) throws IOException {
+        CountCollector countCollector = new CountCollector(minScore, terminateAfter);
+        try {
+            searcher.search(query, countCollector);
+        } catch (EarlyTerminationException e) {
+            // we counted enough
+        }
         return countCollector.count();
     }
 
@@ -115,29 +129,18 @@ public class Lucene {
 
             SortField[] fields = new SortField[in.readInt()];
             for (int i = 0; i < fields.length; i++) {
-                fields[i] = new SortField(in.readUTF(), in.readInt(), in.readBoolean());
+                String field = null;
+                if (in.readBoolean()) {
+                    field = in.readUTF();
+                }
+                fields[i] = new SortField(field, in.readInt(), in.readBoolean());
             }
 
             FieldDoc[] fieldDocs = new FieldDoc[in.readInt()];
             for (int i = 0; i < fieldDocs.length; i++) {
                 Comparable[] cFields = new Comparable[in.readInt()];
                 for (int j = 0; j < cFields.length; j++) {
-                    byte type = in.readByte();
-                    if (type == 0) {
-                        cFields[j] = in.readUTF();
-                    } else if (type == 1) {
-                        cFields[j] = in.readInt();
-                    } else if (type == 2) {
-                        cFields[j] = in.readLong();
-                    } else if (type == 3) {
-                        cFields[j] = in.readFloat();
-                    } else if (type == 4) {
-                        cFields[j] = in.readDouble();
-                    } else if (type == 5) {
-                        cFields[j] = in.readByte();
-                    } else {
-                        throw new IOException("Can't match type [" + type + "]");
-                    }
+                    cFields[j] = readSortValue(in);
                 }
                 fieldDocs[i] = new FieldDoc(in.readInt(), in.readFloat(), cFields);
             }
@@ -154,6 +157,62 @@ public class Lucene {
         }
     }
 
+    public static Comparable readSortValue(DataInput in) throws IOException {
+        byte type = in.readByte();
+        if (type == -1) {
+            return null;
+        } else if (type == 0) {
+            return in.readUTF();
+        } else if (type == 1) {
+            return in.readInt();
+        } else if (type == 2) {
+            return in.readLong();
+        } else if (type == 3) {
+            return in.readFloat();
+        } else if (type == 4) {
+            return in.readDouble();
+        } else if (type == 5) {
+            return in.readByte();
+        } else if (type == 6) {
+            return in.readShort();
+        } else {
+            throw new IOException("Can't match type [" + type + "]");
+        }
+    }
+
+    public static void writeSortValue(DataOutput out, Comparable field) throws IOException {
+        if (field == null) {
+            // docs with no value for a string sort field
+            out.write(-1);
+            return;
+        }
+        Class type = field.getClass();
+        if (type == String.class) {
+            out.write(0);
+            out.writeUTF((String) field);
+        } else if (type == Integer.class) {
+            out.write(1);
+            out.writeInt((Integer) field);
+        } else if (type == Long.class) {
+            out.write(2);
+            out.writeLong((Long) field);
+        } else if (type == Float.class) {
+            out.write(3);
+            out.writeFloat((Float) field);
+        } else if (type == Double.class) {
+            out.write(4);
+            out.writeDouble((Double) field);
+        } else if (type == Byte.class) {
+            out.write(5);
+            out.write((Byte) field);
+        } else if (type == Short.class) {
+            out.write(6);
+            out.writeShort((Short) field);
+        } else {
+            throw new IOException("Can't handle sort field value of type [" + type + "]");
+        }
+    }
+
     public static void writeTopDocs(DataOutput out, TopDocs topDocs, int from) throws IOException {
         if (topDocs.scoreDocs.length - from < 0) {
             out.writeBoolean(false);
@@ -169,7 +228,12 @@ public class Lucene {
 
             out.writeInt(topFieldDocs.fields.length);
             for (SortField sortField : topFieldDocs.fields) {
-                out.writeUTF(sortField.getField());
+                if (sortField.getField() == null) {
+                    out.writeBoolean(false);
+                } else {
+                    out.writeBoolean(true);
+                    out.writeUTF(sortField.getField());
+                }
                 out.writeInt(sortField.getType());
                 out.writeBoolean(sortField.getReverse());
             }
@@ -183,28 +247,7 @@ public class Lucene {
                 FieldDoc fieldDoc = (FieldDoc) doc;
                 out.writeInt(fieldDoc.fields.length);
                 for (Comparable field : fieldDoc.fields) {
-                    Class type = field.getClass();
-                    if (type == String.class) {
-                        out.write(0);
-                        out.writeUTF((String) field);
-                    } else if (type == Integer.class) {
-                        out.write(1);
-                        out.writeInt((Integer) field);
-                    } else if (type == Long.class) {
-                        out.write(2);
-                        out.writeLong((Long) field);
-                    } else if (type == Float.class) {
-                        out.write(3);
-                        out.writeFloat((Float) field);
-                    } else if (type == Double.class) {
-                        out.write(4);
-                        out.writeDouble((Double) field);
-                    } else if (type == Byte.class) {
-                        out.write(5);
-                        out.write((Byte) field);
-                    } else {
-                        throw new IOException("Can't handle sort field value of type [" + type + "]");
-                    }
+                    writeSortValue(out, field);
                 }
 
                 out.writeInt(doc.doc);
@@ -258,11 +301,20 @@ public class Lucene {
     public static class CountCollector extends Collector {
 
         private final float minScore;
+        private final int terminateAfter;
         private Scorer scorer;
         private long count;
 
         public CountCollector(float minScore) {
+            this(minScore, NO_TERMINATE_AFTER);
+        }
+
+        /**
+         * @param terminateAfter throws an {@link EarlyTerminationException} once this many docs were counted, if positive
+         */
+        public CountCollector(float minScore, int terminateAfter) {
             this.minScore = minScore;
+            this.terminateAfter = terminateAfter;
         }
 
         public long count() {
@@ -275,7 +327,9 @@ public class Lucene {
 
         @Override public void collect(int doc) throws IOException {
             if (scorer.score() > minScore) {
-                count++;
+                if (++count == terminateAfter) {
+                    throw new EarlyTerminationException(terminateAfter);
+                }
             }
         }
 
@@ -287,6 +341,65 @@ public class Lucene {
         }
     }
 
+    /**
+     * Thrown by the {@link EarlyTerminatingCollector} to stop the collection once enough docs were collected.
+     */
+    public static class EarlyTerminationException extends RuntimeException {
+
+        public EarlyTerminationException(int maxCount) {
+            super("Terminated after collecting [" + maxCount + "] docs");
+        }
+
+        @Override public synchronized Throwable fillInStackTrace() {
+            // used for flow control, no need for the stack trace
+            return null;
+        }
+    }
+
+    /**
+     * Wraps a collector, aborting the search with an {@link EarlyTerminationException} once <tt>maxCount</tt>
+     * docs have been passed to the wrapped collector.
+     */
+    public static class EarlyTerminatingCollector extends Collector {
+
+        private final Collector collector;
+
+        private final int maxCount;
+
+        private int count;
+
+        public EarlyTerminatingCollector(Collector collector, int maxCount) {
+            this.collector = collector;
+            this.maxCount = maxCount;
+        }
+
+        /**
+         * The number of docs collected.
+         */
+        public int count() {
+            return count;
+        }
+
+        @Override public void setScorer(Scorer scorer) throws IOException {
+            collector.setScorer(scorer);
+        }
+
+        @Override public void collect(int doc) throws IOException {
+            collector.collect(doc);
+            if (++count >= maxCount) {
+                throw new EarlyTerminationException(maxCount);
+            }
+        }
+
+        @Override public void setNextReader(IndexReader reader, int docBase) throws IOException {
+            collector.setNextReader(reader, docBase);
+        }
+
+        @Override public boolean acceptsDocsOutOfOrder() {
+            return collector.acceptsDocsOutOfOrder();
+        }
+    }
+
     private Lucene() {
 
     }
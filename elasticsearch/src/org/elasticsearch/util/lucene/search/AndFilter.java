@@ -0,0 +1,84 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.util.lucene.search;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.DocIdSet;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.Filter;
+import org.apache.lucene.util.OpenBitSetDISI;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A filter matching the docs that match all of the provided filters.
+ *
+ * @author kimchy (Shay Banon)
+ */
+public class AndFilter extends Filter {
+
+    private final List<? extends Filter> filters;
+
+    public AndFilter(List<? extends Filter> filters) {
+        this.filters = filters;
+    }
+
+    public List<? extends Filter> filters() {
+        return filters;
+    }
+
+    @Override public DocIdSet getDocIdSet(IndexReader reader) throws IOException {
+        OpenBitSetDISI result = null;
+        for (Filter filter : filters) {
+            DocIdSet set = filter.getDocIdSet(reader);
+            DocIdSetIterator iterator = set == null ? null : set.iterator();
+            if (iterator == null) {
+                return DocIdSet.EMPTY_DOCIDSET;
+            }
+            if (result == null) {
+                result = new OpenBitSetDISI(iterator, reader.maxDoc());
+            } else {
+                result.inPlaceAnd(iterator);
+            }
+        }
+        if (result == null) {
+            return DocIdSet.EMPTY_DOCIDSET;
+        }
+        return result;
+    }
+
+    @Override public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        AndFilter that = (AndFilter) o;
+
+        return filters.equals(that.filters);
+    }
+
+    @Override public int hashCode() {
+        return filters.hashCode();
+    }
+
+    @Override public String toString() {
+        return "AndFilter(" + filters + ")";
+    }
+}
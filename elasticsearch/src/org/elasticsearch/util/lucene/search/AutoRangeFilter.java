@@ -0,0 +1,87 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.util.lucene.search;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.DocIdSet;
+import org.apache.lucene.search.Filter;
+import org.apache.lucene.search.MultiTermQueries;
+import org.apache.lucene.search.MultiTermQuery;
+
+import java.io.IOException;
+
+/**
+ * A range filter that decides per segment if to execute using the terms (postings) of the field, or
+ * by scanning the field data (the per segment values array) of the field.
+ *
+ * <p>The number of docs the range matches is estimated from the doc freq of the terms the range query
+ * enumerates. If it crosses <tt>fieldDataRatio</tt> of the segment docs, the field data filter is used.
+ *
+ * @author kimchy (Shay Banon)
+ */
+public class AutoRangeFilter extends Filter {
+
+    private final MultiTermQuery rangeQuery;
+
+    private final Filter termsFilter;
+
+    private final Filter fieldDataFilter;
+
+    private final float fieldDataRatio;
+
+    public AutoRangeFilter(MultiTermQuery rangeQuery, Filter termsFilter, Filter fieldDataFilter, float fieldDataRatio) {
+        this.rangeQuery = rangeQuery;
+        this.termsFilter = termsFilter;
+        this.fieldDataFilter = fieldDataFilter;
+        this.fieldDataRatio = fieldDataRatio;
+    }
+
+    @Override public DocIdSet getDocIdSet(IndexReader reader) throws IOException {
+        int maxDocFreq = (int) (reader.maxDoc() * fieldDataRatio);
+        if (MultiTermQueries.docFreqSum(rangeQuery, reader, maxDocFreq) > maxDocFreq) {
+            return fieldDataFilter.getDocIdSet(reader);
+        }
+        return termsFilter.getDocIdSet(reader);
+    }
+
+    @Override public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        AutoRangeFilter that = (AutoRangeFilter) o;
+
+        if (Float.compare(that.fieldDataRatio, fieldDataRatio) != 0) return false;
+        if (!termsFilter.equals(that.termsFilter)) return false;
+        if (!fieldDataFilter.equals(that.fieldDataFilter)) return false;
+
+        return true;
+    }
+
+    @Override public int hashCode() {
+        int result = termsFilter.hashCode();
+        result = 31 * result + fieldDataFilter.hashCode();
+        result = 31 * result + Float.floatToIntBits(fieldDataRatio);
+        return result;
+    }
+
+    @Override public String toString() {
+        return "AutoRangeFilter(" + termsFilter + ", fieldDataRatio=" + fieldDataRatio + ")";
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.util.transport;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * The address of a transport running within the same JVM, identified by a unique id.
+ *
+ * @author kimchy (Shay Banon)
+ */
+public class LocalTransportAddress implements TransportAddress {
+
+    private String id;
+
+    LocalTransportAddress() {
+
+    }
+
+    public LocalTransportAddress(String id) {
+        this.id = id;
+    }
+
+    public String id() {
+        return this.id;
+    }
+
+    @Override public short uniqueAddressTypeId() {
+        return 2;
+    }
+
+    @Override public void readFrom(DataInput in) throws IOException, ClassNotFoundException {
+        id = in.readUTF();
+    }
+
+    @Override public void writeTo(DataOutput out) throws IOException {
+        out.writeUTF(id);
+    }
+
+    @Override public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        LocalTransportAddress that = (LocalTransportAddress) o;
+
+        if (id != null ? !id.equals(that.id) : that.id != null) return false;
+
+        return true;
+    }
+
+    @Override public int hashCode() {
+        return id != null ? id.hashCode() : 0;
+    }
+
+    @Override public String toString() {
+        return "local[" + id + "]";
+    }
+}
@@ -35,7 +35,7 @@ import static org.elasticsearch.util.MapBuilder.*;
  * A global registry of all different types of {@link TransportAddress} allowing
  * to perfrom serialization of them.
  * <p/>
- * <p>By defualt, adds {@link InetSocketTransportAddress}.
+ * <p>By defualt, adds {@link InetSocketTransportAddress} and {@link LocalTransportAddress}.
  *
  * @author kimchy (Shay Banon)
  */
@@ -49,8 +49,9 @@ public abstract class TransportAddressSerializers {
         try {
             addAddressType(DummyTransportAddress.INSTANCE);
             addAddressType(new InetSocketTransportAddress());
+            addAddressType(new LocalTransportAddress());
         } catch (Exception e) {
-            logger.warn("Failed to add InetSocketTransportAddress", e);
+            logger.warn("Failed to add default transport addresses", e);
         }
     }
 
@@ -20,7 +20,10 @@
 package org.elasticsearch.test.integration;
 
 import org.elasticsearch.client.Client;
+import org.elasticsearch.cluster.ClusterService;
+import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.server.Server;
+import org.elasticsearch.server.internal.InternalServer;
 import org.elasticsearch.util.logging.Loggers;
 import org.elasticsearch.util.settings.Settings;
 import org.slf4j.Logger;
@@ -86,6 +89,10 @@ public abstract class AbstractServersTests {
         return clients.get(id);
     }
 
+    public <T> T instance(String id, Class<T> type) {
+        return ((InternalServer) servers.get(id)).injector().getInstance(type);
+    }
+
     public void closeAllServers() {
         for (Client client : clients.values()) {
             client.close();
@@ -96,4 +103,28 @@ public abstract class AbstractServersTests {
         }
         servers.clear();
     }
+
+    /**
+     * Waits until the given number of shards of the index are started, as seen by the cluster state
+     * of the given server. Returns <tt>false</tt> if they did not start within the timeout.
+     */
+    public boolean awaitStartedShards(String id, String index, int count, long timeoutMillis) throws InterruptedException {
+        ClusterService clusterService = instance(id, ClusterService.class);
+        long timeout = System.currentTimeMillis() + timeoutMillis;
+        while (System.currentTimeMillis() < timeout) {
+            if (clusterService.state().routingTable().hasIndex(index)) {
+                int started = 0;
+                for (ShardRouting shard : clusterService.state().routingTable().allShards(index)) {
+                    if (shard.started()) {
+                        started++;
+                    }
+                }
+                if (started >= count) {
+                    return true;
+                }
+            }
+            Thread.sleep(50);
+        }
+        return false;
+    }
 }
\ No newline at end of file
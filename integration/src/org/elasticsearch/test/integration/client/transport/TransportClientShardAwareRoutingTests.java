@@ -0,0 +1,161 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.test.integration.client.transport;
+
+import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.client.transport.TransportClient;
+import org.elasticsearch.client.transport.TransportClientNodesService;
+import org.elasticsearch.cluster.ClusterService;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.node.Node;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.index.routing.OperationRouting;
+import org.elasticsearch.indices.IndicesService;
+import org.elasticsearch.test.integration.AbstractServersTests;
+import org.elasticsearch.transport.TransportService;
+import org.elasticsearch.util.transport.TransportAddress;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.elasticsearch.client.Requests.*;
+import static org.elasticsearch.util.settings.ImmutableSettings.*;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author kimchy (Shay Banon)
+ */
+public class TransportClientShardAwareRoutingTests extends AbstractServersTests {
+
+    private TransportClient client;
+
+    private TransportClientNodesService nodesService;
+
+    @BeforeClass public void createServers() throws Exception {
+        startServer("server1");
+        startServer("server2");
+        client("server1").admin().indices().create(createIndexRequest("test").settings(settingsBuilder()
+                .put("index.numberOfShards", "4")
+                .put("index.numberOfReplicas", "0").build())).actionGet();
+        assertThat(awaitStartedShards("server1", "test", 4, 10000), equalTo(true));
+
+        // only sample the cluster state when the nodes change, so it is not refreshed behind the test back
+        client = new TransportClient(settingsBuilder()
+                .put("name", "client")
+                .put("transport.type", "local")
+                .put("client.transport.shardAwareRouting", "true")
+                .put("client.transport.routingStateInterval", "60m")
+                .put("client.transport.nodesSamplerInterval", "200ms")
+                .build(), false);
+        client.addTransportAddress(address("server1"));
+        client.addTransportAddress(address("server2"));
+        nodesService = client.nodesService();
+        for (int i = 0; i < 100 && (nodesService.routingState() == null || nodesService.routingState().metaData().index("test") == null); i++) {
+            Thread.sleep(100);
+        }
+        assertThat(nodesService.routingState().metaData().index("test"), notNullValue());
+    }
+
+    @AfterClass public void closeServers() {
+        if (client != null) {
+            client.close();
+        }
+        closeAllServers();
+    }
+
+    @Test public void testRoutesToPrimaryShardNode() throws Exception {
+        ClusterState state = instance("server1", ClusterService.class).state();
+        OperationRouting operationRouting = instance("server1", IndicesService.class).indexServiceSafe("test").operationRouting();
+        Set<String> usedNodes = new HashSet<String>();
+        for (int i = 0; i < 50; i++) {
+            String id = Integer.toString(i);
+            Node node = nodesService.primaryShardNode("test", "type1", id);
+            assertThat(node.id(), equalTo(primaryNodeId(operationRouting, state, id)));
+            usedNodes.add(node.id());
+
+            client.index(indexRequest("test").type("type1").id(id).source("{\"value\":\"test" + i + "\"}")).actionGet();
+        }
+        // the shards are spread over both nodes
+        assertThat(usedNodes.size(), equalTo(2));
+
+        client.admin().indices().refresh(refreshRequest("test")).actionGet();
+        for (int i = 0; i < 50; i++) {
+            GetResponse getResponse = client.get(getRequest("test").type("type1").id(Integer.toString(i))).actionGet();
+            assertThat(getResponse.source(), notNullValue());
+        }
+    }
+
+    @Test public void testUnknownIndexUsesRandomNode() throws Exception {
+        assertThat(nodesService.primaryShardNode("no_such_index", "type1", "1"), notNullValue());
+        assertThat(nodesService.anyShardNode("no_such_index", "type1", "1"), notNullValue());
+    }
+
+    @Test(dependsOnMethods = {"testRoutesToPrimaryShardNode", "testUnknownIndexUsesRandomNode"})
+    public void testStaleRoutingStateFallsBackToAliveNodes() throws Exception {
+        String server1NodeId = instance("server1", ClusterService.class).state().nodes().localNodeId();
+        String server2NodeId = instance("server2", ClusterService.class).state().nodes().localNodeId();
+        ClusterState state = instance("server1", ClusterService.class).state();
+        OperationRouting operationRouting = instance("server1", IndicesService.class).indexServiceSafe("test").operationRouting();
+
+        closeServer("server2");
+        for (int i = 0; i < 100 && connected(server2NodeId); i++) {
+            Thread.sleep(100);
+        }
+        assertThat(connected(server2NodeId), equalTo(false));
+
+        // whether the routing state was refreshed yet or not, nothing is routed to the node that went away
+        int staleIds = 0;
+        for (int i = 0; i < 50; i++) {
+            String id = Integer.toString(i);
+            if (primaryNodeId(operationRouting, state, id).equals(server2NodeId)) {
+                staleIds++;
+            }
+            assertThat(nodesService.primaryShardNode("test", "type1", id).id(), equalTo(server1NodeId));
+            assertThat(nodesService.anyShardNode("test", "type1", id).id(), equalTo(server1NodeId));
+        }
+        assertThat(staleIds, greaterThan(0));
+    }
+
+    private boolean connected(String nodeId) {
+        for (Node node : client.connectedNodes()) {
+            if (node.id().equals(nodeId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String primaryNodeId(OperationRouting operationRouting, ClusterState state, String id) {
+        for (ShardRouting shard : operationRouting.indexShards(state, "type1", id)) {
+            if (shard.primary()) {
+                return shard.currentNodeId();
+            }
+        }
+        throw new IllegalStateException("No primary shard for [" + id + "]");
+    }
+
+    private TransportAddress address(String id) {
+        return instance(id, TransportService.class).boundAddress().publishAddress();
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.test.integration.discovery.zen;
+
+import org.elasticsearch.cluster.ClusterService;
+import org.elasticsearch.cluster.node.Nodes;
+import org.elasticsearch.test.integration.AbstractServersTests;
+import org.elasticsearch.transport.TransportService;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import static org.elasticsearch.client.Requests.*;
+import static org.elasticsearch.util.settings.ImmutableSettings.*;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Runs several servers using zen discovery over the netty transport, with short fault detection
+ * intervals so failures are detected quickly (see <tt>SimpleZenDiscoveryTests.yml</tt>). A server is "killed" by stopping its transport, so
+ * it does not get to tell the other nodes it is going away.
+ *
+ * @author kimchy (Shay Banon)
+ */
+public class SimpleZenDiscoveryTests extends AbstractServersTests {
+
+    @AfterMethod public void closeServers() {
+        closeAllServers();
+    }
+
+    @Test public void testJoinAndPublish() throws Exception {
+        startServers("server1", "server2", "server3");
+        String masterId = awaitMaster(3, "server1", "server2", "server3");
+
+        // the master publishes the new index to the other nodes
+        client("server2").admin().indices().create(createIndexRequest("test").settings(settingsBuilder()
+                .put("index.numberOfShards", "3")
+                .put("index.numberOfReplicas", "0").build())).actionGet();
+        for (String id : new String[]{"server1", "server2", "server3"}) {
+            assertThat(awaitStartedShards(id, "test", 3, 10000), equalTo(true));
+        }
+        assertThat(masterNodeName("server1"), equalTo(masterId));
+        assertThat(masterNodeName("server3"), equalTo(masterId));
+    }
+
+    @Test public void testMasterFailover() throws Exception {
+        startServers("server1", "server2", "server3");
+        String masterId = awaitMaster(3, "server1", "server2", "server3");
+
+        kill(masterId);
+        String[] remaining = others(masterId, "server1", "server2", "server3");
+        String newMasterId = awaitMaster(2, remaining);
+        assertThat(newMasterId, not(equalTo(masterId)));
+        for (String id : remaining) {
+            assertThat(instance(id, ClusterService.class).state().nodes().size(), equalTo(2));
+        }
+    }
+
+    @Test public void testNodeFailure() throws Exception {
+        startServers("server1", "server2", "server3");
+        String masterId = awaitMaster(3, "server1", "server2", "server3");
+
+        String nodeId = others(masterId, "server1", "server2", "server3")[0];
+        kill(nodeId);
+        // the master removes the node, and publishes the new cluster state to the remaining node
+        String[] remaining = others(nodeId, "server1", "server2", "server3");
+        assertThat(awaitMaster(2, remaining), equalTo(masterId));
+    }
+
+    private void startServers(String... ids) {
+        for (String id : ids) {
+            startServer(id);
+        }
+    }
+
+    private void kill(String id) {
+        instance(id, TransportService.class).stop();
+    }
+
+    private String[] others(String id, String... ids) {
+        String[] others = new String[ids.length - 1];
+        int i = 0;
+        for (String other : ids) {
+            if (!other.equals(id)) {
+                others[i++] = other;
+            }
+        }
+        return others;
+    }
+
+    private String masterNodeName(String id) {
+        Nodes nodes = instance(id, ClusterService.class).state().nodes();
+        return nodes.masterNode() == null ? null : nodes.masterNode().name();
+    }
+
+    /**
+     * Waits until all the given servers see the same master, and the given number of nodes. Returns the
+     * name of the master.
+     */
+    private String awaitMaster(int numberOfNodes, String... ids) throws InterruptedException {
+        long timeout = System.currentTimeMillis() + 20000;
+        while (System.currentTimeMillis() < timeout) {
+            String masterId = masterNodeName(ids[0]);
+            boolean agreed = masterId != null;
+            for (String id : ids) {
+                if (!agreed) {
+                    break;
+                }
+                agreed = masterId.equals(masterNodeName(id)) && instance(id, ClusterService.class).state().nodes().size() == numberOfNodes;
+            }
+            if (agreed) {
+                return masterId;
+            }
+            Thread.sleep(50);
+        }
+        assertThat("Servers did not agree on a master with [" + numberOfNodes + "] nodes", false, equalTo(true));
+        return null;
+    }
+}
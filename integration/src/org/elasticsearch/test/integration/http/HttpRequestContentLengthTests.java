@@ -0,0 +1,103 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.test.integration.http;
+
+import org.elasticsearch.http.HttpServerTransport;
+import org.elasticsearch.test.integration.AbstractServersTests;
+import org.elasticsearch.util.transport.InetSocketTransportAddress;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.zip.GZIPOutputStream;
+
+import static org.elasticsearch.client.Requests.*;
+import static org.elasticsearch.util.settings.ImmutableSettings.*;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author kimchy (Shay Banon)
+ */
+public class HttpRequestContentLengthTests extends AbstractServersTests {
+
+    private InetSocketAddress httpAddress;
+
+    @BeforeClass public void createServers() throws Exception {
+        startServer("server1", settingsBuilder()
+                .put("http.enabled", "true")
+                .put("http.netty.maxContentLength", "64k").build());
+        client("server1").admin().indices().create(createIndexRequest("test").settings(settingsBuilder()
+                .put("index.numberOfShards", "1")
+                .put("index.numberOfReplicas", "0").build())).actionGet();
+        assertThat(awaitStartedShards("server1", "test", 1, 10000), equalTo(true));
+        httpAddress = ((InetSocketTransportAddress) instance("server1", HttpServerTransport.class).boundAddress().boundAddress()).address();
+    }
+
+    @AfterClass public void closeServers() {
+        closeAllServers();
+    }
+
+    @Test public void testCompressedContent() throws Exception {
+        assertThat(post(gzip(query(0)), "gzip"), equalTo(200));
+    }
+
+    @Test public void testCompressedContentTooLong() throws Exception {
+        // less than a kb compressed, more than the max content length once inflated
+        byte[] content = gzip(query(128 * 1024));
+        assertThat(content.length, lessThan(1024));
+        assertThat(post(content, "gzip"), equalTo(413));
+    }
+
+    private byte[] query(int padding) throws Exception {
+        StringBuilder sb = new StringBuilder("{\"query\":{\"matchAll\":{}}");
+        for (int i = 0; i < padding; i++) {
+            sb.append(' ');
+        }
+        return sb.append('}').toString().getBytes("UTF-8");
+    }
+
+    private byte[] gzip(byte[] content) throws Exception {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        GZIPOutputStream out = new GZIPOutputStream(bos);
+        out.write(content);
+        out.close();
+        return bos.toByteArray();
+    }
+
+    private int post(byte[] content, String contentEncoding) throws Exception {
+        URL url = new URL("http", httpAddress.getAddress().getHostAddress(), httpAddress.getPort(), "/test/_search");
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        if (contentEncoding != null) {
+            connection.setRequestProperty("Content-Encoding", contentEncoding);
+        }
+        OutputStream out = connection.getOutputStream();
+        out.write(content);
+        out.close();
+        return connection.getResponseCode();
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.test.integration.http;
+
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.http.HttpServerTransport;
+import org.elasticsearch.test.integration.AbstractServersTests;
+import org.elasticsearch.util.io.Streams;
+import org.elasticsearch.util.transport.InetSocketTransportAddress;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.zip.GZIPInputStream;
+
+import static org.elasticsearch.client.Requests.*;
+import static org.elasticsearch.util.settings.ImmutableSettings.*;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author kimchy (Shay Banon)
+ */
+public class HttpSearchStreamTests extends AbstractServersTests {
+
+    private static final int NUMBER_OF_DOCS = 200;
+
+    private InetSocketAddress httpAddress;
+
+    @BeforeClass public void createServers() throws Exception {
+        startServer("server1", settingsBuilder().put("http.enabled", "true").build());
+        Client client = client("server1");
+        client.admin().indices().create(createIndexRequest("test").settings(settingsBuilder()
+                .put("index.numberOfShards", "2")
+                .put("index.numberOfReplicas", "0").build())).actionGet();
+        assertThat(awaitStartedShards("server1", "test", 2, 10000), equalTo(true));
+
+        // big enough for the response to be sent in several chunks
+        for (int i = 0; i < NUMBER_OF_DOCS; i++) {
+            client.index(indexRequest("test").type("type1").id(Integer.toString(i))
+                    .source("{\"value\":\"test\",\"text\":\"some text to make the response larger " + i + "\"}")).actionGet();
+        }
+        client.admin().indices().refresh(refreshRequest("test")).actionGet();
+
+        httpAddress = ((InetSocketTransportAddress) instance("server1", HttpServerTransport.class).boundAddress().boundAddress()).address();
+    }
+
+    @AfterClass public void closeServers() {
+        closeAllServers();
+    }
+
+    @Test public void testStreamedResponseIsChunked() throws Exception {
+        HttpURLConnection connection = open("/test/_search?q=value:test&size=" + NUMBER_OF_DOCS + "&stream=true");
+        assertThat(connection.getResponseCode(), equalTo(200));
+        assertThat(connection.getHeaderField("Transfer-Encoding"), equalTo("chunked"));
+        assertThat(connection.getHeaderField("Content-Length"), nullValue());
+
+        JsonNode json = readJson(connection);
+        assertThat(json.get("hits").get("total").getIntValue(), equalTo(NUMBER_OF_DOCS));
+        assertThat(json.get("hits").get("hits").size(), equalTo(NUMBER_OF_DOCS));
+    }
+
+    @Test public void testStreamedJsonp() throws Exception {
+        HttpURLConnection connection = open("/test/_search?q=value:test&stream=true&callback=cb");
+        assertThat(connection.getResponseCode(), equalTo(200));
+        assertThat(connection.getHeaderField("Transfer-Encoding"), equalTo("chunked"));
+
+        String content = Streams.copyToString(new InputStreamReader(connection.getInputStream(), "UTF-8"));
+        assertThat(content, startsWith("cb("));
+        assertThat(content, endsWith(");"));
+        JsonNode json = new ObjectMapper().readTree(content.substring("cb(".length(), content.length() - ");".length()));
+        assertThat(json.get("hits").get("total").getIntValue(), equalTo(NUMBER_OF_DOCS));
+    }
+
+    @Test public void testStreamedCompressedResponse() throws Exception {
+        HttpURLConnection connection = open("/test/_search?q=value:test&size=" + NUMBER_OF_DOCS + "&stream=true");
+        connection.setRequestProperty("Accept-Encoding", "gzip");
+        assertThat(connection.getResponseCode(), equalTo(200));
+        assertThat(connection.getHeaderField("Transfer-Encoding"), equalTo("chunked"));
+        assertThat(connection.getHeaderField("Content-Encoding"), equalTo("gzip"));
+
+        InputStream is = new GZIPInputStream(connection.getInputStream());
+        try {
+            JsonNode json = new ObjectMapper().readTree(is);
+            assertThat(json.get("hits").get("hits").size(), equalTo(NUMBER_OF_DOCS));
+        } finally {
+            is.close();
+        }
+    }
+
+    @Test public void testNotStreamedResponse() throws Exception {
+        HttpURLConnection connection = open("/test/_search?q=value:test&size=" + NUMBER_OF_DOCS);
+        assertThat(connection.getResponseCode(), equalTo(200));
+        assertThat(connection.getHeaderField("Transfer-Encoding"), nullValue());
+        assertThat(connection.getHeaderField("Content-Length"), notNullValue());
+
+        JsonNode json = readJson(connection);
+        assertThat(json.get("hits").get("hits").size(), equalTo(NUMBER_OF_DOCS));
+    }
+
+    private HttpURLConnection open(String path) throws Exception {
+        URL url = new URL("http", httpAddress.getAddress().getHostAddress(), httpAddress.getPort(), path);
+        return (HttpURLConnection) url.openConnection();
+    }
+
+    private JsonNode readJson(HttpURLConnection connection) throws Exception {
+        try {
+            return new ObjectMapper().readTree(connection.getInputStream());
+        } finally {
+            connection.getInputStream().close();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.test.integration.replication;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.index.IndexResponse;
+import org.elasticsearch.action.support.replication.ReplicationType;
+import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.indices.IndicesService;
+import org.elasticsearch.test.integration.AbstractServersTests;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.elasticsearch.client.Requests.*;
+import static org.elasticsearch.util.settings.ImmutableSettings.*;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author kimchy (Shay Banon)
+ */
+public class SimpleReplicationTests extends AbstractServersTests {
+
+    private String primaryServer;
+
+    private String backupServer;
+
+    @BeforeMethod public void startServers() throws Exception {
+        startServer("server1");
+        client("server1").admin().indices().create(createIndexRequest("test").settings(settingsBuilder()
+                .put("index.numberOfShards", "1")
+                .put("index.numberOfReplicas", "1").build())).actionGet();
+        startServer("server2");
+        assertThat(awaitStartedShards("server1", "test", 2, 10000), equalTo(true));
+        assertThat(awaitStartedShards("server2", "test", 2, 10000), equalTo(true));
+
+        if (shard("server1").routingEntry().primary()) {
+            primaryServer = "server1";
+            backupServer = "server2";
+        } else {
+            primaryServer = "server2";
+            backupServer = "server1";
+        }
+    }
+
+    @AfterMethod public void closeServers() {
+        closeAllServers();
+    }
+
+    @Test public void testSyncReplication() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            client(primaryServer).index(indexRequest("test").type("type1").id(Integer.toString(i)).source(source(i))
+                    .replicationType(ReplicationType.SYNC)).actionGet();
+            // the backup has the operation once the response is sent
+            assertThat(backupGet(Integer.toString(i)), equalTo(source(i)));
+        }
+    }
+
+    @Test public void testAsyncReplication() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            client(primaryServer).index(indexRequest("test").type("type1").id(Integer.toString(i)).source(source(i))
+                    .replicationType(ReplicationType.ASYNC)).actionGet();
+        }
+        for (int i = 0; i < 10; i++) {
+            String id = Integer.toString(i);
+            for (int j = 0; j < 100 && backupGet(id) == null; j++) {
+                Thread.sleep(50);
+            }
+            assertThat(backupGet(id), equalTo(source(i)));
+        }
+    }
+
+    @Test public void testBackupOperationsInOrder() throws Exception {
+        // fire async index operations on the same document without waiting, they are queued for the backup
+        final CountDownLatch latch = new CountDownLatch(200);
+        for (int i = 0; i < 200; i++) {
+            final String source = source(i);
+            client(primaryServer).execIndex(indexRequest("test").type("type1").id("1").source(source)
+                    .replicationType(ReplicationType.ASYNC).operationThreaded(false), new ActionListener<IndexResponse>() {
+                @Override public void onResponse(IndexResponse response) {
+                    latch.countDown();
+                }
+
+                @Override public void onFailure(Throwable e) {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        // a sync operation on the same shard is sent after all the queued ones
+        client(primaryServer).index(indexRequest("test").type("type1").id("2").source(source(0))
+                .replicationType(ReplicationType.SYNC)).actionGet();
+
+        assertThat(primaryGet("1"), equalTo(source(199)));
+        assertThat(backupGet("1"), equalTo(source(199)));
+    }
+
+    @Test public void testFailedBackupShard() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            client(primaryServer).index(indexRequest("test").type("type1").id(Integer.toString(i)).source(source(i))
+                    .replicationType(ReplicationType.ASYNC)).actionGet();
+        }
+        closeServer(backupServer);
+
+        // operations still succeed on the primary once the backup is gone
+        for (int i = 20; i < 40; i++) {
+            client(primaryServer).index(indexRequest("test").type("type1").id(Integer.toString(i)).source(source(i))
+                    .replicationType(ReplicationType.SYNC)).actionGet();
+        }
+        for (int i = 0; i < 40; i++) {
+            assertThat(primaryGet(Integer.toString(i)), equalTo(source(i)));
+        }
+    }
+
+    private String source(int value) {
+        return "{\"value\":" + value + "}";
+    }
+
+    private IndexShard shard(String server) {
+        return instance(server, IndicesService.class).indexServiceSafe("test").shardSafe(0);
+    }
+
+    private String primaryGet(String id) {
+        IndexShard shard = shard(primaryServer);
+        shard.refresh(true);
+        return shard.get("type1", id);
+    }
+
+    private String backupGet(String id) {
+        IndexShard shard = shard(backupServer);
+        shard.refresh(true);
+        return shard.get("type1", id);
+    }
+}
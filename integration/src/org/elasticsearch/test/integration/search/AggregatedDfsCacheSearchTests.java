@@ -0,0 +1,138 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.test.integration.search;
+
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchType;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.test.integration.AbstractServersTests;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.elasticsearch.client.Requests.*;
+import static org.elasticsearch.index.query.json.JsonQueryBuilders.*;
+import static org.elasticsearch.search.builder.SearchSourceBuilder.*;
+import static org.elasticsearch.util.settings.ImmutableSettings.*;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author kimchy (Shay Banon)
+ */
+public class AggregatedDfsCacheSearchTests extends AbstractServersTests {
+
+    private Client client;
+
+    @BeforeClass public void createServers() throws Exception {
+        startServer("server1");
+        startServer("server2");
+        client = client("server1");
+        client.admin().indices().create(createIndexRequest("test").settings(settingsBuilder()
+                .put("index.numberOfShards", "2")
+                .put("index.numberOfReplicas", "0").build())).actionGet();
+        assertThat(awaitStartedShards("server1", "test", 2, 10000), equalTo(true));
+
+        for (int i = 0; i < 20; i++) {
+            // the term frequencies differ between the shards, so the scores depend on the aggregated dfs
+            String name = i % 3 == 0 ? "foo bar" : "foo";
+            client.index(indexRequest("test").type("type1").id(Integer.toString(i)).source("{\"name\":\"" + name + "\"}")).actionGet();
+        }
+        client.admin().indices().refresh(refreshRequest("test")).actionGet();
+    }
+
+    @AfterClass public void closeServers() {
+        closeAllServers();
+    }
+
+    @Test public void testRepeatedDfsQueryThenFetchSkipsDfs() throws Exception {
+        assertRepeatedSearchSkipsDfs(SearchType.DFS_QUERY_THEN_FETCH, searchSource().query(queryString("name:foo name:bar")).explain(true));
+    }
+
+    @Test public void testRepeatedDfsQueryAndFetchSkipsDfs() throws Exception {
+        assertRepeatedSearchSkipsDfs(SearchType.DFS_QUERY_AND_FETCH, searchSource().query(queryString("name:bar name:foo")).size(20).explain(true));
+    }
+
+    @Test public void testCachedTermsSkipDfs() throws Exception {
+        SearchResponse response = client.search(searchRequest("test").searchType(SearchType.DFS_QUERY_THEN_FETCH).source(searchSource().query(queryString("name:foo name:bar")))).actionGet();
+        assertThat(response.successfulShards(), equalTo(2));
+
+        // a different query, but its terms all have cached doc freqs
+        long dfsBefore = dfsTotal();
+        response = client.search(searchRequest("test").searchType(SearchType.DFS_QUERY_THEN_FETCH).source(searchSource().query(termQuery("name", "bar")))).actionGet();
+        assertThat(dfsTotal(), equalTo(dfsBefore));
+        assertThat(response.successfulShards(), equalTo(2));
+        assertThat(response.hits().totalHits(), equalTo(7l));
+    }
+
+    @Test public void testCachedDfsMissingRewrittenTerm() throws Exception {
+        SearchSourceBuilder source = searchSource().query(queryString("name:baz~0.6")).size(20);
+        SearchResponse response = client.search(searchRequest("test").searchType(SearchType.DFS_QUERY_THEN_FETCH).source(source)).actionGet();
+        assertThat(response.successfulShards(), equalTo(2));
+        assertThat(response.hits().totalHits(), equalTo(7l));
+
+        // the fuzzy query now also rewrites to a term the cached dfs does not have
+        client.index(indexRequest("test").type("type1").id("100").source("{\"name\":\"baz\"}")).actionGet();
+        client.admin().indices().refresh(refreshRequest("test")).actionGet();
+
+        // the shard holding the new doc has a new reader, so the search goes through the dfs phase again
+        long dfsBefore = dfsTotal();
+        response = client.search(searchRequest("test").searchType(SearchType.DFS_QUERY_THEN_FETCH).source(source)).actionGet();
+        assertThat(dfsTotal(), equalTo(dfsBefore + 2));
+        assertThat(response.successfulShards(), equalTo(2));
+        assertThat(response.hits().totalHits(), equalTo(8l));
+
+        response = client.search(searchRequest("test").searchType(SearchType.DFS_QUERY_THEN_FETCH).source(source)).actionGet();
+        assertThat(dfsTotal(), equalTo(dfsBefore + 2));
+        assertThat(response.successfulShards(), equalTo(2));
+        assertThat(response.hits().totalHits(), equalTo(8l));
+    }
+
+    private void assertRepeatedSearchSkipsDfs(SearchType searchType, SearchSourceBuilder source) throws Exception {
+        SearchResponse first = client.search(searchRequest("test").searchType(searchType).source(source)).actionGet();
+        assertThat(first.successfulShards(), equalTo(2));
+        long dfsAfterFirst = dfsTotal();
+        long queryAfterFirst = queryTotal();
+
+        SearchResponse second = client.search(searchRequest("test").searchType(searchType).source(source)).actionGet();
+        assertThat(second.successfulShards(), equalTo(2));
+        assertThat(dfsTotal(), equalTo(dfsAfterFirst));
+        assertThat(queryTotal(), equalTo(queryAfterFirst + 2));
+
+        SearchHit[] firstHits = first.hits().hits();
+        SearchHit[] secondHits = second.hits().hits();
+        assertThat(secondHits.length, equalTo(firstHits.length));
+        for (int i = 0; i < firstHits.length; i++) {
+            assertThat(secondHits[i].id(), equalTo(firstHits[i].id()));
+            assertThat(secondHits[i].explanation().getValue(), equalTo(firstHits[i].explanation().getValue()));
+        }
+    }
+
+    private long dfsTotal() {
+        return client.admin().indices().status(indicesStatus("test")).actionGet().index("test").searchStats().dfs().total();
+    }
+
+    private long queryTotal() {
+        return client.admin().indices().status(indicesStatus("test")).actionGet().index("test").searchStats().query().total();
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.test.integration.search;
+
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchType;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.index.mapper.MapperService;
+import org.elasticsearch.indices.IndicesService;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.test.integration.AbstractServersTests;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.elasticsearch.client.Requests.*;
+import static org.elasticsearch.index.query.json.JsonQueryBuilders.*;
+import static org.elasticsearch.search.builder.SearchSourceBuilder.*;
+import static org.elasticsearch.util.settings.ImmutableSettings.*;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author kimchy (Shay Banon)
+ */
+public class FetchPhaseTests extends AbstractServersTests {
+
+    private static final int NUMBER_OF_DOCS = 20;
+
+    private Client client;
+
+    @BeforeClass public void createServers() throws Exception {
+        startServer("server1");
+        client = client("server1");
+        client.admin().indices().create(createIndexRequest("test").settings(settingsBuilder()
+                .put("index.numberOfShards", "1")
+                .put("index.numberOfReplicas", "0")
+                .put("index.merge.policy.mergeFactor", "1000").build())).actionGet();
+        assertThat(awaitStartedShards("server1", "test", 1, 10000), equalTo(true));
+        client.admin().indices().createMapping(createMappingRequest("test").mappingType("type1")
+                .mappingSource("{type1:{properties:{name:{type:\"string\",store:\"yes\"},content:{type:\"string\"}}}}")).actionGet();
+        // the mapping gets to the shard with the cluster state, wait for it so the first doc is not mapped dynamically
+        MapperService mapperService = instance("server1", IndicesService.class).indexServiceSafe("test").mapperService();
+        for (int i = 0; i < 100 && !mapperService.hasMapping("type1"); i++) {
+            Thread.sleep(100);
+        }
+        assertThat(mapperService.hasMapping("type1"), equalTo(true));
+
+        // docs indexed later have more "foo" terms (and the same length), so the score order is the reverse of
+        // the doc id order, spread over several segments
+        for (int i = 0; i < NUMBER_OF_DOCS; i++) {
+            StringBuilder content = new StringBuilder();
+            for (int j = 0; j < NUMBER_OF_DOCS; j++) {
+                content.append(j <= i ? "foo " : "bar ");
+            }
+            client.index(indexRequest("test").type("type1").id(Integer.toString(i))
+                    .source("{\"name\":\"name" + i + "\",\"content\":\"" + content + "\"}")).actionGet();
+            if (i % 5 == 4) {
+                client.admin().indices().refresh(refreshRequest("test")).actionGet();
+            }
+        }
+    }
+
+    @AfterClass public void closeServers() {
+        closeAllServers();
+    }
+
+    @Test public void testHitsInScoreOrder() throws Exception {
+        SearchResponse response = client.search(searchRequest("test").searchType(SearchType.QUERY_THEN_FETCH)
+                .source(searchSource().query(termQuery("content", "foo")).size(NUMBER_OF_DOCS))).actionGet();
+        assertThat(response.hits().totalHits(), equalTo((long) NUMBER_OF_DOCS));
+        SearchHit[] hits = response.hits().hits();
+        assertThat(hits.length, equalTo(NUMBER_OF_DOCS));
+        for (int i = 0; i < hits.length; i++) {
+            String id = Integer.toString(NUMBER_OF_DOCS - 1 - i);
+            assertThat(hits[i].id(), equalTo(id));
+            assertThat(hits[i].type(), equalTo("type1"));
+            assertThat(hits[i].source(), containsString("\"name" + id + "\""));
+            // only the uid and the source are loaded by default
+            assertThat(hits[i].fields(), nullValue());
+            if (i > 0) {
+                assertThat((Float) hits[i].sortValues()[0], lessThan((Float) hits[i - 1].sortValues()[0]));
+            }
+        }
+    }
+
+    @Test public void testSelectedFieldsInScoreOrder() throws Exception {
+        SearchResponse response = client.search(searchRequest("test").searchType(SearchType.QUERY_THEN_FETCH)
+                .source(searchSource().query(termQuery("content", "foo")).size(NUMBER_OF_DOCS).field("name"))).actionGet();
+        SearchHit[] hits = response.hits().hits();
+        assertThat(hits.length, equalTo(NUMBER_OF_DOCS));
+        for (int i = 0; i < hits.length; i++) {
+            String id = Integer.toString(NUMBER_OF_DOCS - 1 - i);
+            assertThat(hits[i].id(), equalTo(id));
+            assertThat(hits[i].source(), nullValue());
+            assertThat(hits[i].fields().size(), equalTo(1));
+            assertThat(hits[i].fields().get("name").values().get(0).toString(), equalTo("name" + id));
+        }
+    }
+}
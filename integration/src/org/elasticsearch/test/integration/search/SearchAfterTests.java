@@ -0,0 +1,97 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.test.integration.search;
+
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchType;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.test.integration.AbstractServersTests;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.elasticsearch.client.Requests.*;
+import static org.elasticsearch.index.query.json.JsonQueryBuilders.*;
+import static org.elasticsearch.search.builder.SearchSourceBuilder.*;
+import static org.elasticsearch.util.settings.ImmutableSettings.*;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author kimchy (Shay Banon)
+ */
+public class SearchAfterTests extends AbstractServersTests {
+
+    private Client client;
+
+    @BeforeClass public void createServers() throws Exception {
+        startServer("server1");
+        client = client("server1");
+        client.admin().indices().create(createIndexRequest("test").settings(settingsBuilder()
+                .put("index.numberOfShards", "3")
+                .put("index.numberOfReplicas", "0").build())).actionGet();
+        assertThat(awaitStartedShards("server1", "test", 3, 10000), equalTo(true));
+
+        for (int i = 0; i < 40; i++) {
+            client.index(indexRequest("test").type("type1").id(Integer.toString(i)).source("{\"group\":" + (i % 4) + "}")).actionGet();
+        }
+        client.admin().indices().refresh(refreshRequest("test")).actionGet();
+    }
+
+    @AfterClass public void closeServers() {
+        closeAllServers();
+    }
+
+    @Test public void testPagingThroughEqualScores() throws Exception {
+        pageThroughAll(searchSource().query(matchAllQuery()));
+    }
+
+    @Test public void testPagingThroughEqualSortValues() throws Exception {
+        pageThroughAll(searchSource().query(matchAllQuery()).sort("group"));
+    }
+
+    private void pageThroughAll(SearchSourceBuilder source) throws Exception {
+        Set<String> ids = new HashSet<String>();
+        Object[] searchAfter = null;
+        int pages = 0;
+        while (true) {
+            source.size(7).searchAfter(searchAfter);
+            SearchResponse response = client.search(searchRequest("test").searchType(SearchType.QUERY_THEN_FETCH).source(source)).actionGet();
+            assertThat(response.successfulShards(), equalTo(3));
+            assertThat(response.hits().totalHits(), equalTo(40l));
+            SearchHit[] hits = response.hits().hits();
+            if (hits.length == 0) {
+                break;
+            }
+            for (SearchHit hit : hits) {
+                assertThat("duplicate hit [" + hit.id() + "]", ids.add(hit.id()), equalTo(true));
+            }
+            searchAfter = hits[hits.length - 1].sortValues();
+            pages++;
+        }
+        assertThat(ids.size(), equalTo(40));
+        assertThat(pages, equalTo(6));
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.test.integration.search;
+
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchType;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.test.integration.AbstractServersTests;
+import org.elasticsearch.util.json.JsonBuilder;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.elasticsearch.client.Requests.*;
+import static org.elasticsearch.index.query.json.JsonQueryBuilders.*;
+import static org.elasticsearch.search.builder.SearchSourceBuilder.*;
+import static org.elasticsearch.util.settings.ImmutableSettings.*;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author kimchy (Shay Banon)
+ */
+public class TerminateAfterTests extends AbstractServersTests {
+
+    private Client client;
+
+    @BeforeClass public void createServers() throws Exception {
+        startServer("server1");
+        client = client("server1");
+        client.admin().indices().create(createIndexRequest("test").settings(settingsBuilder()
+                .put("index.numberOfShards", "1")
+                .put("index.numberOfReplicas", "0").build())).actionGet();
+        assertThat(awaitStartedShards("server1", "test", 1, 10000), equalTo(true));
+
+        for (int i = 0; i < 20; i++) {
+            client.index(indexRequest("test").type("type1").id(Integer.toString(i)).source("{\"value\":\"test\"}")).actionGet();
+        }
+        client.admin().indices().refresh(refreshRequest("test")).actionGet();
+    }
+
+    @AfterClass public void closeServers() {
+        closeAllServers();
+    }
+
+    @Test public void testTerminatedEarly() throws Exception {
+        SearchResponse response = client.search(searchRequest("test").searchType(SearchType.QUERY_THEN_FETCH)
+                .source(searchSource().query(termQuery("value", "test")).terminateAfter(5))).actionGet();
+        assertThat(response.successfulShards(), equalTo(1));
+        assertThat(response.terminatedEarly(), equalTo(true));
+        assertThat(response.hits().totalHits(), equalTo(5l));
+        assertThat(response.hits().hits().length, equalTo(5));
+        assertThat(toJson(response), containsString("\"terminatedEarly\":true"));
+    }
+
+    @Test public void testNotTerminatedEarly() throws Exception {
+        SearchResponse response = client.search(searchRequest("test").searchType(SearchType.QUERY_THEN_FETCH)
+                .source(searchSource().query(termQuery("value", "test")).terminateAfter(50))).actionGet();
+        assertThat(response.terminatedEarly(), equalTo(false));
+        assertThat(response.hits().totalHits(), equalTo(20l));
+        assertThat(toJson(response), not(containsString("terminatedEarly")));
+
+        response = client.search(searchRequest("test").searchType(SearchType.QUERY_AND_FETCH)
+                .source(searchSource().query(termQuery("value", "test")))).actionGet();
+        assertThat(response.terminatedEarly(), equalTo(false));
+        assertThat(response.hits().totalHits(), equalTo(20l));
+    }
+
+    private String toJson(SearchResponse response) throws Exception {
+        JsonBuilder builder = JsonBuilder.cached();
+        builder.startObject();
+        response.toJson(builder);
+        builder.endObject();
+        return builder.string();
+    }
+}
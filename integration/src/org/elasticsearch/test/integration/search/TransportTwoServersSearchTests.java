@@ -30,6 +30,9 @@ import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import static org.elasticsearch.action.search.SearchType.*;
 import static org.elasticsearch.client.Requests.*;
 import static org.elasticsearch.index.query.json.JsonQueryBuilders.*;
@@ -208,6 +211,31 @@ public class TransportTwoServersSearchTests extends AbstractServersTests {
 //        }
     }
 
+    @Test public void testScan() throws Exception {
+        SearchSourceBuilder source = searchSource()
+                .query(termQuery("multi", "test"))
+                .size(10);
+
+        SearchResponse searchResponse = client("server1").search(searchRequest("test").source(source).searchType(SCAN).scroll(new Scroll(timeValueMinutes(10)))).actionGet();
+        assertThat(searchResponse.hits().totalHits(), equalTo(100l));
+        assertThat(searchResponse.hits().hits().length, equalTo(0));
+
+        Set<String> ids = new HashSet<String>();
+        while (true) {
+            searchResponse = client("server1").searchScroll(searchScrollRequest(searchResponse.scrollId()).scroll(new Scroll(timeValueMinutes(10)))).actionGet();
+            assertThat(searchResponse.hits().totalHits(), equalTo(100l));
+            if (searchResponse.hits().hits().length == 0) {
+                break;
+            }
+            // up to 10 per shard
+            assertThat(searchResponse.hits().hits().length, lessThanOrEqualTo(30));
+            for (SearchHit hit : searchResponse.hits().hits()) {
+                assertThat("id[" + hit.id() + "] returned twice", ids.add(hit.id()), equalTo(true));
+            }
+        }
+        assertThat(ids.size(), equalTo(100));
+    }
+
 
     private void index(Client client, String id, String nameValue, int age) {
         client.index(Requests.indexRequest("test").type("type1").id(id).source(source(id, nameValue, age))).actionGet();
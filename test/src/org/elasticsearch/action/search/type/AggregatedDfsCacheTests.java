@@ -0,0 +1,146 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.action.search.type;
+
+import org.apache.lucene.index.Term;
+import org.elasticsearch.search.SearchShardTarget;
+import org.elasticsearch.search.dfs.DfsSearchResult;
+import org.elasticsearch.util.settings.ImmutableSettings;
+import org.testng.annotations.Test;
+
+import static com.google.common.collect.Lists.*;
+import static org.elasticsearch.util.settings.ImmutableSettings.*;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author kimchy (Shay Banon)
+ */
+public class AggregatedDfsCacheTests {
+
+    @Test public void testDisabledByDefault() {
+        AggregatedDfsCache cache = new AggregatedDfsCache(ImmutableSettings.Builder.EMPTY_SETTINGS);
+        assertThat(cache.enabled(), equalTo(false));
+        cache.put(newArrayList(result("node1", "a", 0, 1, 10, "t1", 2)));
+        assertThat(cache.get(new String[]{"a"}), nullValue());
+        assertThat(cache.size(), equalTo(0));
+    }
+
+    @Test public void testPutAndGet() {
+        AggregatedDfsCache cache = cache(10, 100);
+        assertThat(cache.get(new String[]{"a"}), nullValue());
+        cache.put(newArrayList(result("node1", "a", 0, 1, 10, "t1", 2), result("node2", "a", 1, 5, 20, "t1", 3)));
+
+        AggregatedDfsCache.CachedDfs cachedDfs = cache.get(new String[]{"a"});
+        assertThat(cachedDfs.dfs().numDocs(), equalTo(30));
+        assertThat(cachedDfs.dfs().dfMap().get(new Term("field", "t1")), equalTo(5));
+        assertThat(cachedDfs.dfs().dfMap().get(new Term("field", "t2")), equalTo(-1));
+        assertThat(cachedDfs.readerVersion("node1", "a", 0), equalTo(1l));
+        assertThat(cachedDfs.readerVersion("node2", "a", 1), equalTo(5l));
+        // another copy of the shard, its reader might be at a different point
+        assertThat(cachedDfs.readerVersion("node2", "a", 0), equalTo(-1l));
+    }
+
+    @Test public void testSameReadersAddTerms() {
+        AggregatedDfsCache cache = cache(10, 100);
+        cache.put(newArrayList(result("node1", "a", 0, 1, 10, "t1", 2)));
+        cache.put(newArrayList(result("node1", "a", 0, 1, 10, "t2", 4)));
+
+        AggregatedDfsCache.CachedDfs cachedDfs = cache.get(new String[]{"a"});
+        assertThat(cachedDfs.dfs().numDocs(), equalTo(10));
+        assertThat(cachedDfs.dfs().dfMap().get(new Term("field", "t1")), equalTo(2));
+        assertThat(cachedDfs.dfs().dfMap().get(new Term("field", "t2")), equalTo(4));
+    }
+
+    @Test public void testChangedReadersReplaceTerms() {
+        AggregatedDfsCache cache = cache(10, 100);
+        cache.put(newArrayList(result("node1", "a", 0, 1, 10, "t1", 2)));
+        cache.put(newArrayList(result("node1", "a", 0, 2, 11, "t2", 4)));
+
+        AggregatedDfsCache.CachedDfs cachedDfs = cache.get(new String[]{"a"});
+        assertThat(cachedDfs.dfs().numDocs(), equalTo(11));
+        assertThat(cachedDfs.dfs().dfMap().get(new Term("field", "t1")), equalTo(-1));
+        assertThat(cachedDfs.dfs().dfMap().get(new Term("field", "t2")), equalTo(4));
+        assertThat(cachedDfs.readerVersion("node1", "a", 0), equalTo(2l));
+    }
+
+    @Test public void testSeveralIndices() {
+        AggregatedDfsCache cache = cache(10, 100);
+        cache.put(newArrayList(result("node1", "a", 0, 1, 10, "t1", 2), result("node1", "b", 0, 3, 20, "t1", 3)));
+        cache.put(newArrayList(result("node1", "a", 0, 1, 10, "t2", 4)));
+
+        AggregatedDfsCache.CachedDfs cachedDfs = cache.get(new String[]{"a", "b"});
+        assertThat(cachedDfs.dfs().numDocs(), equalTo(30));
+        assertThat(cachedDfs.dfs().dfMap().get(new Term("field", "t1")), equalTo(5));
+        // index b never computed the doc freq of t2
+        assertThat(cachedDfs.dfs().dfMap().get(new Term("field", "t2")), equalTo(-1));
+        assertThat(cachedDfs.readerVersion("node1", "a", 0), equalTo(1l));
+        assertThat(cachedDfs.readerVersion("node1", "b", 0), equalTo(3l));
+
+        assertThat(cache.get(new String[]{"a", "c"}), nullValue());
+    }
+
+    @Test public void testMaxSize() {
+        AggregatedDfsCache cache = cache(2, 100);
+        cache.put(newArrayList(result("node1", "a", 0, 1, 10, "t1", 2)));
+        cache.put(newArrayList(result("node1", "b", 0, 1, 10, "t1", 2)));
+        assertThat(cache.get(new String[]{"a"}), notNullValue());
+        cache.put(newArrayList(result("node1", "c", 0, 1, 10, "t1", 2)));
+
+        assertThat(cache.size(), equalTo(2));
+        assertThat(cache.get(new String[]{"a"}), notNullValue());
+        assertThat(cache.get(new String[]{"b"}), nullValue());
+        assertThat(cache.get(new String[]{"c"}), notNullValue());
+    }
+
+    @Test public void testMaxTerms() {
+        AggregatedDfsCache cache = cache(10, 2);
+        cache.put(newArrayList(result("node1", "a", 0, 1, 10, "t1", 2)));
+        cache.put(newArrayList(result("node1", "a", 0, 1, 10, "t2", 4)));
+        cache.put(newArrayList(result("node1", "a", 0, 1, 10, "t3", 6)));
+
+        AggregatedDfsCache.CachedDfs cachedDfs = cache.get(new String[]{"a"});
+        assertThat(cachedDfs.dfs().dfMap().size(), equalTo(1));
+        assertThat(cachedDfs.dfs().dfMap().get(new Term("field", "t3")), equalTo(6));
+    }
+
+    @Test public void testInvalidate() {
+        AggregatedDfsCache cache = cache(10, 100);
+        cache.put(newArrayList(result("node1", "a", 0, 1, 10, "t1", 2)));
+        cache.invalidate("a");
+        assertThat(cache.get(new String[]{"a"}), nullValue());
+    }
+
+    private AggregatedDfsCache cache(int maxSize, int maxTerms) {
+        return new AggregatedDfsCache(settingsBuilder()
+                .putBoolean("action.search.type.dfsCacheEnabled", true)
+                .putInt("action.search.type.dfsCacheMaxSize", maxSize)
+                .putInt("action.search.type.dfsCacheMaxTerms", maxTerms)
+                .build());
+    }
+
+    private DfsSearchResult result(String nodeId, String index, int shardId, long readerVersion, int numDocs, String term, int freq) {
+        return new DfsSearchResult(1, new SearchShardTarget(nodeId, index, shardId))
+                .readerVersion(readerVersion)
+                .numDocs(numDocs)
+                .termsAndFreqs(new Term[]{new Term("field", term)}, new int[]{freq});
+    }
+}
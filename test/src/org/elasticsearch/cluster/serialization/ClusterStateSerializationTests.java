@@ -0,0 +1,78 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.cluster.serialization;
+
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.metadata.MetaData;
+import org.elasticsearch.cluster.node.Node;
+import org.elasticsearch.cluster.node.Nodes;
+import org.elasticsearch.cluster.routing.RoutingTable;
+import org.elasticsearch.cluster.routing.strategy.DefaultShardsRoutingStrategy;
+import org.elasticsearch.util.transport.DummyTransportAddress;
+import org.testng.annotations.Test;
+
+import static org.elasticsearch.cluster.metadata.IndexMetaData.*;
+import static org.elasticsearch.cluster.metadata.MetaData.*;
+import static org.elasticsearch.cluster.routing.RoutingBuilders.*;
+import static org.elasticsearch.util.settings.ImmutableSettings.Builder.*;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author kimchy (Shay Banon)
+ */
+public class ClusterStateSerializationTests {
+
+    @Test public void testClusterStateSerialization() throws Exception {
+        MetaData metaData = newMetaDataBuilder()
+                .put(newIndexMetaDataBuilder("test1").numberOfShards(10).numberOfReplicas(1))
+                .put(newIndexMetaDataBuilder("test2").numberOfShards(5).numberOfReplicas(2))
+                .build();
+
+        RoutingTable routingTable = routingTable()
+                .add(indexRoutingTable("test1").initializeEmpty(metaData.index("test1")))
+                .add(indexRoutingTable("test2").initializeEmpty(metaData.index("test2")))
+                .build();
+
+        Nodes nodes = Nodes.newNodesBuilder().put(newNode("node1")).put(newNode("node2")).put(newNode("node3")).masterNodeId("node1").build();
+
+        ClusterState clusterState = ClusterState.newClusterStateBuilder().nodes(nodes).metaData(metaData).routingTable(routingTable).build();
+
+        DefaultShardsRoutingStrategy strategy = new DefaultShardsRoutingStrategy();
+        clusterState = ClusterState.newClusterStateBuilder().state(clusterState).routingTable(strategy.reroute(clusterState)).build();
+
+        byte[] serialized = ClusterState.Builder.toBytes(clusterState);
+        // the serialized form is cached on the state
+        assertThat(ClusterState.Builder.toBytes(clusterState), sameInstance(serialized));
+
+        ClusterState serializedClusterState = ClusterState.Builder.fromBytes(serialized, EMPTY_SETTINGS, newNode("node2"));
+
+        assertThat(serializedClusterState.version(), equalTo(clusterState.version()));
+        assertThat(serializedClusterState.nodes().size(), equalTo(3));
+        assertThat(serializedClusterState.nodes().masterNodeId(), equalTo("node1"));
+        assertThat(serializedClusterState.nodes().localNodeId(), equalTo("node2"));
+        assertThat(serializedClusterState.metaData().index("test2").numberOfReplicas(), equalTo(2));
+        assertThat(serializedClusterState.routingTable().prettyPrint(), equalTo(clusterState.routingTable().prettyPrint()));
+    }
+
+    private Node newNode(String nodeId) {
+        return new Node(nodeId, DummyTransportAddress.INSTANCE);
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.discovery.zen.elect;
+
+import org.elasticsearch.cluster.node.Node;
+import org.elasticsearch.util.transport.DummyTransportAddress;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static com.google.common.collect.Lists.*;
+import static org.elasticsearch.util.settings.ImmutableSettings.Builder.*;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author kimchy (Shay Banon)
+ */
+public class ElectMasterServiceTests {
+
+    private final ElectMasterService electMaster = new ElectMasterService(EMPTY_SETTINGS);
+
+    @Test public void testElectLowestId() {
+        List<Node> nodes = newArrayList(node("c"), node("a"), node("b"));
+        assertThat(electMaster.electMaster(nodes).id(), equalTo("a"));
+
+        // the order the nodes are provided in does not matter
+        List<Node> reversed = newArrayList(node("b"), node("a"), node("c"));
+        assertThat(electMaster.electMaster(reversed).id(), equalTo("a"));
+
+        List<Node> sorted = electMaster.sortedNodes(nodes);
+        assertThat(sorted.get(0).id(), equalTo("a"));
+        assertThat(sorted.get(1).id(), equalTo("b"));
+        assertThat(sorted.get(2).id(), equalTo("c"));
+    }
+
+    @Test public void testNoNodes() {
+        assertThat(electMaster.electMaster(newArrayList(new Node[0])), nullValue());
+    }
+
+    private Node node(String id) {
+        return new Node(id, DummyTransportAddress.INSTANCE);
+    }
+}
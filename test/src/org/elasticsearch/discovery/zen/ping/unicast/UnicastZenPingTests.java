@@ -0,0 +1,103 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.discovery.zen.ping.unicast;
+
+import org.elasticsearch.cluster.ClusterName;
+import org.elasticsearch.cluster.node.Node;
+import org.elasticsearch.cluster.node.Nodes;
+import org.elasticsearch.discovery.zen.DiscoveryNodesProvider;
+import org.elasticsearch.discovery.zen.ping.ZenPing;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.threadpool.dynamic.DynamicThreadPool;
+import org.elasticsearch.transport.TransportService;
+import org.elasticsearch.transport.local.LocalTransport;
+import org.elasticsearch.util.settings.Settings;
+import org.elasticsearch.util.transport.LocalTransportAddress;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.elasticsearch.cluster.node.Nodes.*;
+import static org.elasticsearch.util.TimeValue.*;
+import static org.elasticsearch.util.settings.ImmutableSettings.*;
+import static org.elasticsearch.util.settings.ImmutableSettings.Builder.*;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author kimchy (Shay Banon)
+ */
+public class UnicastZenPingTests {
+
+    @Test public void testSimplePings() throws Exception {
+        ThreadPool threadPool = new DynamicThreadPool();
+        ClusterName clusterName = new ClusterName("test");
+
+        TransportService transportServiceA = new TransportService(new LocalTransport(threadPool)).start();
+        final Node nodeA = new Node("A", transportServiceA.boundAddress().publishAddress());
+
+        TransportService transportServiceB = new TransportService(new LocalTransport(threadPool)).start();
+        final Node nodeB = new Node("B", transportServiceB.boundAddress().publishAddress());
+
+        Settings settings = settingsBuilder()
+                .put("discovery.zen.ping.unicast.hosts", ((LocalTransportAddress) nodeB.address()).id())
+                .build();
+
+        UnicastZenPing zenPingA = new UnicastZenPing(settings, threadPool, transportServiceA, clusterName);
+        zenPingA.setNodesProvider(new DiscoveryNodesProvider() {
+            @Override public Nodes nodes() {
+                return newNodesBuilder().put(nodeA).localNodeId("A").build();
+            }
+        });
+        zenPingA.start();
+
+        UnicastZenPing zenPingB = new UnicastZenPing(EMPTY_SETTINGS, threadPool, transportServiceB, clusterName);
+        zenPingB.setNodesProvider(new DiscoveryNodesProvider() {
+            @Override public Nodes nodes() {
+                return newNodesBuilder().put(nodeB).localNodeId("B").masterNodeId("B").build();
+            }
+        });
+        zenPingB.start();
+
+        try {
+            final AtomicReference<ZenPing.PingResponse[]> pingResponses = new AtomicReference<ZenPing.PingResponse[]>();
+            final CountDownLatch latch = new CountDownLatch(1);
+            zenPingA.ping(new ZenPing.PingListener() {
+                @Override public void onPing(ZenPing.PingResponse[] pings) {
+                    pingResponses.set(pings);
+                    latch.countDown();
+                }
+            }, timeValueMillis(500));
+            latch.await();
+
+            assertThat(pingResponses.get().length, equalTo(1));
+            assertThat(pingResponses.get()[0].target().id(), equalTo("B"));
+            assertThat(pingResponses.get()[0].master().id(), equalTo("B"));
+            assertThat(pingResponses.get()[0].clusterName(), equalTo(clusterName));
+        } finally {
+            zenPingA.close();
+            zenPingB.close();
+            transportServiceA.close();
+            transportServiceB.close();
+            threadPool.shutdown();
+        }
+    }
+}
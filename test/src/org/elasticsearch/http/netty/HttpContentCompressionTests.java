@@ -0,0 +1,90 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.http.netty;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author kimchy (Shay Banon)
+ */
+public class HttpContentCompressionTests {
+
+    @Test public void testNegotiate() {
+        assertThat(HttpContentCompression.negotiate(null), nullValue());
+        assertThat(HttpContentCompression.negotiate("identity"), nullValue());
+        assertThat(HttpContentCompression.negotiate("gzip, deflate"), equalTo("gzip"));
+        assertThat(HttpContentCompression.negotiate("deflate"), equalTo("deflate"));
+        assertThat(HttpContentCompression.negotiate("gzip;q=0.5, deflate"), equalTo("deflate"));
+        assertThat(HttpContentCompression.negotiate("gzip;q=0, deflate;q=0"), nullValue());
+        assertThat(HttpContentCompression.negotiate("*"), equalTo("gzip"));
+        assertThat(HttpContentCompression.negotiate("gzip;q=0, *"), equalTo("deflate"));
+    }
+
+    @Test public void testCompressDecompress() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            sb.append("{\"field\":\"value").append(i).append("\"}");
+        }
+        byte[] content = sb.toString().getBytes("UTF-8");
+        for (String encoding : new String[]{HttpContentCompression.GZIP, HttpContentCompression.DEFLATE}) {
+            ChannelBuffer compressed = HttpContentCompression.compress(ChannelBuffers.wrappedBuffer(content), encoding, 6);
+            assertThat(compressed.readableBytes(), lessThan(content.length));
+
+            ChannelBuffer decompressed = HttpContentCompression.decompress(compressed, encoding);
+            assertThat(decompressed, equalTo(ChannelBuffers.wrappedBuffer(content)));
+        }
+    }
+
+    @Test public void testCompressedStream() throws Exception {
+        byte[] content = "{\"hits\":{\"total\":0,\"hits\":[]}}".getBytes("UTF-8");
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        OutputStream out = HttpContentCompression.compressedStream(bos, HttpContentCompression.GZIP, 1);
+        out.write(content);
+        out.close();
+
+        ChannelBuffer decompressed = HttpContentCompression.decompress(ChannelBuffers.wrappedBuffer(bos.toByteArray()), "gzip");
+        assertThat(decompressed, equalTo(ChannelBuffers.wrappedBuffer(content)));
+    }
+
+    @Test public void testDecompressMaxLength() throws Exception {
+        byte[] content = new byte[1024 * 1024];
+        for (String encoding : new String[]{HttpContentCompression.GZIP, HttpContentCompression.DEFLATE}) {
+            ChannelBuffer compressed = HttpContentCompression.compress(ChannelBuffers.wrappedBuffer(content), encoding, 6);
+            assertThat(compressed.readableBytes(), lessThan(64 * 1024));
+
+            assertThat(HttpContentCompression.decompress(compressed, encoding, content.length).readableBytes(), equalTo(content.length));
+            try {
+                HttpContentCompression.decompress(compressed, encoding, 64 * 1024);
+                assertThat("Should have thrown ContentTooLongException", false, equalTo(true));
+            } catch (HttpContentCompression.ContentTooLongException e) {
+                // all is well
+            }
+        }
+    }
+}
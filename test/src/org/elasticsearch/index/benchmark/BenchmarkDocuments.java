@@ -0,0 +1,138 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.benchmark;
+
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.analysis.AnalysisService;
+import org.elasticsearch.index.mapper.json.JsonDocumentMapper;
+import org.elasticsearch.index.mapper.json.JsonDocumentMapperParser;
+
+import java.util.Random;
+
+/**
+ * Generates tweet like documents for the indexing benchmarks. Message words are drawn from a skewed
+ * vocabulary (a few very common words and a long tail) and message lengths vary, so analysis and the
+ * term dictionary see a realistic load. Generation is seeded so runs are comparable.
+ *
+ * @author kimchy (Shay Banon)
+ */
+public class BenchmarkDocuments {
+
+    public static final String TYPE = "tweet";
+
+    private static final String[] COUNTRIES = new String[]{"us", "uk", "de", "fr", "il", "jp", "br", "in"};
+
+    private static final String[] TAGS = new String[]{"java", "search", "lucene", "cloud", "json", "rest", "scala", "ops", "nosql", "jvm"};
+
+    private final Random random;
+
+    private final String[] vocabulary;
+
+    private final String[] users;
+
+    public BenchmarkDocuments(long seed) {
+        this.random = new Random(seed);
+        this.vocabulary = new String[10000];
+        for (int i = 0; i < vocabulary.length; i++) {
+            vocabulary[i] = word(3 + random.nextInt(8));
+        }
+        this.users = new String[1000];
+        for (int i = 0; i < users.length; i++) {
+            users[i] = word(5 + random.nextInt(6));
+        }
+    }
+
+    /**
+     * The mapping of the generated documents.
+     */
+    public static JsonDocumentMapper mapper() {
+        return (JsonDocumentMapper) new JsonDocumentMapperParser(new AnalysisService(new Index("benchmark"))).parse(mapping());
+    }
+
+    /**
+     * The mapping source of the generated documents.
+     */
+    public static String mapping() {
+        return "{" + TYPE + ":{properties:{"
+                + "user:{type:\"string\",index:\"not_analyzed\"},"
+                + "postDate:{type:\"date\"},"
+                + "message:{type:\"string\"},"
+                + "retweets:{type:\"integer\"},"
+                + "tags:{type:\"string\",index:\"not_analyzed\"},"
+                + "location:{type:\"object\",properties:{city:{type:\"string\"},country:{type:\"string\",index:\"not_analyzed\"}}}"
+                + "}}}";
+    }
+
+    /**
+     * Generates <tt>count</tt> document sources. The sources don't include an id, it is provided when parsing.
+     */
+    public String[] generate(int count) {
+        String[] sources = new String[count];
+        for (int i = 0; i < count; i++) {
+            sources[i] = next();
+        }
+        return sources;
+    }
+
+    public String next() {
+        StringBuilder sb = new StringBuilder(512);
+        sb.append("{\"").append(TYPE).append("\":{");
+        sb.append("\"user\":\"").append(users[skewed(users.length)]).append("\",");
+        sb.append("\"postDate\":\"2010-0").append(1 + random.nextInt(9)).append("-1").append(random.nextInt(10)).append("\",");
+        sb.append("\"message\":\"");
+        int words = 5 + random.nextInt(40);
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(vocabulary[skewed(vocabulary.length)]);
+        }
+        sb.append("\",");
+        sb.append("\"retweets\":").append(random.nextInt(1000)).append(',');
+        sb.append("\"tags\":[");
+        int tags = random.nextInt(4);
+        for (int i = 0; i < tags; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append('"').append(TAGS[random.nextInt(TAGS.length)]).append('"');
+        }
+        sb.append("],");
+        sb.append("\"location\":{\"city\":\"").append(vocabulary[random.nextInt(200)]).append("\",\"country\":\"").append(COUNTRIES[random.nextInt(COUNTRIES.length)]).append("\"}");
+        sb.append("}}");
+        return sb.toString();
+    }
+
+    /**
+     * Picks an index biased towards the start of the range (roughly zipfian).
+     */
+    private int skewed(int size) {
+        double r = random.nextDouble();
+        return (int) (Math.pow(size, r * r) - 1);
+    }
+
+    private String word(int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.benchmark;
+
+import org.elasticsearch.util.SizeValue;
+import org.elasticsearch.util.StopWatch;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Times a benchmarked operation over a number of iterations, after a warmup run, and prints its
+ * throughput and the bytes the benchmark thread allocated per operation. The allocation rate is only
+ * reported on JVMs that support measuring per thread allocations.
+ *
+ * @author kimchy (Shay Banon)
+ */
+public abstract class BenchmarkOperation {
+
+    private final String name;
+
+    protected BenchmarkOperation(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Executes the i-th operation.
+     */
+    protected abstract void execute(int i) throws Exception;
+
+    public void run(int warmupIterations, int iterations) throws Exception {
+        for (int i = 0; i < warmupIterations; i++) {
+            execute(i);
+        }
+
+        long allocatedBefore = allocatedBytes();
+        StopWatch stopWatch = new StopWatch().start();
+        for (int i = 0; i < iterations; i++) {
+            execute(i);
+        }
+        stopWatch.stop();
+        long allocatedAfter = allocatedBytes();
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("[").append(name).append("] iterations [").append(iterations).append("], took [").append(stopWatch.totalTime()).append("]");
+        sb.append(", ops/sec [").append((long) (iterations / stopWatch.totalTime().secondsFrac())).append("]");
+        if (allocatedBefore >= 0 && allocatedAfter >= 0) {
+            long allocated = allocatedAfter - allocatedBefore;
+            sb.append(", allocated/op [").append(new SizeValue(allocated / iterations)).append("]");
+            sb.append(", allocated/sec [").append(new SizeValue((long) (allocated / stopWatch.totalTime().secondsFrac()))).append("]");
+        }
+        System.out.println(sb);
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunThreadMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+            if (sunThreadMXBean.isThreadAllocatedMemorySupported() && sunThreadMXBean.isThreadAllocatedMemoryEnabled()) {
+                return sunThreadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.benchmark;
+
+import org.elasticsearch.env.Environment;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.analysis.AnalysisService;
+import org.elasticsearch.index.deletionpolicy.KeepOnlyLastDeletionPolicy;
+import org.elasticsearch.index.deletionpolicy.SnapshotDeletionPolicy;
+import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.engine.robin.RobinEngine;
+import org.elasticsearch.index.indexing.IndexingStats;
+import org.elasticsearch.index.indexing.ShardIndexingStats;
+import org.elasticsearch.index.mapper.ParsedDocument;
+import org.elasticsearch.index.mapper.json.JsonDocumentMapper;
+import org.elasticsearch.index.merge.policy.LogByteSizeMergePolicyProvider;
+import org.elasticsearch.index.merge.scheduler.ConcurrentMergeSchedulerProvider;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.similarity.SimilarityService;
+import org.elasticsearch.index.store.Store;
+import org.elasticsearch.index.store.bytebuffer.ByteBufferStore;
+import org.elasticsearch.index.store.fs.MmapFsStore;
+import org.elasticsearch.index.store.fs.NioFsStore;
+import org.elasticsearch.index.store.fs.SimpleFsStore;
+import org.elasticsearch.index.store.memory.MemoryStore;
+import org.elasticsearch.index.store.ram.RamStore;
+import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.index.translog.memory.MemoryTranslog;
+import org.elasticsearch.indices.merge.MergeRateLimiter;
+import org.elasticsearch.util.settings.Settings;
+
+import java.io.File;
+
+import static org.elasticsearch.util.settings.ImmutableSettings.*;
+
+/**
+ * Benchmarks the indexing path of a shard: parsing documents with the {@link JsonDocumentMapper}, adding
+ * operations to the translog, and creating and then updating documents through the {@link RobinEngine}
+ * on each of the store implementations.
+ *
+ * <p>Run it with a fixed heap (same <tt>-Xms</tt> and <tt>-Xmx</tt>) and the collector used in production so
+ * runs are comparable. The store types to run can be passed as arguments, all of them are run by default.
+ *
+ * @author kimchy (Shay Banon)
+ */
+public class IndexingBenchmark {
+
+    private static final int NUMBER_OF_DOCS = 100000;
+
+    private static final int WARMUP_DOCS = 20000;
+
+    private static final String[] STORES = new String[]{"ram", "memory", "bytebuffer", "simplefs", "niofs", "mmapfs"};
+
+    public static void main(String[] args) throws Exception {
+        String[] stores = args.length > 0 ? args : STORES;
+
+        File workDir = new File(System.getProperty("java.io.tmpdir"), "es-indexing-benchmark");
+        Settings settings = settingsBuilder().put("path.work", workDir.getAbsolutePath()).build();
+        Environment environment = new Environment(settings);
+
+        final JsonDocumentMapper docMapper = BenchmarkDocuments.mapper();
+        final String[] sources = new BenchmarkDocuments(1).generate(NUMBER_OF_DOCS);
+        final String[] updatedSources = new BenchmarkDocuments(2).generate(NUMBER_OF_DOCS);
+        final String[] ids = new String[NUMBER_OF_DOCS * 2];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = Integer.toString(i);
+        }
+        final ParsedDocument[] docs = new ParsedDocument[NUMBER_OF_DOCS];
+        long sourceBytes = 0;
+        for (int i = 0; i < sources.length; i++) {
+            sourceBytes += sources[i].length();
+        }
+        System.out.println("Generated [" + NUMBER_OF_DOCS + "] docs, average source length [" + (sourceBytes / NUMBER_OF_DOCS) + "] chars");
+
+        new BenchmarkOperation("mapper parse") {
+            @Override protected void execute(int i) {
+                docs[i % NUMBER_OF_DOCS] = docMapper.parse(BenchmarkDocuments.TYPE, ids[i % NUMBER_OF_DOCS], sources[i % NUMBER_OF_DOCS]);
+            }
+        }.run(WARMUP_DOCS, NUMBER_OF_DOCS);
+
+        final MemoryTranslog translog = new MemoryTranslog(new ShardId(new Index("benchmark"), 0), settings);
+        new BenchmarkOperation("translog add") {
+            @Override protected void execute(int i) {
+                if (i % 10000 == 0) {
+                    translog.newTranslog();
+                }
+                ParsedDocument doc = docs[i % NUMBER_OF_DOCS];
+                translog.add(new Translog.Index(new Engine.Index(docMapper.uidMapper().term(doc.uid()), doc.doc(), docMapper.mappers().indexAnalyzer(),
+                        doc.type(), doc.id(), doc.source())));
+            }
+        }.run(WARMUP_DOCS, NUMBER_OF_DOCS);
+        translog.close();
+
+        // parse the documents the engine stages use up front, so they only time the engine
+        final ParsedDocument[] warmupDocs = new ParsedDocument[WARMUP_DOCS];
+        for (int i = 0; i < warmupDocs.length; i++) {
+            warmupDocs[i] = docMapper.parse(BenchmarkDocuments.TYPE, ids[NUMBER_OF_DOCS + i], sources[i % NUMBER_OF_DOCS]);
+        }
+        final ParsedDocument[] updatedDocs = new ParsedDocument[NUMBER_OF_DOCS];
+        for (int i = 0; i < updatedDocs.length; i++) {
+            updatedDocs[i] = docMapper.parse(BenchmarkDocuments.TYPE, ids[i], updatedSources[i]);
+        }
+
+        for (int storeOrdinal = 0; storeOrdinal < stores.length; storeOrdinal++) {
+            String storeType = stores[storeOrdinal];
+            ShardId shardId = new ShardId(new Index("benchmark"), storeOrdinal + 1);
+            Store store = createStore(storeType, shardId, settings, environment);
+            store.deleteContent();
+            ShardIndexingStats indexingStats = new ShardIndexingStats(shardId, settings);
+            final RobinEngine engine = new RobinEngine(shardId, settings, store,
+                    new SnapshotDeletionPolicy(new KeepOnlyLastDeletionPolicy(shardId, settings)), new MemoryTranslog(shardId, settings),
+                    new LogByteSizeMergePolicyProvider(store), new ConcurrentMergeSchedulerProvider(shardId, settings, new MergeRateLimiter(settings)),
+                    new AnalysisService(shardId.index()), new SimilarityService(shardId.index()), indexingStats);
+            engine.start();
+
+            new BenchmarkOperation("[" + storeType + "] engine create") {
+                private int created = 0;
+
+                @Override protected void execute(int i) {
+                    // the warmup creates use their own ids, so each create adds a new document
+                    ParsedDocument doc = created < WARMUP_DOCS ? warmupDocs[created] : docs[created - WARMUP_DOCS];
+                    created++;
+                    engine.create(new Engine.Create(doc.doc(), docMapper.mappers().indexAnalyzer(), doc.type(), doc.id(), doc.source()));
+                }
+            }.run(WARMUP_DOCS, NUMBER_OF_DOCS);
+            engine.flush();
+
+            new BenchmarkOperation("[" + storeType + "] engine index") {
+                @Override protected void execute(int i) {
+                    ParsedDocument doc = updatedDocs[i % NUMBER_OF_DOCS];
+                    engine.index(new Engine.Index(docMapper.uidMapper().term(doc.uid()), doc.doc(), docMapper.mappers().indexAnalyzer(),
+                            doc.type(), doc.id(), doc.source()));
+                    if (i % 1000 == 0) {
+                        engine.refresh(false);
+                    }
+                }
+            }.run(WARMUP_DOCS, NUMBER_OF_DOCS);
+            engine.flush();
+
+            IndexingStats stats = indexingStats.stats();
+            System.out.println("[" + storeType + "] refresh [" + stats.refresh().total() + "/" + stats.refresh().totalTime() + "], flush ["
+                    + stats.flush().total() + "/" + stats.flush().totalTime() + "], lock wait [" + stats.lockWaitTime() + "], store size ["
+                    + store.estimateSize() + "]");
+
+            engine.close();
+            store.fullDelete();
+            store.close();
+        }
+    }
+
+    private static Store createStore(String type, ShardId shardId, Settings settings, Environment environment) throws Exception {
+        if ("ram".equals(type)) {
+            return new RamStore(shardId, settings);
+        } else if ("memory".equals(type)) {
+            return new MemoryStore(shardId, settings);
+        } else if ("bytebuffer".equals(type)) {
+            return new ByteBufferStore(shardId, settings);
+        } else if ("simplefs".equals(type)) {
+            return new SimpleFsStore(shardId, settings, environment, "benchmark");
+        } else if ("niofs".equals(type)) {
+            return new NioFsStore(shardId, settings, environment, "benchmark");
+        } else if ("mmapfs".equals(type)) {
+            return new MmapFsStore(shardId, settings, environment, "benchmark");
+        }
+        throw new IllegalArgumentException("No store type [" + type + "]");
+    }
+}
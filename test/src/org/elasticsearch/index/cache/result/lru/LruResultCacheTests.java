@@ -0,0 +1,124 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.cache.result.lru;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.store.RAMDirectory;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.util.lucene.Lucene;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.elasticsearch.util.settings.ImmutableSettings.*;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author kimchy (Shay Banon)
+ */
+public class LruResultCacheTests {
+
+    private RAMDirectory dir;
+
+    private IndexReader reader;
+
+    private LruResultCache cache;
+
+    @BeforeMethod public void createCache() throws Exception {
+        dir = new RAMDirectory();
+        IndexWriter indexWriter = new IndexWriter(dir, Lucene.STANDARD_ANALYZER, true, IndexWriter.MaxFieldLength.UNLIMITED);
+        indexWriter.close();
+        reader = IndexReader.open(dir, true);
+        // each entry below takes 20 bytes (a 2 char key and a 16 bytes result)
+        cache = new LruResultCache(new ShardId("test", 0), settingsBuilder()
+                .put("index.cache.result.lru.maxSize", "100")
+                .put("index.cache.result.lru.maxResultSize", "50")
+                .build());
+    }
+
+    @AfterMethod public void closeCache() throws Exception {
+        cache.close();
+        reader.close();
+        dir.close();
+    }
+
+    @Test public void testHitAndMissCounts() {
+        assertThat(cache.get(reader, "k1"), nullValue());
+        cache.put(reader, "k1", new byte[16]);
+        assertThat(cache.get(reader, "k1"), notNullValue());
+        assertThat(cache.get(reader, "k1"), notNullValue());
+
+        assertThat(cache.hitCount(), equalTo(2l));
+        assertThat(cache.missCount(), equalTo(1l));
+        assertThat(cache.sizeInBytes().bytes(), equalTo(20l));
+    }
+
+    @Test public void testEvictLeastRecentlyUsed() {
+        for (int i = 1; i <= 5; i++) {
+            cache.put(reader, "k" + i, new byte[16]);
+        }
+        assertThat(cache.sizeInBytes().bytes(), equalTo(100l));
+
+        // k1 is now the most recently used, k2 is the least recently used one
+        assertThat(cache.get(reader, "k1"), notNullValue());
+        cache.put(reader, "k6", new byte[16]);
+
+        assertThat(cache.sizeInBytes().bytes(), equalTo(100l));
+        assertThat(cache.get(reader, "k2"), nullValue());
+        assertThat(cache.get(reader, "k1"), notNullValue());
+        assertThat(cache.get(reader, "k6"), notNullValue());
+    }
+
+    @Test public void testResultLargerThanMaxResultSizeNotCached() {
+        cache.put(reader, "k1", new byte[60]);
+        assertThat(cache.get(reader, "k1"), nullValue());
+        assertThat(cache.sizeInBytes().bytes(), equalTo(0l));
+
+        cache.put(reader, "k2", new byte[46]);
+        assertThat(cache.get(reader, "k2"), notNullValue());
+    }
+
+    @Test public void testClearedOnNewReader() throws Exception {
+        cache.put(reader, "k1", new byte[16]);
+        assertThat(cache.get(reader, "k1"), notNullValue());
+
+        IndexReader newReader = IndexReader.open(dir, true);
+        try {
+            // results cached for the previous reader are not used
+            assertThat(cache.get(newReader, "k1"), nullValue());
+
+            cache.put(newReader, "k2", new byte[16]);
+            assertThat(cache.get(newReader, "k2"), notNullValue());
+            assertThat(cache.get(reader, "k1"), nullValue());
+            assertThat(cache.sizeInBytes().bytes(), equalTo(20l));
+
+            // a result executed against a reader that has since been closed is not cached
+            IndexReader closedReader = IndexReader.open(dir, true);
+            closedReader.close();
+            cache.put(closedReader, "k3", new byte[16]);
+            assertThat(cache.get(closedReader, "k3"), nullValue());
+            assertThat(cache.get(newReader, "k2"), notNullValue());
+        } finally {
+            newReader.close();
+        }
+    }
+}
@@ -35,6 +35,9 @@ import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.store.ram.RamStore;
 import org.elasticsearch.index.translog.Translog;
 import org.elasticsearch.index.translog.memory.MemoryTranslog;
+import org.elasticsearch.indices.merge.MergeRateLimiter;
+import org.elasticsearch.util.SizeUnit;
+import org.elasticsearch.util.SizeValue;
 import org.elasticsearch.util.lucene.Lucene;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
@@ -97,7 +100,7 @@ public abstract class AbstractSimpleEngineTests {
     }
 
     protected MergeSchedulerProvider createMergeScheduler() {
-        return new SerialMergeSchedulerProvider(shardId, EMPTY_SETTINGS);
+        return new SerialMergeSchedulerProvider(shardId, EMPTY_SETTINGS, new MergeRateLimiter(EMPTY_SETTINGS));
     }
 
     protected abstract Engine createEngine(Store store);
@@ -258,6 +261,17 @@ public abstract class AbstractSimpleEngineTests {
         searchResult.release();
     }
 
+    @Test public void testUpdateIndexingBufferSize() throws Exception {
+        engine.updateIndexingBufferSize(new SizeValue(1, SizeUnit.MB));
+        assertThat(engine.indexingBufferSize().bytes(), equalTo(new SizeValue(1, SizeUnit.MB).bytes()));
+
+        engine.create(new Engine.Create(doc().add(field("_uid", "1")).add(field("value", "test")).build(), Lucene.STANDARD_ANALYZER, "test", "1", "{1}"));
+        engine.refresh(true);
+        Engine.Searcher searchResult = engine.searcher();
+        assertThat(searchResult, engineSearcherTotalHits(1));
+        searchResult.release();
+    }
+
     @Test public void testSimpleSnapshot() throws Exception {
         // create a document
         engine.create(new Engine.Create(doc().add(field("_uid", "1")).add(field("value", "test")).build(), Lucene.STANDARD_ANALYZER, "test", "1", "{1}"));
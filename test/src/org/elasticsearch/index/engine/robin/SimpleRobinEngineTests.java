@@ -19,13 +19,26 @@
 
 package org.elasticsearch.index.engine.robin;
 
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.MatchAllDocsQuery;
 import org.elasticsearch.index.analysis.AnalysisService;
 import org.elasticsearch.index.engine.AbstractSimpleEngineTests;
 import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.indexing.IndexingStats;
+import org.elasticsearch.index.indexing.ShardIndexingStats;
 import org.elasticsearch.index.similarity.SimilarityService;
 import org.elasticsearch.index.store.Store;
+import org.elasticsearch.index.store.ram.RamStore;
+import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.index.translog.TranslogException;
+import org.elasticsearch.index.translog.memory.MemoryTranslog;
+import org.elasticsearch.util.lucene.Lucene;
+import org.testng.annotations.Test;
 
+import static org.elasticsearch.util.lucene.DocumentBuilder.*;
 import static org.elasticsearch.util.settings.ImmutableSettings.Builder.*;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
 
 /**
  * @author kimchy
@@ -34,6 +47,65 @@ public class SimpleRobinEngineTests extends AbstractSimpleEngineTests {
 
     protected Engine createEngine(Store store) {
         return new RobinEngine(shardId, EMPTY_SETTINGS, store, createSnapshotDeletionPolicy(), createTranslog(), createMergePolicy(), createMergeScheduler(),
-                new AnalysisService(shardId.index()), new SimilarityService(shardId.index()));
+                new AnalysisService(shardId.index()), new SimilarityService(shardId.index()), new ShardIndexingStats(shardId, EMPTY_SETTINGS));
+    }
+
+    @Test public void testFailedOperationsAreNotCurrent() throws Exception {
+        Store store = new RamStore(shardId, EMPTY_SETTINGS);
+        Translog translog = new MemoryTranslog(shardId, EMPTY_SETTINGS) {
+            @Override public void add(Operation operation) throws TranslogException {
+                throw new TranslogException(shardId, "translog failure");
+            }
+        };
+        ShardIndexingStats indexingStats = new ShardIndexingStats(shardId, EMPTY_SETTINGS);
+        Engine engine = new RobinEngine(shardId, EMPTY_SETTINGS, store, createSnapshotDeletionPolicy(), translog, createMergePolicy(), createMergeScheduler(),
+                new AnalysisService(shardId.index()), new SimilarityService(shardId.index()), indexingStats);
+        engine.start();
+        try {
+            try {
+                engine.create(new Engine.Create(doc().add(field("_uid", "1")).add(field("value", "test")).build(), Lucene.STANDARD_ANALYZER, "test", "1", "{1}"));
+                assertThat("Should have thrown TranslogException", false, equalTo(true));
+            } catch (TranslogException e) {
+                // all is well
+            }
+            try {
+                engine.index(new Engine.Index(new Term("_uid", "1"), doc().add(field("_uid", "1")).add(field("value", "test1")).build(), Lucene.STANDARD_ANALYZER, "test", "1", "{1}"));
+                assertThat("Should have thrown TranslogException", false, equalTo(true));
+            } catch (TranslogException e) {
+                // all is well
+            }
+            try {
+                engine.delete(new Engine.Delete(new Term("_uid", "1")));
+                assertThat("Should have thrown TranslogException", false, equalTo(true));
+            } catch (TranslogException e) {
+                // all is well
+            }
+            try {
+                engine.delete(new Engine.DeleteByQuery(new MatchAllDocsQuery(), "{}", null));
+                assertThat("Should have thrown TranslogException", false, equalTo(true));
+            } catch (TranslogException e) {
+                // all is well
+            }
+            assertNoneCurrent(indexingStats);
+        } finally {
+            engine.close();
+        }
+
+        // the index writer is closed now
+        try {
+            engine.create(new Engine.Create(doc().add(field("_uid", "2")).add(field("value", "test")).build(), Lucene.STANDARD_ANALYZER, "test", "2", "{2}"));
+            assertThat("Should have failed on a closed engine", false, equalTo(true));
+        } catch (RuntimeException e) {
+            // all is well
+        }
+        assertNoneCurrent(indexingStats);
+        store.close();
+    }
+
+    private void assertNoneCurrent(ShardIndexingStats indexingStats) {
+        IndexingStats stats = indexingStats.stats();
+        for (IndexingStats.Operation operation : IndexingStats.Operation.values()) {
+            assertThat(operation + " current", stats.operation(operation).current(), equalTo(0l));
+        }
     }
 }
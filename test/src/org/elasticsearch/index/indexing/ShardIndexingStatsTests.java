@@ -0,0 +1,78 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.indexing;
+
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.util.io.ByteArrayDataInputStream;
+import org.elasticsearch.util.io.ByteArrayDataOutputStream;
+import org.testng.annotations.Test;
+
+import static org.elasticsearch.util.settings.ImmutableSettings.Builder.*;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author kimchy (Shay Banon)
+ */
+public class ShardIndexingStatsTests {
+
+    private final ShardId shardId = new ShardId(new Index("index"), 1);
+
+    @Test public void testOperationStats() throws Exception {
+        ShardIndexingStats indexingStats = new ShardIndexingStats(shardId, EMPTY_SETTINGS);
+
+        for (int i = 0; i < 3; i++) {
+            long startTime = indexingStats.onPreExecute(IndexingStats.Operation.INDEX);
+            indexingStats.onPostExecute(IndexingStats.Operation.INDEX, startTime);
+        }
+        indexingStats.onPreExecute(IndexingStats.Operation.DELETE);
+        assertThat(indexingStats.stats().delete().current(), equalTo(1l));
+        indexingStats.onFailedExecute(IndexingStats.Operation.DELETE);
+        long startTime = indexingStats.onPreExecute(IndexingStats.Operation.FLUSH);
+        indexingStats.onPostExecute(IndexingStats.Operation.FLUSH, startTime);
+        indexingStats.onLockWait(2000000);
+
+        IndexingStats stats = indexingStats.stats();
+        assertThat(stats.index().total(), equalTo(3l));
+        assertThat(sum(stats.index().histogram()), equalTo(3l));
+        assertThat(stats.delete().total(), equalTo(0l));
+        assertThat(stats.delete().current(), equalTo(0l));
+        assertThat(stats.flush().total(), equalTo(1l));
+        assertThat(stats.create().total(), equalTo(0l));
+        assertThat(stats.lockWaitTime().millis(), equalTo(2l));
+
+        ByteArrayDataOutputStream out = new ByteArrayDataOutputStream();
+        stats.writeTo(out);
+        IndexingStats read = IndexingStats.readIndexingStats(new ByteArrayDataInputStream(out.copiedByteArray()));
+        read.add(stats);
+        assertThat(read.index().total(), equalTo(6l));
+        assertThat(read.flush().total(), equalTo(2l));
+        assertThat(read.lockWaitTime().millis(), equalTo(4l));
+    }
+
+    private long sum(long[] histogram) {
+        long sum = 0;
+        for (long count : histogram) {
+            sum += count;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.mapper;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Fieldable;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.store.RAMDirectory;
+import org.elasticsearch.index.mapper.json.JsonDocumentMapper;
+import org.elasticsearch.util.lucene.Lucene;
+import org.testng.annotations.Test;
+
+import static org.apache.lucene.document.Field.Store.*;
+import static org.elasticsearch.index.mapper.json.JsonMapperBuilders.*;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author kimchy (Shay Banon)
+ */
+public class UidAndSourceFieldSelectorTests {
+
+    @Test public void testLoadsOnlyUidAndSource() throws Exception {
+        JsonDocumentMapper docMapper = doc(object("person")
+                .add(stringField("first").store(YES))
+                .add(stringField("last").store(YES))
+        ).build();
+
+        RAMDirectory dir = new RAMDirectory();
+        IndexWriter writer = new IndexWriter(dir, Lucene.STANDARD_ANALYZER, true, IndexWriter.MaxFieldLength.UNLIMITED);
+        for (int i = 0; i < 3; i++) {
+            writer.addDocument(docMapper.parse("person", Integer.toString(i), "{\"person\":{\"first\":\"first" + i + "\",\"last\":\"last" + i + "\"}}").doc());
+        }
+        writer.close();
+        IndexReader reader = IndexReader.open(dir, true);
+
+        UidAndSourceFieldSelector fieldSelector = new UidAndSourceFieldSelector(new FieldMappers(docMapper.uidMapper()), new FieldMappers(docMapper.sourceMapper()));
+        for (int i = 0; i < 3; i++) {
+            fieldSelector.reset();
+            Document doc = reader.document(i, fieldSelector);
+            assertThat(doc.getFields().size(), equalTo(2));
+            for (Object oField : doc.getFields()) {
+                String name = ((Fieldable) oField).name();
+                assertThat(name, anyOf(equalTo(docMapper.uidMapper().indexName()), equalTo(docMapper.sourceMapper().indexName())));
+            }
+            assertThat(doc.get(docMapper.uidMapper().indexName()), equalTo(Uid.createUid("person", Integer.toString(i))));
+            assertThat(docMapper.sourceMapper().valueAsString(doc.getFieldable(docMapper.sourceMapper().indexName())), containsString("first" + i));
+        }
+
+        // both fields were loaded, nothing is loaded until the selector is reset
+        assertThat(reader.document(0, fieldSelector).getFields().size(), equalTo(0));
+
+        reader.close();
+        dir.close();
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.merge.policy;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.SerialMergeScheduler;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+import org.elasticsearch.util.lucene.Lucene;
+import org.testng.annotations.Test;
+
+import static org.elasticsearch.util.lucene.DocumentBuilder.*;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author kimchy (Shay Banon)
+ */
+public class TieredMergePolicyTests {
+
+    @Test public void testSegmentCountIsBounded() throws Exception {
+        Directory dir = new RAMDirectory();
+        IndexWriter writer = createWriter(dir);
+        TieredMergePolicy mergePolicy = new TieredMergePolicy(writer);
+        mergePolicy.setSegmentsPerTier(3);
+        mergePolicy.setMaxMergeAtOnce(3);
+        writer.setMergePolicy(mergePolicy);
+        writer.setMaxBufferedDocs(2);
+        for (int i = 0; i < 100; i++) {
+            writer.addDocument(doc().add(field("_id", Integer.toString(i))).build());
+        }
+        writer.commit();
+
+        IndexReader reader = IndexReader.open(dir, true);
+        assertThat(reader.numDocs(), equalTo(100));
+        // 50 flushed segments, all below the floor size, so they count as a single tier
+        assertThat(reader.getSequentialSubReaders().length, lessThanOrEqualTo(3));
+        reader.close();
+        writer.close();
+    }
+
+    @Test public void testMaxMergedSegmentAndDeletesReclaim() throws Exception {
+        Directory dir = new RAMDirectory();
+        IndexWriter writer = createWriter(dir);
+        TieredMergePolicy mergePolicy = new TieredMergePolicy(writer);
+        // every segment is above half the max merged size, so no regular merges happen
+        mergePolicy.setMaxMergedSegmentBytes(1);
+        writer.setMergePolicy(mergePolicy);
+        writer.setMaxBufferedDocs(4);
+        for (int i = 0; i < 20; i++) {
+            writer.addDocument(doc().add(field("_id", Integer.toString(i))).build());
+        }
+        writer.commit();
+
+        IndexReader reader = IndexReader.open(dir, true);
+        assertThat(reader.getSequentialSubReaders().length, equalTo(5));
+        reader.close();
+
+        // 75% of the first segment is deleted, 25% of the second one
+        writer.deleteDocuments(new Term("_id", "0"), new Term("_id", "1"), new Term("_id", "2"), new Term("_id", "4"));
+        writer.commit();
+        writer.maybeMerge();
+        writer.commit();
+
+        reader = IndexReader.open(dir, true);
+        assertThat(reader.getSequentialSubReaders().length, equalTo(5));
+        assertThat(reader.numDocs(), equalTo(16));
+        assertThat(reader.maxDoc(), equalTo(17));
+        reader.close();
+        writer.close();
+    }
+
+    private IndexWriter createWriter(Directory dir) throws Exception {
+        IndexWriter writer = new IndexWriter(dir, Lucene.STANDARD_ANALYZER, true, IndexWriter.MaxFieldLength.UNLIMITED);
+        writer.setMergeScheduler(new SerialMergeScheduler());
+        return writer;
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.merge.scheduler;
+
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.LogDocMergePolicy;
+import org.apache.lucene.store.RAMDirectory;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.merge.MergeStats;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.indices.merge.MergeRateLimiter;
+import org.elasticsearch.util.lucene.Lucene;
+import org.elasticsearch.util.settings.Settings;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static com.google.common.collect.Lists.*;
+import static org.elasticsearch.util.lucene.DocumentBuilder.*;
+import static org.elasticsearch.util.settings.ImmutableSettings.Builder.*;
+import static org.elasticsearch.util.settings.ImmutableSettings.*;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author kimchy (Shay Banon)
+ */
+public class SimpleMergeSchedulerProviderTests {
+
+    private final ShardId shardId = new ShardId(new Index("index"), 1);
+
+    @Test public void testConcurrentMergeStats() throws Exception {
+        MergeRateLimiter rateLimiter = new MergeRateLimiter(settingsBuilder().put("indices.merge.maxBytesPerSec", "1m").build());
+        ConcurrentMergeSchedulerProvider provider = new ConcurrentMergeSchedulerProvider(shardId, EMPTY_SETTINGS, rateLimiter);
+        indexAndMerge(provider);
+
+        // merge threads update the stats after the writer is notified the merge is done
+        for (int i = 0; i < 100 && provider.stats().current() > 0; i++) {
+            Thread.sleep(50);
+        }
+        MergeStats stats = provider.stats();
+        assertThat(stats.total(), greaterThan(0l));
+        assertThat(stats.totalNumDocs(), greaterThan(0l));
+        assertThat(stats.totalSize().bytes(), greaterThan(0l));
+        assertThat(stats.current(), equalTo(0l));
+        assertThat(stats.currentNumDocs(), equalTo(0l));
+    }
+
+    @Test public void testSerialMergeStats() throws Exception {
+        SerialMergeSchedulerProvider provider = new SerialMergeSchedulerProvider(shardId, EMPTY_SETTINGS, new MergeRateLimiter(EMPTY_SETTINGS));
+        indexAndMerge(provider);
+
+        MergeStats stats = provider.stats();
+        assertThat(stats.total(), greaterThan(0l));
+        assertThat(stats.totalNumDocs(), greaterThan(0l));
+        assertThat(stats.current(), equalTo(0l));
+    }
+
+    @Test public void testSerialMergeThrottling() throws Exception {
+        Settings settings = settingsBuilder().put("indices.merge.maxBytesPerSec", "500k").build();
+        SerialMergeSchedulerProvider provider = new SerialMergeSchedulerProvider(shardId, EMPTY_SETTINGS, new MergeRateLimiter(settings));
+        indexAndMerge(provider, 2000);
+
+        MergeStats stats = provider.stats();
+        assertThat(stats.total(), greaterThan(0l));
+        assertThat(stats.totalThrottledTime().millis(), greaterThan(0l));
+    }
+
+    @Test public void testNoStallWithinMaxMergeCount() throws Exception {
+        Settings indexSettings = settingsBuilder().put("index.merge.scheduler.maxThreadCount", "1").put("index.merge.scheduler.maxMergeCount", "100").build();
+        MergeRateLimiter rateLimiter = new MergeRateLimiter(settingsBuilder().put("indices.merge.maxBytesPerSec", "0").build());
+        ConcurrentMergeSchedulerProvider provider = new ConcurrentMergeSchedulerProvider(shardId, indexSettings, rateLimiter);
+        indexAndMerge(provider);
+
+        MergeStats stats = provider.stats();
+        assertThat(stats.total(), greaterThan(0l));
+        // merge() returning is not a stall, only waiting for a merge thread is
+        assertThat(stats.totalStalledTime().millis(), equalTo(0l));
+    }
+
+    @Test public void testStallOnMaxMergeCount() throws Exception {
+        Settings indexSettings = settingsBuilder().put("index.merge.scheduler.maxThreadCount", "1").put("index.merge.scheduler.maxMergeCount", "1").build();
+        MergeRateLimiter rateLimiter = new MergeRateLimiter(settingsBuilder().put("indices.merge.maxBytesPerSec", "500k").build());
+        ConcurrentMergeSchedulerProvider provider = new ConcurrentMergeSchedulerProvider(shardId, indexSettings, rateLimiter);
+        indexAndMerge(provider, 2000);
+
+        MergeStats stats = provider.stats();
+        assertThat(stats.totalThrottledTime().millis(), greaterThan(0l));
+        assertThat(stats.totalStalledTime().millis(), greaterThan(0l));
+    }
+
+    @Test public void testMergeGateSmallestFirst() throws Exception {
+        final ConcurrentMergeSchedulerProvider.MergeGate gate = new ConcurrentMergeSchedulerProvider.MergeGate(1);
+        gate.acquire(0);
+
+        final List<Long> order = new CopyOnWriteArrayList<Long>();
+        final List<Long> sizes = newArrayList(300l, 100l, 200l);
+        final CountDownLatch done = new CountDownLatch(sizes.size());
+        for (final Long size : sizes) {
+            Thread thread = new Thread(new Runnable() {
+                @Override public void run() {
+                    gate.acquire(size);
+                    order.add(size);
+                    gate.release();
+                    done.countDown();
+                }
+            });
+            thread.start();
+            // let the thread start waiting on the gate
+            Thread.sleep(100);
+        }
+        assertThat(order.size(), equalTo(0));
+
+        gate.release();
+        done.await();
+        assertThat(order, equalTo((List<Long>) newArrayList(100l, 200l, 300l)));
+    }
+
+    private void indexAndMerge(MergeSchedulerProvider provider) throws Exception {
+        indexAndMerge(provider, 1);
+    }
+
+    private void indexAndMerge(MergeSchedulerProvider provider, int valueRepeat) throws Exception {
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < valueRepeat; i++) {
+            value.append("test").append(i).append(' ');
+        }
+        IndexWriter writer = new IndexWriter(provider.wrapDirectory(new RAMDirectory()), Lucene.STANDARD_ANALYZER, true, IndexWriter.MaxFieldLength.UNLIMITED);
+        writer.setMergeScheduler(provider.newMergeScheduler());
+        LogDocMergePolicy mergePolicy = new LogDocMergePolicy(writer);
+        mergePolicy.setMergeFactor(2);
+        writer.setMergePolicy(mergePolicy);
+        writer.setMaxBufferedDocs(2);
+        for (int i = 0; i < 20; i++) {
+            writer.addDocument(doc().add(field("_id", Integer.toString(i))).add(field("value", value.toString())).build());
+        }
+        writer.optimize();
+        writer.close();
+    }
+}
@@ -29,6 +29,7 @@ import org.elasticsearch.index.analysis.AnalysisService;
 import org.elasticsearch.index.cache.filter.none.NoneFilterCache;
 import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.index.query.IndexQueryParser;
+import org.elasticsearch.util.lucene.search.AutoRangeFilter;
 import org.elasticsearch.util.lucene.search.TermFilter;
 import org.testng.annotations.Test;
 
@@ -284,6 +285,21 @@ public class SimpleJsonIndexQueryParserTests {
         assertThat(rangeFilter.includesMax(), equalTo(false));
     }
 
+    @Test public void testRangeFilteredQueryBuilderFieldDataExecution() throws IOException {
+        IndexQueryParser queryParser = newQueryParser();
+        Query parsedQuery = queryParser.parse(filteredQuery(termQuery("name.first", "shay"), rangeFilter("age").from(23).to(54).execution("fielddata")).build());
+        assertThat(parsedQuery, instanceOf(FilteredQuery.class));
+        Filter filter = ((FilteredQuery) parsedQuery).getFilter();
+        assertThat(filter, instanceOf(FieldCacheRangeFilter.class));
+        FieldCacheRangeFilter rangeFilter = (FieldCacheRangeFilter) filter;
+        assertThat(rangeFilter.getField(), equalTo("age"));
+        assertThat(((Number) rangeFilter.getLowerVal()).intValue(), equalTo(23));
+        assertThat(((Number) rangeFilter.getUpperVal()).intValue(), equalTo(54));
+
+        parsedQuery = queryParser.parse(filteredQuery(termQuery("name.first", "shay"), rangeFilter("age").from(23).to(54).execution("auto")).build());
+        assertThat(((FilteredQuery) parsedQuery).getFilter(), instanceOf(AutoRangeFilter.class));
+    }
+
     @Test public void testRangeFilteredQuery() throws IOException {
         IndexQueryParser queryParser = newQueryParser();
         String query = copyToStringFromClasspath("/org/elasticsearch/index/query/json/range-filter.json");
@@ -0,0 +1,76 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.search.stats;
+
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.search.slowlog.SearchSlowLog;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.util.io.ByteArrayDataInputStream;
+import org.elasticsearch.util.io.ByteArrayDataOutputStream;
+import org.testng.annotations.Test;
+
+import static org.elasticsearch.util.settings.ImmutableSettings.Builder.*;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author kimchy (Shay Banon)
+ */
+public class ShardSearchStatsTests {
+
+    private final ShardId shardId = new ShardId(new Index("index"), 1);
+
+    @Test public void testPhaseStats() throws Exception {
+        ShardSearchStats searchStats = new ShardSearchStats(shardId, EMPTY_SETTINGS, new SearchSlowLog(shardId, EMPTY_SETTINGS));
+
+        long startTime = searchStats.onPreExecute(SearchStats.Phase.QUERY);
+        assertThat(searchStats.stats().query().current(), equalTo(1l));
+        searchStats.onPostExecute(SearchStats.Phase.QUERY, startTime, "{}");
+
+        searchStats.onPreExecute(SearchStats.Phase.QUERY);
+        searchStats.onFailedExecute(SearchStats.Phase.QUERY);
+
+        startTime = searchStats.onPreExecute(SearchStats.Phase.FETCH);
+        searchStats.onPostExecute(SearchStats.Phase.FETCH, startTime, "{}");
+
+        SearchStats stats = searchStats.stats();
+        assertThat(stats.query().total(), equalTo(1l));
+        assertThat(stats.query().current(), equalTo(0l));
+        assertThat(sum(stats.query().histogram()), equalTo(1l));
+        assertThat(stats.fetch().total(), equalTo(1l));
+        assertThat(stats.dfs().total(), equalTo(0l));
+
+        ByteArrayDataOutputStream out = new ByteArrayDataOutputStream();
+        stats.writeTo(out);
+        SearchStats read = SearchStats.readSearchStats(new ByteArrayDataInputStream(out.copiedByteArray()));
+        read.add(stats);
+        assertThat(read.query().total(), equalTo(2l));
+        assertThat(read.fetch().total(), equalTo(2l));
+        assertThat(sum(read.query().histogram()), equalTo(2l));
+    }
+
+    private long sum(long[] histogram) {
+        long sum = 0;
+        for (long count : histogram) {
+            sum += count;
+        }
+        return sum;
+    }
+}
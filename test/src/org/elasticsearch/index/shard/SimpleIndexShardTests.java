@@ -23,10 +23,12 @@ import org.elasticsearch.env.Environment;
 import org.elasticsearch.index.analysis.AnalysisService;
 import org.elasticsearch.index.cache.filter.FilterCache;
 import org.elasticsearch.index.cache.filter.none.NoneFilterCache;
+import org.elasticsearch.index.cache.result.lru.LruResultCache;
 import org.elasticsearch.index.deletionpolicy.KeepOnlyLastDeletionPolicy;
 import org.elasticsearch.index.deletionpolicy.SnapshotDeletionPolicy;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.engine.robin.RobinEngine;
+import org.elasticsearch.index.indexing.ShardIndexingStats;
 import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.index.merge.policy.LogByteSizeMergePolicyProvider;
 import org.elasticsearch.index.merge.scheduler.SerialMergeSchedulerProvider;
@@ -35,6 +37,7 @@ import org.elasticsearch.index.similarity.SimilarityService;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.store.ram.RamStore;
 import org.elasticsearch.index.translog.memory.MemoryTranslog;
+import org.elasticsearch.indices.merge.MergeRateLimiter;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.threadpool.dynamic.DynamicThreadPool;
 import org.elasticsearch.util.settings.Settings;
@@ -55,6 +58,8 @@ public class SimpleIndexShardTests {
 
     private IndexShard indexShard;
 
+    private LruResultCache resultCache;
+
     @BeforeMethod public void createIndexShard() {
         Settings settings = EMPTY_SETTINGS;
         Environment environment = new Environment(settings);
@@ -68,12 +73,14 @@ public class SimpleIndexShardTests {
         Store store = new RamStore(shardId, settings);
         MemoryTranslog translog = new MemoryTranslog(shardId, settings);
         Engine engine = new RobinEngine(shardId, settings, store, policy, translog,
-                new LogByteSizeMergePolicyProvider(store), new SerialMergeSchedulerProvider(shardId, settings),
-                analysisService, new SimilarityService(shardId.index()));
+                new LogByteSizeMergePolicyProvider(store), new SerialMergeSchedulerProvider(shardId, settings, new MergeRateLimiter(settings)),
+                analysisService, new SimilarityService(shardId.index()), new ShardIndexingStats(shardId, settings));
 
         threadPool = new DynamicThreadPool();
 
-        indexShard = new InternalIndexShard(shardId, EMPTY_SETTINGS, store, engine, translog, threadPool, mapperService, queryParserService, filterCache).start();
+        resultCache = new LruResultCache(shardId, settings);
+        indexShard = new InternalIndexShard(shardId, EMPTY_SETTINGS, store, engine, translog, threadPool, mapperService, queryParserService, filterCache,
+                resultCache).start();
     }
 
     @AfterMethod public void tearDown() {
@@ -93,10 +100,18 @@ public class SimpleIndexShardTests {
         assertThat(indexShard.count(0, "{ term : { age : 35 } }", null), equalTo(1l));
         assertThat(indexShard.count(0, "{ queryString : { query : \"name:test\" } }", null), equalTo(1l));
         assertThat(indexShard.count(0, "{ queryString : { query : \"age:35\" } }", null), equalTo(1l));
+        assertThat(resultCache.hitCount(), equalTo(0l));
+        // served from the result cache
+        assertThat(indexShard.count(0, "{ term : { age : 35 } }", null), equalTo(1l));
+        assertThat(resultCache.hitCount(), equalTo(1l));
 
         indexShard.delete("type1", "1");
         indexShard.refresh(true);
 
+        // the refresh published a new reader, the cached count must not be used
+        assertThat(indexShard.count(0, "{ term : { age : 35 } }", null), equalTo(0l));
+        assertThat(resultCache.hitCount(), equalTo(1l));
+
         assertThat(indexShard.get("type1", "1"), nullValue());
 
         indexShard.index("type1", "1", source1);
@@ -79,6 +79,68 @@ public class SimpleByteBufferStoreTests {
         dir.close();
     }
 
+    @Test public void testGrowingBuffers() throws Exception {
+        ByteBufferDirectory dir = new ByteBufferDirectory(new SizeValue(3, SizeUnit.BYTES), new SizeValue(12, SizeUnit.BYTES),
+                new SizeValue(0, SizeUnit.BYTES), new SizeValue(0, SizeUnit.BYTES), false, false);
+        assertThat(dir.bufferIndex(0), equalTo(0));
+        assertThat(dir.bufferIndex(2), equalTo(0));
+        assertThat(dir.bufferIndex(3), equalTo(1));
+        assertThat(dir.bufferIndex(8), equalTo(1));
+        assertThat(dir.bufferIndex(9), equalTo(2));
+        assertThat(dir.bufferIndex(20), equalTo(2));
+        assertThat(dir.bufferIndex(21), equalTo(3));
+        assertThat(dir.bufferStart(3), equalTo(21l));
+        assertThat(dir.bufferStart(4), equalTo(33l));
+        insertData(dir);
+        verifyData(dir);
+        // 3 + 6 + 12 + 12 + 12 bytes of buffers for the 38 bytes file
+        assertThat(dir.usedSize().bytes(), equalTo(45l));
+        dir.deleteFile("value1");
+        assertThat(dir.usedSize().bytes(), equalTo(0l));
+        assertThat(dir.allocatedSize().bytes(), equalTo(0l));
+        dir.close();
+    }
+
+    @Test public void testSlabs() throws Exception {
+        ByteBufferDirectory dir = new ByteBufferDirectory(new SizeValue(3, SizeUnit.BYTES), new SizeValue(12, SizeUnit.BYTES),
+                new SizeValue(10, SizeUnit.BYTES), new SizeValue(0, SizeUnit.BYTES), false, false);
+        insertData(dir);
+        verifyData(dir);
+        assertThat(dir.usedSize().bytes(), equalTo(45l));
+        // 12 byte buffers are bigger than the slab, and allocated on their own
+        assertThat(dir.numberOfSlabs(), equalTo(2));
+        assertThat(dir.allocatedSize().bytes(), equalTo(9l + 6l + 36l));
+        dir.deleteFile("value1");
+        assertThat(dir.usedSize().bytes(), equalTo(0l));
+        // there is no cache, so the slabs are freed once all their buffers are released
+        assertThat(dir.allocatedSize().bytes(), equalTo(0l));
+        assertThat(dir.numberOfSlabs(), equalTo(0));
+        insertData(dir);
+        verifyData(dir);
+        assertThat(dir.numberOfSlabs(), equalTo(2));
+        dir.close();
+        assertThat(dir.allocatedSize().bytes(), equalTo(0l));
+    }
+
+    @Test public void testSlabsWithinCacheSize() throws Exception {
+        ByteBufferDirectory dir = new ByteBufferDirectory(new SizeValue(3, SizeUnit.BYTES), new SizeValue(12, SizeUnit.BYTES),
+                new SizeValue(10, SizeUnit.BYTES), new SizeValue(9, SizeUnit.BYTES), false, false);
+        insertData(dir);
+        verifyData(dir);
+        assertThat(dir.numberOfSlabs(), equalTo(2));
+        dir.deleteFile("value1");
+        assertThat(dir.usedSize().bytes(), equalTo(0l));
+        // the 9 bytes slab is kept within the cache size, the 6 bytes one and the standalone buffers are freed
+        assertThat(dir.numberOfSlabs(), equalTo(1));
+        assertThat(dir.allocatedSize().bytes(), equalTo(9l));
+        insertData(dir);
+        verifyData(dir);
+        assertThat(dir.numberOfSlabs(), equalTo(2));
+        assertThat(dir.allocatedSize().bytes(), equalTo(9l + 6l + 36l));
+        dir.close();
+        assertThat(dir.allocatedSize().bytes(), equalTo(0l));
+    }
+
     @Test public void testSimpleLocking() throws Exception {
         ByteBufferDirectory dir = new ByteBufferDirectory(new SizeValue(40, SizeUnit.BYTES), new SizeValue(80, SizeUnit.BYTES), false, false);
 
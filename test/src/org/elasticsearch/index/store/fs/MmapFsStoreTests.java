@@ -0,0 +1,112 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.store.fs;
+
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.store.MMapDirectory;
+import org.elasticsearch.env.Environment;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.util.io.FileSystemUtils;
+import org.elasticsearch.util.settings.Settings;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.elasticsearch.util.settings.ImmutableSettings.*;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author kimchy (Shay Banon)
+ */
+public class MmapFsStoreTests {
+
+    private File path;
+
+    private MmapFsStore store;
+
+    @BeforeMethod public void createStore() throws IOException {
+        path = new File("target/work/mmapfs");
+        FileSystemUtils.deleteRecursively(path);
+        Settings settings = settingsBuilder()
+                .put("path.work", path.getPath())
+                .put("index.store.fs.mmap.preloadExtensions", "tis,nrm")
+                .put("index.store.fs.mmap.nioExtensions", "fdt")
+                .build();
+        store = new MmapFsStore(new ShardId(new Index("test"), 0), settings, new Environment(settings), "node1");
+    }
+
+    @AfterMethod public void closeStore() throws IOException {
+        store.close();
+        FileSystemUtils.deleteRecursively(path);
+    }
+
+    @Test public void testPreloadedSize() throws Exception {
+        MMapDirectory dir = store.directory();
+        assertThat(store.suggestUseCompoundFile(), equalTo(false));
+
+        writeFile(dir, "_1.tis", 10000);
+        writeFile(dir, "_1.nrm", 100);
+        writeFile(dir, "_1.fdt", 500);
+        writeFile(dir, "_1.frq", 200);
+
+        IndexInput tis = dir.openInput("_1.tis");
+        IndexInput nrm = dir.openInput("_1.nrm");
+        IndexInput fdt = dir.openInput("_1.fdt");
+        IndexInput frq = dir.openInput("_1.frq");
+        assertThat(store.preloadedSize().bytes(), equalTo(10100l));
+        // nio files are not mapped
+        assertThat(store.estimateMappedSize().bytes(), equalTo(10300l));
+        assertThat(fdt.getClass().getName(), containsString("NIOFS"));
+
+        // opening a preloaded file again does not count it twice
+        IndexInput tis2 = dir.openInput("_1.tis");
+        assertThat(store.preloadedSize().bytes(), equalTo(10100l));
+
+        // the preloaded data is readable
+        tis.seek(9999);
+        assertThat(tis.readByte(), equalTo((byte) (9999 % 100)));
+
+        tis.close();
+        tis2.close();
+        nrm.close();
+        fdt.close();
+        frq.close();
+
+        // deleted (merged away) files are no longer reported
+        dir.deleteFile("_1.tis");
+        assertThat(store.preloadedSize().bytes(), equalTo(100l));
+        dir.deleteFile("_1.nrm");
+        assertThat(store.preloadedSize().bytes(), equalTo(0l));
+    }
+
+    private void writeFile(MMapDirectory dir, String name, int length) throws IOException {
+        IndexOutput output = dir.createOutput(name);
+        for (int i = 0; i < length; i++) {
+            output.writeByte((byte) (i % 100));
+        }
+        output.close();
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.store.hybrid;
+
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.store.SimpleFSDirectory;
+import org.elasticsearch.index.store.bytebuffer.ByteBufferDirectory;
+import org.elasticsearch.util.SizeUnit;
+import org.elasticsearch.util.SizeValue;
+import org.elasticsearch.util.io.FileSystemUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author kimchy (Shay Banon)
+ */
+public class SimpleHybridStoreTests {
+
+    private File path;
+
+    private HybridDirectory dir;
+
+    @BeforeMethod public void createDirectory() throws IOException {
+        path = new File("target/work/hybrid");
+        FileSystemUtils.deleteRecursively(path);
+        ByteBufferDirectory memoryDirectory = new ByteBufferDirectory(new SizeValue(4, SizeUnit.BYTES), new SizeValue(16, SizeUnit.BYTES),
+                new SizeValue(0, SizeUnit.BYTES), new SizeValue(0, SizeUnit.BYTES), false, false);
+        dir = new HybridDirectory(memoryDirectory, new SimpleFSDirectory(path), 100, false);
+    }
+
+    @AfterMethod public void closeDirectory() throws IOException {
+        dir.close();
+        FileSystemUtils.deleteRecursively(path);
+    }
+
+    @Test public void testSmallFileMovedOnSync() throws Exception {
+        writeFile("_1.tis", 50);
+        assertThat(dir.inMemory("_1.tis"), equalTo(true));
+        assertThat(dir.fsDirectory().fileExists("_1.tis"), equalTo(false));
+        assertThat(dir.fileLength("_1.tis"), equalTo(50l));
+        verifyFile("_1.tis", 50);
+
+        dir.sync("_1.tis");
+        assertThat(dir.inMemory("_1.tis"), equalTo(false));
+        assertThat(dir.fsDirectory().fileExists("_1.tis"), equalTo(true));
+        assertThat(dir.memoryDirectory().usedSize().bytes(), equalTo(0l));
+        assertThat(dir.listAll().length, equalTo(1));
+        verifyFile("_1.tis", 50);
+    }
+
+    @Test public void testLargeFileMovedWhileWriting() throws Exception {
+        IndexOutput output = dir.createOutput("_2.frq");
+        for (int i = 0; i < 300; i++) {
+            output.writeByte((byte) i);
+        }
+        assertThat(dir.inMemory("_2.frq"), equalTo(false));
+        // seek back to data written while in memory
+        output.seek(10);
+        output.writeByte((byte) 100);
+        output.close();
+
+        assertThat(dir.fileLength("_2.frq"), equalTo(300l));
+        IndexInput input = dir.openInput("_2.frq");
+        for (int i = 0; i < 300; i++) {
+            assertThat(input.readByte(), equalTo(i == 10 ? (byte) 100 : (byte) i));
+        }
+        input.close();
+    }
+
+    @Test public void testSegmentsWrittenToFs() throws Exception {
+        writeFile("segments_1", 10);
+        assertThat(dir.inMemory("segments_1"), equalTo(false));
+        assertThat(dir.fsDirectory().fileExists("segments_1"), equalTo(true));
+        verifyFile("segments_1", 10);
+
+        dir.deleteFile("segments_1");
+        assertThat(dir.fileExists("segments_1"), equalTo(false));
+    }
+
+    @Test public void testOpenInputSurvivesMove() throws Exception {
+        writeFile("_3.fdt", 20);
+        IndexInput input = dir.openInput("_3.fdt");
+        dir.sync("_3.fdt");
+        for (int i = 0; i < 20; i++) {
+            assertThat(input.readByte(), equalTo((byte) i));
+        }
+        input.close();
+    }
+
+    private void writeFile(String name, int length) throws IOException {
+        IndexOutput output = dir.createOutput(name);
+        for (int i = 0; i < length; i++) {
+            output.writeByte((byte) i);
+        }
+        output.close();
+    }
+
+    private void verifyFile(String name, int length) throws IOException {
+        IndexInput input = dir.openInput(name);
+        assertThat(input.length(), equalTo((long) length));
+        for (int i = 0; i < length; i++) {
+            assertThat(input.readByte(), equalTo((byte) i));
+        }
+        input.close();
+    }
+}
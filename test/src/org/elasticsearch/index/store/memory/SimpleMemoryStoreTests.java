@@ -98,6 +98,19 @@ public class SimpleMemoryStoreTests {
         dir.close();
     }
 
+    @Test public void testAllocatedSize() throws Exception {
+        MemoryDirectory dir = new MemoryDirectory(new SizeValue(3, SizeUnit.BYTES), new SizeValue(30, SizeUnit.BYTES), false);
+        insertData(dir);
+        verifyData(dir);
+        // 13 buffers of 3 bytes for the 38 bytes file
+        assertThat(dir.allocatedSize().bytes(), equalTo(39l));
+        dir.deleteFile("value1");
+        // 10 of the released buffers are cached
+        assertThat(dir.allocatedSize().bytes(), equalTo(30l));
+        dir.close();
+        assertThat(dir.allocatedSize().bytes(), equalTo(0l));
+    }
+
     private void insertData(MemoryDirectory dir) throws IOException {
         byte[] test = new byte[]{1, 2, 3, 4, 5, 6, 7, 8};
         IndexOutput indexOutput = dir.createOutput("value1");
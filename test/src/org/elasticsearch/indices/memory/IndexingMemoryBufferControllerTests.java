@@ -0,0 +1,176 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices.memory;
+
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.util.SizeUnit;
+import org.elasticsearch.util.SizeValue;
+import org.elasticsearch.util.settings.Settings;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static com.google.common.collect.Lists.*;
+import static org.elasticsearch.util.settings.ImmutableSettings.*;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author kimchy (Shay Banon)
+ */
+public class IndexingMemoryBufferControllerTests {
+
+    private static final long MINUTE = 60 * 1000;
+
+    private IndexingMemoryBufferController controller() {
+        Settings settings = settingsBuilder()
+                .put("indices.memory.indexBufferSize", "100m")
+                .put("indices.memory.minShardIndexBufferSize", "10m")
+                .put("indices.memory.maxShardIndexBufferSize", "60m")
+                .put("indices.memory.inactiveShardIndexBufferSize", "500k")
+                .put("indices.memory.inactiveTime", "1m")
+                .build();
+        return new IndexingMemoryBufferController(settings, null, null);
+    }
+
+    @Test public void testBudgetDividedBetweenActiveShards() {
+        IndexingMemoryBufferController controller = controller();
+        MockShard shard1 = new MockShard(1);
+        MockShard shard2 = new MockShard(2);
+
+        assertThat(controller.checkShards(newArrayList(shard1, shard2), 0), equalTo(mb(50)));
+        assertThat(shard1.indexingBufferSize, equalTo(mb(50)));
+        assertThat(shard2.indexingBufferSize, equalTo(mb(50)));
+
+        // nothing changed, nothing to update
+        shard1.index();
+        assertThat(controller.checkShards(newArrayList(shard1, shard2), 10), nullValue());
+
+        // a new shard takes its share
+        MockShard shard3 = new MockShard(3);
+        SizeValue third = new SizeValue(mb(100).bytes() / 3, SizeUnit.BYTES);
+        assertThat(controller.checkShards(newArrayList(shard1, shard2, shard3), 20), equalTo(third));
+        assertThat(shard1.indexingBufferSize, equalTo(third));
+
+        // a removed shard leaves its share to the others
+        assertThat(controller.checkShards(newArrayList(shard1, shard3), 30), equalTo(mb(50)));
+        assertThat(shard3.indexingBufferSize, equalTo(mb(50)));
+    }
+
+    @Test public void testShardBufferBounds() {
+        IndexingMemoryBufferController controller = controller();
+        assertThat(controller.calcShardIndexingBufferSize(1), equalTo(mb(60)));
+        assertThat(controller.calcShardIndexingBufferSize(4), equalTo(new SizeValue(mb(100).bytes() / 4, SizeUnit.BYTES)));
+        assertThat(controller.calcShardIndexingBufferSize(20), equalTo(mb(10)));
+    }
+
+    @Test public void testInactiveShardFlushedAndActivatedAgain() {
+        IndexingMemoryBufferController controller = controller();
+        MockShard shard1 = new MockShard(1);
+        MockShard shard2 = new MockShard(2);
+        List<MockShard> shards = newArrayList(shard1, shard2);
+
+        controller.checkShards(shards, 0);
+
+        // shard1 keeps indexing, shard2 does not, but is not inactive for long enough
+        shard1.index();
+        assertThat(controller.checkShards(shards, MINUTE / 2), nullValue());
+        assertThat(shard2.flushes, equalTo(0));
+
+        // shard2 becomes inactive, it is flushed and shrunk, and shard1 gets the budget (up to the max)
+        shard1.index();
+        assertThat(controller.checkShards(shards, 2 * MINUTE), equalTo(mb(60)));
+        assertThat(shard2.indexingBufferSize, equalTo(new SizeValue(500 * 1024, SizeUnit.BYTES)));
+        assertThat(shard2.flushes, equalTo(1));
+        assertThat(shard1.indexingBufferSize, equalTo(mb(60)));
+        assertThat(shard1.flushes, equalTo(0));
+
+        // the flush of the inactive shard does not count as activity
+        shard1.index();
+        assertThat(controller.checkShards(shards, 3 * MINUTE), nullValue());
+        assertThat(shard2.flushes, equalTo(1));
+
+        // shard2 indexes again, and is back to its share of the budget
+        shard1.index();
+        shard2.index();
+        assertThat(controller.checkShards(shards, 4 * MINUTE), equalTo(mb(50)));
+        assertThat(shard1.indexingBufferSize, equalTo(mb(50)));
+        assertThat(shard2.indexingBufferSize, equalTo(mb(50)));
+    }
+
+    @Test public void testAllShardsInactive() {
+        IndexingMemoryBufferController controller = controller();
+        MockShard shard1 = new MockShard(1);
+        List<MockShard> shards = newArrayList(shard1);
+
+        controller.checkShards(shards, 0);
+        assertThat(controller.checkShards(shards, 2 * MINUTE), nullValue());
+        assertThat(shard1.indexingBufferSize, equalTo(new SizeValue(500 * 1024, SizeUnit.BYTES)));
+        assertThat(shard1.flushes, equalTo(1));
+    }
+
+    private static SizeValue mb(long mb) {
+        return new SizeValue(mb * 1024 * 1024, SizeUnit.BYTES);
+    }
+
+    private static class MockShard implements IndexingMemoryBufferController.IndexingShard {
+
+        private final ShardId shardId;
+
+        long translogId = 1;
+
+        int translogNumberOfOperations = 0;
+
+        SizeValue indexingBufferSize;
+
+        int flushes;
+
+        MockShard(int id) {
+            this.shardId = new ShardId(new Index("test"), id);
+        }
+
+        void index() {
+            translogNumberOfOperations++;
+        }
+
+        @Override public ShardId shardId() {
+            return shardId;
+        }
+
+        @Override public long translogId() {
+            return translogId;
+        }
+
+        @Override public int translogNumberOfOperations() {
+            return translogNumberOfOperations;
+        }
+
+        @Override public void updateIndexingBufferSize(SizeValue indexingBufferSize) {
+            this.indexingBufferSize = indexingBufferSize;
+        }
+
+        @Override public void flush() {
+            flushes++;
+            translogId++;
+            translogNumberOfOperations = 0;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.benchmark;
+
+import org.apache.lucene.search.ScoreDoc;
+import org.elasticsearch.index.benchmark.BenchmarkDocuments;
+import org.elasticsearch.index.benchmark.BenchmarkOperation;
+import org.elasticsearch.index.query.json.JsonQueryBuilder;
+import org.elasticsearch.index.search.stats.SearchStats;
+import org.elasticsearch.index.search.stats.ShardSearchStats;
+import org.elasticsearch.indices.IndicesService;
+import org.elasticsearch.search.SearchService;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.builder.SearchSourceFacetsBuilder;
+import org.elasticsearch.search.fetch.FetchSearchRequest;
+import org.elasticsearch.search.internal.InternalSearchRequest;
+import org.elasticsearch.search.query.QuerySearchResult;
+import org.elasticsearch.server.Server;
+import org.elasticsearch.server.internal.InternalServer;
+import org.elasticsearch.util.TimeValue;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.elasticsearch.client.Requests.*;
+import static org.elasticsearch.index.query.json.JsonQueryBuilders.*;
+import static org.elasticsearch.search.builder.SearchSourceBuilder.*;
+import static org.elasticsearch.server.ServerBuilder.*;
+import static org.elasticsearch.util.settings.ImmutableSettings.*;
+
+/**
+ * Benchmarks the shard level search phases. A single shard index is built from {@link BenchmarkDocuments}
+ * on an in JVM server, and each scenario executes its query phase (facets and sorting included) and then
+ * fetches the top hits directly through the {@link SearchService}, bypassing the transport and the
+ * coordinating node. Along with the throughput of the scenario, the time of each phase is taken from the
+ * shard search stats.
+ *
+ * @author kimchy (Shay Banon)
+ */
+public class SearchBenchmark {
+
+    private static final int NUMBER_OF_DOCS = 50000;
+
+    private static final int WARMUP_ITERATIONS = 500;
+
+    private static final int ITERATIONS = 2000;
+
+    public static void main(String[] args) throws Exception {
+        Server server = serverBuilder().settings(settingsBuilder()
+                .put("transport.type", "local")
+                .put("discovery.type", "local")
+                .put("gateway.type", "none")
+                .putBoolean("http.enabled", false)
+                .putInt("index.numberOfShards", 1)
+                .putInt("index.numberOfReplicas", 0)).build().start();
+
+        server.client().admin().indices().create(createIndexRequest("benchmark")).actionGet();
+        server.client().admin().indices().createMapping(createMappingRequest("benchmark").mappingType(BenchmarkDocuments.TYPE).mappingSource(BenchmarkDocuments.mapping())).actionGet();
+        BenchmarkDocuments documents = new BenchmarkDocuments(1);
+        for (int i = 0; i < NUMBER_OF_DOCS; i++) {
+            server.client().index(indexRequest("benchmark").type(BenchmarkDocuments.TYPE).id(Integer.toString(i)).source(documents.next())).actionGet();
+        }
+        server.client().admin().indices().refresh(refreshRequest()).actionGet();
+        System.out.println("Indexed [" + NUMBER_OF_DOCS + "] docs");
+
+        SearchService searchService = ((InternalServer) server).injector().getInstance(SearchService.class);
+        ShardSearchStats searchStats = ((InternalServer) server).injector().getInstance(IndicesService.class)
+                .indexServiceSafe("benchmark").shardInjectorSafe(0).getInstance(ShardSearchStats.class);
+
+        run("query", searchService, searchStats, searchSource().query(query()));
+        run("query, from 1000", searchService, searchStats, searchSource().query(query()).from(1000));
+        run("query, sort int", searchService, searchStats, searchSource().query(query()).sort("retweets", true));
+        run("query, sort string", searchService, searchStats, searchSource().query(query()).sort("user"));
+        run("query, sort int, from 1000", searchService, searchStats, searchSource().query(query()).sort("retweets", true).from(1000));
+        run("facets collect", searchService, searchStats, searchSource().query(query()).facets(facets("collect")));
+        run("facets idset", searchService, searchStats, searchSource().query(query()).facets(facets("idset")));
+        run("facets collect, match all", searchService, searchStats, searchSource().query(matchAllQuery()).facets(facets("collect")));
+        run("facets idset, match all", searchService, searchStats, searchSource().query(matchAllQuery()).facets(facets("idset")));
+        run("fetch 100", searchService, searchStats, searchSource().query(query()).size(100));
+
+        server.close();
+    }
+
+    private static JsonQueryBuilder query() {
+        return boolQuery()
+                .should(termQuery("tags", "java"))
+                .should(termQuery("tags", "search"))
+                .should(termQuery("location.country", "us"));
+    }
+
+    private static SearchSourceFacetsBuilder facets(String queryExecution) {
+        return SearchSourceBuilder.facets().queryExecution(queryExecution)
+                .facet("java", termQuery("tags", "java"))
+                .facet("lucene", termQuery("tags", "lucene"))
+                .facet("uk", termQuery("location.country", "uk"))
+                .facet("popular", rangeQuery("retweets").from(900));
+    }
+
+    private static void run(String name, final SearchService searchService, ShardSearchStats searchStats, SearchSourceBuilder source) throws Exception {
+        final String sourceJson = source.build();
+        SearchStats before = searchStats.stats();
+        new BenchmarkOperation(name) {
+            @Override protected void execute(int i) {
+                QuerySearchResult queryResult = searchService.executeQueryPhase(new InternalSearchRequest("benchmark", 0, sourceJson));
+                ScoreDoc[] scoreDocs = queryResult.topDocs().scoreDocs;
+                int from = Math.min(queryResult.from(), scoreDocs.length);
+                int[] docIds = new int[scoreDocs.length - from];
+                for (int j = from; j < scoreDocs.length; j++) {
+                    docIds[j - from] = scoreDocs[j].doc;
+                }
+                searchService.executeFetchPhase(new FetchSearchRequest(queryResult.id(), docIds));
+            }
+        }.run(WARMUP_ITERATIONS, ITERATIONS);
+        SearchStats after = searchStats.stats();
+        System.out.println("    query phase avg [" + average(before.query(), after.query()) + "], fetch phase avg [" + average(before.fetch(), after.fetch()) + "]");
+    }
+
+    private static TimeValue average(SearchStats.PhaseStats before, SearchStats.PhaseStats after) {
+        long count = after.total() - before.total();
+        if (count == 0) {
+            return new TimeValue(0);
+        }
+        return new TimeValue((after.totalTime().millis() - before.totalTime().millis()) * 1000 / count, TimeUnit.MICROSECONDS);
+    }
+}
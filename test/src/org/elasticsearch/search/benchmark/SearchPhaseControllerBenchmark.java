@@ -0,0 +1,119 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.benchmark;
+
+import org.apache.lucene.search.*;
+import org.elasticsearch.index.benchmark.BenchmarkOperation;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.SearchHitField;
+import org.elasticsearch.search.SearchShardTarget;
+import org.elasticsearch.search.controller.SearchPhaseController;
+import org.elasticsearch.search.controller.ShardDoc;
+import org.elasticsearch.search.fetch.FetchSearchResult;
+import org.elasticsearch.search.internal.InternalSearchHit;
+import org.elasticsearch.search.internal.InternalSearchHits;
+import org.elasticsearch.search.query.QuerySearchResult;
+import org.elasticsearch.util.trove.ExtTIntArrayList;
+
+import java.util.*;
+
+/**
+ * Benchmarks the coordinating node side of a search: sorting the top docs of many shards with
+ * {@link SearchPhaseController#sortDocs(java.util.Collection)} and merging the fetched hits with
+ * {@link SearchPhaseController#merge(ShardDoc[], java.util.Map, java.util.Map)}, for score and field
+ * sorted results, shallow and deep <tt>from</tt>, and an increasing number of shards. The shard results
+ * are synthetic, so this measures the controller alone.
+ *
+ * @author kimchy (Shay Banon)
+ */
+public class SearchPhaseControllerBenchmark {
+
+    private static final int SIZE = 10;
+
+    private static final int WARMUP_ITERATIONS = 2000;
+
+    private static final int ITERATIONS = 10000;
+
+    public static void main(String[] args) throws Exception {
+        final SearchPhaseController controller = new SearchPhaseController();
+        for (boolean sorted : new boolean[]{false, true}) {
+            for (int from : new int[]{0, 1000}) {
+                for (int numberOfShards : new int[]{5, 20, 100}) {
+                    Random random = new Random(numberOfShards);
+                    final Map<SearchShardTarget, QuerySearchResult> queryResults = new LinkedHashMap<SearchShardTarget, QuerySearchResult>();
+                    for (int shard = 0; shard < numberOfShards; shard++) {
+                        SearchShardTarget shardTarget = new SearchShardTarget("node" + (shard % 5), "index", shard);
+                        QuerySearchResult queryResult = new QuerySearchResult(shard, shardTarget);
+                        queryResult.from(from).size(SIZE);
+                        queryResult.topDocs(sorted ? fieldTopDocs(random, from + SIZE) : scoreTopDocs(random, from + SIZE));
+                        queryResults.put(shardTarget, queryResult);
+                    }
+
+                    // the fetched hits depend only on the sorted docs, build them once
+                    ShardDoc[] sortedDocs = controller.sortDocs(queryResults.values());
+                    final Map<SearchShardTarget, FetchSearchResult> fetchResults = new HashMap<SearchShardTarget, FetchSearchResult>();
+                    for (Map.Entry<SearchShardTarget, ExtTIntArrayList> entry : controller.docIdsToLoad(sortedDocs).entrySet()) {
+                        FetchSearchResult fetchResult = new FetchSearchResult(0, entry.getKey());
+                        SearchHit[] hits = new SearchHit[entry.getValue().size()];
+                        for (int i = 0; i < hits.length; i++) {
+                            hits[i] = new InternalSearchHit(Integer.toString(entry.getValue().get(i)), "type", "{}", new HashMap<String, SearchHitField>());
+                        }
+                        fetchResult.hits(new InternalSearchHits(hits, hits.length));
+                        fetchResults.put(entry.getKey(), fetchResult);
+                    }
+
+                    String name = (sorted ? "field sort" : "score sort") + ", from [" + from + "], shards [" + numberOfShards + "]";
+                    new BenchmarkOperation(name) {
+                        @Override protected void execute(int i) {
+                            ShardDoc[] sortedDocs = controller.sortDocs(queryResults.values());
+                            controller.merge(sortedDocs, queryResults, fetchResults);
+                        }
+                    }.run(WARMUP_ITERATIONS, ITERATIONS);
+                }
+            }
+        }
+    }
+
+    private static TopDocs scoreTopDocs(Random random, int size) {
+        float[] scores = new float[size];
+        for (int i = 0; i < size; i++) {
+            scores[i] = random.nextFloat();
+        }
+        Arrays.sort(scores);
+        ScoreDoc[] scoreDocs = new ScoreDoc[size];
+        for (int i = 0; i < size; i++) {
+            scoreDocs[i] = new ScoreDoc(i, scores[size - 1 - i]);
+        }
+        return new TopDocs(size * 10, scoreDocs, scoreDocs[0].score);
+    }
+
+    private static TopDocs fieldTopDocs(Random random, int size) {
+        int[] values = new int[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = random.nextInt(100000);
+        }
+        Arrays.sort(values);
+        FieldDoc[] fieldDocs = new FieldDoc[size];
+        for (int i = 0; i < size; i++) {
+            fieldDocs[i] = new FieldDoc(i, Float.NaN, new Comparable[]{values[i]});
+        }
+        return new TopFieldDocs(size * 10, fieldDocs, new SortField[]{new SortField("value", SortField.INT)}, Float.NaN);
+    }
+}
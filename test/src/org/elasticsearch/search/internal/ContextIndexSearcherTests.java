@@ -0,0 +1,143 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.internal;
+
+import org.apache.lucene.document.Field;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.LogDocMergePolicy;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.*;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+import org.elasticsearch.ElasticSearchException;
+import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.search.SearchShardTarget;
+import org.elasticsearch.util.lucene.Lucene;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.elasticsearch.util.lucene.DocumentBuilder.*;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author kimchy (Shay Banon)
+ */
+public class ContextIndexSearcherTests {
+
+    private Directory dir;
+
+    private IndexReader reader;
+
+    private ExecutorService executor;
+
+    @BeforeClass public void createIndex() throws Exception {
+        dir = new RAMDirectory();
+        IndexWriter writer = new IndexWriter(dir, Lucene.STANDARD_ANALYZER, true, IndexWriter.MaxFieldLength.UNLIMITED);
+        LogDocMergePolicy mergePolicy = new LogDocMergePolicy(writer);
+        mergePolicy.setMergeFactor(1000);
+        writer.setMergePolicy(mergePolicy);
+        writer.setMaxBufferedDocs(7);
+        for (int i = 0; i < 100; i++) {
+            StringBuilder content = new StringBuilder();
+            for (int j = 0; j <= i % 5; j++) {
+                content.append("foo ");
+            }
+            content.append(i % 2 == 0 ? "bar" : "baz");
+            writer.addDocument(doc()
+                    .add(field("content", content.toString()))
+                    .add(field("sort", Integer.toString(i % 7), Field.Store.YES, Field.Index.NOT_ANALYZED))
+                    .build());
+        }
+        writer.close();
+        reader = IndexReader.open(dir, true);
+        assertThat(reader.getSequentialSubReaders().length, greaterThan(10));
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterClass public void closeIndex() throws Exception {
+        executor.shutdownNow();
+        reader.close();
+        dir.close();
+    }
+
+    @Test public void testParallelTopDocs() throws Exception {
+        Query query = new TermQuery(new Term("content", "bar"));
+        for (int n : new int[]{1, 5, 10, 49, 50, 51, 100, 1000}) {
+            TopDocs serial = createContext(1).searcher().search(query, n);
+            TopDocs parallel = createContext(3).searcher().search(query, n);
+            assertThat(parallel.totalHits, equalTo(50));
+            assertSameTopDocs(serial, parallel);
+            assertThat(parallel.getMaxScore(), equalTo(serial.getMaxScore()));
+        }
+    }
+
+    @Test public void testParallelTopFieldDocs() throws Exception {
+        Query query = new TermQuery(new Term("content", "foo"));
+        Sort sort = new Sort(new SortField("sort", SortField.STRING, true));
+        for (int n : new int[]{1, 5, 10, 99, 100, 1000}) {
+            TopFieldDocs serial = createContext(1).searcher().search(query, null, n, sort);
+            TopFieldDocs parallel = createContext(4).searcher().search(query, null, n, sort);
+            assertThat(parallel.totalHits, equalTo(100));
+            assertSameTopDocs(serial, parallel);
+        }
+    }
+
+    @Test public void testMoreParallelismThanSegments() throws Exception {
+        Query query = new TermQuery(new Term("content", "baz"));
+        TopDocs serial = createContext(1).searcher().search(query, 20);
+        TopDocs parallel = createContext(1000).searcher().search(query, 20);
+        assertSameTopDocs(serial, parallel);
+    }
+
+    private void assertSameTopDocs(TopDocs serial, TopDocs parallel) {
+        assertThat(parallel.totalHits, equalTo(serial.totalHits));
+        assertThat(parallel.scoreDocs.length, equalTo(serial.scoreDocs.length));
+        for (int i = 0; i < serial.scoreDocs.length; i++) {
+            assertThat(parallel.scoreDocs[i].doc, equalTo(serial.scoreDocs[i].doc));
+        }
+    }
+
+    private SearchContext createContext(int parallelism) {
+        Engine.Searcher engineSearcher = new Engine.Searcher() {
+            @Override public IndexReader reader() {
+                return reader;
+            }
+
+            @Override public IndexSearcher searcher() {
+                return new IndexSearcher(reader);
+            }
+
+            @Override public boolean release() throws ElasticSearchException {
+                return true;
+            }
+        };
+        SearchContext context = new SearchContext(1, new SearchShardTarget("node", "index", 0), null, 1.0f, null,
+                new String[0], engineSearcher, null, null);
+        context.parallelism(parallelism);
+        context.parallelExecutor(executor);
+        return context;
+    }
+}
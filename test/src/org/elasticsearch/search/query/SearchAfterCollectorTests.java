@@ -0,0 +1,154 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.query;
+
+import org.apache.lucene.document.Field;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.search.*;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+import org.elasticsearch.util.lucene.Lucene;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.elasticsearch.util.lucene.DocumentBuilder.*;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author kimchy (Shay Banon)
+ */
+public class SearchAfterCollectorTests {
+
+    @Test public void testPagingWithSearchAfter() throws Exception {
+        IndexSearcher searcher = createSearcher();
+        pageThroughAll(searcher, new Sort(new SortField("group", SortField.INT), new SortField("id", SortField.STRING)));
+        pageThroughAll(searcher, new Sort(new SortField("group", SortField.INT, true), new SortField("id", SortField.STRING, true)));
+        pageThroughAll(searcher, new Sort(new SortField("value", SortField.DOUBLE), new SortField("id", SortField.STRING_VAL)));
+        searcher.close();
+    }
+
+    @Test public void testEqualSortValuesAreNotAfter() throws Exception {
+        IndexSearcher searcher = createSearcher();
+        Sort sort = new Sort(new SortField("group", SortField.INT));
+        TopFieldCollector topDocsCollector = TopFieldCollector.create(sort, 100, true, false, false, true);
+        SearchAfterCollector collector = new SearchAfterCollector(topDocsCollector, sort.getSort(), new Object[]{3l});
+        searcher.search(new MatchAllDocsQuery(), collector);
+        TopDocs topDocs = topDocsCollector.topDocs();
+        // groups 4 to 9, 5 docs each
+        assertThat(topDocs.scoreDocs.length, equalTo(30));
+        assertThat((Integer) ((FieldDoc) topDocs.scoreDocs[0]).fields[0], equalTo(4));
+        assertThat(collector.totalHits(), equalTo(50));
+        searcher.close();
+    }
+
+    @Test public void testPagingThroughEqualScores() throws Exception {
+        IndexSearcher searcher = createSearcher();
+        // all the docs have the same score, only the shard key and doc id tie breaker orders them
+        List<Integer> paged = new ArrayList<Integer>();
+        Object[] searchAfter = null;
+        while (true) {
+            TopScoreDocCollector topDocsCollector = TopScoreDocCollector.create(7, true);
+            Collector collector = topDocsCollector;
+            if (searchAfter != null) {
+                collector = new SearchAfterCollector(topDocsCollector, null, searchAfter, "index/0");
+            }
+            searcher.search(new MatchAllDocsQuery(), collector);
+            TopDocs page = topDocsCollector.topDocs();
+            if (page.scoreDocs.length == 0) {
+                break;
+            }
+            for (ScoreDoc scoreDoc : page.scoreDocs) {
+                paged.add(scoreDoc.doc);
+            }
+            ScoreDoc last = page.scoreDocs[page.scoreDocs.length - 1];
+            searchAfter = new Object[]{last.score, "index/0", last.doc};
+        }
+
+        assertThat(paged.size(), equalTo(50));
+        for (int i = 0; i < 50; i++) {
+            assertThat(paged.get(i), equalTo(i));
+        }
+        searcher.close();
+    }
+
+    @Test public void testTieBreakOnShardKey() throws Exception {
+        IndexSearcher searcher = createSearcher();
+        Sort sort = new Sort(new SortField("group", SortField.INT));
+        // the last hit was on a shard sorting before this one, so all the docs of group 3 come after it
+        TopFieldCollector topDocsCollector = TopFieldCollector.create(sort, 100, true, false, false, true);
+        searcher.search(new MatchAllDocsQuery(), new SearchAfterCollector(topDocsCollector, sort.getSort(), new Object[]{3l, "index/0", 100}, "index/1"));
+        assertThat(topDocsCollector.topDocs().scoreDocs.length, equalTo(35));
+
+        // the last hit was on a shard sorting after this one, so none of the docs of group 3 come after it
+        topDocsCollector = TopFieldCollector.create(sort, 100, true, false, false, true);
+        searcher.search(new MatchAllDocsQuery(), new SearchAfterCollector(topDocsCollector, sort.getSort(), new Object[]{3l, "index/2", 0}, "index/1"));
+        assertThat(topDocsCollector.topDocs().scoreDocs.length, equalTo(30));
+        searcher.close();
+    }
+
+    private void pageThroughAll(IndexSearcher searcher, Sort sort) throws Exception {
+        TopDocs all = searcher.search(new MatchAllDocsQuery(), null, 100, sort);
+        assertThat(all.scoreDocs.length, equalTo(50));
+
+        List<Integer> paged = new ArrayList<Integer>();
+        Object[] searchAfter = null;
+        while (true) {
+            TopFieldCollector topDocsCollector = TopFieldCollector.create(sort, 7, true, false, false, true);
+            Collector collector = topDocsCollector;
+            if (searchAfter != null) {
+                collector = new SearchAfterCollector(topDocsCollector, sort.getSort(), searchAfter);
+            }
+            searcher.search(new MatchAllDocsQuery(), collector);
+            TopDocs page = topDocsCollector.topDocs();
+            if (page.scoreDocs.length == 0) {
+                break;
+            }
+            for (ScoreDoc scoreDoc : page.scoreDocs) {
+                paged.add(scoreDoc.doc);
+            }
+            searchAfter = ((FieldDoc) page.scoreDocs[page.scoreDocs.length - 1]).fields;
+        }
+
+        assertThat(paged.size(), equalTo(50));
+        for (int i = 0; i < all.scoreDocs.length; i++) {
+            assertThat(paged.get(i), equalTo(all.scoreDocs[i].doc));
+        }
+    }
+
+    private IndexSearcher createSearcher() throws Exception {
+        Directory dir = new RAMDirectory();
+        IndexWriter writer = new IndexWriter(dir, Lucene.STANDARD_ANALYZER, true, IndexWriter.MaxFieldLength.UNLIMITED);
+        writer.setMaxBufferedDocs(8);
+        for (int i = 0; i < 50; i++) {
+            // shuffle the ids a bit so the sort order is not the doc id order
+            int id = (i * 17) % 50;
+            writer.addDocument(doc()
+                    .add(field("id", id < 10 ? "0" + id : Integer.toString(id), Field.Store.YES, Field.Index.NOT_ANALYZED))
+                    .add(field("group", Integer.toString(id % 10), Field.Store.YES, Field.Index.NOT_ANALYZED))
+                    .add(field("value", Double.toString((id % 3) / 2.0), Field.Store.YES, Field.Index.NOT_ANALYZED))
+                    .build());
+        }
+        writer.close();
+        return new IndexSearcher(dir, true);
+    }
+}
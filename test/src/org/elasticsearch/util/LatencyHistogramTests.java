@@ -0,0 +1,59 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.util;
+
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author kimchy (Shay Banon)
+ */
+public class LatencyHistogramTests {
+
+    @Test public void testBucket() {
+        assertThat(LatencyHistogram.bucket(0), equalTo(0));
+        assertThat(LatencyHistogram.bucket(1), equalTo(0));
+        assertThat(LatencyHistogram.bucket(2), equalTo(1));
+        assertThat(LatencyHistogram.bucket(10), equalTo(2));
+        assertThat(LatencyHistogram.bucket(11), equalTo(3));
+        assertThat(LatencyHistogram.bucket(100), equalTo(4));
+        assertThat(LatencyHistogram.bucket(5000), equalTo(7));
+        assertThat(LatencyHistogram.bucket(5001), equalTo(8));
+    }
+
+    @Test public void testRecord() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(TimeUnit.MICROSECONDS.toNanos(200));
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(1));
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(20));
+        histogram.record(TimeUnit.SECONDS.toNanos(10));
+
+        long[] counts = new long[LatencyHistogram.BUCKETS];
+        histogram.copyTo(counts);
+        assertThat(counts[0], equalTo(2l));
+        assertThat(counts[1], equalTo(0l));
+        assertThat(counts[3], equalTo(1l));
+        assertThat(counts[LatencyHistogram.BUCKETS - 1], equalTo(1l));
+    }
+}
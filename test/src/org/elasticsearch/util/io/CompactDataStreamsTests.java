@@ -0,0 +1,72 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.util.io;
+
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author kimchy (Shay Banon)
+ */
+public class CompactDataStreamsTests {
+
+    @Test public void testVInts() throws Exception {
+        int[] values = new int[]{0, 1, 127, 128, 16383, 16384, Integer.MAX_VALUE, -1, Integer.MIN_VALUE};
+
+        ByteArrayDataOutputStream bytes = new ByteArrayDataOutputStream();
+        CompactDataOutput out = new CompactDataOutput(bytes);
+        for (int value : values) {
+            out.writeInt(value);
+        }
+        assertThat(bytes.size(), equalTo(1 + 1 + 1 + 2 + 2 + 3 + 5 + 5 + 5));
+
+        CompactDataInput in = new CompactDataInput(new ByteArrayDataInputStream(bytes.copiedByteArray()));
+        for (int value : values) {
+            assertThat(in.readInt(), equalTo(value));
+        }
+    }
+
+    @Test public void testStringTable() throws Exception {
+        ByteArrayDataOutputStream bytes = new ByteArrayDataOutputStream();
+        CompactDataOutput out = new CompactDataOutput(bytes);
+        out.writeUTF("node1");
+        out.writeUTF("node2");
+        out.writeLong(1);
+        out.writeUTF("node1");
+        out.writeBoolean(true);
+        out.writeUTF("node2");
+        out.writeUTF("");
+
+        // each repeated string is written as a single byte reference
+        assertThat(bytes.size(), equalTo((1 + 2 + 5) * 2 + 8 + 1 + 1 + 1 + (1 + 2)));
+
+        CompactDataInput in = new CompactDataInput(new ByteArrayDataInputStream(bytes.copiedByteArray()));
+        String node1 = in.readUTF();
+        assertThat(node1, equalTo("node1"));
+        assertThat(in.readUTF(), equalTo("node2"));
+        assertThat(in.readLong(), equalTo(1l));
+        assertThat(in.readUTF(), sameInstance(node1));
+        assertThat(in.readBoolean(), equalTo(true));
+        assertThat(in.readUTF(), equalTo("node2"));
+        assertThat(in.readUTF(), equalTo(""));
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.util.lucene;
+
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopScoreDocCollector;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+import org.testng.annotations.Test;
+
+import static org.elasticsearch.util.lucene.DocumentBuilder.*;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author kimchy (Shay Banon)
+ */
+public class LuceneTests {
+
+    @Test public void testCountTerminateAfter() throws Exception {
+        Directory dir = new RAMDirectory();
+        IndexWriter writer = new IndexWriter(dir, Lucene.STANDARD_ANALYZER, true, IndexWriter.MaxFieldLength.UNLIMITED);
+        for (int i = 0; i < 20; i++) {
+            writer.addDocument(doc().add(field("content", i % 2 == 0 ? "even" : "odd")).build());
+        }
+        writer.close();
+
+        IndexSearcher searcher = new IndexSearcher(dir, true);
+        assertThat(Lucene.count(searcher, new TermQuery(new Term("content", "even")), -1), equalTo(10l));
+        assertThat(Lucene.count(searcher, new TermQuery(new Term("content", "even")), -1, 3), equalTo(3l));
+        assertThat(Lucene.count(searcher, new TermQuery(new Term("content", "even")), -1, 100), equalTo(10l));
+        assertThat(Lucene.count(searcher, new TermQuery(new Term("content", "none")), -1, 1), equalTo(0l));
+        searcher.close();
+    }
+
+    @Test public void testEarlyTerminatingCollector() throws Exception {
+        Directory dir = new RAMDirectory();
+        IndexWriter writer = new IndexWriter(dir, Lucene.STANDARD_ANALYZER, true, IndexWriter.MaxFieldLength.UNLIMITED);
+        for (int i = 0; i < 20; i++) {
+            writer.addDocument(doc().add(field("content", "value")).build());
+        }
+        writer.close();
+
+        IndexSearcher searcher = new IndexSearcher(dir, true);
+        TopScoreDocCollector topDocsCollector = TopScoreDocCollector.create(5, true);
+        Lucene.EarlyTerminatingCollector collector = new Lucene.EarlyTerminatingCollector(topDocsCollector, 7);
+        try {
+            searcher.search(new MatchAllDocsQuery(), collector);
+            assertThat("Should have thrown EarlyTerminationException", false, equalTo(true));
+        } catch (Lucene.EarlyTerminationException e) {
+            // all is well
+        }
+        assertThat(collector.count(), equalTo(7));
+        TopDocs topDocs = topDocsCollector.topDocs();
+        assertThat(topDocs.totalHits, equalTo(7));
+        assertThat(topDocs.scoreDocs.length, equalTo(5));
+        searcher.close();
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to Elastic Search and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. Elastic Search licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.util.lucene.search;
+
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.search.*;
+import org.apache.lucene.store.RAMDirectory;
+import org.elasticsearch.index.mapper.json.JsonLongFieldMapper;
+import org.elasticsearch.index.mapper.json.JsonMapper;
+import org.elasticsearch.index.mapper.json.JsonPath;
+import org.elasticsearch.util.lucene.Lucene;
+import org.testng.annotations.Test;
+
+import static org.elasticsearch.index.mapper.json.JsonMapperBuilders.*;
+import static org.elasticsearch.util.lucene.DocumentBuilder.*;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author kimchy (Shay Banon)
+ */
+public class AutoRangeFilterTests {
+
+    @Test public void testSameResultsForBothExecutions() throws Exception {
+        RAMDirectory dir = new RAMDirectory();
+        IndexWriter indexWriter = new IndexWriter(dir, Lucene.STANDARD_ANALYZER, true, IndexWriter.MaxFieldLength.UNLIMITED);
+        for (int i = 0; i < 100; i++) {
+            indexWriter.addDocument(doc().add(new NumericField("value", Field.Store.NO, true).setLongValue(i)).build());
+            if (i % 30 == 0) {
+                indexWriter.commit();
+            }
+        }
+        IndexSearcher searcher = new IndexSearcher(indexWriter.getReader());
+
+        // a narrow range uses the terms, a wide one the field data, both should match the same docs
+        assertThat(count(searcher, 10l, 12l), equalTo(3l));
+        assertThat(count(searcher, 5l, 94l), equalTo(90l));
+        assertThat(count(searcher, null, 49l), equalTo(50l));
+
+        searcher.close();
+        indexWriter.close();
+    }
+
+    @Test public void testFieldDataExcludesDocsWithoutValue() throws Exception {
+        RAMDirectory dir = new RAMDirectory();
+        IndexWriter indexWriter = new IndexWriter(dir, Lucene.STANDARD_ANALYZER, true, IndexWriter.MaxFieldLength.UNLIMITED);
+        for (int i = 0; i < 100; i++) {
+            if (i % 2 == 0) {
+                indexWriter.addDocument(doc().add(new NumericField("value", Field.Store.NO, true).setLongValue(i / 2)).build());
+            } else {
+                // field data holds 0 for these docs
+                indexWriter.addDocument(doc().add(field("other", "text")).build());
+            }
+        }
+        IndexSearcher searcher = new IndexSearcher(indexWriter.getReader());
+
+        JsonLongFieldMapper mapper = longField("value").build(new JsonMapper.BuilderContext(new JsonPath()));
+        assertThat(Lucene.count(searcher, new ConstantScoreQuery(mapper.fieldDataRangeFilter("-10", "10", true, true)), -1), equalTo(11l));
+        assertThat(Lucene.count(searcher, new ConstantScoreQuery(mapper.fieldDataRangeFilter("0", null, true, true)), -1), equalTo(50l));
+        assertThat(Lucene.count(searcher, new ConstantScoreQuery(mapper.fieldDataRangeFilter("0", "10", false, true)), -1), equalTo(10l));
+
+        // auto execution matches the same docs whether a segment uses the terms or the field data
+        for (String[] range : new String[][]{{"-1", "1"}, {"-100", "100"}}) {
+            AutoRangeFilter filter = new AutoRangeFilter((MultiTermQuery) mapper.rangeQuery(range[0], range[1], true, true),
+                    mapper.rangeFilter(range[0], range[1], true, true), mapper.fieldDataRangeFilter(range[0], range[1], true, true), 0.25f);
+            assertThat(Lucene.count(searcher, new ConstantScoreQuery(filter), -1),
+                    equalTo(Lucene.count(searcher, new ConstantScoreQuery(mapper.rangeFilter(range[0], range[1], true, true)), -1)));
+        }
+
+        searcher.close();
+        indexWriter.close();
+    }
+
+    private long count(IndexSearcher searcher, Long from, Long to) throws Exception {
+        AutoRangeFilter filter = new AutoRangeFilter(NumericRangeQuery.newLongRange("value", from, to, true, true),
+                NumericRangeFilter.newLongRange("value", from, to, true, true),
+                FieldCacheRangeFilter.newLongRange("value", FieldCache.NUMERIC_UTILS_LONG_PARSER, from, to, true, true), 0.25f);
+        return Lucene.count(searcher, new ConstantScoreQuery(filter), -1);
+    }
+}